@@ -0,0 +1,15 @@
+package alien4cloud.dao;
+
+/**
+ * Iterable over data streamed from elastic search. Each iterator holds a scroll that is released once the iterator is read until the end, closing the
+ * iterable releases the scrolls of the iterators that were abandoned before (because of an early exit or a failure of the consumer).
+ *
+ * @param <T> The type of the streamed data.
+ */
+public interface CloseableIterable<T> extends Iterable<T>, AutoCloseable {
+    /**
+     * Release the scrolls of all the iterators that have not been read until the end, these iterators have no more elements once the iterable is closed.
+     */
+    @Override
+    void close();
+}
@@ -4,20 +4,35 @@ import java.io.IOException;
 import java.lang.reflect.Modifier;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
+import lombok.Getter;
+import lombok.Setter;
 import lombok.SneakyThrows;
 
+import org.elasticsearch.ElasticsearchException;
+import org.elasticsearch.ExceptionsHelper;
 import org.elasticsearch.action.bulk.BulkRequestBuilder;
+import org.elasticsearch.action.bulk.BulkResponse;
 import org.elasticsearch.action.deletebyquery.DeleteByQueryRequestBuilder;
 import org.elasticsearch.action.get.GetResponse;
 import org.elasticsearch.action.get.MultiGetItemResponse;
 import org.elasticsearch.action.get.MultiGetResponse;
+import org.elasticsearch.action.index.IndexRequestBuilder;
 import org.elasticsearch.common.collect.Lists;
+import org.elasticsearch.index.engine.DocumentAlreadyExistsException;
+import org.elasticsearch.index.engine.VersionConflictEngineException;
 import org.elasticsearch.index.query.QueryBuilder;
 import org.elasticsearch.mapping.MappingBuilder;
+import org.springframework.beans.factory.annotation.Value;
 
+import alien4cloud.dao.model.VersionedData;
 import alien4cloud.exception.IndexingServiceException;
+import alien4cloud.exception.VersionConflictException;
 
 /**
  * ElasticSearch DAO to manage id based operations.
@@ -25,6 +40,13 @@ import alien4cloud.exception.IndexingServiceException;
  * @author luc boutier
  */
 public abstract class ESGenericIdDAO extends ESIndexMapper implements IGenericIdDAO {
+    /** Policy to apply to refresh indices after write operations. */
+    @Getter
+    @Setter
+    @Value("${elasticSearch.refresh_policy:IMMEDIATE}")
+    private RefreshPolicy refreshPolicy = RefreshPolicy.IMMEDIATE;
+    /** Indices that have been written but not yet refreshed (used by the COALESCED refresh policy). */
+    private final Set<String> dirtyIndices = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
 
     @Override
     @SneakyThrows({ IOException.class })
@@ -33,7 +55,34 @@ public abstract class ESGenericIdDAO extends ESIndexMapper implements IGenericId
         String typeName = MappingBuilder.indexTypeFromClass(data.getClass());
 
         String json = getJsonMapper().writeValueAsString(data);
-        getClient().prepareIndex(indexName, typeName).setOperationThreaded(false).setSource(json).setRefresh(true).execute().actionGet();
+        getClient().prepareIndex(indexName, typeName).setOperationThreaded(false).setSource(json).setRefresh(refreshOnWrite(indexName)).execute()
+                .actionGet();
+    }
+
+    @Override
+    @SneakyThrows({ IOException.class })
+    public <T> long save(T data, long expectedVersion) {
+        String indexName = getIndexForType(data.getClass());
+        String typeName = MappingBuilder.indexTypeFromClass(data.getClass());
+
+        String json = getJsonMapper().writeValueAsString(data);
+        IndexRequestBuilder indexRequestBuilder = getClient().prepareIndex(indexName, typeName).setOperationThreaded(false).setSource(json)
+                .setRefresh(refreshOnWrite(indexName));
+        if (expectedVersion > 0) {
+            indexRequestBuilder.setVersion(expectedVersion);
+        } else {
+            indexRequestBuilder.setCreate(true);
+        }
+        try {
+            return indexRequestBuilder.execute().actionGet().getVersion();
+        } catch (ElasticsearchException e) {
+            Throwable cause = ExceptionsHelper.unwrapCause(e);
+            if (cause instanceof VersionConflictEngineException || cause instanceof DocumentAlreadyExistsException) {
+                throw new VersionConflictException("Document of type <" + typeName + "> has been modified concurrently (expected version <"
+                        + expectedVersion + ">).", e);
+            }
+            throw e;
+        }
     }
 
     @Override
@@ -42,15 +91,20 @@ public abstract class ESGenericIdDAO extends ESIndexMapper implements IGenericId
         if (entities == null || entities.length == 0) {
             return;
         }
-        BulkRequestBuilder bulkRequestBuilder = getClient().prepareBulk().setRefresh(true);
+        BulkRequestBuilder bulkRequestBuilder = getClient().prepareBulk();
+        boolean refresh = false;
         for (T data : entities) {
             String indexName = getIndexForType(data.getClass());
             String typeName = MappingBuilder.indexTypeFromClass(data.getClass());
 
             String json = getJsonMapper().writeValueAsString(data);
             bulkRequestBuilder.add(getClient().prepareIndex(indexName, typeName).setSource(json));
+            refresh = refreshOnWrite(indexName) || refresh;
+        }
+        BulkResponse bulkResponse = bulkRequestBuilder.setRefresh(refresh).execute().actionGet();
+        if (bulkResponse.hasFailures()) {
+            throw new IndexingServiceException("Failed to save entities: " + bulkResponse.buildFailureMessage());
         }
-        bulkRequestBuilder.execute().actionGet();
     }
 
     @SuppressWarnings("unchecked")
@@ -61,7 +115,8 @@ public abstract class ESGenericIdDAO extends ESIndexMapper implements IGenericId
         assertIdNotNullFor(id, "findById");
         String indexName = getIndexForType(clazz);
         String typeName = abstractType ? null : MappingBuilder.indexTypeFromClass(clazz);
-        GetResponse response = getClient().prepareGet(indexName, typeName, id).execute().actionGet();
+        // get is real-time so we always read our own writes, whatever the refresh policy.
+        GetResponse response = getClient().prepareGet(indexName, typeName, id).setRealtime(true).execute().actionGet();
 
         if (response == null || !response.isExists()) {
             ESIndexMapper.getLog().debug("Nothing found in index <{}>, type <{}>, for Id <{}>.", indexName, typeName, id);
@@ -71,10 +126,25 @@ public abstract class ESGenericIdDAO extends ESIndexMapper implements IGenericId
         ESIndexMapper.getLog().debug("Found one in index <{}>, type <{}>, for Id <{}>.", indexName, typeName, id);
 
         if (abstractType) {
-            return (T) getJsonMapper().readValue(response.getSourceAsString(), getTypesToClasses().get(response.getType()));
+            return (T) readSource(response.getSourceAsBytesRef(), getTypesToClasses().get(response.getType()));
         }
 
-        return getJsonMapper().readValue(response.getSourceAsString(), clazz);
+        return readSource(response.getSourceAsBytesRef(), clazz);
+    }
+
+    @Override
+    @SneakyThrows({ IOException.class })
+    public <T> VersionedData<T> findVersionedById(Class<T> clazz, String id) {
+        assertIdNotNullFor(id, "findVersionedById");
+        String indexName = getIndexForType(clazz);
+        String typeName = MappingBuilder.indexTypeFromClass(clazz);
+        GetResponse response = getClient().prepareGet(indexName, typeName, id).setRealtime(true).execute().actionGet();
+
+        if (response == null || !response.isExists()) {
+            ESIndexMapper.getLog().debug("Nothing found in index <{}>, type <{}>, for Id <{}>.", indexName, typeName, id);
+            return null;
+        }
+        return new VersionedData<T>(readSource(response.getSourceAsBytesRef(), clazz), response.getVersion());
     }
 
     @Override
@@ -82,7 +152,7 @@ public abstract class ESGenericIdDAO extends ESIndexMapper implements IGenericId
     public <T> List<T> findByIds(Class<T> clazz, String... ids) {
         String indexName = getIndexForType(clazz);
         String typeName = MappingBuilder.indexTypeFromClass(clazz);
-        MultiGetResponse response = getClient().prepareMultiGet().add(indexName, typeName, ids).execute().actionGet();
+        MultiGetResponse response = getClient().prepareMultiGet().setRealtime(true).add(indexName, typeName, ids).execute().actionGet();
 
         if (response == null || response.getResponses() == null || response.getResponses().length == 0) {
             ESIndexMapper.getLog().debug("Nothing found in index <{}>, type <{}>, for Ids <{}>.", indexName, typeName, Arrays.toString(ids));
@@ -92,7 +162,7 @@ public abstract class ESGenericIdDAO extends ESIndexMapper implements IGenericId
         List<T> result = new ArrayList<>();
         for (MultiGetItemResponse getItemResponse : response.getResponses()) {
             if (getItemResponse.getResponse().isExists()) {
-                result.add(getJsonMapper().readValue(getItemResponse.getResponse().getSourceAsString(), clazz));
+                result.add(readSource(getItemResponse.getResponse().getSourceAsBytesRef(), clazz));
             }
         }
 
@@ -104,7 +174,7 @@ public abstract class ESGenericIdDAO extends ESIndexMapper implements IGenericId
         assertIdNotNullFor(id, "delete");
         String indexName = getIndexForType(clazz);
         String typeName = MappingBuilder.indexTypeFromClass(clazz);
-        getClient().prepareDelete(indexName, typeName, id).setRefresh(true).execute().actionGet();
+        getClient().prepareDelete(indexName, typeName, id).setRefresh(refreshOnWrite(indexName)).execute().actionGet();
     }
 
     @Override
@@ -118,6 +188,80 @@ public abstract class ESGenericIdDAO extends ESIndexMapper implements IGenericId
             deleteRequestBuilder.setQuery(query);
         }
         deleteRequestBuilder.execute().actionGet();
+        // delete by query has no refresh option, the refresh policy is applied once the documents are deleted.
+        if (refreshOnWrite(indexName)) {
+            doRefresh(indexName);
+        }
+    }
+
+    @Override
+    public void refresh(Class<?>... classes) {
+        Set<String> indices = new HashSet<>();
+        for (Class<?> clazz : classes) {
+            indices.add(getIndexForType(clazz));
+        }
+        doRefresh(indices.toArray(new String[indices.size()]));
+    }
+
+    @Override
+    public void refreshPendingWrites(Class<?>... classes) {
+        Set<String> indices = new HashSet<>();
+        for (Class<?> clazz : classes) {
+            indices.add(getIndexForType(clazz));
+        }
+        refreshIfDirty(indices.toArray(new String[indices.size()]));
+    }
+
+    /**
+     * Check if a write operation on the given index must refresh the index synchronously. When the refresh policy is {@link RefreshPolicy#COALESCED} the
+     * index is marked as dirty so it can be refreshed before the next search operation.
+     * 
+     * @param indexName The name of the index on which a write operation is performed.
+     * @return True if the write operation must refresh the index, false if not.
+     */
+    protected boolean refreshOnWrite(String indexName) {
+        switch (refreshPolicy) {
+        case COALESCED:
+            dirtyIndices.add(indexName);
+            return false;
+        case INTERVAL:
+            return false;
+        default:
+            return true;
+        }
+    }
+
+    /**
+     * Refresh the given indices if they have been modified since the last refresh (only relevant for {@link RefreshPolicy#COALESCED} policy).
+     * 
+     * @param indices The indices to refresh if dirty, if null or empty all dirty indices are refreshed.
+     */
+    protected void refreshIfDirty(String... indices) {
+        if (dirtyIndices.isEmpty()) {
+            return;
+        }
+        List<String> toRefresh = new ArrayList<>();
+        if (indices == null || indices.length == 0) {
+            toRefresh.addAll(dirtyIndices);
+        } else {
+            for (String index : indices) {
+                if (dirtyIndices.contains(index)) {
+                    toRefresh.add(index);
+                }
+            }
+        }
+        if (!toRefresh.isEmpty()) {
+            doRefresh(toRefresh.toArray(new String[toRefresh.size()]));
+        }
+    }
+
+    private void doRefresh(String... indices) {
+        if (indices.length == 0) {
+            return;
+        }
+        // remove before the refresh so concurrent writes performed during the refresh keep the index dirty.
+        dirtyIndices.removeAll(Arrays.asList(indices));
+        getClient().admin().indices().prepareRefresh(indices).execute().actionGet();
     }
 
     private void assertIdNotNullFor(String id, String operation) {
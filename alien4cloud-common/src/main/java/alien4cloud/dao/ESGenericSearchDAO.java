@@ -4,11 +4,19 @@ import java.io.IOException;
 import java.lang.reflect.Array;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
 import javax.annotation.Resource;
 
+import lombok.Getter;
+import lombok.Setter;
 import lombok.SneakyThrows;
 
 import org.elasticsearch.action.count.CountRequestBuilder;
@@ -16,26 +24,31 @@ import org.elasticsearch.action.search.SearchRequestBuilder;
 import org.elasticsearch.action.search.SearchResponse;
 import org.elasticsearch.action.search.SearchType;
 import org.elasticsearch.common.lucene.search.function.CombineFunction;
+import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.index.query.FilterBuilder;
 import org.elasticsearch.index.query.QueryBuilder;
 import org.elasticsearch.index.query.QueryBuilders;
 import org.elasticsearch.index.query.functionscore.ScoreFunctionBuilders;
 import org.elasticsearch.mapping.*;
 import org.elasticsearch.mapping.QueryHelper.SearchQueryHelperBuilder;
+import org.elasticsearch.search.SearchHit;
 import org.elasticsearch.search.facet.Facet;
 import org.elasticsearch.search.facet.Facets;
 import org.elasticsearch.search.facet.terms.TermsFacet;
 import org.elasticsearch.search.sort.SortBuilder;
 import org.elasticsearch.search.sort.SortBuilders;
 import org.elasticsearch.search.sort.SortOrder;
+import org.springframework.beans.factory.annotation.Value;
 
 import alien4cloud.dao.model.FacetedSearchFacet;
 import alien4cloud.dao.model.FacetedSearchResult;
 import alien4cloud.dao.model.GetMultipleDataResult;
+import alien4cloud.exception.IndexingServiceException;
 import alien4cloud.rest.utils.JsonUtil;
 import alien4cloud.utils.ElasticSearchUtil;
 import alien4cloud.utils.MapUtil;
 
+import com.google.common.base.Throwables;
 import com.google.common.collect.Lists;
 
 /**
@@ -44,16 +57,29 @@ import com.google.common.collect.Lists;
  * @author luc boutier
  */
 public class ESGenericSearchDAO extends ESGenericIdDAO implements IGenericSearchDAO {
+    /** Time a scroll is kept alive between two batches, abandoned scrolls are released by elastic search after this delay. */
+    private static final TimeValue SCROLL_KEEP_ALIVE = TimeValue.timeValueMinutes(1);
     // private static final String SCORE_SCRIPT = "_score * ((doc.containsKey('alienScore') && !doc['alienScore'].empty) ? doc['alienScore'].value : 1)";
     @Resource
     private ElasticSearchClient esClient;
     @Resource
     private QueryHelper queryHelper;
+    /** Number of hits from which the documents of a search response are deserialized in parallel, 0 to always deserialize them sequentially. */
+    @Getter
+    @Setter
+    @Value("${elasticSearch.parallel_read_threshold:500}")
+    private int parallelReadThreshold = 500;
+    /** Number of documents fetched by each request of a scroll (see {@link #stream(Class, Map)}). */
+    @Getter
+    @Setter
+    @Value("${elasticSearch.scroll_batch_size:100}")
+    private int scrollBatchSize = 100;
 
     @Override
     public <T> long count(Class<T> clazz, QueryBuilder query) {
         String indexName = getIndexForType(clazz);
         String typeName = MappingBuilder.indexTypeFromClass(clazz);
+        refreshIfDirty(indexName);
         CountRequestBuilder countRequestBuilder = getClient().prepareCount(indexName).setTypes(typeName);
         if (query != null) {
             countRequestBuilder.setQuery(query);
@@ -65,6 +91,7 @@ public class ESGenericSearchDAO extends ESGenericIdDAO implements IGenericSearch
     public <T> long count(Class<T> clazz, String searchText, Map<String, String[]> filters) {
         String[] searchIndexes = clazz == null ? getAllIndexes() : new String[] { getIndexForType(clazz) };
         Class<?>[] requestedTypes = getRequestedTypes(clazz);
+        refreshIfDirty(searchIndexes);
 
         return this.queryHelper.buildCountQuery(searchIndexes, searchText).types(requestedTypes).filters(filters).count().getCount();
     }
@@ -72,6 +99,7 @@ public class ESGenericSearchDAO extends ESGenericIdDAO implements IGenericSearch
     @SneakyThrows({ IOException.class })
     private <T> List<T> doCustomFind(Class<T> clazz, QueryBuilder query, SortBuilder sortBuilder, int size) {
         String indexName = getIndexForType(clazz);
+        refreshIfDirty(indexName);
         SearchRequestBuilder searchRequestBuilder = getClient().prepareSearch(indexName).setTypes(getTypesFromClass(clazz)).setSize(size);
         if (query != null) {
             searchRequestBuilder.setQuery(query);
@@ -83,12 +111,7 @@ public class ESGenericSearchDAO extends ESGenericIdDAO implements IGenericSearch
         if (!somethingFound(response)) {
             return null;
         } else {
-            List<T> hits = Lists.newArrayList();
-            for (int i = 0; i < response.getHits().getHits().length; i++) {
-                String hit = response.getHits().getAt(i).sourceAsString();
-                hits.add((T) getJsonMapper().readValue(hit, getClassFromType(response.getHits().getAt(i).getType())));
-            }
-            return hits;
+            return Lists.newArrayList(readHits(response.getHits().getHits(), null, (T[]) new Object[response.getHits().getHits().length]));
         }
     }
 
@@ -114,7 +137,169 @@ public class ESGenericSearchDAO extends ESGenericIdDAO implements IGenericSearch
 
     @Override
     public <T> List<T> customFindAll(Class<T> clazz, QueryBuilder query, SortBuilder sortBuilder) {
-        return doCustomFind(clazz, query, sortBuilder, Integer.MAX_VALUE);
+        List<T> results;
+        try (CloseableIterable<T> elements = stream(clazz, query, sortBuilder)) {
+            results = Lists.newArrayList(elements);
+        }
+        return results.isEmpty() ? null : results;
+    }
+
+    @Override
+    public <T> CloseableIterable<T> stream(Class<T> clazz, Map<String, String[]> filters) {
+        return stream(clazz, filters, (FilterBuilder) null);
+    }
+
+    @Override
+    public <T> CloseableIterable<T> stream(Class<T> clazz, final Map<String, String[]> filters, final FilterBuilder customFilter) {
+        final String[] searchIndexes = new String[] { getIndexForType(clazz) };
+        final Class<?>[] requestedTypes = getRequestedTypes(clazz);
+        return new ScrollIterable<T>() {
+            @Override
+            protected SearchRequestBuilder buildSearchRequest() {
+                refreshIfDirty(searchIndexes);
+                SearchRequestBuilder searchRequestBuilder = queryHelper.buildSearchQuery(searchIndexes).types(requestedTypes).filters(filters)
+                        .customFilter(customFilter).generate(0, scrollBatchSize, new QueryBuilderAdapter() {
+                            @Override
+                            public QueryBuilder adapt(QueryBuilder queryBuilder) {
+                                return queryBuilder;
+                            }
+                        });
+                searchRequestBuilder.setTypes(getTypesStrings(requestedTypes));
+                return searchRequestBuilder;
+            }
+        };
+    }
+
+    @Override
+    public <T> CloseableIterable<T> stream(final Class<T> clazz, final QueryBuilder query, final SortBuilder sortBuilder) {
+        final String indexName = getIndexForType(clazz);
+        return new ScrollIterable<T>() {
+            @Override
+            protected SearchRequestBuilder buildSearchRequest() {
+                refreshIfDirty(indexName);
+                SearchRequestBuilder searchRequestBuilder = getClient().prepareSearch(indexName).setTypes(getTypesFromClass(clazz)).setSize(scrollBatchSize);
+                if (query != null) {
+                    searchRequestBuilder.setQuery(query);
+                }
+                if (sortBuilder != null) {
+                    searchRequestBuilder.addSort(sortBuilder);
+                }
+                return searchRequestBuilder;
+            }
+        };
+    }
+
+    /**
+     * Iterable over the hits of a search request, each iterator uses its own scroll. The scrolls of the iterators that were not read until the end are
+     * cleared when the iterable is closed.
+     */
+    private abstract class ScrollIterable<T> implements CloseableIterable<T> {
+        private final List<ScrollIterator<T>> iterators = Lists.newArrayList();
+
+        protected abstract SearchRequestBuilder buildSearchRequest();
+
+        @Override
+        public synchronized Iterator<T> iterator() {
+            ScrollIterator<T> iterator = new ScrollIterator<T>(buildSearchRequest());
+            iterators.add(iterator);
+            return iterator;
+        }
+
+        @Override
+        public synchronized void close() {
+            for (ScrollIterator<T> iterator : iterators) {
+                iterator.close();
+            }
+            iterators.clear();
+        }
+    }
+
+    /**
+     * Iterates over the hits of a search request using a scroll, the documents are deserialized (from the class matching their type) one batch at a time.
+     * The scroll is cleared once all the hits have been read or when the iterator is abandoned (see {@link ScrollIterable#close()}).
+     */
+    private class ScrollIterator<T> implements Iterator<T> {
+        private SearchRequestBuilder searchRequestBuilder;
+        private String scrollId;
+        private long remainingHits = -1;
+        private T[] batch;
+        private int position;
+
+        private ScrollIterator(SearchRequestBuilder searchRequestBuilder) {
+            this.searchRequestBuilder = searchRequestBuilder;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (batch == null || position == batch.length) {
+                fetchNextBatch();
+            }
+            return position < batch.length;
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            T next = batch[position];
+            // release the element so that only the remaining part of the batch is retained
+            batch[position++] = null;
+            return next;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+
+        @SuppressWarnings("unchecked")
+        @SneakyThrows({ IOException.class })
+        private void fetchNextBatch() {
+            position = 0;
+            if (remainingHits == 0) {
+                batch = (T[]) new Object[0];
+                return;
+            }
+            SearchResponse response;
+            if (scrollId == null) {
+                response = searchRequestBuilder.setScroll(SCROLL_KEEP_ALIVE).execute().actionGet();
+                searchRequestBuilder = null;
+                remainingHits = response.getHits().getTotalHits();
+            } else {
+                response = getClient().prepareSearchScroll(scrollId).setScroll(SCROLL_KEEP_ALIVE).execute().actionGet();
+            }
+            scrollId = response.getScrollId();
+            SearchHit[] hits = response.getHits().getHits();
+            batch = readHits(hits, null, (T[]) new Object[hits.length]);
+            remainingHits = hits.length == 0 ? 0 : Math.max(0, remainingHits - hits.length);
+            if (remainingHits == 0) {
+                clearScroll();
+            }
+        }
+
+        /**
+         * Release the scroll and drop the current batch, the iterator has no more elements.
+         */
+        @SuppressWarnings("unchecked")
+        private void close() {
+            batch = (T[]) new Object[0];
+            position = 0;
+            clearScroll();
+        }
+
+        /**
+         * Release the scroll, the iterator has no more elements than the ones of the current batch.
+         */
+        private void clearScroll() {
+            searchRequestBuilder = null;
+            remainingHits = 0;
+            if (scrollId != null) {
+                String clearedScrollId = scrollId;
+                scrollId = null;
+                getClient().prepareClearScroll().addScrollId(clearedScrollId).execute().actionGet();
+            }
+        }
     }
 
     @Override
@@ -129,6 +314,8 @@ public class ESGenericSearchDAO extends ESGenericIdDAO implements IGenericSearch
 
     @Override
     public GetMultipleDataResult<Object> search(SearchQueryHelperBuilder queryHelperBuilder, int from, int maxElements) {
+        // indices are not known from the query helper builder so we have to refresh every dirty index.
+        refreshIfDirty();
         return toGetMultipleDataResult(Object.class, queryHelperBuilder.search(from, maxElements), from);
     }
 
@@ -170,6 +357,7 @@ public class ESGenericSearchDAO extends ESGenericIdDAO implements IGenericSearch
     @Override
     public GetMultipleDataResult<Object> search(String[] searchIndices, Class<?>[] classes, String searchText, Map<String, String[]> filters,
             FilterBuilder customFilter, String fetchContext, int from, int maxElements) {
+        refreshIfDirty(searchIndices);
         SearchResponse searchResponse = queryHelper.buildSearchQuery(searchIndices, searchText).fetchContext(fetchContext).filters(filters)
                 .customFilter(customFilter).types(classes).search(from, maxElements);
         return toGetMultipleDataResult(Object.class, searchResponse, from);
@@ -222,6 +410,7 @@ public class ESGenericSearchDAO extends ESGenericIdDAO implements IGenericSearch
     @Override
     public GetMultipleDataResult<Object> suggestSearch(String[] searchIndices, Class<?>[] requestedTypes, String suggestFieldPath, String searchPrefix,
             String fetchContext, int from, int maxElements) {
+        refreshIfDirty(searchIndices);
         SearchResponse searchResponse = queryHelper.buildSearchSuggestQuery(searchIndices, searchPrefix, suggestFieldPath).types(requestedTypes)
                 .fetchContext(fetchContext).search(from, maxElements);
 
@@ -233,6 +422,7 @@ public class ESGenericSearchDAO extends ESGenericIdDAO implements IGenericSearch
             Map<String, FilterValuesStrategy> filterStrategies, int maxElements) {
         String[] searchIndices = clazz == null ? getAllIndexes() : new String[] { getIndexForType(clazz) };
         Class<?>[] requestedTypes = getRequestedTypes(clazz);
+        refreshIfDirty(searchIndices);
 
         SearchResponse searchResponse = queryHelper.buildSearchQuery(searchIndices).types(requestedTypes).filters(filters).filterStrategies(filterStrategies)
                 .search(0, maxElements);
@@ -275,13 +465,7 @@ public class ESGenericSearchDAO extends ESGenericIdDAO implements IGenericSearch
             return null;
         }
 
-        List<T> result = new ArrayList<>();
-
-        for (int i = 0; i < searchResponse.getHits().getHits().length; i++) {
-            result.add(getJsonMapper().readValue(searchResponse.getHits().getAt(i).getSourceAsString(), clazz));
-        }
-
-        return result;
+        return Lists.newArrayList(readHits(searchResponse.getHits().getHits(), clazz, (T[]) new Object[searchResponse.getHits().getHits().length]));
     }
 
     private <T> void fillMultipleDataResult(Class<T> clazz, SearchResponse searchResponse, GetMultipleDataResult<T> finalResponse, int from,
@@ -294,23 +478,73 @@ public class ESGenericSearchDAO extends ESGenericIdDAO implements IGenericSearch
             finalResponse.setQueryDuration(searchResponse.getTookInMillis());
         }
 
-        String[] resultTypes = new String[searchResponse.getHits().getHits().length];
-
-        T[] resultData = (T[]) Array.newInstance(clazz, resultTypes.length);
-        for (int i = 0; i < resultTypes.length; i++) {
-            resultTypes[i] = searchResponse.getHits().getAt(i).getType();
-            resultData[i] = (T) getJsonMapper().readValue(searchResponse.getHits().getAt(i).getSourceAsString(), getClassFromType(resultTypes[i]));
+        SearchHit[] hits = searchResponse.getHits().getHits();
+        String[] resultTypes = new String[hits.length];
+        for (int i = 0; i < hits.length; i++) {
+            resultTypes[i] = hits[i].getType();
         }
-        finalResponse.setData(resultData);
+        finalResponse.setData(readHits(hits, null, (T[]) Array.newInstance(clazz, hits.length)));
 
         finalResponse.setTypes(resultTypes);
     }
 
+    /**
+     * Deserialize the sources of search hits straight from their bytes. Large pages (see {@link #parallelReadThreshold}) are split in chunks deserialized in
+     * parallel in the common fork join pool.
+     *
+     * @param hits The hits to deserialize.
+     * @param clazz The class of the documents, or null to get the class from the type of each hit.
+     * @param data The array to fill, its size is the number of hits.
+     * @return The data array.
+     */
+    private <T> T[] readHits(final SearchHit[] hits, final Class<?> clazz, final T[] data) throws IOException {
+        int chunkCount = ForkJoinPool.getCommonPoolParallelism();
+        if (parallelReadThreshold <= 0 || hits.length < parallelReadThreshold || chunkCount < 2) {
+            readHits(hits, clazz, data, 0, hits.length);
+            return data;
+        }
+        int chunkSize = (hits.length + chunkCount - 1) / chunkCount;
+        List<Callable<Void>> tasks = Lists.newArrayList();
+        for (int start = 0; start < hits.length; start += chunkSize) {
+            final int from = start;
+            final int to = Math.min(start + chunkSize, hits.length);
+            tasks.add(new Callable<Void>() {
+                @Override
+                public Void call() throws IOException {
+                    readHits(hits, clazz, data, from, to);
+                    return null;
+                }
+            });
+        }
+        try {
+            // each chunk writes its own range of the array, getting the futures makes these writes visible.
+            for (Future<Void> future : ForkJoinPool.commonPool().invokeAll(tasks)) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IndexingServiceException("Interrupted while deserializing search results.", e);
+        } catch (ExecutionException e) {
+            Throwables.propagateIfInstanceOf(e.getCause(), IOException.class);
+            throw Throwables.propagate(e.getCause());
+        }
+        return data;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> void readHits(SearchHit[] hits, Class<?> clazz, T[] data, int from, int to) throws IOException {
+        for (int i = from; i < to; i++) {
+            Class<?> hitClass = clazz == null ? getClassFromType(hits[i].getType()) : clazz;
+            data[i] = (T) readSource(hits[i].getSourceRef(), hitClass);
+        }
+    }
+
     private <T> SearchResponse doSearch(Class<T> clazz, String searchText, Map<String, String[]> filters, FilterBuilder customFilter, String fetchContext,
             int from, int maxElements, boolean enableFacets, String fieldSort, boolean sortOrder) {
         String[] searchIndexes = clazz == null ? getAllIndexes() : new String[] { getIndexForType(clazz) };
         Class<?>[] requestedTypes = getRequestedTypes(clazz);
         String[] esTypes = getTypesStrings(requestedTypes);
+        refreshIfDirty(searchIndexes);
 
         SearchQueryHelperBuilder query = this.queryHelper.buildSearchQuery(searchIndexes, searchText).types(requestedTypes).fetchContext(fetchContext)
                 .filters(filters).customFilter(customFilter).facets(enableFacets);
@@ -379,6 +613,7 @@ public class ESGenericSearchDAO extends ESGenericIdDAO implements IGenericSearch
         String[] inc = includes.isEmpty() ? null : includes.toArray(new String[includes.size()]);
         String[] exc = excludes.isEmpty() ? null : excludes.toArray(new String[excludes.size()]);
 
+        refreshIfDirty(getIndexForType(clazz));
         // TODO: correctly manage "from" and "size"
         SearchRequestBuilder searchRequestBuilder = getClient().prepareSearch(getIndexForType(clazz))
                 .setQuery(QueryBuilders.idsQuery(MappingBuilder.indexTypeFromClass(clazz)).ids(ids)).setFetchSource(inc, exc).setSize(20);
@@ -403,6 +638,7 @@ public class ESGenericSearchDAO extends ESGenericIdDAO implements IGenericSearch
 
     @SneakyThrows({ IOException.class })
     private String[] doSelectPath(String index, String[] types, QueryBuilder queryBuilder, SortOrder sortOrder, String path, int from, int size) {
+        refreshIfDirty(index);
         SearchRequestBuilder searchRequestBuilder = esClient.getClient().prepareSearch(index);
         searchRequestBuilder.setSearchType(SearchType.QUERY_THEN_FETCH).setQuery(queryBuilder).setSize(size).setFrom(from);
         searchRequestBuilder.setFetchSource(path, null);
@@ -3,12 +3,13 @@ package alien4cloud.dao;
 import java.beans.IntrospectionException;
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutionException;
 
 import javax.annotation.Resource;
 
 import lombok.Getter;
-import lombok.Setter;
 import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
 
@@ -18,6 +19,7 @@ import org.elasticsearch.action.admin.indices.create.CreateIndexResponse;
 import org.elasticsearch.action.admin.indices.exists.indices.IndicesExistsRequest;
 import org.elasticsearch.action.admin.indices.exists.indices.IndicesExistsResponse;
 import org.elasticsearch.client.Client;
+import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.mapping.ElasticSearchClient;
 import org.elasticsearch.mapping.MappingBuilder;
 import org.elasticsearch.util.MapUtil;
@@ -26,6 +28,7 @@ import alien4cloud.exception.IndexingServiceException;
 import alien4cloud.rest.utils.JsonUtil;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 
@@ -57,8 +60,47 @@ public abstract class ESIndexMapper {
     private String[] allIndexes;
     @SuppressWarnings("PMD.UnusedPrivateField")
     @Getter
-    @Setter
     private ObjectMapper jsonMapper = new ObjectMapper();
+    /** Readers of the json mapper, per deserialized class (readers are immutable and thread safe). */
+    private final ConcurrentMap<Class<?>, ObjectReader> jsonReaders = new ConcurrentHashMap<Class<?>, ObjectReader>();
+
+    public void setJsonMapper(ObjectMapper jsonMapper) {
+        this.jsonMapper = jsonMapper;
+        jsonReaders.clear();
+    }
+
+    /**
+     * Get the reader of the json mapper for the given class.
+     *
+     * @param clazz The class to deserialize.
+     * @return A reader that deserializes instances of the given class.
+     */
+    protected ObjectReader getJsonReader(Class<?> clazz) {
+        ObjectReader reader = jsonReaders.get(clazz);
+        if (reader == null) {
+            reader = jsonMapper.reader(clazz);
+            jsonReaders.putIfAbsent(clazz, reader);
+        }
+        return reader;
+    }
+
+    /**
+     * Deserialize the source of an elastic search document directly from its bytes (documents are indexed as json).
+     *
+     * @param source The source of the document (as returned by the get or search responses).
+     * @param clazz The class of the document.
+     * @return The deserialized document or null if the source has not been fetched.
+     */
+    protected <T> T readSource(BytesReference source, Class<T> clazz) throws IOException {
+        if (source == null) {
+            return null;
+        }
+        ObjectReader reader = getJsonReader(clazz);
+        if (source.hasArray()) {
+            return reader.readValue(source.array(), source.arrayOffset(), source.length());
+        }
+        return reader.readValue(source.streamInput());
+    }
 
     /**
      * Initialize the array of all indices managed by this dao.
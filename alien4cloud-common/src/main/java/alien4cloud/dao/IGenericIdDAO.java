@@ -4,6 +4,9 @@ import java.util.List;
 
 import org.elasticsearch.index.query.QueryBuilder;
 
+import alien4cloud.dao.model.VersionedData;
+import alien4cloud.exception.VersionConflictException;
+
 /**
  * A DAO that allows accessing data by Id or / and multiple Ids.
  * 
@@ -21,9 +24,22 @@ public interface IGenericIdDAO {
      * Bulk save multiple entities into the repository
      * 
      * @param entities The entities to save.
+     * @throws alien4cloud.exception.IndexingServiceException if any of the entities failed to be saved.
      */
     <T> void save(T[] entities);
 
+    /**
+     * Saves an entity into the repository only if the stored document has not been modified since it has been read (compare and set on the document
+     * version).
+     * 
+     * @param entity the entity to save
+     * @param expectedVersion The version of the document as returned by {@link #findVersionedById(Class, String)} or 0 (or less) if the document must not
+     *            exist yet.
+     * @return The new version of the document.
+     * @throws VersionConflictException if the stored document version doesn't match the expected version.
+     */
+    <T> long save(T entity, long expectedVersion) throws VersionConflictException;
+
     /**
      * Find an instance from the given class.
      * 
@@ -33,6 +49,16 @@ public interface IGenericIdDAO {
      */
     <T> T findById(Class<T> clazz, String id);
 
+    /**
+     * Find an instance from the given class along with the version of the document, the version can be used to save the instance using
+     * {@link #save(Object, long)}.
+     * 
+     * @param clazz The class of the object to find.
+     * @param id The id of the object.
+     * @return The object and it's version or null if no object matching the request is found.
+     */
+    <T> VersionedData<T> findVersionedById(Class<T> clazz, String id);
+
     /**
      * Find instances by id
      * 
@@ -57,4 +83,20 @@ public interface IGenericIdDAO {
      * @param query
      */
     public void delete(Class<?> clazz, QueryBuilder query);
+
+    /**
+     * Force a refresh of the indices in which the given classes are stored so that all previous writes are visible to search operations. This is useful for
+     * callers that need to search for data they just wrote when the DAO is not configured with an {@link RefreshPolicy#IMMEDIATE} refresh policy.
+     * 
+     * @param classes The classes for which to refresh indices.
+     */
+    void refresh(Class<?>... classes);
+
+    /**
+     * Apply the refresh policy before a search performed directly through the elastic search client: writes pending for the indices in which the given
+     * classes are stored are made visible when the DAO is configured with a {@link RefreshPolicy#COALESCED} refresh policy, nothing is done otherwise.
+     * 
+     * @param classes The classes for which to refresh indices with pending writes.
+     */
+    void refreshPendingWrites(Class<?>... classes);
 }
\ No newline at end of file
@@ -76,7 +76,9 @@ public interface IGenericSearchDAO extends IGenericIdDAO {
     <T> T customFind(Class<T> clazz, QueryBuilder query, SortBuilder sortBuilder);
 
     /**
-     * Run a custom query on elastic search for the given class.
+     * Run a custom query on elastic search for the given class. All the results are loaded in memory so this is meant for queries which results are bounded
+     * and returned as a list to the caller (orchestrators, locations of an orchestrator), use {@link #stream(Class, QueryBuilder, SortBuilder)} to iterate
+     * over the results.
      *
      * @param clazz The type of data to query.
      * @param query The query to execute.
@@ -85,7 +87,7 @@ public interface IGenericSearchDAO extends IGenericIdDAO {
     <T> List<T> customFindAll(Class<T> clazz, QueryBuilder query);
 
     /**
-     * Run a custom query on elastic search for the given class.
+     * Same as {@link #customFindAll(Class, QueryBuilder)} with a sort configuration.
      *
      * @param clazz The type of data to query.
      * @param query The query to execute.
@@ -94,6 +96,37 @@ public interface IGenericSearchDAO extends IGenericIdDAO {
      */
     <T> List<T> customFindAll(Class<T> clazz, QueryBuilder query, SortBuilder sortBuilder);
 
+    /**
+     * Iterate over all the data of the given type that match the filters. Data is fetched from elastic search in batches of bounded size using a scroll so
+     * that the whole result never has to be loaded in memory. Each call to {@link Iterable#iterator()} opens a new scroll. Consumers that may stop
+     * iterating before the end (early exit or failure) must close the iterable so that the scroll is released right away.
+     *
+     * @param clazz The type of data to query.
+     * @param filters The filters for the search or null if no filters.
+     * @return An iterable over the matching data.
+     */
+    <T> CloseableIterable<T> stream(Class<T> clazz, Map<String, String[]> filters);
+
+    /**
+     * Same as {@link IGenericSearchDAO#stream(Class, Map)} with an additional custom filter.
+     *
+     * @param clazz The type of data to query.
+     * @param filters The filters for the search or null if no filters.
+     * @param customFilter The custom defined filter or null if no custom filter.
+     * @return An iterable over the matching data.
+     */
+    <T> CloseableIterable<T> stream(Class<T> clazz, Map<String, String[]> filters, FilterBuilder customFilter);
+
+    /**
+     * Same as {@link IGenericSearchDAO#stream(Class, Map)} for a custom query.
+     *
+     * @param clazz The type of data to query.
+     * @param query The query to execute.
+     * @param sortBuilder the sort configuration or null.
+     * @return An iterable over the matching data.
+     */
+    <T> CloseableIterable<T> stream(Class<T> clazz, QueryBuilder query, SortBuilder sortBuilder);
+
     /**
      * Run a query build from a {@link SearchQueryHelperBuilder}.
      *
@@ -0,0 +1,78 @@
+package alien4cloud.dao;
+
+import lombok.extern.slf4j.Slf4j;
+import alien4cloud.dao.model.VersionedData;
+import alien4cloud.exception.NotFoundException;
+import alien4cloud.exception.VersionConflictException;
+
+/**
+ * Utility to update a document using optimistic concurrency control.
+ * 
+ * The document is read along with it's version, the update is applied and the document is saved only if it's version has not changed. In case of conflict
+ * the latest document is read again and the update is re-applied on top of it (merging the changes of the concurrent writer), up to a maximum number of
+ * attempts.
+ */
+@Slf4j
+public final class OptimisticUpdateUtil {
+    /** Default number of attempts before giving up. */
+    public static final int DEFAULT_MAX_ATTEMPTS = 5;
+
+    private OptimisticUpdateUtil() {
+    }
+
+    /**
+     * Callback that applies an update on the latest version of a document. It may be called multiple times and must therefore only depend on the given data.
+     */
+    public interface IUpdater<T> {
+        /**
+         * Apply the update on the given data.
+         * 
+         * @param data The latest version of the data.
+         * @return True if the data must be saved, false if there is nothing to update.
+         */
+        boolean update(T data);
+    }
+
+    /**
+     * Update a document with {@link #DEFAULT_MAX_ATTEMPTS} attempts.
+     * 
+     * @see #update(IGenericIdDAO, Class, String, int, IUpdater)
+     */
+    public static <T> T update(IGenericIdDAO dao, Class<T> clazz, String id, IUpdater<T> updater) {
+        return update(dao, clazz, id, DEFAULT_MAX_ATTEMPTS, updater);
+    }
+
+    /**
+     * Read a document, apply an update and save it only if the document has not been modified concurrently, retrying on conflicts.
+     * 
+     * @param dao The dao to use to read and save the document.
+     * @param clazz The class of the document.
+     * @param id The id of the document.
+     * @param maxAttempts The maximum number of attempts.
+     * @param updater The callback that applies the update.
+     * @return The updated data.
+     * @throws NotFoundException if no document exists for the given id.
+     * @throws VersionConflictException if the document cannot be saved after the maximum number of attempts.
+     */
+    public static <T> T update(IGenericIdDAO dao, Class<T> clazz, String id, int maxAttempts, IUpdater<T> updater) {
+        VersionConflictException lastConflict = null;
+        for (int attempt = 1; attempt <= maxAttempts; attempt++) {
+            VersionedData<T> versionedData = dao.findVersionedById(clazz, id);
+            if (versionedData == null) {
+                throw new NotFoundException("Element of type <" + clazz.getSimpleName() + "> with id <" + id + "> cannot be found.");
+            }
+            if (!updater.update(versionedData.getData())) {
+                return versionedData.getData();
+            }
+            try {
+                dao.save(versionedData.getData(), versionedData.getVersion());
+                return versionedData.getData();
+            } catch (VersionConflictException e) {
+                log.debug("Conflict while updating <{}> with id <{}>, attempt {}/{}", clazz.getSimpleName(), id, attempt, maxAttempts);
+                lastConflict = e;
+            }
+        }
+        throw new VersionConflictException("Unable to update <" + clazz.getSimpleName() + "> with id <" + id + "> after " + maxAttempts
+                + " attempts because of concurrent modifications.", lastConflict);
+    }
+}
@@ -0,0 +1,21 @@
+package alien4cloud.dao;
+
+/**
+ * Defines how the DAO asks elastic search to refresh an index after a write operation (save or delete by id).
+ *
+ * Note that get by id operations are real-time in elastic search and are therefore always able to read the latest written data whatever the refresh policy.
+ */
+public enum RefreshPolicy {
+    /** Every write operation forces a synchronous refresh of the shard (previous behavior, safest but most expensive). */
+    IMMEDIATE,
+    /**
+     * Write operations do not refresh the index but mark it as dirty. Dirty indices are refreshed once before the next search operation performed through
+     * the DAO so bursts of writes are coalesced into a single refresh while searches still see previous writes.
+     */
+    COALESCED,
+    /**
+     * Write operations never refresh the index, data becomes visible to searches when elastic search performs it's periodic refresh (index.refresh_interval)
+     * or when a refresh is explicitly requested through {@link IGenericIdDAO#refresh(Class...)}.
+     */
+    INTERVAL
+}
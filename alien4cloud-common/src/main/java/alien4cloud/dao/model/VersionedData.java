@@ -0,0 +1,22 @@
+package alien4cloud.dao.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Data read from the repository along with the version of the document that contains it.
+ * 
+ * The version can be given back to {@link alien4cloud.dao.IGenericIdDAO#save(Object, long)} in order to save the data only if the document has not been
+ * modified since it has been read.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@SuppressWarnings("PMD.UnusedPrivateField")
+public class VersionedData<T> {
+    private T data;
+    private long version;
+}
@@ -9,4 +9,8 @@ public class VersionConflictException extends TechnicalException {
     public VersionConflictException(String message, Throwable cause) {
         super(message, cause);
     }
+
+    public VersionConflictException(String message) {
+        super(message);
+    }
 }
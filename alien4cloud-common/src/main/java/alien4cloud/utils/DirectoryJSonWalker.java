@@ -22,6 +22,18 @@ public final class DirectoryJSonWalker {
      * @throws IOException In case of an IO issue while walking the directory.
      */
     public static void directoryJson(Path directory, Path target) throws IOException {
+        directoryJson(directory, directory.getFileName().toString(), target);
+    }
+
+    /**
+     * Walk a directory to build a json that describe the structure.
+     *
+     * @param directory The directory to walk, it may be the root of a zip file system.
+     * @param rootName The name to use for the walked directory in the json.
+     * @param target The path in which to save the json file.
+     * @throws IOException In case of an IO issue while walking the directory.
+     */
+    public static void directoryJson(final Path directory, final String rootName, Path target) throws IOException {
         final TreeNode root = new TreeNode();
         root.setLeaf(false);
         root.setFullPath("");
@@ -34,8 +46,9 @@ public final class DirectoryJSonWalker {
             public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
                 TreeNode treeNode = new TreeNode();
                 treeNode.setLeaf(false);
-                treeNode.setName(dir.getFileName().toString());
-                treeNode.setFullPath(current.getFullPath() + "/" + dir.getFileName().toString());
+                String name = dir.equals(directory) ? rootName : getName(dir);
+                treeNode.setName(name);
+                treeNode.setFullPath(current.getFullPath() + "/" + name);
                 treeNode.setChildren(new ArrayList<TreeNode>());
                 treeNode.setParent(current);
                 current.getChildren().add(treeNode);
@@ -53,8 +66,8 @@ public final class DirectoryJSonWalker {
             public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
                 TreeNode treeNode = new TreeNode();
                 treeNode.setLeaf(true);
-                treeNode.setName(file.getFileName().toString());
-                treeNode.setFullPath(current.getFullPath() + "/" + file.getFileName().toString());
+                treeNode.setName(getName(file));
+                treeNode.setFullPath(current.getFullPath() + "/" + getName(file));
                 treeNode.setChildren(null);
                 current.getChildren().add(treeNode);
                 return super.visitFile(file, attrs);
@@ -63,4 +76,10 @@ public final class DirectoryJSonWalker {
         ObjectMapper mapper = new ObjectMapper();
         mapper.writeValue(target.toFile(), root);
     }
+
+    private static String getName(Path path) {
+        // zip file system directories names ends with a slash
+        String name = path.getFileName().toString();
+        return name.endsWith("/") ? name.substring(0, name.length() - 1) : name;
+    }
 }
\ No newline at end of file
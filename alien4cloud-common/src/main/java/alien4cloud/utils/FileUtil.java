@@ -3,6 +3,7 @@ package alien4cloud.utils;
 import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
 import java.io.FileNotFoundException;
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
@@ -17,7 +18,11 @@ import java.nio.file.Paths;
 import java.nio.file.SimpleFileVisitor;
 import java.nio.file.StandardCopyOption;
 import java.nio.file.attribute.BasicFileAttributes;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.List;
+import java.util.Map;
 import java.util.regex.Pattern;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
@@ -26,10 +31,14 @@ import lombok.extern.slf4j.Slf4j;
 
 import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
 import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveInputStream;
 import org.apache.commons.compress.compressors.gzip.GzipCompressorOutputStream;
 
 import com.google.common.base.Charsets;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.io.BaseEncoding;
 import com.google.common.io.ByteStreams;
 import com.google.common.io.Closeables;
 
@@ -140,6 +149,89 @@ public final class FileUtil {
         }
     }
 
+    /**
+     * Copy a zip file and unzip it to a destination folder while reading the zip file only once.
+     *
+     * @param zipFile The zip file to copy and unzip.
+     * @param zipCopy The path of the copy of the zip file.
+     * @param destination The destination folder in which to save the zip entries.
+     * @throws IOException In case something fails.
+     */
+    public static void copyAndUnzip(final Path zipFile, final Path zipCopy, final Path destination) throws IOException {
+        Path normalizedDestination = destination.toAbsolutePath().normalize();
+        Files.createDirectories(normalizedDestination);
+        try (OutputStream copy = new BufferedOutputStream(Files.newOutputStream(zipCopy));
+                InputStream input = new CopyingInputStream(new BufferedInputStream(Files.newInputStream(zipFile)), copy)) {
+            // stored entries may use a data descriptor, we must support them as the zip central directory is not read.
+            ZipArchiveInputStream zipInput = new ZipArchiveInputStream(input, Charsets.UTF_8.name(), true, true);
+            ZipArchiveEntry entry;
+            while ((entry = zipInput.getNextZipEntry()) != null) {
+                Path entryPath = normalizedDestination.resolve(entry.getName()).normalize();
+                if (!entryPath.startsWith(normalizedDestination)) {
+                    throw new IOException("Zip entry <" + entry.getName() + "> is outside of the destination directory.");
+                }
+                if (entry.isDirectory()) {
+                    Files.createDirectories(entryPath);
+                } else {
+                    Files.createDirectories(entryPath.getParent());
+                    Files.copy(zipInput, entryPath, StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+            // the remaining bytes (central directory) must be copied too.
+            ByteStreams.copy(input, ByteStreams.nullOutputStream());
+        }
+    }
+
+    /**
+     * Input stream that writes all the bytes read to an output stream.
+     */
+    private static class CopyingInputStream extends FilterInputStream {
+        private final OutputStream copy;
+
+        private CopyingInputStream(InputStream input, OutputStream copy) {
+            super(input);
+            this.copy = copy;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int read = super.read();
+            if (read >= 0) {
+                copy.write(read);
+            }
+            return read;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = super.read(buffer, offset, length);
+            if (read > 0) {
+                copy.write(buffer, offset, read);
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(long count) throws IOException {
+            // skipped bytes must be copied too.
+            long skipped = 0;
+            byte[] buffer = new byte[4096];
+            while (skipped < count) {
+                int read = read(buffer, 0, (int) Math.min(buffer.length, count - skipped));
+                if (read < 0) {
+                    break;
+                }
+                skipped += read;
+            }
+            return skipped;
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+    }
+
     public static String relativizePath(Path root, Path child) {
         String childPath = child.toAbsolutePath().toString();
         String rootPath = root.toAbsolutePath().toString();
@@ -212,6 +304,25 @@ public final class FileUtil {
         Files.walkFileTree(deletePath, new EraserWalker());
     }
 
+    /**
+     * Compute the size of a file or of all the files of a directory.
+     *
+     * @param path file path can be directory
+     * @return The size in bytes.
+     * @throws IOException when IO error happened
+     */
+    public static long size(Path path) throws IOException {
+        final long[] size = new long[1];
+        Files.walkFileTree(path, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                size[0] += attrs.size();
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        return size[0];
+    }
+
     /**
      * Read all files bytes and create a string.
      *
@@ -235,6 +346,66 @@ public final class FileUtil {
         return readTextFile(path, Charsets.UTF_8);
     }
 
+    /**
+     * Compute the SHA-256 digest of a file content or of the content of all the files of a directory.
+     *
+     * The digest of a directory is computed from the relative paths and the digests of its files, in the order of their relative paths, so it doesn't depend on
+     * the file system ordering.
+     *
+     * @param path The file's path, can be a directory.
+     * @return The hexadecimal representation of the digest.
+     * @throws IOException In case the file cannot be read.
+     */
+    public static String sha256(Path path) throws IOException {
+        if (Files.isDirectory(path)) {
+            return sha256Directory(path);
+        }
+        try (InputStream input = new BufferedInputStream(Files.newInputStream(path))) {
+            return copyWithSha256(input, ByteStreams.nullOutputStream());
+        }
+    }
+
+    private static String sha256Directory(final Path directory) throws IOException {
+        final Map<String, Path> files = Maps.newTreeMap();
+        Files.walkFileTree(directory, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                files.put(getChildEntryRelativePath(directory, file, true), file);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        MessageDigest digest = newSha256Digest();
+        for (Map.Entry<String, Path> file : files.entrySet()) {
+            digest.update(file.getKey().getBytes(Charsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(sha256(file.getValue()).getBytes(Charsets.UTF_8));
+            digest.update((byte) '\n');
+        }
+        return BaseEncoding.base16().lowerCase().encode(digest.digest());
+    }
+
+    /**
+     * Copy an input stream to an output stream and compute the SHA-256 digest of the copied content in a single pass.
+     *
+     * @param input The input stream to copy (not closed by this method).
+     * @param output The output stream in which to copy (not closed by this method).
+     * @return The hexadecimal representation of the digest of the copied content.
+     * @throws IOException In case of an error while reading or writing.
+     */
+    public static String copyWithSha256(InputStream input, OutputStream output) throws IOException {
+        MessageDigest digest = newSha256Digest();
+        ByteStreams.copy(new DigestInputStream(input, digest), output);
+        return BaseEncoding.base16().lowerCase().encode(digest.digest());
+    }
+
+    private static MessageDigest newSha256Digest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 digest is not supported by the JVM.", e);
+        }
+    }
+
     /**
      * Create a directory from path if it does not exist
      *
@@ -1,19 +1,25 @@
 package alien4cloud.utils;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
 
 import com.google.common.collect.Maps;
 
+/**
+ * Cache of objects by type and key. The map is thread safe so it can be shared by concurrent processing of topologies that have the same dependencies.
+ */
 public class TypeMap {
-    private Map<Class<?>, Map<String, Object>> cacheMap = Maps.newHashMap();
+    private ConcurrentMap<Class<?>, ConcurrentMap<String, Object>> cacheMap = Maps.newConcurrentMap();
 
-    private Map<String, Object> getMap(Class<?> clazz) {
-        Map<String, Object> map = cacheMap.get(clazz);
+    private ConcurrentMap<String, Object> getMap(Class<?> clazz) {
+        ConcurrentMap<String, Object> map = cacheMap.get(clazz);
         if (map == null) {
-            cacheMap.put(clazz, new HashMap<>());
+            ConcurrentMap<String, Object> newMap = Maps.newConcurrentMap();
+            map = cacheMap.putIfAbsent(clazz, newMap);
+            if (map == null) {
+                map = newMap;
+            }
         }
-        return cacheMap.get(clazz);
+        return map;
     }
 
     /**
@@ -0,0 +1,78 @@
+package alien4cloud.utils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.google.common.base.Charsets;
+
+public class FileUtilTest {
+    private static final String CONTENT = "abc";
+    private static final String CONTENT_SHA256 = "ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad";
+
+    @Test
+    public void copyShouldComputeDigest() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        String digest = FileUtil.copyWithSha256(new ByteArrayInputStream(CONTENT.getBytes(Charsets.UTF_8)), out);
+        Assert.assertEquals(CONTENT_SHA256, digest);
+        Assert.assertEquals(CONTENT, new String(out.toByteArray(), Charsets.UTF_8));
+    }
+
+    @Test
+    public void fileDigestShouldMatchContentDigest() throws IOException {
+        Path file = Files.createTempFile("digest", ".txt");
+        try {
+            Files.write(file, CONTENT.getBytes(Charsets.UTF_8));
+            Assert.assertEquals(CONTENT_SHA256, FileUtil.sha256(file));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void directoryDigestShouldChangeWithContent() throws IOException {
+        Path directory = Files.createTempDirectory("digest");
+        try {
+            Files.createDirectories(directory.resolve("sub"));
+            Files.write(directory.resolve("sub").resolve("file.txt"), CONTENT.getBytes(Charsets.UTF_8));
+            Files.write(directory.resolve("other.txt"), CONTENT.getBytes(Charsets.UTF_8));
+            String digest = FileUtil.sha256(directory);
+            Assert.assertEquals(digest, FileUtil.sha256(directory));
+
+            // same content in another file
+            Files.move(directory.resolve("other.txt"), directory.resolve("renamed.txt"));
+            String renamedDigest = FileUtil.sha256(directory);
+            Assert.assertNotEquals(digest, renamedDigest);
+
+            Files.write(directory.resolve("sub").resolve("file.txt"), "abd".getBytes(Charsets.UTF_8));
+            Assert.assertNotEquals(renamedDigest, FileUtil.sha256(directory));
+        } finally {
+            FileUtil.delete(directory);
+        }
+    }
+
+    @Test
+    public void copyAndUnzipShouldReadArchiveOnce() throws IOException {
+        Path directory = Files.createTempDirectory("archive");
+        try {
+            Path content = directory.resolve("content");
+            Files.createDirectories(content.resolve("sub"));
+            Files.write(content.resolve("sub").resolve("file.txt"), CONTENT.getBytes(Charsets.UTF_8));
+            Path zip = directory.resolve("archive.zip");
+            FileUtil.zip(content, zip);
+
+            Path zipCopy = directory.resolve("copy.zip");
+            Path expanded = directory.resolve("expanded");
+            FileUtil.copyAndUnzip(zip, zipCopy, expanded);
+            Assert.assertArrayEquals(Files.readAllBytes(zip), Files.readAllBytes(zipCopy));
+            Assert.assertEquals(CONTENT, FileUtil.readTextFile(expanded.resolve("sub").resolve("file.txt")));
+        } finally {
+            FileUtil.delete(directory);
+        }
+    }
+}
@@ -63,6 +63,19 @@ public class ComparableVersion implements Comparable<ComparableVersion> {
 
     private String canonical;
 
+    /* Prefixes of the items in the sortable key, ordered as items of different types are ordered: string < list < integer. */
+    private static final char STRING_KEY = 'a';
+    private static final char LIST_KEY = 'b';
+    /* Zeros followed by a qualifier that is greater than a missing item are greater than strings and lists but lower than other integers. */
+    private static final char ZERO_STRING_KEY = 'c';
+    private static final char INTEGER_KEY = 'd';
+    /* Strings are first ordered by their position relatively to a missing item: pre-release qualifiers < release < other qualifiers. */
+    private static final char PRE_RELEASE_KEY = '0';
+    private static final char RELEASE_KEY = '1';
+    private static final char POST_RELEASE_KEY = '2';
+    /* A missing item is compared as a release qualifier so the end of a list is encoded as the release qualifier. */
+    private static final String END_KEY = "" + STRING_KEY + RELEASE_KEY;
+
     private ListItem items;
 
     private interface Item {
@@ -75,6 +88,8 @@ public class ComparableVersion implements Comparable<ComparableVersion> {
         int getType();
 
         boolean isNull();
+
+        void appendSortableKey(StringBuilder key);
     }
 
     /**
@@ -126,6 +141,13 @@ public class ComparableVersion implements Comparable<ComparableVersion> {
             }
         }
 
+        @Override
+        public void appendSortableKey(StringBuilder key) {
+            // digits count is prefixed so longer numbers are greater
+            String digits = value.toString();
+            key.append(INTEGER_KEY).append(digits.length() < 10 ? "0" : "").append(digits.length()).append(digits);
+        }
+
         @Override
         public String toString() {
             return value.toString();
@@ -222,6 +244,28 @@ public class ComparableVersion implements Comparable<ComparableVersion> {
             }
         }
 
+        @Override
+        public void appendSortableKey(StringBuilder key) {
+            appendSortableKey(key, 0);
+        }
+
+        /**
+         * Zeros preceding a qualifier are compared as missing items (1.0.alpha < 1 < 1.0.sp) but they are greater than any qualifier or list at their
+         * position (1-alpha < 1.0.alpha, 1-1 < 1.0.sp). Zeros followed by a post-release qualifier are encoded as greater than strings and lists, zeros
+         * followed by another qualifier can't be greater than lists and post-release qualifiers while being lower than a missing item, they are only
+         * encoded as greater than the strings of their group.
+         */
+        void appendSortableKey(StringBuilder key, int precedingZeros) {
+            String qualifier = comparableQualifier(value);
+            int release = qualifier.compareTo(RELEASE_VERSION_INDEX);
+            if (release > 0 && precedingZeros > 0) {
+                key.append(ZERO_STRING_KEY);
+            } else {
+                key.append(STRING_KEY).append(release < 0 ? PRE_RELEASE_KEY : release == 0 ? RELEASE_KEY : POST_RELEASE_KEY);
+            }
+            key.append((char) ('0' + Math.min(precedingZeros, 9))).append(qualifier).append(' ');
+        }
+
         @Override
         public String toString() {
             return value;
@@ -296,6 +340,36 @@ public class ComparableVersion implements Comparable<ComparableVersion> {
             }
         }
 
+        @Override
+        public void appendSortableKey(StringBuilder key) {
+            key.append(LIST_KEY);
+            appendItemsKey(key);
+        }
+
+        void appendItemsKey(StringBuilder key) {
+            int zeros = 0;
+            for (Item item : this) {
+                if (item.getType() == INTEGER_ITEM && item.isNull()) {
+                    zeros++;
+                } else if (item.getType() == STRING_ITEM) {
+                    ((StringItem) item).appendSortableKey(key, zeros);
+                    zeros = 0;
+                } else {
+                    appendZerosKey(key, zeros);
+                    zeros = 0;
+                    item.appendSortableKey(key);
+                }
+            }
+            appendZerosKey(key, zeros);
+            key.append(END_KEY);
+        }
+
+        private static void appendZerosKey(StringBuilder key, int zeros) {
+            for (int i = 0; i < zeros; i++) {
+                IntegerItem.ZERO.appendSortableKey(key);
+            }
+        }
+
         @Override
         public String toString() {
             StringBuilder buffer = new StringBuilder("(");
@@ -397,6 +471,21 @@ public class ComparableVersion implements Comparable<ComparableVersion> {
         return items.compareTo(o.items);
     }
 
+    /**
+     * Get a key which natural (lexicographic) order is the order of the versions so versions can be sorted by a store that doesn't know about versions.
+     *
+     * Order of the keys is the same as the order of the versions. The only exception are the versions that {@link #compareTo(ComparableVersion)} doesn't
+     * order transitively: a zero followed by a pre-release qualifier is lower than a missing item but greater than any qualifier or list at its position
+     * (1.0.alpha < 1 < 1-sp < 1.0.alpha), the key keeps the order relatively to the missing item (1-sp after 1.0.alpha).
+     *
+     * @return The sortable key of the version.
+     */
+    public String getSortableKey() {
+        StringBuilder key = new StringBuilder();
+        items.appendItemsKey(key);
+        return key.toString();
+    }
+
     @Override
     public String toString() {
         return value;
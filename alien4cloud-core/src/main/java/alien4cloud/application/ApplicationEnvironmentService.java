@@ -5,18 +5,22 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 import javax.annotation.Resource;
 import javax.inject.Inject;
 
 import lombok.extern.slf4j.Slf4j;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import alien4cloud.dao.IGenericSearchDAO;
 import alien4cloud.dao.model.GetMultipleDataResult;
 import alien4cloud.deployment.DeploymentRuntimeStateService;
+import alien4cloud.deployment.DeploymentStatusRegistry;
 import alien4cloud.deployment.DeploymentTopologyService;
+import alien4cloud.deployment.OrchestratorFanOutService;
 import alien4cloud.exception.AlreadyExistException;
 import alien4cloud.exception.NotFoundException;
 import alien4cloud.model.application.Application;
@@ -51,6 +55,13 @@ public class ApplicationEnvironmentService {
     @Inject
     private DeploymentRuntimeStateService deploymentRuntimeStateService;
     @Inject
+    private DeploymentStatusRegistry deploymentStatusRegistry;
+    @Inject
+    private OrchestratorFanOutService orchestratorFanOutService;
+    /** Maximum time in milliseconds to wait for an orchestrator to return a deployment status. */
+    @Value("${paas_monitor.fan_out.timeout_ms:5000}")
+    private long statusTimeoutMs;
+    @Inject
     private DeploymentTopologyService deploymentTopologyService;
 
     /**
@@ -229,12 +240,59 @@ public class ApplicationEnvironmentService {
      * @param environment to determine the status
      * @return {@link DeploymentStatus}
      * @throws alien4cloud.paas.exception.OrchestratorDisabledException
+     * @throws java.util.concurrent.TimeoutException In case the orchestrator doesn't answer in time.
      */
     public DeploymentStatus getStatus(ApplicationEnvironment environment) throws Exception {
         final Deployment deployment = getActiveDeployment(environment.getId());
         if (deployment == null) {
             return DeploymentStatus.UNDEPLOYED;
         }
+        return getStatus(deployment);
+    }
+
+    /**
+     * Get the status of multiple environments. Active deployments are fetched in a single request and statuses are taken from the deployment status registry,
+     * the orchestrators are queried concurrently and with a deadline only for deployments which status is not known yet.
+     *
+     * @param environments The environments for which to get the status.
+     * @return A map of status by environment id, status is UNKNOWN when it cannot be retrieved from the orchestrator.
+     */
+    public Map<String, DeploymentStatus> getStatuses(List<ApplicationEnvironment> environments) {
+        Map<String, DeploymentStatus> statuses = Maps.newHashMap();
+        if (environments.isEmpty()) {
+            return statuses;
+        }
+        String[] environmentIds = new String[environments.size()];
+        for (int i = 0; i < environments.size(); i++) {
+            environmentIds[i] = environments.get(i).getId();
+            statuses.put(environmentIds[i], DeploymentStatus.UNDEPLOYED);
+        }
+        GetMultipleDataResult<Deployment> dataResult = alienDAO.search(Deployment.class, null,
+                MapUtil.newHashMap(new String[] { "environmentId", "endDate" }, new String[][] { environmentIds, new String[] { null } }),
+                environmentIds.length);
+        if (dataResult.getData() == null) {
+            return statuses;
+        }
+        List<Deployment> unknownDeployments = Lists.newArrayList();
+        for (Deployment deployment : dataResult.getData()) {
+            DeploymentStatus status = deploymentStatusRegistry.get(deployment);
+            if (status == null) {
+                unknownDeployments.add(deployment);
+            } else {
+                statuses.put(deployment.getEnvironmentId(), status);
+            }
+        }
+        if (!unknownDeployments.isEmpty()) {
+            // query the orchestrators concurrently, slow orchestrators statuses are UNKNOWN
+            Map<String, DeploymentStatus> orchestratorStatuses = orchestratorFanOutService.getStatuses(unknownDeployments);
+            for (Deployment deployment : unknownDeployments) {
+                statuses.put(deployment.getEnvironmentId(), orchestratorStatuses.get(deployment.getId()));
+            }
+        }
+        return statuses;
+    }
+
+    private DeploymentStatus getStatus(final Deployment deployment) throws Exception {
         final SettableFuture<DeploymentStatus> statusSettableFuture = SettableFuture.create();
         // update the deployment status from PaaS if it cannot be found.
         deploymentRuntimeStateService.getDeploymentStatus(deployment, new IPaaSCallback<DeploymentStatus>() {
@@ -248,7 +306,7 @@ public class ApplicationEnvironmentService {
                 statusSettableFuture.setException(throwable);
             }
         });
-        DeploymentStatus currentStatus = statusSettableFuture.get();
+        DeploymentStatus currentStatus = statusSettableFuture.get(statusTimeoutMs, TimeUnit.MILLISECONDS);
         if (DeploymentStatus.UNDEPLOYED.equals(currentStatus)) {
             deployment.setEndDate(new Date());
             alienDAO.save(deployment);
@@ -8,6 +8,7 @@ import java.util.UUID;
 
 import javax.annotation.Resource;
 
+import alien4cloud.component.NodeTypeScoreService;
 import alien4cloud.dao.IGenericSearchDAO;
 import alien4cloud.dao.model.GetMultipleDataResult;
 import alien4cloud.exception.AlreadyExistException;
@@ -18,6 +19,7 @@ import alien4cloud.model.templates.TopologyTemplateVersion;
 import alien4cloud.model.topology.AbstractTopologyVersion;
 import alien4cloud.model.topology.Topology;
 import alien4cloud.paas.wf.WorkflowsBuilderService;
+import alien4cloud.topology.TopologyEditionSessionService;
 import alien4cloud.topology.TopologyServiceCore;
 import alien4cloud.utils.MapUtil;
 import alien4cloud.utils.VersionUtil;
@@ -33,9 +35,15 @@ public abstract class AbtractVersionService<V extends AbstractTopologyVersion> {
     @Resource
     private TopologyServiceCore topologyServiceCore;
 
+    @Resource
+    private TopologyEditionSessionService topologyEditionSessionService;
+
     @Resource
     private WorkflowsBuilderService workflowBuilderService;
 
+    @Resource
+    private NodeTypeScoreService nodeTypeScoreService;
+
     protected abstract V buildVersionImplem();
 
     protected abstract V[] buildVersionImplemArray(int length);
@@ -83,7 +91,7 @@ public abstract class AbtractVersionService<V extends AbstractTopologyVersion> {
             topology = providedTopology;
         } else {
             if (topologyToCloneId != null) { // "cloning" the topology
-                topology = alienDAO.findById(Topology.class, topologyToCloneId);
+                topology = topologyServiceCore.getTopology(topologyToCloneId);
             } else {
                 topology = new Topology();
             }
@@ -161,7 +169,9 @@ public abstract class AbtractVersionService<V extends AbstractTopologyVersion> {
     }
 
     private void deleteVersion(V version) {
+        topologyEditionSessionService.discard(version.getTopologyId());
         alienDAO.delete(Topology.class, version.getTopologyId());
+        nodeTypeScoreService.onTopologyDeleted(version.getTopologyId());
         alienDAO.delete(getVersionImplemClass(), version.getId());
     }
 
@@ -300,7 +310,9 @@ public abstract class AbtractVersionService<V extends AbstractTopologyVersion> {
         String oldTopologyId = topologyTemplateVersion.getTopologyId();
         topologyTemplateVersion.setTopologyId(topologyId);
         alienDAO.save(topologyTemplateVersion);
+        topologyEditionSessionService.discard(oldTopologyId);
         alienDAO.delete(Topology.class, oldTopologyId);
+        nodeTypeScoreService.onTopologyDeleted(oldTopologyId);
     }
 
 }
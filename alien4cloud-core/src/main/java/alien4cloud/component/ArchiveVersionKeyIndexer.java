@@ -0,0 +1,135 @@
+package alien4cloud.component;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.Resource;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.elasticsearch.ElasticsearchException;
+import org.elasticsearch.action.bulk.BulkRequestBuilder;
+import org.elasticsearch.action.bulk.BulkResponse;
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.action.search.SearchType;
+import org.elasticsearch.client.Client;
+import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.common.xcontent.XContentFactory;
+import org.elasticsearch.index.query.QueryBuilders;
+import org.elasticsearch.mapping.ElasticSearchClient;
+import org.elasticsearch.search.SearchHit;
+import org.springframework.stereotype.Component;
+
+import alien4cloud.dao.IGenericSearchDAO;
+import alien4cloud.model.components.IndexedToscaElement;
+import alien4cloud.utils.VersionUtil;
+
+import com.google.common.collect.Lists;
+
+/**
+ * Fills the archiveVersionKey field of the tosca elements indexed before the field existed or with a previous format of the key, latest versions of the
+ * elements are found by sorting on this field (see {@link CSARRepositorySearchService}).
+ *
+ * Elements are updated on startup using bulk partial updates. Released archives can't be uploaded again so this is the only way to fix their keys.
+ */
+@Slf4j
+@Component
+public class ArchiveVersionKeyIndexer {
+    private static final String VERSION_FIELD = "archiveVersion";
+    private static final String VERSION_KEY_FIELD = "archiveVersionKey";
+    private static final TimeValue SCROLL_KEEP_ALIVE = TimeValue.timeValueMinutes(1);
+    private static final int BATCH_SIZE = 500;
+
+    @Resource(name = "alien-es-dao")
+    private IGenericSearchDAO alienDAO;
+    @Resource
+    private ElasticSearchClient elasticSearchClient;
+
+    @PostConstruct
+    public void init() {
+        updateVersionKeys();
+    }
+
+    /**
+     * Map the version key field of the tosca element types and update the elements which key is missing or outdated.
+     *
+     * @return The number of updated elements.
+     */
+    public long updateVersionKeys() {
+        Client client = elasticSearchClient.getClient();
+        String indexName = alienDAO.getIndexForType(IndexedToscaElement.class);
+        String[] types = getTypes(indexName);
+        putVersionKeyMapping(client, indexName, types);
+
+        long updates = 0;
+        alienDAO.refreshPendingWrites(IndexedToscaElement.class);
+        SearchResponse response = client.prepareSearch(indexName).setTypes(types).setSearchType(SearchType.SCAN).setScroll(SCROLL_KEEP_ALIVE)
+                .setSize(BATCH_SIZE).setQuery(QueryBuilders.matchAllQuery()).setFetchSource(new String[] { VERSION_FIELD, VERSION_KEY_FIELD }, null)
+                .execute().actionGet();
+        while (true) {
+            response = client.prepareSearchScroll(response.getScrollId()).setScroll(SCROLL_KEEP_ALIVE).execute().actionGet();
+            SearchHit[] hits = response.getHits().getHits();
+            if (hits.length == 0) {
+                break;
+            }
+            updates += updateVersionKeys(client, indexName, hits);
+        }
+        if (updates > 0) {
+            alienDAO.refresh(IndexedToscaElement.class);
+            log.info("Updated the archive version key of {} tosca elements.", updates);
+        }
+        return updates;
+    }
+
+    private String[] getTypes(String indexName) {
+        List<String> types = Lists.newArrayList();
+        for (Map.Entry<String, String> typeToIndex : alienDAO.getTypesToIndices().entrySet()) {
+            if (indexName.equals(typeToIndex.getValue())) {
+                types.add(typeToIndex.getKey());
+            }
+        }
+        return types.toArray(new String[types.size()]);
+    }
+
+    private void putVersionKeyMapping(Client client, String indexName, String[] types) {
+        for (String type : types) {
+            try {
+                XContentBuilder mapping = XContentFactory.jsonBuilder().startObject().startObject(type).startObject("properties")
+                        .startObject(VERSION_KEY_FIELD).field("type", "string").field("index", "not_analyzed").field("include_in_all", false).endObject()
+                        .endObject().endObject().endObject();
+                client.admin().indices().preparePutMapping(indexName).setType(type).setSource(mapping).execute().actionGet();
+            } catch (IOException | ElasticsearchException e) {
+                // the field has been dynamically mapped before, the tosca element index has to be recreated.
+                log.error("Unable to map field <" + VERSION_KEY_FIELD + "> of type <" + type + ">, latest versions of tosca elements may be wrong.", e);
+            }
+        }
+    }
+
+    private int updateVersionKeys(Client client, String indexName, SearchHit[] hits) {
+        BulkRequestBuilder bulkRequestBuilder = client.prepareBulk();
+        for (SearchHit hit : hits) {
+            Map<String, Object> source = hit.getSource();
+            Object version = source == null ? null : source.get(VERSION_FIELD);
+            if (version == null) {
+                continue;
+            }
+            String versionKey = VersionUtil.getSortableKey(version.toString());
+            if (!versionKey.equals(source.get(VERSION_KEY_FIELD))) {
+                bulkRequestBuilder.add(client.prepareUpdate(indexName, hit.getType(), hit.getId()).setDoc(
+                        Collections.singletonMap(VERSION_KEY_FIELD, versionKey)));
+            }
+        }
+        int updates = bulkRequestBuilder.numberOfActions();
+        if (updates > 0) {
+            BulkResponse bulkResponse = bulkRequestBuilder.execute().actionGet();
+            if (bulkResponse.hasFailures()) {
+                log.error("Failed to update the archive version key of tosca elements: {}", bulkResponse.buildFailureMessage());
+            }
+        }
+        return updates;
+    }
+}
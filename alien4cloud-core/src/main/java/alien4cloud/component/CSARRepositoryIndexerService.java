@@ -1,11 +1,8 @@
 package alien4cloud.component;
 
 import java.util.Collection;
-import java.util.Collections;
-import java.util.Comparator;
 import java.util.Date;
 import java.util.HashSet;
-import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -21,8 +18,8 @@ import org.elasticsearch.mapping.ElasticSearchClient;
 import org.springframework.stereotype.Component;
 
 import alien4cloud.dao.ElasticSearchDAO;
+import alien4cloud.dao.CloseableIterable;
 import alien4cloud.dao.IGenericSearchDAO;
-import alien4cloud.dao.model.GetMultipleDataResult;
 import alien4cloud.exception.IndexingServiceException;
 import alien4cloud.images.IImageDAO;
 import alien4cloud.model.common.Tag;
@@ -34,6 +31,7 @@ import alien4cloud.tosca.ArchiveImageLoader;
 import alien4cloud.utils.MapUtil;
 import alien4cloud.utils.VersionUtil;
 
+import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 
@@ -45,27 +43,19 @@ public class CSARRepositoryIndexerService implements ICSARRepositoryIndexerServi
     private ElasticSearchClient elasticSearchClient;
     @Resource
     private IImageDAO imageDAO;
+    @Resource
+    private ToscaElementCache toscaElementCache;
 
     private void refreshIndexForSearching() {
         elasticSearchClient.getClient().admin().indices().prepareRefresh(ElasticSearchDAO.TOSCA_ELEMENT_INDEX).execute().actionGet();
     }
 
     @Override
-    public Map<String, IndexedToscaElement> getArchiveElements(String archiveName, String archiveVersion) {
-        GetMultipleDataResult<IndexedToscaElement> elements = alienDAO.find(
+    public CloseableIterable<IndexedToscaElement> getArchiveElements(String archiveName, String archiveVersion) {
+        return alienDAO.stream(
                 IndexedToscaElement.class,
                 MapUtil.newHashMap(new String[] { "archiveName", "archiveVersion" }, new String[][] { new String[] { archiveName },
-                        new String[] { archiveVersion } }), Integer.MAX_VALUE);
-
-        Map<String, IndexedToscaElement> elementsByIds = Maps.newHashMap();
-        if (elements == null) {
-            return elementsByIds;
-        }
-
-        for (IndexedToscaElement element : elements.getData()) {
-            elementsByIds.put(element.getId(), element);
-        }
-        return elementsByIds;
+                        new String[] { archiveVersion } }));
     }
 
     @Override
@@ -73,14 +63,10 @@ public class CSARRepositoryIndexerService implements ICSARRepositoryIndexerServi
 
         FilterBuilder filter = FilterBuilders.boolFilter().must(FilterBuilders.termFilter("archiveName", archiveName))
                 .must(FilterBuilders.termFilter("archiveVersion", archiveVersion));
-        GetMultipleDataResult<IndexedToscaElement> result = alienDAO.search(IndexedToscaElement.class, null, null, filter, null, 0, Integer.MAX_VALUE);
-        IndexedToscaElement[] elements = result.getData();
-
         // we need to delete each element and find the new highest version element
-        for (IndexedToscaElement element : elements) {
-            deleteElement(element);
+        try (CloseableIterable<IndexedToscaElement> elements = alienDAO.stream(IndexedToscaElement.class, null, filter)) {
+            deleteElements(elements);
         }
-
     }
 
     @Override
@@ -95,6 +81,134 @@ public class CSARRepositoryIndexerService implements ICSARRepositoryIndexerServi
         }
     }
 
+    @Override
+    public void indexArchiveElements(String archiveName, String archiveVersion, List<? extends Map<String, ? extends IndexedInheritableToscaElement>> archiveElements,
+            Collection<CSARDependency> dependencies) {
+        List<IndexedInheritableToscaElement> orderedElements = Lists.newArrayList();
+        Map<String, IndexedInheritableToscaElement> elementsByTypedId = Maps.newHashMap();
+        for (Map<String, ? extends IndexedInheritableToscaElement> elements : archiveElements) {
+            if (elements == null) {
+                continue;
+            }
+            orderedElements.addAll(IndexedModelUtils.orderByDerivedFromHierarchy(elements));
+            for (IndexedInheritableToscaElement element : elements.values()) {
+                elementsByTypedId.put(getTypedId(element.getClass(), element.getElementId()), element);
+            }
+        }
+        if (orderedElements.isEmpty()) {
+            return;
+        }
+
+        Map<String, IndexedInheritableToscaElement> dependencyParents = findDependencyParents(orderedElements, elementsByTypedId, dependencies);
+        Map<String, IndexedToscaElement> highestVersionElements = findHighestVersionElements(archiveName);
+        // elements to save by typed id, a previous highest version element is saved only once with all its updates.
+        Map<String, IndexedToscaElement> elementsToSave = Maps.newLinkedHashMap();
+        for (IndexedInheritableToscaElement element : orderedElements) {
+            element.setLastUpdateDate(new Date());
+            Date creationDate = element.getCreationDate() == null ? element.getLastUpdateDate() : element.getCreationDate();
+            element.setCreationDate(creationDate);
+            if (element.getDerivedFrom() != null) {
+                // parents from the archive are processed first as elements are ordered by hierarchy.
+                String parentTypedId = getTypedId(element.getClass(), element.getDerivedFrom().get(0));
+                IndexedInheritableToscaElement superElement = elementsByTypedId.get(parentTypedId);
+                if (superElement == null) {
+                    superElement = dependencyParents.get(parentTypedId);
+                }
+                if (superElement == null) {
+                    throw new IndexingServiceException("Indexing service is in an inconsistent state, the super element [" + element.getDerivedFrom()
+                            + "] is not found for element [" + element.getId() + "]");
+                }
+                IndexedModelUtils.mergeInheritableIndex(superElement, element);
+            }
+            IndexedToscaElement highestVersionElement = highestVersionElements.get(getTypedId(element.getClass(), element.getElementId()));
+            for (IndexedToscaElement updatedElement : updateHighestVersion(element, highestVersionElement)) {
+                elementsToSave.put(getTypedId(updatedElement.getClass(), updatedElement.getId()), updatedElement);
+            }
+        }
+        alienDAO.save(elementsToSave.values().toArray(new IndexedToscaElement[elementsToSave.size()]));
+        refreshIndexForSearching();
+        toscaElementCache.invalidateAll();
+    }
+
+    /**
+     * Fetch, with a single request, the parents of the elements that are not defined in the archive it-self.
+     * 
+     * When several dependencies define a parent, the one from the highest version is used and then the one from the first archive name so the choice doesn't
+     * depend on the order of the dependencies or of the search hits.
+     * 
+     * @return The parents found in the dependencies by typed id (see {@link #getTypedId(Class, String)}).
+     */
+    private Map<String, IndexedInheritableToscaElement> findDependencyParents(List<IndexedInheritableToscaElement> elements,
+            Map<String, IndexedInheritableToscaElement> elementsByTypedId, Collection<CSARDependency> dependencies) {
+        Map<String, IndexedInheritableToscaElement> parents = Maps.newHashMap();
+        if (dependencies == null || dependencies.isEmpty()) {
+            return parents;
+        }
+        Set<String> parentIds = Sets.newHashSet();
+        for (IndexedInheritableToscaElement element : elements) {
+            if (element.getDerivedFrom() == null || elementsByTypedId.containsKey(getTypedId(element.getClass(), element.getDerivedFrom().get(0)))) {
+                continue;
+            }
+            for (CSARDependency dependency : dependencies) {
+                parentIds.add(element.getDerivedFrom().get(0) + ":" + dependency.getVersion());
+            }
+        }
+        if (parentIds.isEmpty()) {
+            return parents;
+        }
+        Set<String> dependencyNames = Sets.newHashSet();
+        Set<String> dependencyIds = Sets.newHashSet();
+        for (CSARDependency dependency : dependencies) {
+            dependencyNames.add(dependency.getName());
+            dependencyIds.add(dependency.getName() + ":" + dependency.getVersion());
+        }
+        QueryBuilder parentsQueryBuilder = QueryBuilders.boolQuery().must(QueryBuilders.idsQuery().addIds(parentIds.toArray(new String[parentIds.size()])))
+                .must(QueryBuilders.termsQuery("archiveName", dependencyNames.toArray(new String[dependencyNames.size()])));
+        try (CloseableIterable<IndexedToscaElement> foundElements = alienDAO.stream(IndexedToscaElement.class, parentsQueryBuilder, null)) {
+            for (IndexedToscaElement foundElement : foundElements) {
+                // names and versions are matched separately by the query so we have to check that the element really comes from a dependency.
+                String typedId = getTypedId(foundElement.getClass(), foundElement.getElementId());
+                boolean fromDependency = dependencyIds.contains(foundElement.getArchiveName() + ":" + foundElement.getArchiveVersion());
+                if (fromDependency && foundElement instanceof IndexedInheritableToscaElement && isPreferredParent(foundElement, parents.get(typedId))) {
+                    parents.put(typedId, (IndexedInheritableToscaElement) foundElement);
+                }
+            }
+        }
+        return parents;
+    }
+
+    private static boolean isPreferredParent(IndexedToscaElement candidate, IndexedToscaElement current) {
+        if (current == null) {
+            return true;
+        }
+        int versionCompare = VersionUtil.compare(candidate.getArchiveVersion(), current.getArchiveVersion());
+        if (versionCompare != 0) {
+            return versionCompare > 0;
+        }
+        return candidate.getArchiveName().compareTo(current.getArchiveName()) < 0;
+    }
+
+    /**
+     * Fetch, with a single request, the current highest version elements of an archive.
+     * 
+     * @return The highest version elements by typed id (see {@link #getTypedId(Class, String)}).
+     */
+    private Map<String, IndexedToscaElement> findHighestVersionElements(String archiveName) {
+        BoolQueryBuilder highestVersionElementsQueryBuilder = QueryBuilders.boolQuery();
+        highestVersionElementsQueryBuilder.must(QueryBuilders.termQuery("archiveName", archiveName)).must(QueryBuilders.termQuery("highestVersion", true));
+        Map<String, IndexedToscaElement> highestVersionElements = Maps.newHashMap();
+        try (CloseableIterable<IndexedToscaElement> foundElements = alienDAO.stream(IndexedToscaElement.class, highestVersionElementsQueryBuilder, null)) {
+            for (IndexedToscaElement foundElement : foundElements) {
+                highestVersionElements.put(getTypedId(foundElement.getClass(), foundElement.getElementId()), foundElement);
+            }
+        }
+        return highestVersionElements;
+    }
+
+    private static String getTypedId(Class<?> type, String elementId) {
+        return type.getName() + ":" + elementId;
+    }
+
     @Override
     public void indexInheritableElement(String archiveName, String archiveVersion, IndexedInheritableToscaElement element,
             Collection<CSARDependency> dependencies) {
@@ -123,74 +237,123 @@ public class CSARRepositoryIndexerService implements ICSARRepositoryIndexerServi
     }
     
     /**
-     * Delete this indexed element and ensure that the <code>highestVersion<code> and <code>olderVersions</code> properties
-     * are up to date for the remaining ones.
+     * Delete this indexed element and update the <code>highestVersion<code> and <code>olderVersions</code> properties of the remaining ones.
+     * 
+     * The <code>olderVersions</code> of the highest version element is the index of all the other versions of the element so the remaining versions are
+     * never searched for.
+     * 
+     * @param element The element to delete.
+     * @param updatedElements The updated highest version elements that are not saved yet by typed id (see {@link #getTypedId(Class, String)}).
      */
-    private void deleteAndUpdateHighestVersion(IndexedToscaElement element) {
-        boolean elementWasHihestVersion = element.isHighestVersion();
-        String elementVersion = element.getArchiveVersion();
+    private void deleteAndUpdateHighestVersion(IndexedToscaElement element, Map<String, IndexedToscaElement> updatedElements) {
         alienDAO.delete(element.getClass(), element.getId());
 
-        BoolQueryBuilder remainingElementQueryBuilder = QueryBuilders.boolQuery();
-        QueryBuilder archiveNameMatch = QueryBuilders.termQuery("archiveName", element.getArchiveName());
-        QueryBuilder elementIdMatch = QueryBuilders.matchQuery("elementId", element.getElementId());
-        remainingElementQueryBuilder.must(archiveNameMatch).must(elementIdMatch);
-        List<? extends IndexedToscaElement> remainingElements = alienDAO.customFindAll(element.getClass(), remainingElementQueryBuilder);
-
-        if (remainingElements == null) {
-            return;
+        String typedId = getTypedId(element.getClass(), element.getElementId());
+        IndexedToscaElement updatedElement = updatedElements.get(typedId);
+        if (updatedElement != null && updatedElement.getId().equals(element.getId())) {
+            // the element has been promoted as highest version by a previous deletion.
+            element = updatedElements.remove(typedId);
+        } else if (updatedElement == null && !element.isHighestVersion()) {
+            updatedElement = getHighestVersionElement(element);
         }
 
-        if (elementWasHihestVersion) {
-            // we have to search for the new highest version element candidate
-            IndexedToscaElement hightestVersionElement = null;
-            for (IndexedToscaElement remainingElement : remainingElements) {
-                if (hightestVersionElement == null) {
-                    // the first one is obviously the highest, at least currently
-                    hightestVersionElement = remainingElement;
-                } else if (VersionUtil.compare(remainingElement.getArchiveVersion(), hightestVersionElement.getArchiveVersion()) > 0) {
-                    hightestVersionElement = remainingElement;
-                }
+        if (element.isHighestVersion()) {
+            IndexedToscaElement highestVersionElement = null;
+            Set<String> olderVersions = element.getOlderVersions() == null ? new HashSet<String>() : Sets.newHashSet(element.getOlderVersions());
+            String highestVersion = getHighestVersion(olderVersions);
+            if (highestVersion != null) {
+                highestVersionElement = alienDAO.findById(element.getClass(), element.getElementId() + ":" + highestVersion);
             }
-            if (hightestVersionElement != null) {
-                // the highest version has been identified, we'll update it's property
-                hightestVersionElement.setHighestVersion(true);
-                // this component has been promoted as highest version, we may set it's older versions ?
-                Collections.sort(remainingElements, new Comparator<IndexedToscaElement>() {
-                    @Override
-                    public int compare(IndexedToscaElement o1, IndexedToscaElement o2) {
-                        return VersionUtil.compare(o1.getArchiveVersion(), o2.getArchiveVersion());
-                    }
-                });
-                Set<String> olderVersions = new LinkedHashSet<String>();
-                for (IndexedToscaElement remainingElement : remainingElements) {
-                    if (VersionUtil.compare(remainingElement.getArchiveVersion(), hightestVersionElement.getArchiveVersion()) < 0) {
-                        // this is an older version
-                        olderVersions.add(remainingElement.getArchiveVersion());
-                    }
-                }
-                hightestVersionElement.setOlderVersions(olderVersions);
-                alienDAO.save(hightestVersionElement);
-            }
-        } else {
-            // deleted element was not the highest version so maybe it was referenced as an older version
-            for (IndexedToscaElement remainingElement : remainingElements) {
-                if (remainingElement.getOlderVersions() != null && remainingElement.getOlderVersions().contains(elementVersion)) {
-                    // just remove the deleted element version from the olderVersions of the current element
-                    remainingElement.getOlderVersions().remove(elementVersion);
-                    alienDAO.save(remainingElement);
+            if (highestVersionElement == null) {
+                // the older versions are not consistent with the indexed elements, search for the remaining ones.
+                highestVersionElement = findRemainingHighestVersionElement(element);
+                if (highestVersionElement == null) {
+                    return;
                 }
+            } else {
+                // the highest version has been identified, we'll update it's property
+                olderVersions.remove(highestVersion);
+                highestVersionElement.setHighestVersion(true);
+                highestVersionElement.setOlderVersions(olderVersions);
             }
+            updatedElements.put(typedId, highestVersionElement);
+        } else if (updatedElement != null && updatedElement.getOlderVersions() != null
+                && updatedElement.getOlderVersions().remove(element.getArchiveVersion())) {
+            // just remove the deleted element version from the olderVersions of the highest version element
+            updatedElements.put(typedId, updatedElement);
         }
     }
 
-    private void saveAndUpdateHighestVersion(IndexedToscaElement element) {
+    private IndexedToscaElement getHighestVersionElement(IndexedToscaElement element) {
         BoolQueryBuilder highestVersionElementQueryBuilder = QueryBuilders.boolQuery();
         QueryBuilder archiveNameMatch = QueryBuilders.termQuery("archiveName", element.getArchiveName());
         QueryBuilder elementIdMatch = QueryBuilders.matchQuery("elementId", element.getElementId().toLowerCase());
         QueryBuilder beHighestVersion = QueryBuilders.termQuery("highestVersion", true);
         highestVersionElementQueryBuilder.must(archiveNameMatch).must(elementIdMatch).must(beHighestVersion);
-        IndexedToscaElement highestVersionElement = alienDAO.customFind(element.getClass(), highestVersionElementQueryBuilder);
+        return alienDAO.customFind(element.getClass(), highestVersionElementQueryBuilder);
+    }
+
+    private static String getHighestVersion(Collection<String> versions) {
+        String highestVersion = null;
+        for (String version : versions) {
+            if (highestVersion == null || VersionUtil.compare(version, highestVersion) > 0) {
+                highestVersion = version;
+            }
+        }
+        return highestVersion;
+    }
+
+    /**
+     * Search all the remaining versions of a deleted element to find the new highest version element.
+     * 
+     * @return The new highest version element with it's older versions or null if no version of the element remains.
+     */
+    private IndexedToscaElement findRemainingHighestVersionElement(IndexedToscaElement element) {
+        BoolQueryBuilder remainingElementQueryBuilder = QueryBuilders.boolQuery();
+        QueryBuilder archiveNameMatch = QueryBuilders.termQuery("archiveName", element.getArchiveName());
+        QueryBuilder elementIdMatch = QueryBuilders.matchQuery("elementId", element.getElementId());
+        remainingElementQueryBuilder.must(archiveNameMatch).must(elementIdMatch);
+        IndexedToscaElement highestVersionElement = null;
+        Set<String> olderVersions = Sets.newHashSet();
+        try (CloseableIterable<? extends IndexedToscaElement> remainingElements = alienDAO.stream(element.getClass(), remainingElementQueryBuilder, null)) {
+            for (IndexedToscaElement remainingElement : remainingElements) {
+                if (remainingElement.getId().equals(element.getId()) || !remainingElement.getElementId().equals(element.getElementId())) {
+                    continue;
+                }
+                if (highestVersionElement == null || VersionUtil.compare(remainingElement.getArchiveVersion(), highestVersionElement.getArchiveVersion()) > 0) {
+                    if (highestVersionElement != null) {
+                        olderVersions.add(highestVersionElement.getArchiveVersion());
+                    }
+                    highestVersionElement = remainingElement;
+                } else {
+                    olderVersions.add(remainingElement.getArchiveVersion());
+                }
+            }
+        }
+        if (highestVersionElement != null) {
+            highestVersionElement.setHighestVersion(true);
+            highestVersionElement.setOlderVersions(olderVersions);
+        }
+        return highestVersionElement;
+    }
+
+    private void saveAndUpdateHighestVersion(IndexedToscaElement element) {
+        IndexedToscaElement highestVersionElement = getHighestVersionElement(element);
+        for (IndexedToscaElement updatedElement : updateHighestVersion(element, highestVersionElement)) {
+            alienDAO.save(updatedElement);
+        }
+        refreshIndexForSearching();
+        toscaElementCache.invalidateAll();
+    }
+
+    /**
+     * Update the <code>highestVersion<code> and <code>olderVersions</code> properties of an element and of the current highest version element.
+     * 
+     * @param element The element that is indexed.
+     * @param highestVersionElement The current highest version element with the same id, null if there is none.
+     * @return The elements to save.
+     */
+    private List<IndexedToscaElement> updateHighestVersion(IndexedToscaElement element, IndexedToscaElement highestVersionElement) {
         if (highestVersionElement != null) {
             int compareVersionResult = VersionUtil.compare(element.getArchiveVersion(), highestVersionElement.getArchiveVersion());
             if (compareVersionResult > 0) {
@@ -202,13 +365,12 @@ public class CSARRepositoryIndexerService implements ICSARRepositoryIndexerServi
                 newOlderVersions.add(highestVersionElement.getArchiveVersion());
                 element.setOlderVersions(newOlderVersions);
                 highestVersionElement.setOlderVersions(null);
-                alienDAO.save(element);
-                alienDAO.save(highestVersionElement);
+                return Lists.newArrayList(element, highestVersionElement);
             } else if (compareVersionResult == 0) {
                 // The same version as the highest --> override
                 element.setHighestVersion(true);
                 element.setOlderVersions(highestVersionElement.getOlderVersions());
-                alienDAO.save(element);
+                return Lists.newArrayList(element);
             } else {
                 // Current version is more recent than mine, just save
                 Set<String> currentOlderVersions = highestVersionElement.getOlderVersions();
@@ -217,15 +379,12 @@ public class CSARRepositoryIndexerService implements ICSARRepositoryIndexerServi
                     highestVersionElement.setOlderVersions(currentOlderVersions);
                 }
                 currentOlderVersions.add(element.getArchiveVersion());
-                alienDAO.save(highestVersionElement);
-                alienDAO.save(element);
+                return Lists.newArrayList(highestVersionElement, element);
             }
-        } else {
-            // No element found with other version, I'm the highest version
-            element.setHighestVersion(true);
-            alienDAO.save(element);
         }
-        refreshIndexForSearching();
+        // No element found with other version, I'm the highest version
+        element.setHighestVersion(true);
+        return Lists.newArrayList(element);
     }
 
     private static void addArchiveToQuery(BoolQueryBuilder boolQueryBuilder, String elementId, String archiveName, String archiveVersion) {
@@ -234,18 +393,17 @@ public class CSARRepositoryIndexerService implements ICSARRepositoryIndexerServi
         boolQueryBuilder.should(QueryBuilders.boolQuery().must(matchIdQueryBuilder).must(matchArchiveNameQueryBuilder));
     }
 
-    private void deleteElement(IndexedToscaElement element) {
-        Tag iconTag = ArchiveImageLoader.getIconTag(element.getTags());
-        if (iconTag != null) {
-            imageDAO.delete(iconTag.getValue());
-        }
-        deleteAndUpdateHighestVersion(element);
-    }
-
     @Override
-    public void deleteElements(Collection<IndexedToscaElement> elements) {
+    public void deleteElements(Iterable<IndexedToscaElement> elements) {
+        Map<String, IndexedToscaElement> updatedElements = Maps.newLinkedHashMap();
         for (IndexedToscaElement element : elements) {
-            deleteElement(element);
+            Tag iconTag = ArchiveImageLoader.getIconTag(element.getTags());
+            if (iconTag != null) {
+                imageDAO.delete(iconTag.getValue());
+            }
+            deleteAndUpdateHighestVersion(element, updatedElements);
         }
+        alienDAO.save(updatedElements.values().toArray(new IndexedToscaElement[updatedElements.size()]));
+        toscaElementCache.invalidateAll();
     }
 }
\ No newline at end of file
@@ -1,21 +1,23 @@
 package alien4cloud.component;
 
 import java.util.Collection;
-import java.util.Collections;
-import java.util.Comparator;
-import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
 
 import javax.annotation.Resource;
 
 import lombok.NonNull;
 
 import org.elasticsearch.index.query.BoolQueryBuilder;
+import org.elasticsearch.index.query.IdsQueryBuilder;
 import org.elasticsearch.index.query.QueryBuilder;
 import org.elasticsearch.index.query.QueryBuilders;
+import org.elasticsearch.search.sort.SortBuilders;
+import org.elasticsearch.search.sort.SortOrder;
 import org.springframework.stereotype.Component;
 
+import alien4cloud.dao.CloseableIterable;
 import alien4cloud.dao.IGenericSearchDAO;
 import alien4cloud.dao.model.FacetedSearchResult;
 import alien4cloud.dao.model.FetchContext;
@@ -26,6 +28,7 @@ import alien4cloud.model.components.IndexedToscaElement;
 import alien4cloud.utils.CollectionUtils;
 import alien4cloud.utils.VersionUtil;
 
+import com.google.common.base.Function;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 
@@ -33,6 +36,8 @@ import com.google.common.collect.Sets;
 public class CSARRepositorySearchService implements ICSARRepositorySearchService {
     @Resource(name = "alien-es-dao")
     private IGenericSearchDAO searchDAO;
+    @Resource
+    private ToscaElementCache toscaElementCache;
 
     @Override
     public boolean isElementExistInDependencies(@NonNull Class<? extends IndexedToscaElement> elementClass, @NonNull String elementId,
@@ -51,25 +56,25 @@ public class CSARRepositorySearchService implements ICSARRepositorySearchService
     }
 
     private <T extends IndexedToscaElement> T getLatestVersionOfElement(Class<T> elementClass, QueryBuilder queryBuilder) {
-        List<T> elements = searchDAO.customFindAll(elementClass, queryBuilder);
-        if (elements != null && !elements.isEmpty()) {
-            Collections.sort(elements, new Comparator<T>() {
-                @Override
-                public int compare(T left, T right) {
-                    return VersionUtil.parseVersion(left.getArchiveVersion()).compareTo(VersionUtil.parseVersion(right.getArchiveVersion()));
-                }
-            });
-            return elements.get(elements.size() - 1);
-        } else {
-            return null;
-        }
+        // elements are sorted by elastic search using the sortable key of the archive version
+        return searchDAO.customFind(elementClass, queryBuilder, SortBuilders.fieldSort("archiveVersionKey").order(SortOrder.DESC));
     }
 
     @Override
-    public <T extends IndexedToscaElement> T getElementInDependencies(Class<T> elementClass, String elementId, Collection<CSARDependency> dependencies) {
+    public <T extends IndexedToscaElement> T getElementInDependencies(final Class<T> elementClass, final String elementId,
+            final Collection<CSARDependency> dependencies) {
         if (dependencies == null || dependencies.isEmpty()) {
             return null;
         }
+        return toscaElementCache.get(elementClass, elementId, dependencies, new Callable<T>() {
+            @Override
+            public T call() {
+                return findElementInDependencies(elementClass, elementId, dependencies);
+            }
+        });
+    }
+
+    private <T extends IndexedToscaElement> T findElementInDependencies(Class<T> elementClass, String elementId, Collection<CSARDependency> dependencies) {
         // The query match element id of all defined dependencies' version from defined dependencies' archive name
         BoolQueryBuilder boolQueryBuilder = QueryBuilders.boolQuery();
         for (CSARDependency dependency : dependencies) {
@@ -80,6 +85,45 @@ public class CSARRepositorySearchService implements ICSARRepositorySearchService
         return getLatestVersionOfElement(elementClass, boolQueryBuilder);
     }
 
+    @Override
+    public <T extends IndexedToscaElement> Map<String, T> getElementsInDependencies(final Class<T> elementClass, Collection<String> elementIds,
+            final Collection<CSARDependency> dependencies) {
+        if (dependencies == null || dependencies.isEmpty() || elementIds == null || elementIds.isEmpty()) {
+            return Maps.newHashMap();
+        }
+        return toscaElementCache.getAll(elementClass, elementIds, dependencies, new Function<Set<String>, Map<String, T>>() {
+            @Override
+            public Map<String, T> apply(Set<String> input) {
+                return findElementsInDependencies(elementClass, input, dependencies);
+            }
+        });
+    }
+
+    private <T extends IndexedToscaElement> Map<String, T> findElementsInDependencies(Class<T> elementClass, Set<String> elementIds,
+            Collection<CSARDependency> dependencies) {
+        // The query match any of the element ids in all defined dependencies' version from defined dependencies' archive name
+        BoolQueryBuilder boolQueryBuilder = QueryBuilders.boolQuery();
+        for (CSARDependency dependency : dependencies) {
+            IdsQueryBuilder idQueryBuilder = QueryBuilders.idsQuery();
+            for (String elementId : elementIds) {
+                idQueryBuilder.addIds(elementId + ":" + dependency.getVersion());
+            }
+            QueryBuilder matchArchiveNameQueryBuilder = QueryBuilders.termQuery("archiveName", dependency.getName());
+            boolQueryBuilder.should(QueryBuilders.boolQuery().must(idQueryBuilder).must(matchArchiveNameQueryBuilder));
+        }
+        // keep the latest version of every element
+        Map<String, T> elements = Maps.newHashMap();
+        try (CloseableIterable<T> foundElements = searchDAO.stream(elementClass, boolQueryBuilder, null)) {
+            for (T element : foundElements) {
+                T current = elements.get(element.getElementId());
+                if (current == null || VersionUtil.compare(element.getArchiveVersion(), current.getArchiveVersion()) > 0) {
+                    elements.put(element.getElementId(), element);
+                }
+            }
+        }
+        return elements;
+    }
+
     public <T extends IndexedToscaElement> T getElementInDependencies(Class<T> elementClass, QueryBuilder query, Collection<CSARDependency> dependencies) {
         if (dependencies == null || dependencies.isEmpty()) {
             return null;
@@ -105,6 +149,19 @@ public class CSARRepositorySearchService implements ICSARRepositorySearchService
         return element;
     }
 
+    @Override
+    public <T extends IndexedToscaElement> Map<String, T> getRequiredElementsInDependencies(Class<T> elementClass, Collection<String> elementIds,
+            Collection<CSARDependency> dependencies) throws NotFoundException {
+        Map<String, T> elements = getElementsInDependencies(elementClass, elementIds, dependencies);
+        for (String elementId : elementIds) {
+            if (!elements.containsKey(elementId)) {
+                throw new NotFoundException("Element elementId: <" + elementId + "> of type <" + elementClass.getSimpleName() + "> cannot be found in dependencies "
+                        + dependencies);
+            }
+        }
+        return elements;
+    }
+
     @Override
     public <T extends IndexedToscaElement> T getParentOfElement(Class<T> elementClass, T indexedToscaElement, String parentElementId) {
         Csar csar = searchDAO.findById(Csar.class, indexedToscaElement.getArchiveName() + ":" + indexedToscaElement.getArchiveVersion());
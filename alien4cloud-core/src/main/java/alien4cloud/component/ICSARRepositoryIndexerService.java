@@ -1,8 +1,10 @@
 package alien4cloud.component;
 
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 
+import alien4cloud.dao.CloseableIterable;
 import alien4cloud.model.components.IndexedInheritableToscaElement;
 import alien4cloud.model.components.IndexedToscaElement;
 import alien4cloud.model.components.CSARDependency;
@@ -16,9 +18,9 @@ public interface ICSARRepositoryIndexerService {
      * 
      * @param archiveName The name of the archive.
      * @param archiveVersion The version of the archive.
-     * @return A map of {@link IndexedToscaElement} by id.
+     * @return The {@link IndexedToscaElement} of the archive, fetched in batches while iterating. The iterable must be closed by the caller.
      */
-    Map<String, IndexedToscaElement> getArchiveElements(String archiveName, String archiveVersion);
+    CloseableIterable<IndexedToscaElement> getArchiveElements(String archiveName, String archiveVersion);
 
     /**
      * Delete all elements from a given archive.
@@ -39,6 +41,19 @@ public interface ICSARRepositoryIndexerService {
     void indexInheritableElements(String archiveName, String archiveVersion, Map<String, ? extends IndexedInheritableToscaElement> archiveElements,
             Collection<CSARDependency> dependencies);
 
+    /**
+     * Index all the elements of an archive into the repository using a single bulk request.
+     * 
+     * Parents are resolved from the elements of the archive it-self and from the dependencies and the index is refreshed only once all elements are saved.
+     * 
+     * @param archiveName The name of the archive in which the elements lies.
+     * @param archiveVersion The version of the archive in which the elements lies.
+     * @param archiveElements The elements to index by type, elements of a map may only inherit from the elements of the same map.
+     * @param dependencies The archive dependencies (in order to add infos from the parent element to the child...)
+     */
+    void indexArchiveElements(String archiveName, String archiveVersion, List<? extends Map<String, ? extends IndexedInheritableToscaElement>> archiveElements,
+            Collection<CSARDependency> dependencies);
+
     /**
      * Index a single element into the repository.
      * 
@@ -54,5 +69,5 @@ public interface ICSARRepositoryIndexerService {
      * 
      * @param elements the elements to delete.
      */
-    void deleteElements(Collection<IndexedToscaElement> elements);
+    void deleteElements(Iterable<IndexedToscaElement> elements);
 }
\ No newline at end of file
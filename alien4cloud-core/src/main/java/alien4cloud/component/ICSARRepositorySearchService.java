@@ -35,6 +35,29 @@ public interface ICSARRepositorySearchService {
      */
     <T extends IndexedToscaElement> T getElementInDependencies(Class<T> elementClass, String elementId, Collection<CSARDependency> dependencies);
 
+    /**
+     * Get multiple elements of the same class from defined dependencies using a single query.
+     *
+     * @param elementClass The element class.
+     * @param elementIds The TOSCA element ids of the elements (without archive version).
+     * @param dependencies A list of CSAR in which the elements may be defined.
+     * @return A map of the elements by element id, elements that are not found are not in the map.
+     */
+    <T extends IndexedToscaElement> Map<String, T> getElementsInDependencies(Class<T> elementClass, Collection<String> elementIds,
+            Collection<CSARDependency> dependencies);
+
+    /**
+     * Get multiple elements of the same class from defined dependencies using a single query.
+     *
+     * @param elementClass The element class.
+     * @param elementIds The TOSCA element ids of the elements (without archive version).
+     * @param dependencies A list of CSAR in which the elements may be defined.
+     * @return A map of the elements by element id.
+     * @throws NotFoundException in case one of the elements cannot be found.
+     */
+    <T extends IndexedToscaElement> Map<String, T> getRequiredElementsInDependencies(Class<T> elementClass, Collection<String> elementIds,
+            Collection<CSARDependency> dependencies) throws NotFoundException;
+
     /**
      * Get an element matching specified query from given dependencies
      * 
@@ -1,40 +1,78 @@
 package alien4cloud.component;
 
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 
 import javax.annotation.PostConstruct;
 import javax.annotation.Resource;
 
 import lombok.extern.slf4j.Slf4j;
 
+import org.elasticsearch.action.bulk.BulkRequestBuilder;
+import org.elasticsearch.action.search.SearchRequestBuilder;
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.action.search.SearchType;
+import org.elasticsearch.client.Client;
+import org.elasticsearch.index.query.FilterBuilder;
+import org.elasticsearch.index.query.FilterBuilders;
+import org.elasticsearch.index.query.QueryBuilders;
+import org.elasticsearch.mapping.ElasticSearchClient;
+import org.elasticsearch.mapping.MappingBuilder;
+import org.elasticsearch.search.aggregations.AggregationBuilders;
+import org.elasticsearch.search.aggregations.bucket.terms.Terms;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
 import org.springframework.scheduling.TaskScheduler;
 import org.springframework.stereotype.Component;
 
-import alien4cloud.Constants;
+import alien4cloud.dao.CloseableIterable;
 import alien4cloud.dao.IGenericSearchDAO;
-import alien4cloud.dao.model.GetMultipleDataResult;
 import alien4cloud.model.components.IndexedNodeType;
+import alien4cloud.model.topology.NodeTemplate;
 import alien4cloud.model.topology.Topology;
-import alien4cloud.utils.MapUtil;
-import alien4cloud.utils.version.Version;
+import alien4cloud.topology.TopologyEditionSessionService;
+import alien4cloud.utils.VersionUtil;
 
+import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
 
 /**
  * Updates the scoring of node types based on their usage, version and default capabilities.
+ *
+ * Usage of the node types in topologies is computed for all node types with a single aggregation when the full scoring runs. In between, node types used
+ * by saved or deleted topologies are marked as changed and only their scores are updated. Scores are written using bulk partial updates.
+ *
+ * Topologies being edited are persisted asynchronously by the {@link TopologyEditionSessionService} which notifies this service once a topology is
+ * actually written, so usages are always computed from persisted topologies.
  */
 @Slf4j
 @Component
-public class NodeTypeScoreService implements Runnable {
+public class NodeTypeScoreService implements Runnable, PublicMetrics {
+    private static final String METRICS_PREFIX = "components.score.";
+    private static final String USAGE_AGGREGATION = "usage";
+    private static final String NODE_TYPE_PATH = "nodeTemplates.value.type";
+
     @Resource(name = "alien-es-dao")
     private IGenericSearchDAO alienESDAO;
+    @Resource
+    private ElasticSearchClient elasticSearchClient;
     @Resource(name = "node-type-score-scheduler")
     private TaskScheduler scheduler;
+    @Resource
+    private ToscaElementCache toscaElementCache;
 
     @Value("${components.search.boost.frequency}")
     private long frequencyH = 1;
+    /** Delay in seconds between two updates of the scores of the node types which usage has changed. */
+    @Value("${components.search.boost.incremental_delay:60}")
+    private long incrementalDelayS;
     @Value("${components.search.boost.usage}")
     private long usageBoost;
     @Value("${components.search.boost.version}")
@@ -42,55 +80,214 @@ public class NodeTypeScoreService implements Runnable {
     @Value("${components.search.boost.default}")
     private long defaultBoost;
 
+    /** Node types of the topologies saved since startup by topology id, node types ids are lower cased as in the topologies index. */
+    private final Map<String, Set<String>> topologiesNodeTypes = Maps.newConcurrentMap();
+    /** Node types which usage has changed since the last scores update. */
+    private final Set<String> changedNodeTypes = Sets.newConcurrentHashSet();
+
+    private final AtomicLong runs = new AtomicLong();
+    private final AtomicLong incrementalRuns = new AtomicLong();
+    private volatile long lastRunDuration;
+    private volatile long lastIncrementalRunDuration;
+    private volatile long lastRunUpdates;
+
     /** Refresh boost for all indexed node types in the system. */
     @PostConstruct
     public void refreshBoostCompute() {
         long frequencyMs = frequencyH * 1000 * 60 * 60;
         Date date = new Date(System.currentTimeMillis() + frequencyMs);
         scheduler.scheduleAtFixedRate(this, date, frequencyMs);
+        long incrementalDelayMs = incrementalDelayS * 1000;
+        scheduler.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                updateChangedNodeTypes();
+            }
+        }, new Date(System.currentTimeMillis() + incrementalDelayMs), incrementalDelayMs);
+    }
+
+    /**
+     * Mark the node types of a topology (and the ones it was using before if known) as changed so their scores are updated.
+     *
+     * @param topology The topology that has been persisted.
+     */
+    public void onTopologySaved(Topology topology) {
+        Set<String> nodeTypes = Sets.newHashSet();
+        if (topology.getNodeTemplates() != null) {
+            for (NodeTemplate nodeTemplate : topology.getNodeTemplates().values()) {
+                nodeTypes.add(nodeTemplate.getType().toLowerCase());
+            }
+        }
+        Set<String> previousNodeTypes = topologiesNodeTypes.put(topology.getId(), nodeTypes);
+        if (previousNodeTypes == null) {
+            changedNodeTypes.addAll(nodeTypes);
+        } else if (!previousNodeTypes.equals(nodeTypes)) {
+            changedNodeTypes.addAll(Sets.symmetricDifference(previousNodeTypes, nodeTypes));
+        }
+    }
+
+    /**
+     * Mark the node types of a topology as changed so their scores are updated. Node types of topologies that has not been saved since startup are updated
+     * by the next full scoring.
+     *
+     * @param topologyId The id of the topology that has been deleted.
+     */
+    public void onTopologyDeleted(String topologyId) {
+        Set<String> previousNodeTypes = topologiesNodeTypes.remove(topologyId);
+        if (previousNodeTypes != null) {
+            changedNodeTypes.addAll(previousNodeTypes);
+        }
     }
 
     @Override
     public void run() {
         log.info("Updating node type scores.");
+        long start = System.currentTimeMillis();
+        // the usage of every node type is computed so pending changes are processed by this run.
+        changedNodeTypes.clear();
+        Map<String, Long> usages = countUsages(null);
         // Go over all indexed node types.
-        GetMultipleDataResult<IndexedNodeType> getMultipleDataResult = alienESDAO.find(IndexedNodeType.class, null, 0, Constants.DEFAULT_ES_SEARCH_SIZE);
-        int from = getMultipleDataResult.getTo() + 1;
-        processNodeTypes(getMultipleDataResult.getData());
-        while (getMultipleDataResult.getData().length > 0 && from < getMultipleDataResult.getTotalResults()) {
-            getMultipleDataResult = alienESDAO.find(IndexedNodeType.class, null, from, from + Constants.DEFAULT_ES_SEARCH_SIZE);
-            from = getMultipleDataResult.getTo() + 1;
-            processNodeTypes(getMultipleDataResult.getData());
+        List<ScoredNodeType> nodeTypes = Lists.newArrayList();
+        addNodeTypes(nodeTypes, alienESDAO.stream(IndexedNodeType.class, null), null);
+        lastRunUpdates = updateScores(nodeTypes, usages);
+        if (lastRunUpdates > 0) {
+            toscaElementCache.invalidateAll();
+        }
+        lastRunDuration = System.currentTimeMillis() - start;
+        runs.incrementAndGet();
+        log.info("Updated {} node type scores in {} ms.", lastRunUpdates, lastRunDuration);
+    }
+
+    /**
+     * Update the scores of the node types which usage has changed since the last update.
+     */
+    public void updateChangedNodeTypes() {
+        if (changedNodeTypes.isEmpty()) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        Set<String> nodeTypeIds = Sets.newHashSet(changedNodeTypes);
+        changedNodeTypes.removeAll(nodeTypeIds);
+        String[] ids = nodeTypeIds.toArray(new String[nodeTypeIds.size()]);
+
+        // every topology that uses one of the changed node types is in the aggregation so their usage counts are exact.
+        Map<String, Long> usages = countUsages(FilterBuilders.termsFilter(NODE_TYPE_PATH, ids));
+        // all versions are fetched in order to know which one is the latest.
+        List<ScoredNodeType> nodeTypes = Lists.newArrayList();
+        addNodeTypes(nodeTypes, alienESDAO.stream(IndexedNodeType.class, null, FilterBuilders.termsFilter("elementId", ids)), nodeTypeIds);
+        long updates = updateScores(nodeTypes, usages);
+        if (updates > 0) {
+            // cached node types must not be served with their previous score.
+            toscaElementCache.invalidate(nodeTypeIds);
         }
+        lastIncrementalRunDuration = System.currentTimeMillis() - start;
+        incrementalRuns.incrementAndGet();
+        log.debug("Updated {} node type scores for {} changed node types in {} ms.", updates, nodeTypeIds.size(), lastIncrementalRunDuration);
     }
 
-    private void processNodeTypes(IndexedNodeType[] indexedNodeTypes) {
-        for (IndexedNodeType nodeType : indexedNodeTypes) {
-            Map<String, String[]> usedNodeFiler = Maps.newHashMap();
-            usedNodeFiler.put("nodeTemplates.value.type", new String[] { nodeType.getElementId() });
+    private void addNodeTypes(List<ScoredNodeType> nodeTypes, CloseableIterable<IndexedNodeType> indexedNodeTypes, Set<String> nodeTypeIds) {
+        try {
+            for (IndexedNodeType nodeType : indexedNodeTypes) {
+                if (nodeTypeIds == null || nodeTypeIds.contains(nodeType.getElementId().toLowerCase())) {
+                    nodeTypes.add(new ScoredNodeType(nodeType));
+                }
+            }
+        } finally {
+            indexedNodeTypes.close();
+        }
+    }
+
+    /**
+     * Count the number of topologies that use each node type with a single terms aggregation.
+     *
+     * @param filter A filter to restrict the topologies to aggregate, null to aggregate all topologies.
+     * @return The number of topologies that use a node type by lower cased node type id.
+     */
+    private Map<String, Long> countUsages(FilterBuilder filter) {
+        // topologies being edited are counted once persisted, their node types are then marked as changed.
+        alienESDAO.refreshPendingWrites(Topology.class);
+        Client client = elasticSearchClient.getClient();
+        SearchRequestBuilder searchRequestBuilder = client.prepareSearch(alienESDAO.getIndexForType(Topology.class))
+                .setTypes(MappingBuilder.indexTypeFromClass(Topology.class)).setSearchType(SearchType.COUNT)
+                .addAggregation(AggregationBuilders.terms(USAGE_AGGREGATION).field(NODE_TYPE_PATH).size(0));
+        if (filter != null) {
+            searchRequestBuilder.setQuery(QueryBuilders.filteredQuery(QueryBuilders.matchAllQuery(), filter));
+        }
+        SearchResponse response = searchRequestBuilder.execute().actionGet();
+        Map<String, Long> usages = Maps.newHashMap();
+        Terms usageTerms = response.getAggregations().get(USAGE_AGGREGATION);
+        for (Terms.Bucket bucket : usageTerms.getBuckets()) {
+            usages.put(bucket.getKey(), bucket.getDocCount());
+        }
+        return usages;
+    }
+
+    /**
+     * Compute the scores of the given node types and save the ones that has changed with a single bulk request.
+     *
+     * @param nodeTypes The node types to score, all versions of a node type must be given in order to know which one is the latest.
+     * @param usages The number of topologies that use each node type by lower cased node type id.
+     * @return The number of node types which score has been updated.
+     */
+    private long updateScores(List<ScoredNodeType> nodeTypes, Map<String, Long> usages) {
+        // get the version factor (latest version of a node is better than previous version)
+        Map<String, String> latestVersions = Maps.newHashMap();
+        for (ScoredNodeType nodeType : nodeTypes) {
+            String latestVersion = latestVersions.get(nodeType.elementId);
+            if (latestVersion == null || VersionUtil.compare(nodeType.archiveVersion, latestVersion) > 0) {
+                latestVersions.put(nodeType.elementId, nodeType.archiveVersion);
+            }
+        }
+
+        Client client = elasticSearchClient.getClient();
+        String indexName = alienESDAO.getIndexForType(IndexedNodeType.class);
+        String typeName = MappingBuilder.indexTypeFromClass(IndexedNodeType.class);
+        BulkRequestBuilder bulkRequestBuilder = client.prepareBulk();
+        for (ScoredNodeType nodeType : nodeTypes) {
+            Long usage = usages.get(nodeType.elementId.toLowerCase());
             // count the applications that uses the node-type
-            long usageFactor = usageBoost * alienESDAO.count(Topology.class, null, usedNodeFiler);
-            // get the version factor (latest version of a node is better than previous version, snapshot versions do not get boost)
-            long versionFactor = isLatestVersion(nodeType) ? versionBoost : 0;
+            long usageFactor = usage == null ? 0 : usageBoost * usage;
+            long versionFactor = nodeType.archiveVersion.equals(latestVersions.get(nodeType.elementId)) ? versionBoost : 0;
             // default boost (boost node types that have a default capability)
-            long defaultFactor = nodeType.getDefaultCapabilities() == null || nodeType.getDefaultCapabilities().isEmpty() ? 0 : defaultBoost;
-            // update the score for the node type.
-            nodeType.setAlienScore(usageFactor + defaultFactor + versionFactor);
-            alienESDAO.save(nodeType);
+            long defaultFactor = nodeType.hasDefaultCapabilities ? defaultBoost : 0;
+            long score = usageFactor + defaultFactor + versionFactor;
+            if (score != nodeType.score) {
+                bulkRequestBuilder.add(client.prepareUpdate(indexName, typeName, nodeType.id).setDoc(Collections.singletonMap("alienScore", score)));
+            }
+        }
+        int updates = bulkRequestBuilder.numberOfActions();
+        if (updates > 0) {
+            bulkRequestBuilder.setRefresh(true).execute().actionGet();
         }
+        return updates;
     }
 
-    private boolean isLatestVersion(IndexedNodeType nodeType) {
-        Map<String, String[]> filters = MapUtil.newHashMap(new String[] { "elementId" }, new String[][] { new String[] { nodeType.getElementId() } });
-        // TODO get a single element and order by version.
-        Version nodeVersion = new Version(((IndexedNodeType) nodeType).getArchiveVersion());
+    @Override
+    public Collection<Metric<?>> metrics() {
+        Collection<Metric<?>> metrics = Lists.newArrayList();
+        metrics.add(new Metric<Long>(METRICS_PREFIX + "runs", runs.get()));
+        metrics.add(new Metric<Long>(METRICS_PREFIX + "last_run.duration", lastRunDuration));
+        metrics.add(new Metric<Long>(METRICS_PREFIX + "last_run.updates", lastRunUpdates));
+        metrics.add(new Metric<Long>(METRICS_PREFIX + "incremental_runs", incrementalRuns.get()));
+        metrics.add(new Metric<Long>(METRICS_PREFIX + "last_incremental_run.duration", lastIncrementalRunDuration));
+        metrics.add(new Metric<Integer>(METRICS_PREFIX + "changed_node_types", changedNodeTypes.size()));
+        return metrics;
+    }
 
-        for (Object otherVersionNodeType : alienESDAO.find(IndexedNodeType.class, filters, Constants.DEFAULT_ES_SEARCH_SIZE).getData()) {
-            Version otherVersion = new Version(((IndexedNodeType) otherVersionNodeType).getArchiveVersion());
-            if (nodeVersion.compareTo(otherVersion) < 0) {
-                return false;
-            }
+    /** The informations of a node type required to compute its score. */
+    private static class ScoredNodeType {
+        private final String id;
+        private final String elementId;
+        private final String archiveVersion;
+        private final boolean hasDefaultCapabilities;
+        private final long score;
+
+        private ScoredNodeType(IndexedNodeType nodeType) {
+            this.id = nodeType.getId();
+            this.elementId = nodeType.getElementId();
+            this.archiveVersion = nodeType.getArchiveVersion();
+            this.hasDefaultCapabilities = nodeType.getDefaultCapabilities() != null && !nodeType.getDefaultCapabilities().isEmpty();
+            this.score = nodeType.getAlienScore();
         }
-        return true;
     }
 }
@@ -0,0 +1,203 @@
+package alien4cloud.component;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+
+import javax.annotation.PostConstruct;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.stereotype.Component;
+
+import alien4cloud.dao.ElasticSearchMapper;
+import alien4cloud.exception.IndexingServiceException;
+import alien4cloud.model.components.CSARDependency;
+import alien4cloud.model.components.IndexedToscaElement;
+import alien4cloud.utils.VersionUtil;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.base.Function;
+import com.google.common.base.Optional;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+/**
+ * Size bounded cache for tosca elements resolved from a set of dependencies.
+ *
+ * Only lookups against released (non SNAPSHOT) dependencies are cached as released archives are immutable. Elements are stored serialized so every caller
+ * gets it's own instance and can safely modify it. The cache is invalidated whenever elements are indexed or deleted from the repository.
+ */
+@Slf4j
+@Component
+public class ToscaElementCache implements PublicMetrics {
+    private static final String METRICS_PREFIX = "components.cache.";
+
+    @Value("${components.cache.max_size:10000}")
+    private long maxSize;
+
+    private final ObjectMapper mapper = ElasticSearchMapper.getInstance();
+    private Cache<String, Optional<byte[]>> cache;
+
+    @PostConstruct
+    public void init() {
+        cache = CacheBuilder.newBuilder().maximumSize(maxSize).recordStats().build();
+    }
+
+    /**
+     * Get an element from the cache or load it using the given loader if not cached.
+     *
+     * @param elementClass The class of the element to get.
+     * @param elementId The id of the element (without archive version).
+     * @param dependencies The dependencies in which the element is looked up.
+     * @param loader The loader to use in case the element is not in the cache.
+     * @return The element or null if the element doesn't exists in the given dependencies.
+     */
+    public <T extends IndexedToscaElement> T get(Class<T> elementClass, String elementId, Collection<CSARDependency> dependencies, final Callable<T> loader) {
+        if (!isCacheable(dependencies)) {
+            return call(loader);
+        }
+        String key = key(elementClass, elementId, dependencies);
+        try {
+            Optional<byte[]> cached = cache.get(key, new Callable<Optional<byte[]>>() {
+                @Override
+                public Optional<byte[]> call() throws Exception {
+                    T element = loader.call();
+                    return element == null ? Optional.<byte[]> absent() : Optional.of(mapper.writeValueAsBytes(element));
+                }
+            });
+            return cached.isPresent() ? mapper.readValue(cached.get(), elementClass) : null;
+        } catch (UncheckedExecutionException e) {
+            // propagate runtime exceptions from the loader as is.
+            throw (RuntimeException) e.getCause();
+        } catch (ExecutionException | IOException e) {
+            throw new IndexingServiceException("Unable to get element <" + elementId + "> from cache.", e);
+        }
+    }
+
+    /**
+     * Get multiple elements from the cache, elements that are not in the cache are loaded in a single call to the given loader.
+     *
+     * @param elementClass The class of the elements to get.
+     * @param elementIds The ids of the elements (without archive version).
+     * @param dependencies The dependencies in which the elements are looked up.
+     * @param loader The loader that returns a map of element by id for the requested ids that are not cached.
+     * @return A map of element by id, ids of elements that doesn't exists in the given dependencies are not in the map.
+     */
+    public <T extends IndexedToscaElement> Map<String, T> getAll(Class<T> elementClass, Collection<String> elementIds,
+            Collection<CSARDependency> dependencies, Function<Set<String>, Map<String, T>> loader) {
+        if (!isCacheable(dependencies)) {
+            return loader.apply(Sets.newHashSet(elementIds));
+        }
+        try {
+            Map<String, T> elements = Maps.newHashMap();
+            Set<String> missingIds = Sets.newHashSet();
+            for (String elementId : elementIds) {
+                Optional<byte[]> cached = cache.getIfPresent(key(elementClass, elementId, dependencies));
+                if (cached == null) {
+                    missingIds.add(elementId);
+                } else if (cached.isPresent()) {
+                    elements.put(elementId, mapper.readValue(cached.get(), elementClass));
+                }
+            }
+            if (missingIds.isEmpty()) {
+                return elements;
+            }
+            Map<String, T> loaded = loader.apply(missingIds);
+            for (String elementId : missingIds) {
+                T element = loaded.get(elementId);
+                cache.put(key(elementClass, elementId, dependencies),
+                        element == null ? Optional.<byte[]> absent() : Optional.of(mapper.writeValueAsBytes(element)));
+                if (element != null) {
+                    elements.put(elementId, element);
+                }
+            }
+            return elements;
+        } catch (IOException e) {
+            throw new IndexingServiceException("Unable to get elements <" + elementIds + "> from cache.", e);
+        }
+    }
+
+    /**
+     * Remove all elements from the cache.
+     */
+    public void invalidateAll() {
+        log.debug("Invalidating tosca elements cache");
+        cache.invalidateAll();
+    }
+
+    /**
+     * Remove the elements with the given ids from the cache, whatever their class and dependencies.
+     *
+     * @param elementIds The ids of the elements (without archive version), compared ignoring case.
+     */
+    public void invalidate(Collection<String> elementIds) {
+        Set<String> lowerCaseIds = Sets.newHashSet();
+        for (String elementId : elementIds) {
+            lowerCaseIds.add(elementId.toLowerCase());
+        }
+        for (String key : cache.asMap().keySet()) {
+            int elementIdStart = key.indexOf('|') + 1;
+            String elementId = key.substring(elementIdStart, key.indexOf('|', elementIdStart));
+            if (lowerCaseIds.contains(elementId.toLowerCase())) {
+                cache.invalidate(key);
+            }
+        }
+    }
+
+    private <T> T call(Callable<T> loader) {
+        try {
+            return loader.call();
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IndexingServiceException("Unable to load element.", e);
+        }
+    }
+
+    private boolean isCacheable(Collection<CSARDependency> dependencies) {
+        if (dependencies == null || dependencies.isEmpty()) {
+            return false;
+        }
+        for (CSARDependency dependency : dependencies) {
+            if (VersionUtil.isSnapshot(dependency.getVersion())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String key(Class<?> elementClass, String elementId, Collection<CSARDependency> dependencies) {
+        List<String> dependencyKeys = Lists.newArrayListWithCapacity(dependencies.size());
+        for (CSARDependency dependency : dependencies) {
+            dependencyKeys.add(dependency.getName() + ":" + dependency.getVersion());
+        }
+        Collections.sort(dependencyKeys);
+        return elementClass.getName() + "|" + elementId + "|" + dependencyKeys;
+    }
+
+    @Override
+    public Collection<Metric<?>> metrics() {
+        CacheStats stats = cache.stats();
+        Collection<Metric<?>> metrics = Lists.newArrayList();
+        metrics.add(new Metric<Long>(METRICS_PREFIX + "size", cache.size()));
+        metrics.add(new Metric<Long>(METRICS_PREFIX + "hits", stats.hitCount()));
+        metrics.add(new Metric<Long>(METRICS_PREFIX + "misses", stats.missCount()));
+        metrics.add(new Metric<Double>(METRICS_PREFIX + "hit.rate", stats.hitRate()));
+        metrics.add(new Metric<Long>(METRICS_PREFIX + "evictions", stats.evictionCount()));
+        return metrics;
+    }
+}
@@ -1,10 +1,24 @@
 package alien4cloud.component.repository;
 
 import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+
+import javax.annotation.PostConstruct;
 
 import lombok.Getter;
 import lombok.Setter;
@@ -25,6 +39,9 @@ import alien4cloud.utils.DirectoryJSonWalker;
 import alien4cloud.utils.FileUtil;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.SettableFuture;
 
 /**
  * CSAR Repository implementation<br/>
@@ -39,7 +56,24 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 @Component
 public class CsarFileRepository implements ICsarRepositry {
     public static final String CSAR_EXTENSION = "csar";
+    private static final String EXPANDED_DIRECTORY = "expanded";
+    private static final String CONTENT_FILE = "content.json";
+    /** Marker of the archives expanded lazily, its modification date is the last access date of the expanded directory. */
+    private static final String LAZY_EXPANSION_MARKER = "expanded.lazy";
     private Path rootPath;
+    /** If true archives are expanded on first access rather than when stored. */
+    @Value("${csar_repository.lazy_expansion:false}")
+    private boolean lazyExpansion;
+    /** Maximum disk space used by lazily expanded archives, least recently used expanded archives are deleted above it. */
+    @Value("${csar_repository.expanded_disk_budget_mb:1024}")
+    private long expandedDiskBudgetMb;
+    /** Size of the lazily expanded archives by expanded directory, in access order. */
+    private final LinkedHashMap<Path, Long> expandedArchives = new LinkedHashMap<Path, Long>(16, 0.75f, true);
+    private long expandedArchivesSize;
+    /** Number of readers of the expanded archives currently served, pinned archives are never deleted. */
+    private final Map<Path, Integer> pinnedArchives = Maps.newHashMap();
+    /** Expansions in progress by expanded directory, archives are expanded outside of the repository lock and only once at a time. */
+    private final ConcurrentMap<Path, SettableFuture<Path>> expansions = Maps.newConcurrentMap();
 
     public CsarFileRepository() {
     }
@@ -93,14 +127,19 @@ public class CsarFileRepository implements ICsarRepositry {
                 log.debug(" Dest: " + csarDirectoryPath.resolve(realName));
             }
             Path csarTargetPath = csarDirectoryPath.resolve(realName);
-            Path expandedPath = csarDirectoryPath.resolve("expanded");
+            Path expandedPath = csarDirectoryPath.resolve(EXPANDED_DIRECTORY);
             if (Files.isRegularFile(tmpPath)) {
-                Files.copy(tmpPath, csarTargetPath);
-                FileUtil.unzip(csarTargetPath, expandedPath);
+                if (lazyExpansion) {
+                    // the archive will be expanded on first access.
+                    Files.copy(tmpPath, csarTargetPath);
+                    return;
+                }
+                // the archive is read only once to be both copied and expanded.
+                FileUtil.copyAndUnzip(tmpPath, csarTargetPath, expandedPath);
             } else {
                 FileUtil.copy(tmpPath, expandedPath, StandardCopyOption.REPLACE_EXISTING);
             }
-            DirectoryJSonWalker.directoryJson(expandedPath, csarDirectoryPath.resolve("content.json"));
+            DirectoryJSonWalker.directoryJson(expandedPath, csarDirectoryPath.resolve(CONTENT_FILE));
         } catch (IOException e) {
             throw new CSARStorageFailureException("Error while trying to store the CSAR: " + name + ", Version: " + version + "...." + e.getMessage(), e);
         }
@@ -109,8 +148,8 @@ public class CsarFileRepository implements ICsarRepositry {
     @Override
     public Path getCSAR(String name, String version) throws CSARVersionNotFoundException {
         Path csarDir = rootPath.resolve(name).resolve(version);
-        Path expandedPath = csarDir.resolve("expanded");
-        Path zippedPath = csarDir.resolve(name.concat("-").concat(version).concat("." + CSAR_EXTENSION));
+        Path expandedPath = csarDir.resolve(EXPANDED_DIRECTORY);
+        Path zippedPath = getZipPath(csarDir, name, version);
         if (Files.exists(zippedPath)) {
             return zippedPath;
         } else if (Files.exists(expandedPath)) {
@@ -127,6 +166,272 @@ public class CsarFileRepository implements ICsarRepositry {
         throw new CSARVersionNotFoundException("CSAR: " + name + ", Version: " + version + " not found in the repository.");
     }
 
+    @Override
+    public Path getCSARContent(String name, String version) throws CSARVersionNotFoundException {
+        Path csarDir = rootPath.resolve(name).resolve(version);
+        Path contentPath = csarDir.resolve(CONTENT_FILE);
+        if (Files.exists(contentPath)) {
+            return contentPath;
+        }
+        Path zippedPath = getZipPath(csarDir, name, version);
+        if (!Files.exists(zippedPath)) {
+            throw new CSARVersionNotFoundException("CSAR: " + name + ", Version: " + version + " not found in the repository.");
+        }
+        // build the directory tree from the zip entries so there is no need to expand the archive.
+        try (FileSystem csarFS = FileSystems.newFileSystem(zippedPath, null)) {
+            Path tmpContentPath = Files.createTempFile(csarDir, CONTENT_FILE, null);
+            DirectoryJSonWalker.directoryJson(csarFS.getPath("/"), EXPANDED_DIRECTORY, tmpContentPath);
+            Files.move(tmpContentPath, contentPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new CSARStorageFailureException("Error while trying to read the content of the CSAR: " + name + ", Version: " + version + ".", e);
+        }
+        return contentPath;
+    }
+
+    @Override
+    public Path getExpandedCSAR(String name, String version) throws CSARVersionNotFoundException {
+        Path csarDir = rootPath.resolve(name).resolve(version);
+        Path expandedPath = csarDir.resolve(EXPANDED_DIRECTORY);
+        if (isExpanded(csarDir, expandedPath)) {
+            return expandedPath;
+        }
+        SettableFuture<Path> expansion = SettableFuture.create();
+        SettableFuture<Path> inProgress = expansions.putIfAbsent(expandedPath, expansion);
+        if (inProgress != null) {
+            return waitForExpansion(inProgress, name, version);
+        }
+        try {
+            // the archive may have been expanded by a concurrent call that completed since the first check.
+            if (!isExpanded(csarDir, expandedPath)) {
+                expand(csarDir, expandedPath, name, version);
+            }
+            expansion.set(expandedPath);
+            return expandedPath;
+        } catch (CSARVersionNotFoundException | RuntimeException e) {
+            expansion.setException(e);
+            throw e;
+        } finally {
+            expansions.remove(expandedPath, expansion);
+        }
+    }
+
+    private boolean isExpanded(Path csarDir, Path expandedPath) {
+        boolean tracked;
+        synchronized (this) {
+            tracked = expandedArchives.get(expandedPath) != null;
+        }
+        if (tracked) {
+            // already expanded, the access is recorded by the map and on disk so the order is kept after a restart.
+            touch(csarDir.resolve(LAZY_EXPANSION_MARKER));
+            return true;
+        }
+        // eagerly expanded archives are not part of the budget.
+        return Files.exists(expandedPath);
+    }
+
+    private void expand(Path csarDir, Path expandedPath, String name, String version) throws CSARVersionNotFoundException {
+        Path zippedPath = getZipPath(csarDir, name, version);
+        if (!Files.exists(zippedPath)) {
+            throw new CSARVersionNotFoundException("CSAR: " + name + ", Version: " + version + " not found in the repository.");
+        }
+        Path tmpExpandedPath = null;
+        boolean expanded = false;
+        long size;
+        try {
+            tmpExpandedPath = Files.createTempDirectory(csarDir, EXPANDED_DIRECTORY);
+            FileUtil.unzip(zippedPath, tmpExpandedPath);
+            size = FileUtil.size(tmpExpandedPath);
+            // the marker is created first so that an expanded directory is never left out of the budget.
+            Files.write(csarDir.resolve(LAZY_EXPANSION_MARKER), new byte[0]);
+            Files.move(tmpExpandedPath, expandedPath, StandardCopyOption.ATOMIC_MOVE);
+            expanded = true;
+        } catch (IOException e) {
+            throw new CSARStorageFailureException("Error while trying to expand the CSAR: " + name + ", Version: " + version + ".", e);
+        } finally {
+            if (!expanded) {
+                // do not leave partially expanded archives on the disk.
+                deleteQuietly(tmpExpandedPath);
+            }
+        }
+        synchronized (this) {
+            expandedArchives.put(expandedPath, size);
+            expandedArchivesSize += size;
+            evictExpandedArchives(expandedPath);
+        }
+    }
+
+    private Path waitForExpansion(SettableFuture<Path> expansion, String name, String version) throws CSARVersionNotFoundException {
+        try {
+            return expansion.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof CSARVersionNotFoundException) {
+                throw (CSARVersionNotFoundException) e.getCause();
+            }
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new CSARStorageFailureException("Error while trying to expand the CSAR: " + name + ", Version: " + version + ".", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CSARStorageFailureException("Interrupted while waiting for the expansion of the CSAR: " + name + ", Version: " + version + ".", e);
+        }
+    }
+
+    @Override
+    public Path pinExpandedCSAR(String name, String version) throws CSARVersionNotFoundException {
+        while (true) {
+            Path expandedPath = getExpandedCSAR(name, version);
+            synchronized (this) {
+                // the archive may have been evicted since it was expanded, eviction and pinning both happen under the repository lock.
+                if (Files.exists(expandedPath)) {
+                    Integer readers = pinnedArchives.get(expandedPath);
+                    pinnedArchives.put(expandedPath, readers == null ? 1 : readers + 1);
+                    return expandedPath;
+                }
+            }
+        }
+    }
+
+    @Override
+    public synchronized void unpinExpandedCSAR(String name, String version) {
+        Path expandedPath = rootPath.resolve(name).resolve(version).resolve(EXPANDED_DIRECTORY);
+        Integer readers = pinnedArchives.get(expandedPath);
+        if (readers == null) {
+            return;
+        }
+        if (readers > 1) {
+            pinnedArchives.put(expandedPath, readers - 1);
+        } else {
+            pinnedArchives.remove(expandedPath);
+            // the eviction of this archive may have been deferred while it was served.
+            evictExpandedArchives(null);
+        }
+    }
+
+    /**
+     * Rebuild the lazily expanded archives tracking from the repository content: expanded directories are ordered by last access date and temporary
+     * directories left by an interrupted expansion are deleted.
+     */
+    @PostConstruct
+    public synchronized void loadExpandedArchives() {
+        expandedArchives.clear();
+        expandedArchivesSize = 0;
+        if (rootPath == null || !Files.isDirectory(rootPath)) {
+            return;
+        }
+        final Map<Path, FileTime> accessDates = Maps.newHashMap();
+        List<Path> expandedPaths = Lists.newArrayList();
+        try (DirectoryStream<Path> archives = Files.newDirectoryStream(rootPath)) {
+            for (Path archiveDir : archives) {
+                if (!Files.isDirectory(archiveDir)) {
+                    continue;
+                }
+                try (DirectoryStream<Path> versions = Files.newDirectoryStream(archiveDir)) {
+                    for (Path csarDir : versions) {
+                        if (Files.isDirectory(csarDir)) {
+                            loadExpandedArchive(csarDir, expandedPaths, accessDates);
+                        }
+                    }
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Failed to list the expanded archives of the repository, they won't be deleted when the disk budget is exceeded.", e);
+        }
+        Collections.sort(expandedPaths, new Comparator<Path>() {
+            @Override
+            public int compare(Path left, Path right) {
+                return accessDates.get(left).compareTo(accessDates.get(right));
+            }
+        });
+        for (Path expandedPath : expandedPaths) {
+            try {
+                long size = FileUtil.size(expandedPath);
+                expandedArchives.put(expandedPath, size);
+                expandedArchivesSize += size;
+            } catch (IOException e) {
+                log.warn("Failed to compute the size of expanded archive <" + expandedPath + ">.", e);
+            }
+        }
+        evictExpandedArchives(null);
+    }
+
+    private void loadExpandedArchive(Path csarDir, List<Path> expandedPaths, Map<Path, FileTime> accessDates) throws IOException {
+        try (DirectoryStream<Path> children = Files.newDirectoryStream(csarDir, EXPANDED_DIRECTORY + "?*")) {
+            for (Path child : children) {
+                if (Files.isDirectory(child)) {
+                    log.info("Deleting directory <{}> left by an interrupted archive expansion.", child);
+                    deleteQuietly(child);
+                }
+            }
+        }
+        Path marker = csarDir.resolve(LAZY_EXPANSION_MARKER);
+        if (!Files.exists(marker)) {
+            return;
+        }
+        Path expandedPath = csarDir.resolve(EXPANDED_DIRECTORY);
+        if (Files.isDirectory(expandedPath)) {
+            expandedPaths.add(expandedPath);
+            accessDates.put(expandedPath, Files.getLastModifiedTime(marker));
+        } else {
+            Files.delete(marker);
+        }
+    }
+
+    /**
+     * Delete the least recently used expanded archives until the expanded archives fit in the disk budget. Archives that are currently served are kept.
+     *
+     * @param keptPath The expanded archive that must not be deleted, may be null.
+     */
+    private void evictExpandedArchives(Path keptPath) {
+        long budget = expandedDiskBudgetMb * 1024 * 1024;
+        Iterator<Map.Entry<Path, Long>> iterator = expandedArchives.entrySet().iterator();
+        while (expandedArchivesSize > budget && iterator.hasNext()) {
+            Map.Entry<Path, Long> eldest = iterator.next();
+            if (eldest.getKey().equals(keptPath) || pinnedArchives.containsKey(eldest.getKey())) {
+                continue;
+            }
+            iterator.remove();
+            expandedArchivesSize -= eldest.getValue();
+            try {
+                Files.deleteIfExists(eldest.getKey().resolveSibling(LAZY_EXPANSION_MARKER));
+                FileUtil.delete(eldest.getKey());
+                log.debug("Expanded archive <{}> deleted as the disk budget is exceeded.", eldest.getKey());
+            } catch (IOException e) {
+                log.warn("Failed to delete expanded archive <" + eldest.getKey() + ">.", e);
+            }
+        }
+    }
+
+    private void touch(Path path) {
+        try {
+            Files.setLastModifiedTime(path, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException e) {
+            log.debug("Failed to record the access to <{}>.", path);
+        }
+    }
+
+    private void deleteQuietly(Path path) {
+        if (path == null) {
+            return;
+        }
+        try {
+            FileUtil.delete(path);
+        } catch (IOException e) {
+            log.warn("Failed to delete directory <" + path + ">.", e);
+        }
+    }
+
+    private synchronized void forgetExpandedArchive(Path csarDirectoryPath) {
+        Long size = expandedArchives.remove(csarDirectoryPath.resolve(EXPANDED_DIRECTORY));
+        if (size != null) {
+            expandedArchivesSize -= size;
+        }
+    }
+
+    private Path getZipPath(Path csarDir, String name, String version) {
+        return csarDir.resolve(name.concat("-").concat(version).concat("." + CSAR_EXTENSION));
+    }
+
     private void checkCSARRepository(Path rootPath) {
         if (!Files.isDirectory(rootPath)) {
             try {
@@ -144,6 +449,7 @@ public class CsarFileRepository implements ICsarRepositry {
     private void createCSARDirectory(Path csarDirectoryPath, String realName) throws CSARVersionAlreadyExistsException {
         if (Files.exists(csarDirectoryPath.resolve(realName))) {
             log.info("Overriding CSAR with new one.");
+            forgetExpandedArchive(csarDirectoryPath);
             try {
                 FileUtil.delete(csarDirectoryPath);
             } catch (IOException e) {
@@ -171,6 +477,7 @@ public class CsarFileRepository implements ICsarRepositry {
     public void removeCSAR(String name, String version) {
         Path csarDirectoryPath = rootPath.resolve(name).resolve(version);
         if (Files.isDirectory(csarDirectoryPath)) {
+            forgetExpandedArchive(csarDirectoryPath);
             FileSystemUtils.deleteRecursively(csarDirectoryPath.toFile());
         }
     }
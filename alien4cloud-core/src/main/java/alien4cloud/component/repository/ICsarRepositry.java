@@ -45,6 +45,45 @@ public interface ICsarRepositry {
      */
     Path getCSAR(String name, String version) throws CSARVersionNotFoundException;
 
+    /**
+     * Get the json description of the content (directory tree) of a CSAR stored into the repository.
+     *
+     * @param name the name of the CSAR.
+     * @param version the version of the CSAR.
+     * @return The path to the json file that describes the CSAR content.
+     * @throws CSARVersionNotFoundException
+     */
+    Path getCSARContent(String name, String version) throws CSARVersionNotFoundException;
+
+    /**
+     * Get the directory in which a CSAR stored into the repository is expanded, the CSAR is expanded if not already done.
+     *
+     * @param name the name of the CSAR.
+     * @param version the version of the CSAR.
+     * @return The path to the expanded CSAR directory.
+     * @throws CSARVersionNotFoundException
+     */
+    Path getExpandedCSAR(String name, String version) throws CSARVersionNotFoundException;
+
+    /**
+     * Get the expanded CSAR directory like {@link #getExpandedCSAR(String, String)} and prevent it from being deleted until
+     * {@link #unpinExpandedCSAR(String, String)} is called. Each call must be followed by a call to {@link #unpinExpandedCSAR(String, String)}.
+     *
+     * @param name the name of the CSAR.
+     * @param version the version of the CSAR.
+     * @return The path to the expanded CSAR directory.
+     * @throws CSARVersionNotFoundException
+     */
+    Path pinExpandedCSAR(String name, String version) throws CSARVersionNotFoundException;
+
+    /**
+     * Release an expanded CSAR directory pinned by {@link #pinExpandedCSAR(String, String)}.
+     *
+     * @param name the name of the CSAR.
+     * @param version the version of the CSAR.
+     */
+    void unpinExpandedCSAR(String name, String version);
+
     void removeCSAR(String name, String version);
-    
+
 }
\ No newline at end of file
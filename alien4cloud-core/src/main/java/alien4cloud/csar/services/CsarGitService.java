@@ -7,7 +7,16 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import javax.annotation.Resource;
 import javax.inject.Inject;
 
@@ -16,6 +25,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.eclipse.jgit.api.Git;
 import org.springframework.beans.factory.annotation.Required;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.concurrent.DelegatingSecurityContextExecutorService;
 import org.springframework.stereotype.Service;
 import org.springframework.util.FileSystemUtils;
 
@@ -28,7 +38,9 @@ import alien4cloud.model.components.Csar;
 import alien4cloud.model.git.CsarDependenciesBean;
 import alien4cloud.model.git.CsarGitCheckoutLocation;
 import alien4cloud.model.git.CsarGitRepository;
+import alien4cloud.tosca.ArchiveParser;
 import alien4cloud.tosca.ArchiveUploadService;
+import alien4cloud.tosca.model.ArchiveRoot;
 import alien4cloud.tosca.parser.ParsingException;
 import alien4cloud.tosca.parser.ParsingResult;
 import alien4cloud.utils.FileUtil;
@@ -48,6 +60,12 @@ public class CsarGitService {
     private IGenericSearchDAO alienDAO;
     @Resource
     private CsarService csarService;
+    @Inject
+    private ArchiveParser archiveParser;
+    /** Number of threads used to parse the archives of a git repository concurrently. */
+    @Value("${csar_git.parsing_threads:0}")
+    private int parsingThreads;
+    private ExecutorService parsingExecutor;
     // TODO store archives that are not 'temp' in another location.
     private Path tempDirPath;
     private Path tempZipDirPath;
@@ -59,6 +77,28 @@ public class CsarGitService {
         this.tempZipDirPath = FileUtil.createDirectoryIfNotExists(tempDirPath + "/gitzips");
     }
 
+    @PostConstruct
+    public void init() {
+        int threads = parsingThreads > 0 ? parsingThreads : Runtime.getRuntime().availableProcessors();
+        ExecutorService executor = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+            private final AtomicInteger count = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "csar-git-parser-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        // parsing may require the security context of the user that triggered the import.
+        parsingExecutor = new DelegatingSecurityContextExecutorService(executor);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        parsingExecutor.shutdownNow();
+    }
+
     /**
      * Delete an CsarGitRepository based on its id or url.
      *
@@ -139,7 +179,7 @@ public class CsarGitService {
         }
     }
 
-    private List<ParsingResult<Csar>> processImport(CsarGitRepository csarGitRepository, CsarGitCheckoutLocation csarGitCheckoutLocation, String gitHash) {
+    List<ParsingResult<Csar>> processImport(CsarGitRepository csarGitRepository, CsarGitCheckoutLocation csarGitCheckoutLocation, String gitHash) {
         // find all the archives under the given hierarchy and zip them to create archives
         Path archiveZipRoot = tempZipDirPath.resolve(csarGitRepository.getId());
         Path archiveGitRoot = tempDirPath.resolve(csarGitRepository.getId());
@@ -149,16 +189,31 @@ public class CsarGitService {
         List<ParsingResult<Csar>> parsingResult = Lists.newArrayList();
         try {
             Map<CSARDependency, CsarDependenciesBean> csarDependenciesBeans = uploadService.preParsing(archivePaths);
-            List<CsarDependenciesBean> sorted = sort(csarDependenciesBeans);
-            for (CsarDependenciesBean csarBean : sorted) {
-                if (csarGitCheckoutLocation.getLastImportedHash() != null && csarGitCheckoutLocation.getLastImportedHash().equals(gitHash)) {
-                    if (csarService.getIfExists(csarBean.getSelf().getName(), csarBean.getSelf().getVersion()) != null) {
-                        // no commit since last import and the archive still exist in the repo, so do not import
+            // archives of a level depends only on archives of the previous levels so they can be parsed concurrently once previous levels are indexed.
+            for (List<CsarDependenciesBean> level : sort(csarDependenciesBeans)) {
+                List<CsarDependenciesBean> toImport = Lists.newArrayList();
+                List<String> archiveHashes = Lists.newArrayList();
+                for (CsarDependenciesBean csarBean : level) {
+                    if (csarGitCheckoutLocation.getLastImportedHash() != null && csarGitCheckoutLocation.getLastImportedHash().equals(gitHash)) {
+                        if (csarService.getIfExists(csarBean.getSelf().getName(), csarBean.getSelf().getVersion()) != null) {
+                            // no commit since last import and the archive still exist in the repo, so do not import
+                            continue;
+                        }
+                    }
+                    String archiveHash = uploadService.digest(csarBean.getPath());
+                    if (uploadService.getUnchangedArchive(archiveHash) != null) {
+                        // the archive content didn't change since last import, so do not import
                         continue;
                     }
+                    toImport.add(csarBean);
+                    archiveHashes.add(archiveHash);
+                }
+                List<Future<ParsingResult<ArchiveRoot>>> parsed = parse(toImport);
+                // indexing is performed in the calling thread and in dependency order.
+                for (int i = 0; i < toImport.size(); i++) {
+                    ParsingResult<Csar> result = uploadService.upload(toImport.get(i).getPath(), archiveHashes.get(i), getParsingResult(parsed.get(i)));
+                    parsingResult.add(result);
                 }
-                ParsingResult<Csar> result = uploadService.upload(csarBean.getPath());
-                parsingResult.add(result);
             }
             return parsingResult;
         } catch (ParsingException e) {
@@ -169,8 +224,44 @@ public class CsarGitService {
         }
     }
 
-    private List<CsarDependenciesBean> sort(Map<CSARDependency, CsarDependenciesBean> elements) {
-        List<CsarDependenciesBean> sortedCsars = Lists.newArrayList();
+    private List<Future<ParsingResult<ArchiveRoot>>> parse(List<CsarDependenciesBean> csarBeans) {
+        List<Future<ParsingResult<ArchiveRoot>>> futures = Lists.newArrayList();
+        for (final CsarDependenciesBean csarBean : csarBeans) {
+            futures.add(parsingExecutor.submit(new Callable<ParsingResult<ArchiveRoot>>() {
+                @Override
+                public ParsingResult<ArchiveRoot> call() throws ParsingException {
+                    return archiveParser.parse(csarBean.getPath());
+                }
+            }));
+        }
+        return futures;
+    }
+
+    private ParsingResult<ArchiveRoot> getParsingResult(Future<ParsingResult<ArchiveRoot>> future) throws ParsingException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new GitException("Interrupted while parsing archives from git.", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof ParsingException) {
+                throw (ParsingException) e.getCause();
+            }
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new GitException("Failed to parse archive from git.", e.getCause());
+        }
+    }
+
+    /**
+     * Sort the archives in levels so that archives of a level only depends on archives from previous levels.
+     *
+     * @param elements The archives to sort.
+     * @return The list of levels.
+     */
+    private List<List<CsarDependenciesBean>> sort(Map<CSARDependency, CsarDependenciesBean> elements) {
+        List<List<CsarDependenciesBean>> sortedCsars = Lists.newArrayList();
 
         List<CsarDependenciesBean> independents = Lists.newArrayList();
         for (Map.Entry<CSARDependency, CsarDependenciesBean> entry : elements.entrySet()) {
@@ -200,15 +291,18 @@ public class CsarGitService {
         }
 
         while (independents.size() > 0) {
-            CsarDependenciesBean independent = independents.remove(0);
-            elements.remove(independent.getSelf()); // remove from the elements
-            sortedCsars.add(independent); // element has no more dependencies
-            for (CsarDependenciesBean dependent : independent.getDependents()) {
-                dependent.getDependencies().remove(independent.getSelf());
-                if (dependent.getDependencies().isEmpty()) {
-                    independents.add(dependent);
+            List<CsarDependenciesBean> nextIndependents = Lists.newArrayList();
+            for (CsarDependenciesBean independent : independents) {
+                elements.remove(independent.getSelf()); // remove from the elements
+                for (CsarDependenciesBean dependent : independent.getDependents()) {
+                    dependent.getDependencies().remove(independent.getSelf());
+                    if (dependent.getDependencies().isEmpty()) {
+                        nextIndependents.add(dependent);
+                    }
                 }
             }
+            sortedCsars.add(independents); // elements of the level have no more dependencies
+            independents = nextIndependents;
         }
 
         if (elements.size() > 0) {
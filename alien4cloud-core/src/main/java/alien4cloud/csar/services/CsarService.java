@@ -1,5 +1,6 @@
 package alien4cloud.csar.services;
 
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -26,11 +27,16 @@ import alien4cloud.model.components.CSARDependency;
 import alien4cloud.model.components.Csar;
 import alien4cloud.model.templates.TopologyTemplate;
 import alien4cloud.model.topology.Topology;
+import alien4cloud.topology.TopologyEditionSessionService;
 import alien4cloud.topology.TopologyService;
+import alien4cloud.topology.TopologyServiceCore;
 
+import com.google.common.base.Charsets;
+import com.google.common.base.Joiner;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
+import com.google.common.hash.Hashing;
 
 /**
  * Manages cloud services archives and their dependencies.
@@ -50,6 +56,10 @@ public class CsarService implements ICsarDependencyLoader {
     @Resource
     private TopologyService topologyService;
     @Resource
+    private TopologyServiceCore topologyServiceCore;
+    @Resource
+    private TopologyEditionSessionService topologyEditionSessionService;
+    @Resource
     private ApplicationService applicationService;
 
     /**
@@ -99,6 +109,8 @@ public class CsarService implements ICsarDependencyLoader {
                 "dependencies",
                 FilterBuilders.boolFilter().must(FilterBuilders.termFilter("dependencies.name", name))
                         .must(FilterBuilders.termFilter("dependencies.version", version)));
+        // the search reads elastic search so topologies being edited must be persisted first
+        topologyEditionSessionService.flushAll();
         GetMultipleDataResult<Topology> result = csarDAO.search(Topology.class, null, null, filter, null, 0, Integer.MAX_VALUE);
         return result.getData();
     }
@@ -178,7 +190,7 @@ public class CsarService implements ICsarDependencyLoader {
         // here we check that the csar is not a csar created by a topology template (substitution).
         if (!ignoreSubtisutionTopology && csar.getSubstitutionTopologyId() != null) {
             String linkedTopologyId = csar.getSubstitutionTopologyId();
-            Topology topology = csarDAO.findById(Topology.class, linkedTopologyId);
+            Topology topology = topologyServiceCore.getTopology(linkedTopologyId);
             if (topology != null) {
                 throw new DeleteReferencedObjectException(
                         "The CSAR with id <"
@@ -217,6 +229,46 @@ public class CsarService implements ICsarDependencyLoader {
         return relatedResourceList;
     }
 
+    /**
+     * Get an archive from the digest of it's content.
+     *
+     * @param hash The SHA-256 digest of the archive content.
+     * @return The {@link Csar Cloud Service Archive} that has the given digest or null if none is found.
+     */
+    public Csar getByHash(String hash) {
+        return csarDAO.customFind(Csar.class, QueryBuilders.termQuery("hash", hash));
+    }
+
+    /**
+     * Get a digest of the current state of dependencies. The digest changes when one of the dependencies (or one of their own dependencies) is imported again
+     * with another content or is deleted.
+     *
+     * @param dependencies The dependencies of an archive.
+     * @return The hexadecimal representation of the digest.
+     */
+    public String getDependenciesHash(Set<CSARDependency> dependencies) {
+        List<String> states = Lists.newArrayList();
+        if (dependencies != null && !dependencies.isEmpty()) {
+            Map<String, Csar> dependencyCsars = Maps.newHashMap();
+            List<String> ids = Lists.newArrayList();
+            for (CSARDependency dependency : dependencies) {
+                ids.add(new Csar(dependency.getName(), dependency.getVersion()).getId());
+            }
+            List<Csar> csars = csarDAO.findByIds(Csar.class, ids.toArray(new String[ids.size()]));
+            if (csars != null) {
+                for (Csar csar : csars) {
+                    dependencyCsars.put(csar.getId(), csar);
+                }
+            }
+            for (String id : ids) {
+                Csar csar = dependencyCsars.get(id);
+                states.add(id + "=" + (csar == null ? "missing" : csar.getHash() + "/" + csar.getDependenciesHash()));
+            }
+            Collections.sort(states);
+        }
+        return Hashing.sha256().hashString(Joiner.on('\n').join(states), Charsets.UTF_8).toString();
+    }
+
     public Csar getTopologySubstitutionCsar(String topologyId) {
         Csar csarResult = csarDAO.customFind(Csar.class, QueryBuilders.termQuery("substitutionTopologyId", topologyId));
         if (csarResult != null) {
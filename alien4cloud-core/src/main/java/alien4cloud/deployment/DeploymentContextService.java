@@ -12,6 +12,7 @@ import alien4cloud.model.orchestrators.locations.Location;
 import alien4cloud.paas.model.PaaSTopology;
 import alien4cloud.paas.model.PaaSTopologyDeploymentContext;
 import alien4cloud.paas.plan.TopologyTreeBuilderService;
+import alien4cloud.utils.TypeMap;
 
 /**
  * Utility to build the deployment context.
@@ -29,10 +30,23 @@ public class DeploymentContextService {
      * @return A PaaSTopologyDeploymentContext that contians
      */
     public PaaSTopologyDeploymentContext buildTopologyDeploymentContext(Deployment deployment, Map<String, Location> locations, DeploymentTopology topology) {
+        return buildTopologyDeploymentContext(deployment, locations, topology, new TypeMap());
+    }
+
+    /**
+     * Build a topology deployment context from a given topology and deployment.
+     *
+     * @param deployment The deployment object.
+     * @param topology The topology that will be processed.
+     * @param cache The cache of types to use, it may be shared by topologies that have the same dependencies.
+     * @return A PaaSTopologyDeploymentContext that contians
+     */
+    public PaaSTopologyDeploymentContext buildTopologyDeploymentContext(Deployment deployment, Map<String, Location> locations, DeploymentTopology topology,
+            TypeMap cache) {
         PaaSTopologyDeploymentContext topologyDeploymentContext = new PaaSTopologyDeploymentContext();
         topologyDeploymentContext.setLocations(locations);
         topologyDeploymentContext.setDeployment(deployment);
-        PaaSTopology paaSTopology = topologyTreeBuilderService.buildPaaSTopology(topology);
+        PaaSTopology paaSTopology = topologyTreeBuilderService.buildPaaSTopology(topology, cache);
         topologyDeploymentContext.setPaaSTopology(paaSTopology);
         topologyDeploymentContext.setDeploymentTopology(topology);
         topologyDeploymentContext.setDeployment(deployment);
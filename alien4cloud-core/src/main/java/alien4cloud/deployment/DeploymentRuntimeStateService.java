@@ -1,6 +1,7 @@
 package alien4cloud.deployment;
 
 import java.util.Date;
+import java.util.List;
 import java.util.Map;
 
 import javax.annotation.Resource;
@@ -49,6 +50,8 @@ public class DeploymentRuntimeStateService {
     private DeploymentContextService deploymentContextService;
     @Inject
     private DeploymentTopologyService deploymentTopologyService;
+    @Inject
+    private DeploymentStatusRegistry deploymentStatusRegistry;
 
     /**
      * Get the deployed (runtime) topology of an application from the environment id
@@ -71,6 +74,23 @@ public class DeploymentRuntimeStateService {
         return alienMonitorDao.findById(DeploymentTopology.class, deploymentId);
     }
 
+    /**
+     * Get the deployed (runtime) topologies of multiple deployments in a single request.
+     *
+     * @param deploymentIds The ids of the deployments.
+     * @return A map of runtime topologies by deployment id.
+     */
+    public Map<String, DeploymentTopology> getRuntimeTopologies(String... deploymentIds) {
+        Map<String, DeploymentTopology> topologies = Maps.newHashMap();
+        List<DeploymentTopology> foundTopologies = alienMonitorDao.findByIds(DeploymentTopology.class, deploymentIds);
+        if (foundTopologies != null) {
+            for (DeploymentTopology topology : foundTopologies) {
+                topologies.put(topology.getId(), topology);
+            }
+        }
+        return topologies;
+    }
+
     /**
      * Get the deployed (runtime) topology of an application on a cloud
      *
@@ -99,6 +119,8 @@ public class DeploymentRuntimeStateService {
         IOrchestratorPlugin orchestratorPlugin = orchestratorPluginService.getOrFail(deployment.getOrchestratorId());
 
         PaaSDeploymentContext deploymentContext = new PaaSDeploymentContext(deployment, getRuntimeTopology(deployment.getId()));
+        // an event received while the orchestrator is queried is more recent than the queried status.
+        final long queryDate = System.currentTimeMillis();
         IPaaSCallback<DeploymentStatus> esCallback = new IPaaSCallback<DeploymentStatus>() {
             @Override
             public void onSuccess(DeploymentStatus data) {
@@ -106,6 +128,7 @@ public class DeploymentRuntimeStateService {
                     deployment.setEndDate(new Date());
                     alienDao.save(deployment);
                 }
+                deploymentStatusRegistry.update(deployment.getId(), data, queryDate);
                 callback.onSuccess(data);
             }
 
@@ -2,24 +2,43 @@ package alien4cloud.deployment;
 
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import javax.annotation.Resource;
 import javax.inject.Inject;
 
 import lombok.extern.slf4j.Slf4j;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import alien4cloud.dao.CloseableIterable;
 import alien4cloud.dao.IGenericSearchDAO;
 import alien4cloud.dao.model.GetMultipleDataResult;
+import alien4cloud.deployment.matching.services.location.TopologyLocationUtils;
+import alien4cloud.exception.InitializationException;
 import alien4cloud.exception.NotFoundException;
+import alien4cloud.model.components.CSARDependency;
 import alien4cloud.model.deployment.Deployment;
 import alien4cloud.model.deployment.DeploymentTopology;
+import alien4cloud.model.orchestrators.locations.Location;
+import alien4cloud.orchestrators.locations.services.LocationService;
 import alien4cloud.paas.model.PaaSTopologyDeploymentContext;
 import alien4cloud.utils.MapUtil;
+import alien4cloud.utils.TypeMap;
 
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
 
 /**
  * Manage deployment operations on a cloud.
@@ -35,6 +54,33 @@ public class DeploymentService {
     private DeploymentContextService deploymentContextService;
     @Inject
     private DeploymentTopologyService deploymentTopologyService;
+    @Inject
+    private LocationService locationService;
+    /** Number of threads used to rebuild the deployment contexts of the orchestrators, 0 to use the number of available processors. */
+    @Value("${orchestrators.recovery_threads:0}")
+    private int recoveryThreads;
+    /** Executor shared by the orchestrators to rebuild their deployment contexts. */
+    private ExecutorService recoveryExecutor;
+
+    @PostConstruct
+    public void init() {
+        int threads = recoveryThreads > 0 ? recoveryThreads : Runtime.getRuntime().availableProcessors();
+        recoveryExecutor = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+            private final AtomicInteger count = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "deployment-recovery-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    @PreDestroy
+    public void destroy() {
+        recoveryExecutor.shutdownNow();
+    }
 
     /**
      * Get all deployments for a given cloud
@@ -175,21 +221,84 @@ public class DeploymentService {
         return false;
     }
 
+    /**
+     * Build the deployment contexts of all the active deployments of an orchestrator.
+     *
+     * @param orchestratorId The id of the orchestrator.
+     * @return A map of deployment context by orchestrator deployment id.
+     */
     public Map<String, PaaSTopologyDeploymentContext> getCloudActiveDeploymentContexts(String orchestratorId) {
-        Deployment[] deployments = getOrchestratorActiveDeployments(orchestratorId);
+        List<Deployment> deployments = getOrchestratorActiveDeployments(orchestratorId);
         Map<String, PaaSTopologyDeploymentContext> activeDeploymentContexts = Maps.newHashMap();
-        for (Deployment deployment : deployments) {
-            DeploymentTopology topology = deploymentRuntimeStateService.getRuntimeTopology(deployment.getId());
-            activeDeploymentContexts.put(deployment.getOrchestratorDeploymentId(),
-                    deploymentContextService.buildTopologyDeploymentContext(deployment, deploymentTopologyService.getLocations(topology), topology));
+        if (deployments.isEmpty()) {
+            return activeDeploymentContexts;
+        }
+        // load all the runtime topologies and locations in bulk
+        String[] deploymentIds = new String[deployments.size()];
+        for (int i = 0; i < deployments.size(); i++) {
+            deploymentIds[i] = deployments.get(i).getId();
+        }
+        final Map<String, DeploymentTopology> topologies = deploymentRuntimeStateService.getRuntimeTopologies(deploymentIds);
+        Set<String> locationIds = Sets.newHashSet();
+        for (DeploymentTopology topology : topologies.values()) {
+            locationIds.addAll(TopologyLocationUtils.getLocationIds(topology).values());
+        }
+        final Map<String, Location> locations = locationService.getMultiple(locationIds);
+
+        // build the contexts concurrently, topologies with the same dependencies share the same types cache.
+        Map<Set<CSARDependency>, TypeMap> typeMaps = Maps.newHashMap();
+        Map<String, Future<PaaSTopologyDeploymentContext>> futures = Maps.newHashMap();
+        try {
+            for (final Deployment deployment : deployments) {
+                final DeploymentTopology topology = topologies.get(deployment.getId());
+                Set<CSARDependency> dependencies = topology == null || topology.getDependencies() == null ? Sets.<CSARDependency> newHashSet() : topology
+                        .getDependencies();
+                TypeMap typeMap = typeMaps.get(dependencies);
+                if (typeMap == null) {
+                    typeMap = new TypeMap();
+                    typeMaps.put(dependencies, typeMap);
+                }
+                final TypeMap cache = typeMap;
+                futures.put(deployment.getOrchestratorDeploymentId(), recoveryExecutor.submit(new Callable<PaaSTopologyDeploymentContext>() {
+                    @Override
+                    public PaaSTopologyDeploymentContext call() {
+                        return deploymentContextService.buildTopologyDeploymentContext(deployment,
+                                deploymentTopologyService.getLocations(TopologyLocationUtils.getLocationIdsOrFail(topology), locations), topology, cache);
+                    }
+                }));
+            }
+            for (Map.Entry<String, Future<PaaSTopologyDeploymentContext>> futureEntry : futures.entrySet()) {
+                activeDeploymentContexts.put(futureEntry.getKey(), getContext(futureEntry.getValue()));
+            }
+        } finally {
+            // the executor is shared, cancel the remaining tasks if a context failed to build.
+            for (Future<PaaSTopologyDeploymentContext> future : futures.values()) {
+                future.cancel(true);
+            }
         }
         return activeDeploymentContexts;
     }
 
-    private Deployment[] getOrchestratorActiveDeployments(String orchestratorId) {
+    private PaaSTopologyDeploymentContext getContext(Future<PaaSTopologyDeploymentContext> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InitializationException("Interrupted while building deployment contexts.", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new InitializationException("Failed to build deployment context.", e.getCause());
+        }
+    }
+
+    private List<Deployment> getOrchestratorActiveDeployments(String orchestratorId) {
         Map<String, String[]> activeDeploymentFilters = MapUtil.newHashMap(new String[] { "orchestratorId", "endDate" },
                 new String[][] { new String[] { orchestratorId }, new String[] { null } });
-        GetMultipleDataResult<Deployment> dataResult = alienDao.search(Deployment.class, null, activeDeploymentFilters, 1);
-        return dataResult.getData();
+        // all the contexts are built so the deployments are kept in memory, but they are fetched in bounded batches rather than in a single unbounded page.
+        try (CloseableIterable<Deployment> deployments = alienDao.stream(Deployment.class, activeDeploymentFilters)) {
+            return Lists.newArrayList(deployments);
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,198 @@
+package alien4cloud.deployment;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import alien4cloud.model.deployment.Deployment;
+import alien4cloud.paas.IPaaSCallback;
+import alien4cloud.paas.IPaasEventListener;
+import alien4cloud.paas.IPaasEventService;
+import alien4cloud.paas.model.AbstractMonitorEvent;
+import alien4cloud.paas.model.DeploymentStatus;
+import alien4cloud.paas.model.PaaSDeploymentStatusMonitorEvent;
+
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+
+/**
+ * In memory registry of the status of active deployments.
+ *
+ * The registry is kept up to date from the deployment status events received from the orchestrators and from the statuses retrieved from the orchestrator
+ * plugins. When a status is older than the maximum staleness it is still returned but a refresh against the orchestrator plugin is triggered in background.
+ *
+ * Statuses are ordered using the local clock only: events are dated when received and statuses retrieved from the orchestrators are dated when the query
+ * was issued, so a refresh started before an event is received never overrides the event status. Undeployed deployments are kept as tombstones so late
+ * statuses can't bring them back. Tombstones and statuses that has not been updated for longer than the eviction delay are removed from the registry.
+ */
+@Slf4j
+@Component
+public class DeploymentStatusRegistry implements IPaasEventListener<AbstractMonitorEvent>, InitializingBean {
+    @Inject
+    private IPaasEventService paasEventService;
+    @Inject
+    private DeploymentRuntimeStateService deploymentRuntimeStateService;
+    /** Age in milliseconds after which a cached status is refreshed from the orchestrator. */
+    @Value("${paas_monitor.status_cache.max_staleness_ms:60000}")
+    private long maxStalenessMs;
+    /** Number of threads used to refresh stale statuses. */
+    @Value("${paas_monitor.status_cache.refresh_threads:2}")
+    private int refreshThreads;
+    /** Age in milliseconds after which a status (or the tombstone of an undeployed deployment) is removed from the registry. */
+    @Value("${paas_monitor.status_cache.eviction_ms:3600000}")
+    private long evictionMs;
+
+    private final Map<String, CachedStatus> statuses = Maps.newConcurrentMap();
+    private final Set<String> refreshing = Sets.newConcurrentHashSet();
+    private ScheduledExecutorService refreshExecutor;
+
+    @Override
+    public void afterPropertiesSet() {
+        refreshExecutor = Executors.newScheduledThreadPool(refreshThreads, new ThreadFactory() {
+            private final AtomicInteger count = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "deployment-status-refresh-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        long evictionPeriod = Math.max(evictionMs / 10, 1000);
+        refreshExecutor.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                evict(System.currentTimeMillis());
+            }
+        }, evictionPeriod, evictionPeriod, TimeUnit.MILLISECONDS);
+        paasEventService.addListener(this);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        refreshExecutor.shutdownNow();
+    }
+
+    /**
+     * Get the status of a deployment from the registry.
+     *
+     * @param deployment The active deployment for which to get the status.
+     * @return The last known status of the deployment or null if the status of the deployment is not known.
+     */
+    public DeploymentStatus get(Deployment deployment) {
+        CachedStatus cachedStatus = statuses.get(deployment.getId());
+        if (cachedStatus == null) {
+            return null;
+        }
+        if (!DeploymentStatus.UNDEPLOYED.equals(cachedStatus.status) && System.currentTimeMillis() - cachedStatus.timestamp > maxStalenessMs) {
+            refresh(deployment);
+        }
+        return cachedStatus.status;
+    }
+
+    /**
+     * Update the status of a deployment in the registry.
+     *
+     * @param deploymentId The id of the deployment.
+     * @param status The status of the deployment.
+     * @param timestamp The local date at which the status has been received (or at which it has been requested to the orchestrator), older statuses than
+     *            the one in the registry are ignored.
+     */
+    public void update(String deploymentId, DeploymentStatus status, long timestamp) {
+        CachedStatus newStatus = new CachedStatus(status, timestamp);
+        while (true) {
+            CachedStatus current = statuses.get(deploymentId);
+            if (current == null) {
+                if (statuses.putIfAbsent(deploymentId, newStatus) == null) {
+                    return;
+                }
+            } else if (current.timestamp > timestamp || DeploymentStatus.UNDEPLOYED.equals(current.status)) {
+                // deployment ids are never reused so an undeployed deployment stays undeployed.
+                return;
+            } else if (statuses.replace(deploymentId, current, newStatus)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Remove the statuses and tombstones that has not been updated since longer than the eviction delay.
+     *
+     * @param now The current local date.
+     */
+    void evict(long now) {
+        Iterator<CachedStatus> iterator = statuses.values().iterator();
+        while (iterator.hasNext()) {
+            if (now - iterator.next().timestamp > evictionMs) {
+                iterator.remove();
+            }
+        }
+    }
+
+    private void refresh(final Deployment deployment) {
+        if (!refreshing.add(deployment.getId())) {
+            // a refresh is already in progress
+            return;
+        }
+        refreshExecutor.submit(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    // the registry is updated by the runtime state service when the status is retrieved.
+                    deploymentRuntimeStateService.getDeploymentStatus(deployment, new IPaaSCallback<DeploymentStatus>() {
+                        @Override
+                        public void onSuccess(DeploymentStatus data) {
+                            refreshing.remove(deployment.getId());
+                        }
+
+                        @Override
+                        public void onFailure(Throwable throwable) {
+                            refreshing.remove(deployment.getId());
+                            log.debug("Failed to refresh status of deployment <" + deployment.getId() + ">", throwable);
+                        }
+                    });
+                } catch (RuntimeException e) {
+                    refreshing.remove(deployment.getId());
+                    log.debug("Failed to refresh status of deployment <" + deployment.getId() + ">", e);
+                }
+            }
+        });
+    }
+
+    @Override
+    public void eventHappened(AbstractMonitorEvent event) {
+        PaaSDeploymentStatusMonitorEvent statusEvent = (PaaSDeploymentStatusMonitorEvent) event;
+        // the event date comes from the orchestrator clock, the registry only relies on the local clock.
+        update(statusEvent.getDeploymentId(), statusEvent.getDeploymentStatus(), System.currentTimeMillis());
+    }
+
+    @Override
+    public boolean canHandle(AbstractMonitorEvent event) {
+        return event instanceof PaaSDeploymentStatusMonitorEvent && event.getDeploymentId() != null
+                && ((PaaSDeploymentStatusMonitorEvent) event).getDeploymentStatus() != null;
+    }
+
+    private static class CachedStatus {
+        private final DeploymentStatus status;
+        private final long timestamp;
+
+        private CachedStatus(DeploymentStatus status, long timestamp) {
+            this.status = status;
+            this.timestamp = timestamp;
+        }
+    }
+}
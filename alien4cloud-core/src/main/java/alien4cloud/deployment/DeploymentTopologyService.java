@@ -93,7 +93,8 @@ public class DeploymentTopologyService {
 
     public void save(DeploymentTopology deploymentTopology) {
         deploymentTopology.setLastDeploymentTopologyUpdateDate(new Date());
-        alienDAO.save(deploymentTopology);
+        deploymentTopology.setRevision(deploymentTopology.getRevision() + 1);
+        topologyServiceCore.saveIfNotModified(DeploymentTopology.class, deploymentTopology);
     }
 
     /**
@@ -148,7 +149,9 @@ public class DeploymentTopologyService {
             }
             if (locationsInvalid) {
                 // Generate the deployment topology if none exist or if locations are not valid anymore
-                deploymentTopology = generateDeploymentTopology(id, environment, topology, new DeploymentTopology());
+                DeploymentTopology regeneratedTopology = new DeploymentTopology();
+                regeneratedTopology.setRevision(deploymentTopology.getRevision());
+                deploymentTopology = generateDeploymentTopology(id, environment, topology, regeneratedTopology);
             } else if (checkIfTopologyOrLocationHasChanged(deploymentTopology, locations.values(), topology)) {
                 // Re-generate the deployment topology if the initial topology has been changed
                 generateDeploymentTopology(id, environment, topology, deploymentTopology);
@@ -232,7 +235,8 @@ public class DeploymentTopologyService {
 
     private void doUpdateDeploymentTopology(DeploymentTopology deploymentTopology, Topology topology, ApplicationEnvironment environment) {
         Map<String, NodeTemplate> previousNodeTemplates = deploymentTopology.getNodeTemplates();
-        ReflectionUtil.mergeObject(topology, deploymentTopology, "id");
+        // the revision is specific to the deployment topology document
+        ReflectionUtil.mergeObject(topology, deploymentTopology, "id", "revision");
         topologyCompositionService.processTopologyComposition(deploymentTopology);
         deploymentInputService.processInputProperties(deploymentTopology);
         inputsPreProcessorService.processGetInput(deploymentTopology, environment, topology);
@@ -295,7 +299,7 @@ public class DeploymentTopologyService {
 
         // Set the value and check constraints
         propertyService.setPropertyValue(substitutedNode, propertyDefinition, propertyName, propertyValue);
-        alienDAO.save(deploymentTopology);
+        save(deploymentTopology);
     }
 
     public void updateCapabilityProperty(String environmentId, String nodeTemplateId, String capabilityName, String propertyName, Object propertyValue)
@@ -338,7 +342,7 @@ public class DeploymentTopologyService {
 
         // Set the value and check constraints
         propertyService.setCapabilityPropertyValue(substitutedNode.getCapabilities().get(capabilityName), propertyDefinition, propertyName, propertyValue);
-        alienDAO.save(deploymentTopology);
+        save(deploymentTopology);
     }
 
     /**
@@ -408,12 +412,22 @@ public class DeploymentTopologyService {
      * @return map of location group id to location
      */
     public Map<String, Location> getLocations(Map<String, String> locationIds) {
-        Map<String, Location> locations = locationService.getMultiple(locationIds.values());
+        return getLocations(locationIds, locationService.getMultiple(locationIds.values()));
+    }
+
+    /**
+     * Get location map from the deployment topology using already loaded locations
+     *
+     * @param locationIds map of group id to location id
+     * @param locations map of location id to location that contains at least the locations of the topology
+     * @return map of location group id to location
+     */
+    public Map<String, Location> getLocations(Map<String, String> locationIds, Map<String, Location> locations) {
         Map<String, Location> locationMap = Maps.newHashMap();
         for (Map.Entry<String, String> locationIdsEntry : locationIds.entrySet()) {
             locationMap.put(locationIdsEntry.getKey(), locations.get(locationIdsEntry.getValue()));
         }
-        if (locations.size() < locationIds.size()) {
+        if (locationMap.values().contains(null)) {
             throw new NotFoundException("Some locations could not be found " + locationIds);
         }
         return locationMap;
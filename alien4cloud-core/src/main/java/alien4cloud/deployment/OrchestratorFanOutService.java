@@ -0,0 +1,185 @@
+package alien4cloud.deployment;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import alien4cloud.model.deployment.Deployment;
+import alien4cloud.paas.IPaaSCallback;
+import alien4cloud.paas.model.DeploymentStatus;
+
+import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.SettableFuture;
+
+/**
+ * Query the orchestrators for multiple deployments concurrently.
+ *
+ * Every query is bounded by a deadline and the number of concurrent queries to a single orchestrator is limited. Deployments for which the orchestrator didn't
+ * answer before the deadline get a default value so a slow or hung orchestrator only impacts its own deployments. A query keeps its orchestrator permit until
+ * the orchestrator answers, even when the caller stopped waiting, so a hung orchestrator never has more than the maximum number of queries in progress.
+ * Permits are acquired without waiting before a query is handed to the shared pool: when an orchestrator has too many queries in progress its deployments
+ * immediately get the default value and the pool threads remain available for the other orchestrators.
+ */
+@Slf4j
+@Service
+public class OrchestratorFanOutService {
+    @Inject
+    private DeploymentRuntimeStateService deploymentRuntimeStateService;
+    /** Maximum time in milliseconds to wait for the orchestrators answers. */
+    @Value("${paas_monitor.fan_out.timeout_ms:5000}")
+    private long timeoutMs;
+    /** Maximum number of concurrent queries to a single orchestrator. */
+    @Value("${paas_monitor.fan_out.max_concurrent_calls_per_orchestrator:10}")
+    private int maxConcurrentCalls;
+    /** Number of threads used to issue the queries. */
+    @Value("${paas_monitor.fan_out.threads:20}")
+    private int threads;
+
+    private final Map<String, Semaphore> orchestratorPermits = Maps.newConcurrentMap();
+    private ExecutorService executor;
+
+    @PostConstruct
+    public void init() {
+        executor = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+            private final AtomicInteger count = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "orchestrator-fan-out-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    @PreDestroy
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Get the status of multiple deployments from their orchestrators.
+     *
+     * @param deployments The active deployments for which to get the status.
+     * @return A map of status by deployment id, status is UNKNOWN for deployments which orchestrator failed or didn't answer in time.
+     */
+    public Map<String, DeploymentStatus> getStatuses(Collection<Deployment> deployments) {
+        return fanOut(deployments, new IOrchestratorQuery<DeploymentStatus>() {
+            @Override
+            public void execute(Deployment deployment, IPaaSCallback<DeploymentStatus> callback) {
+                deploymentRuntimeStateService.getDeploymentStatus(deployment, callback);
+            }
+        }, DeploymentStatus.UNKNOWN);
+    }
+
+    private <T> Map<String, T> fanOut(Collection<Deployment> deployments, final IOrchestratorQuery<T> query, T defaultValue) {
+        final long deadline = System.currentTimeMillis() + timeoutMs;
+        Map<String, SettableFuture<T>> futures = Maps.newHashMap();
+        for (final Deployment deployment : deployments) {
+            final SettableFuture<T> future = SettableFuture.create();
+            futures.put(deployment.getId(), future);
+            final Semaphore permits = getPermits(deployment.getOrchestratorId());
+            if (!permits.tryAcquire()) {
+                // too many queries are already in progress for this orchestrator, fail fast rather than holding a thread of the pool.
+                future.cancel(false);
+                continue;
+            }
+            executor.submit(new Runnable() {
+                @Override
+                public void run() {
+                    execute(deployment, query, future, permits);
+                }
+            });
+        }
+
+        Map<String, T> results = Maps.newHashMap();
+        for (Map.Entry<String, SettableFuture<T>> futureEntry : futures.entrySet()) {
+            T result = defaultValue;
+            try {
+                long remaining = Math.max(0, deadline - System.currentTimeMillis());
+                result = futureEntry.getValue().get(remaining, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                log.debug("Orchestrator didn't answer in time for deployment <{}>.", futureEntry.getKey());
+                futureEntry.getValue().cancel(false);
+            } catch (CancellationException e) {
+                log.debug("Too many queries in progress on the orchestrator of deployment <{}>.", futureEntry.getKey());
+            } catch (ExecutionException e) {
+                log.debug("Failed to query orchestrator for deployment <" + futureEntry.getKey() + ">.", e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                log.debug("Interrupted while waiting for orchestrator answer for deployment <{}>.", futureEntry.getKey());
+            }
+            results.put(futureEntry.getKey(), result);
+        }
+        return results;
+    }
+
+    private <T> void execute(Deployment deployment, IOrchestratorQuery<T> query, final SettableFuture<T> future, final Semaphore permits) {
+        final AtomicBoolean completed = new AtomicBoolean();
+        if (future.isDone()) {
+            // the caller doesn't wait for the result anymore.
+            release(permits, completed);
+            return;
+        }
+        // the permit is released once the orchestrator answers (or fails to issue the query), not when the caller stops waiting.
+        try {
+            query.execute(deployment, new IPaaSCallback<T>() {
+                @Override
+                public void onSuccess(T data) {
+                    release(permits, completed);
+                    future.set(data);
+                }
+
+                @Override
+                public void onFailure(Throwable throwable) {
+                    release(permits, completed);
+                    future.setException(throwable);
+                }
+            });
+        } catch (RuntimeException e) {
+            release(permits, completed);
+            future.setException(e);
+        }
+    }
+
+    private void release(Semaphore permits, AtomicBoolean completed) {
+        // a misbehaving orchestrator may call back more than once.
+        if (completed.compareAndSet(false, true)) {
+            permits.release();
+        }
+    }
+
+    private Semaphore getPermits(String orchestratorId) {
+        Semaphore permits = orchestratorPermits.get(orchestratorId);
+        if (permits == null) {
+            Semaphore newPermits = new Semaphore(maxConcurrentCalls);
+            permits = orchestratorPermits.putIfAbsent(orchestratorId, newPermits);
+            if (permits == null) {
+                permits = newPermits;
+            }
+        }
+        return permits;
+    }
+
+    private interface IOrchestratorQuery<T> {
+        void execute(Deployment deployment, IPaaSCallback<T> callback);
+    }
+}
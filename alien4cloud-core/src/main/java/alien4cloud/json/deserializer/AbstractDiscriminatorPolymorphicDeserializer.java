@@ -3,21 +3,23 @@ package alien4cloud.json.deserializer;
 import java.io.IOException;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
-import java.util.Iterator;
 import java.util.Map;
 
 import com.fasterxml.jackson.core.JsonParseException;
 import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.util.JsonParserDelegate;
 import com.fasterxml.jackson.databind.DeserializationContext;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
-import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.node.JsonNodeType;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
 import com.google.common.collect.Maps;
 
 /**
  * Manages polymorphism deserialization for Jackson through discriminator field (based on field exists).
+ * <p>
+ * The object is streamed : only the fields that precede the discriminator are buffered, the object is not read as a tree before being deserialized.
  */
 public class AbstractDiscriminatorPolymorphicDeserializer<T> extends StdDeserializer<T> {
     private Map<String, Map<String, Class<? extends T>>> registry = Maps.newHashMap();
@@ -51,7 +53,6 @@ public class AbstractDiscriminatorPolymorphicDeserializer<T> extends StdDeserial
 
     @Override
     public T deserialize(JsonParser jp, DeserializationContext ctxt) throws IOException {
-        ObjectMapper mapper = (ObjectMapper) jp.getCodec();
         if (this.valueStringClass != null && JsonToken.VALUE_STRING.equals(jp.getCurrentToken())) {
             String parameter = jp.getValueAsString();
             // parse from string value
@@ -63,28 +64,151 @@ public class AbstractDiscriminatorPolymorphicDeserializer<T> extends StdDeserial
                         + parameter + ">", jp.getCurrentLocation(), e);
             }
         }
-        ObjectNode root = mapper.readTree(jp);
-        Class<? extends T> parameterClass = null;
-        Iterator<Map.Entry<String, JsonNode>> elementsIterator = root.fields();
-        while (elementsIterator.hasNext()) {
-            Map.Entry<String, JsonNode> element = elementsIterator.next();
-            String name = element.getKey();
-            String nodeType = element.getValue().getNodeType().toString();
-            if (registry.containsKey(name)) {
-                Map<String, Class<? extends T>> registryForDiscriminator = registry.get(name);
-                if (registryForDiscriminator.containsKey("ALL")) {
-                    parameterClass = registryForDiscriminator.values().iterator().next();
-                    break;
-                }
-                if (registryForDiscriminator.containsKey(nodeType)) {
-                    parameterClass = registryForDiscriminator.get(nodeType);
-                    break;
+        // the beginning of the object is buffered until the discriminator is found, then the original parser is used to deserialize the rest of the object
+        TokenBuffer buffer = new TokenBuffer(jp.getCodec(), false);
+        buffer.writeStartObject();
+        JsonToken token = jp.getCurrentToken();
+        if (JsonToken.START_OBJECT.equals(token)) {
+            token = jp.nextToken();
+        }
+        while (JsonToken.FIELD_NAME.equals(token)) {
+            String name = jp.getCurrentName();
+            token = jp.nextToken();
+            buffer.writeFieldName(name);
+            Class<? extends T> parameterClass = getParameterClass(name, token);
+            if (parameterClass != null) {
+                JsonParser parser = new BufferedObjectParser(buffer.asParser(jp.getCodec()), jp);
+                parser.nextToken();
+                return (T) ctxt.findRootValueDeserializer(ctxt.constructType(parameterClass)).deserialize(parser, ctxt);
+            }
+            buffer.copyCurrentStructure(jp);
+            token = jp.nextToken();
+        }
+        throw new JsonParseException("Failed to find implementation for node from registry " + registry, jp.getCurrentLocation());
+    }
+
+    private Class<? extends T> getParameterClass(String name, JsonToken valueToken) {
+        Map<String, Class<? extends T>> registryForDiscriminator = registry.get(name);
+        if (registryForDiscriminator == null) {
+            return null;
+        }
+        if (registryForDiscriminator.containsKey("ALL")) {
+            return registryForDiscriminator.values().iterator().next();
+        }
+        return registryForDiscriminator.get(getNodeType(valueToken).toString());
+    }
+
+    private static JsonNodeType getNodeType(JsonToken valueToken) {
+        switch (valueToken) {
+        case START_OBJECT:
+            return JsonNodeType.OBJECT;
+        case START_ARRAY:
+            return JsonNodeType.ARRAY;
+        case VALUE_STRING:
+            return JsonNodeType.STRING;
+        case VALUE_NUMBER_INT:
+        case VALUE_NUMBER_FLOAT:
+            return JsonNodeType.NUMBER;
+        case VALUE_TRUE:
+        case VALUE_FALSE:
+            return JsonNodeType.BOOLEAN;
+        case VALUE_NULL:
+            return JsonNodeType.NULL;
+        default:
+            return JsonNodeType.POJO;
+        }
+    }
+
+    /**
+     * Replays the buffered beginning of an object then continues with the original parser, starting from its current token (the value of the
+     * discriminator).
+     * <p>
+     * Every method that moves the parser forward goes through {@link #nextToken()} so the switch from the buffer to the original parser can't be skipped.
+     */
+    static class BufferedObjectParser extends JsonParserDelegate {
+        private final JsonParser parser;
+        private boolean buffered = true;
+
+        public BufferedObjectParser(JsonParser buffer, JsonParser parser) {
+            super(buffer);
+            this.parser = parser;
+        }
+
+        @Override
+        public JsonToken nextToken() throws IOException {
+            if (buffered) {
+                JsonToken token = delegate.nextToken();
+                if (token != null) {
+                    return token;
                 }
+                buffered = false;
+                delegate = parser;
+                return parser.getCurrentToken();
             }
+            return delegate.nextToken();
         }
-        if (parameterClass == null) {
-            throw new JsonParseException("Failed to find implementation for node " + root + " from registry " + registry, jp.getCurrentLocation());
+
+        @Override
+        public JsonToken nextValue() throws IOException {
+            JsonToken token = nextToken();
+            if (JsonToken.FIELD_NAME.equals(token)) {
+                token = nextToken();
+            }
+            return token;
+        }
+
+        @Override
+        public boolean nextFieldName(SerializableString str) throws IOException {
+            return JsonToken.FIELD_NAME.equals(nextToken()) && str.getValue().equals(getCurrentName());
+        }
+
+        @Override
+        public String nextTextValue() throws IOException {
+            return JsonToken.VALUE_STRING.equals(nextToken()) ? getText() : null;
+        }
+
+        @Override
+        public int nextIntValue(int defaultValue) throws IOException {
+            return JsonToken.VALUE_NUMBER_INT.equals(nextToken()) ? getIntValue() : defaultValue;
+        }
+
+        @Override
+        public long nextLongValue(long defaultValue) throws IOException {
+            return JsonToken.VALUE_NUMBER_INT.equals(nextToken()) ? getLongValue() : defaultValue;
+        }
+
+        @Override
+        public Boolean nextBooleanValue() throws IOException {
+            JsonToken token = nextToken();
+            if (JsonToken.VALUE_TRUE.equals(token)) {
+                return Boolean.TRUE;
+            }
+            if (JsonToken.VALUE_FALSE.equals(token)) {
+                return Boolean.FALSE;
+            }
+            return null;
+        }
+
+        @Override
+        public JsonParser skipChildren() throws IOException {
+            JsonToken token = getCurrentToken();
+            if (!JsonToken.START_OBJECT.equals(token) && !JsonToken.START_ARRAY.equals(token)) {
+                return this;
+            }
+            // the structure may start in the buffer and end in the original parser
+            int open = 1;
+            while (open > 0) {
+                token = nextToken();
+                if (token == null) {
+                    return this;
+                }
+                if (JsonToken.START_OBJECT.equals(token) || JsonToken.START_ARRAY.equals(token)) {
+                    open++;
+                } else if (JsonToken.END_OBJECT.equals(token) || JsonToken.END_ARRAY.equals(token)) {
+                    open--;
+                }
+            }
+            return this;
         }
-        return mapper.treeToValue(root, parameterClass);
     }
 }
\ No newline at end of file
@@ -5,7 +5,6 @@ import java.beans.Introspector;
 import java.beans.PropertyDescriptor;
 import java.io.IOException;
 import java.lang.reflect.Modifier;
-import java.util.Iterator;
 import java.util.Map;
 import java.util.Set;
 
@@ -15,13 +14,12 @@ import alien4cloud.tosca.properties.constraints.exception.InvalidPropertyConstra
 import alien4cloud.utils.TypeScanner;
 
 import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.DeserializationContext;
 import com.fasterxml.jackson.databind.JsonMappingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.PropertyNamingStrategy;
 import com.fasterxml.jackson.databind.PropertyNamingStrategy.PropertyNamingStrategyBase;
 import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
-import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.google.common.collect.Maps;
 
 public class PropertyConstraintDeserializer extends StdDeserializer<PropertyConstraint> {
@@ -72,27 +70,26 @@ public class PropertyConstraintDeserializer extends StdDeserializer<PropertyCons
 
     @Override
     public PropertyConstraint deserialize(JsonParser jp, DeserializationContext ctxt) throws IOException {
-        ObjectMapper mapper = (ObjectMapper) jp.getCodec();
-        ObjectNode node = mapper.readTree(jp);
-        String constraintName = null;
-        Iterator<String> fieldIterator = node.fieldNames();
-        // First field is also the constraint name ?
-        if (fieldIterator.hasNext()) {
-            constraintName = fieldIterator.next();
-        } else {
+        JsonToken token = jp.getCurrentToken();
+        if (JsonToken.START_OBJECT.equals(token)) {
+            token = jp.nextToken();
+        }
+        // First field is also the constraint name, the constraint is deserialized from there without reading the node as a tree
+        if (!JsonToken.FIELD_NAME.equals(token)) {
             throw JsonMappingException.from(jp, "Constraint definition must contain one field");
         }
-        PropertyNamingStrategy namingStrategy = mapper.getDeserializationConfig().getPropertyNamingStrategy();
+        String constraintName = jp.getCurrentName();
+        PropertyNamingStrategy namingStrategy = ctxt.getConfig().getPropertyNamingStrategy();
         Map<String, Class<? extends PropertyConstraint>> constraintsMapping = getTranslatedConstraintsMap(namingStrategy);
-        if (!constraintsMapping.containsKey(constraintName)) {
+        Class<? extends PropertyConstraint> constraintClass = constraintsMapping.get(constraintName);
+        if (constraintClass == null) {
             if ("rangeMinValue".equals(constraintName) || "rangeMaxValue".equals(constraintName)) {
-                return mapper.treeToValue(node, InRangeConstraint.class);
+                constraintClass = InRangeConstraint.class;
             } else {
                 throw JsonMappingException.from(jp, "Constraint not found [" + constraintName + "], expect one of [" + this.constraints.keySet() + "]");
             }
         }
-        Class<? extends PropertyConstraint> constraintClass = constraintsMapping.get(constraintName);
-        return mapper.treeToValue(node, constraintClass);
+        return (PropertyConstraint) ctxt.findRootValueDeserializer(ctxt.constructType(constraintClass)).deserialize(jp, ctxt);
     }
 
     private Map<String, Class<? extends PropertyConstraint>> getTranslatedConstraintsMap(PropertyNamingStrategy namingStrategy) {
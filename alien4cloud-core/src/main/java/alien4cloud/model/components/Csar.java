@@ -54,6 +54,15 @@ public class Csar implements IDeploymentSource {
     @StringField(indexType = IndexType.not_analyzed)
     private String substitutionTopologyId;
 
+    /** SHA-256 digest of the archive content, used to skip the import of an archive that didn't change. */
+    @TermFilter
+    @StringField(indexType = IndexType.not_analyzed, includeInAll = false)
+    private String hash;
+
+    /** Digest of the state of the dependencies when the archive was imported, an unchanged archive is imported again when its dependencies changed. */
+    @StringField(indexType = IndexType.no, includeInAll = false)
+    private String dependenciesHash;
+
 	/** Default constructor */
 	public Csar() {
 	}
@@ -21,6 +21,7 @@ import org.elasticsearch.mapping.IndexType;
 
 import alien4cloud.exception.IndexingServiceException;
 import alien4cloud.model.common.Tag;
+import alien4cloud.utils.VersionUtil;
 
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonInclude.Include;
@@ -82,4 +83,17 @@ public abstract class IndexedToscaElement {
     public void setId(String id) {
         // Not authorized to set id as it's auto-generated
     }
+
+    /**
+     * @return A key generated from the archive version that allows to sort elements by version.
+     */
+    @FetchContext(contexts = { TAG_SUGGESTION }, include = { false })
+    @StringField(indexType = IndexType.not_analyzed, includeInAll = false)
+    public String getArchiveVersionKey() {
+        return archiveVersion == null ? null : VersionUtil.getSortableKey(archiveVersion);
+    }
+
+    public void setArchiveVersionKey(String archiveVersionKey) {
+        // Not authorized to set the version key as it's generated from the archive version
+    }
 }
@@ -49,6 +49,9 @@ public class Topology implements IManagedSecuredResource {
     /** Last update date of the topology to verify if the topology has been changed **/
     private Date lastUpdateDate = new Date();
 
+    /** Revision of the topology, incremented every time the topology is saved so clients can detect missed updates. */
+    private long revision;
+
     /** The list of dependencies of this topology. */
     @TermFilter(paths = { "name", "version" })
     @NestedObject(nestedClass = CSARDependency.class)
@@ -18,6 +18,7 @@ import org.springframework.stereotype.Component;
 
 import alien4cloud.component.repository.exception.CSARVersionAlreadyExistsException;
 import alien4cloud.csar.services.CsarService;
+import alien4cloud.dao.CloseableIterable;
 import alien4cloud.dao.IGenericSearchDAO;
 import alien4cloud.model.common.Tag;
 import alien4cloud.model.common.Usage;
@@ -166,9 +167,8 @@ public class LocationArchiveIndexer {
         // exclude a location from the search
         QueryBuilder query = QueryBuilders.boolQuery()
                 .mustNot(QueryBuilders.idsQuery(Location.class.getSimpleName().toLowerCase()).ids(excludedLocation.getId()));
-        List<Location> locations = alienDAO.customFindAll(Location.class, query);
         Set<String> archiveIds = Sets.newHashSet();
-        if (locations != null) {
+        try (CloseableIterable<Location> locations = alienDAO.stream(Location.class, query, null)) {
             for (Location location : locations) {
                 IOrchestratorPlugin orchestratorInstance = (IOrchestratorPlugin) orchestratorPluginService.getOrFail(location.getOrchestratorId());
                 ILocationConfiguratorPlugin configuratorPlugin = orchestratorInstance.getConfigurator(location.getInfrastructureType());
@@ -17,8 +17,8 @@ import org.elasticsearch.index.query.QueryBuilders;
 import org.springframework.stereotype.Component;
 
 import alien4cloud.component.ICSARRepositorySearchService;
+import alien4cloud.dao.CloseableIterable;
 import alien4cloud.dao.IGenericSearchDAO;
-import alien4cloud.dao.model.GetMultipleDataResult;
 import alien4cloud.exception.NotFoundException;
 import alien4cloud.model.components.CSARDependency;
 import alien4cloud.model.components.CapabilityDefinition;
@@ -82,10 +82,12 @@ public class LocationResourceService {
             return getLocationResourcesFromOrchestrator(location);
         }
 
-        List<LocationResourceTemplate> locationResourceTemplates = getResourcesTemplates(location.getId());
-        LocationResources locationResources = new LocationResources(getLocationResourceTypes(locationResourceTemplates));
-        setLocationRessource(locationResourceTemplates, locationResources);
-        return locationResources;
+        // templates are streamed twice rather than kept in memory: first to get their types, then to add them to the matching type.
+        try (CloseableIterable<LocationResourceTemplate> locationResourceTemplates = streamResourcesTemplates(getLocationIdFilter(location.getId()))) {
+            LocationResources locationResources = new LocationResources(getLocationResourceTypes(locationResourceTemplates));
+            setLocationRessource(locationResourceTemplates, locationResources);
+            return locationResources;
+        }
     }
 
     /**
@@ -102,12 +104,13 @@ public class LocationResourceService {
         List<String> allExposedTypes = configuratorPlugin.getResourcesTypes();
         setLocationRessourceTypes(allExposedTypes, location, locationResources);
 
-        List<LocationResourceTemplate> locationResourceTemplates = getResourcesTemplates(location.getId());
-        setLocationRessource(locationResourceTemplates, locationResources);
+        try (CloseableIterable<LocationResourceTemplate> locationResourceTemplates = streamResourcesTemplates(getLocationIdFilter(location.getId()))) {
+            setLocationRessource(locationResourceTemplates, locationResources);
+        }
         return locationResources;
     }
 
-    public LocationResourceTypes getLocationResourceTypes(Collection<LocationResourceTemplate> resourceTemplates) {
+    public LocationResourceTypes getLocationResourceTypes(Iterable<LocationResourceTemplate> resourceTemplates) {
         Map<String, Set<String>> resourceTypesByLocationId = Maps.newHashMap();
         for (LocationResourceTemplate resourceTemplate : resourceTemplates) {
             Set<String> locationResourceTypes = resourceTypesByLocationId.get(resourceTemplate.getLocationId());
@@ -155,7 +158,7 @@ public class LocationResourceService {
     /**
      * Put the locationResourceTemplates to the appropriate List of the locationResources passed as param
      */
-    private void setLocationRessource(List<LocationResourceTemplate> locationResourceTemplates, LocationResources locationResources) {
+    private void setLocationRessource(Iterable<LocationResourceTemplate> locationResourceTemplates, LocationResources locationResources) {
         for (LocationResourceTemplate resourceTemplate : locationResourceTemplates) {
             String templateType = resourceTemplate.getTemplate().getType();
             if (locationResources.getConfigurationTypes().containsKey(templateType)) {
@@ -179,6 +182,7 @@ public class LocationResourceService {
 
             @Override
             public List<LocationResourceTemplate> getResources() {
+                // the plugin API exposes the resources as a list so they are all loaded, locations usually define a few resources.
                 return getResourcesTemplates(locationId);
             }
 
@@ -189,7 +193,9 @@ public class LocationResourceService {
                 // Get all the location resources templates for the given type.
                 Map<String, String[]> filter = getLocationIdFilter(locationId);
                 filter.put("types", types);
-                return getResourcesTemplates(filter);
+                try (CloseableIterable<LocationResourceTemplate> resourcesTemplates = streamResourcesTemplates(filter)) {
+                    return Lists.newArrayList(resourcesTemplates);
+                }
             }
 
             @Override
@@ -208,17 +214,21 @@ public class LocationResourceService {
         return MapUtil.newHashMap(new String[] { "locationId" }, new String[][] { new String[] { locationId } });
     }
 
-    private List<LocationResourceTemplate> getResourcesTemplates(Map<String, String[]> filter) {
+    private CloseableIterable<LocationResourceTemplate> streamResourcesTemplates(Map<String, String[]> filter) {
         // get all defined resources for this resource.
-        GetMultipleDataResult<LocationResourceTemplate> result = alienDAO.find(LocationResourceTemplate.class, filter, Integer.MAX_VALUE);
-        if (result.getData() == null) {
-            return Lists.newArrayList();
-        }
-        return Lists.newArrayList(result.getData());
+        return alienDAO.stream(LocationResourceTemplate.class, filter);
     }
 
+    /**
+     * Get all the resources templates of a location. The templates are all loaded in memory, the services of this class stream them instead.
+     *
+     * @param locationId The id of the location for which to get resources templates.
+     * @return The list of resources templates of the location.
+     */
     public List<LocationResourceTemplate> getResourcesTemplates(String locationId) {
-        return getResourcesTemplates(getLocationIdFilter(locationId));
+        try (CloseableIterable<LocationResourceTemplate> resourcesTemplates = streamResourcesTemplates(getLocationIdFilter(locationId))) {
+            return Lists.newArrayList(resourcesTemplates);
+        }
     }
 
     public Map<String, LocationResourceTemplate> getMultiple(Collection<String> ids) {
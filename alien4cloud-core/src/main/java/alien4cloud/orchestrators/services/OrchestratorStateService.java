@@ -1,10 +1,12 @@
 package alien4cloud.orchestrators.services;
 
 import alien4cloud.component.repository.exception.CSARVersionAlreadyExistsException;
+import alien4cloud.csar.services.CsarService;
 import alien4cloud.dao.IGenericSearchDAO;
 import alien4cloud.dao.model.GetMultipleDataResult;
 import alien4cloud.deployment.DeploymentService;
 import alien4cloud.exception.AlreadyExistException;
+import alien4cloud.model.components.Csar;
 import alien4cloud.model.deployment.Deployment;
 import alien4cloud.model.orchestrators.Orchestrator;
 import alien4cloud.model.orchestrators.OrchestratorConfiguration;
@@ -17,8 +19,11 @@ import alien4cloud.orchestrators.plugin.model.PluginArchive;
 import alien4cloud.paas.OrchestratorPluginService;
 import alien4cloud.paas.exception.PluginConfigurationException;
 import alien4cloud.tosca.ArchiveIndexer;
+import alien4cloud.tosca.model.ArchiveRoot;
 import alien4cloud.tosca.parser.ParsingError;
+import alien4cloud.utils.FileUtil;
 import alien4cloud.utils.MapUtil;
+import alien4cloud.utils.VersionUtil;
 import com.google.common.collect.Lists;
 import lombok.extern.slf4j.Slf4j;
 import org.elasticsearch.mapping.QueryHelper;
@@ -55,6 +60,8 @@ public class OrchestratorStateService {
     private LocationService locationService;
     @Inject
     private ArchiveIndexer archiveIndexer;
+    @Inject
+    private CsarService csarService;
 
     /**
      * Initialize all orchestrator that have a non-disabled state.
@@ -130,12 +137,8 @@ public class OrchestratorStateService {
         IOrchestratorPluginFactory orchestratorFactory = orchestratorService.getPluginFactory(orchestrator);
         IOrchestratorPlugin<Object> orchestratorInstance = orchestratorFactory.newInstance();
         // index the archive in alien catalog
-        try {
-            for (PluginArchive pluginArchive : orchestratorInstance.pluginArchives()) {
-                archiveIndexer.importArchive(pluginArchive.getArchive(), pluginArchive.getArchiveFilePath(), Lists.<ParsingError> newArrayList());
-            }
-        } catch (CSARVersionAlreadyExistsException e) {
-            log.info("Skipping location archive import as the released version already exists in the repository.");
+        for (PluginArchive pluginArchive : orchestratorInstance.pluginArchives()) {
+            importPluginArchive(pluginArchive);
         }
         // Set the configuration for the provider
         OrchestratorConfiguration orchestratorConfiguration = orchestratorConfigurationService.getConfigurationOrFail(orchestrator.getId());
@@ -160,6 +163,53 @@ public class OrchestratorStateService {
         }
     }
 
+    /**
+     * Index a plugin archive unless it is already indexed: either as a released version or as a SNAPSHOT with the same content and dependencies.
+     *
+     * @param pluginArchive The plugin archive to index.
+     * @return True if the archive has been indexed, false if it was already indexed.
+     */
+    boolean importPluginArchive(PluginArchive pluginArchive) {
+        ArchiveRoot archiveRoot = pluginArchive.getArchive();
+        Csar archive = archiveRoot.getArchive();
+        Csar indexed = csarService.getIfExists(archive.getName(), archive.getVersion());
+        if (indexed != null && !VersionUtil.isSnapshot(indexed.getVersion())) {
+            log.info("Skipping plugin archive <{}:{}> import as the released version already exists in the repository.", archive.getName(),
+                    archive.getVersion());
+            return false;
+        }
+        String archiveHash = getArchiveHash(pluginArchive);
+        String dependenciesHash = csarService.getDependenciesHash(archive.getDependencies());
+        if (indexed != null && archiveHash != null && archiveHash.equals(indexed.getHash()) && dependenciesHash.equals(indexed.getDependenciesHash())) {
+            log.debug("Skipping plugin archive <{}:{}> import as it didn't change since the last import.", archive.getName(), archive.getVersion());
+            return false;
+        }
+        archive.setHash(archiveHash);
+        archive.setDependenciesHash(dependenciesHash);
+        try {
+            archiveIndexer.importArchive(archiveRoot, pluginArchive.getArchiveFilePath(), Lists.<ParsingError> newArrayList());
+        } catch (CSARVersionAlreadyExistsException e) {
+            // the archive may have been imported concurrently (by another orchestrator using the same plugin).
+            log.info("Skipping plugin archive <{}:{}> import as the released version already exists in the repository.", archive.getName(),
+                    archive.getVersion());
+            return false;
+        }
+        return true;
+    }
+
+    private String getArchiveHash(PluginArchive pluginArchive) {
+        if (pluginArchive.getArchiveFilePath() == null) {
+            // generated archives have no content to compare, they are imported again.
+            return null;
+        }
+        try {
+            return FileUtil.sha256(pluginArchive.getArchiveFilePath());
+        } catch (IOException e) {
+            log.warn("Unable to compute the digest of plugin archive <" + pluginArchive.getArchiveFilePath() + ">, it will be imported again.", e);
+            return null;
+        }
+    }
+
     /**
      * Disable an orchestrator.
      *
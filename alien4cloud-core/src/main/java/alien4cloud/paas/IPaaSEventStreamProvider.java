@@ -0,0 +1,30 @@
+package alien4cloud.paas;
+
+import java.util.Date;
+
+import alien4cloud.paas.model.AbstractMonitorEvent;
+
+/**
+ * Optional interface that a {@link IPaaSProvider} can implement in order to push monitor events to alien as soon as they happen rather than being polled
+ * through {@link IPaaSProvider#getEventsSince(Date, int, IPaaSCallback)}.
+ *
+ * When a provider implements this interface alien opens a stream when the orchestrator is registered and stops polling the provider while the stream is
+ * alive. When the provider calls {@link IPaaSCallback#onFailure(Throwable)} on the stream callback the stream is considered as closed, alien falls back to
+ * polling and re-opens the stream after a back-off delay from the date of the last received event. Calls made on the callback of a closed stream are ignored.
+ */
+public interface IPaaSEventStreamProvider {
+
+    /**
+     * Open the event stream. The provider must first push every event that occurred after the given cursor date (ordered by date) and then push new events as
+     * they happen through the callback {@link IPaaSCallback#onSuccess(Object)} method.
+     *
+     * @param since The date of the last event received by alien, events that occurred after this date must be pushed (resume cursor).
+     * @param eventsCallback The callback to call to push events or to notify alien that the stream is broken.
+     */
+    void startEventStream(Date since, IPaaSCallback<AbstractMonitorEvent[]> eventsCallback);
+
+    /**
+     * Close the event stream, the provider must not push any event to the callback after this call.
+     */
+    void stopEventStream();
+}
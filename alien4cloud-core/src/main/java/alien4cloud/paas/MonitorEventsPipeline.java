@@ -0,0 +1,220 @@
+package alien4cloud.paas;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.stereotype.Component;
+
+import alien4cloud.dao.IGenericSearchDAO;
+import alien4cloud.paas.model.AbstractMonitorEvent;
+
+import com.google.common.collect.Lists;
+
+/**
+ * Bounded queue that persists monitor events in elastic search using bulk requests.
+ *
+ * Events are submitted by the PaaS monitors before listeners are notified and are flushed to the monitor DAO by a dedicated thread when either the batch
+ * size is reached or the flush interval is elapsed. Monitors submit events while holding their own lock so submission never blocks: when the queue is full
+ * the events that don't fit are rejected and the monitor fetches them again later. Monitors don't fetch new events while the queue cannot hold them (see
+ * {@link #canAccept(int)}), so a slow elastic search slows down the polling instead of losing events.
+ * <p>
+ * A batch that cannot be saved is retried with an exponential backoff, it is only dropped once all attempts failed.
+ */
+@Slf4j
+@Component
+public class MonitorEventsPipeline implements PublicMetrics {
+    private static final String METRICS_PREFIX = "paas.monitor.events.";
+
+    @Resource(name = "alien-monitor-es-dao")
+    private IGenericSearchDAO alienMonitorDao;
+    /** Maximum number of events waiting to be persisted. */
+    @Value("${paas_monitor.events_queue_size:10000}")
+    private int queueSize;
+    /** Maximum number of events to persist in a single bulk request. */
+    @Value("${paas_monitor.events_batch_size:500}")
+    private int batchSize;
+    /** Maximum delay in milliseconds before a queued event is persisted. */
+    @Value("${paas_monitor.events_flush_interval_ms:1000}")
+    private long flushIntervalMs;
+    /** Number of attempts to save a batch before its events are dropped. */
+    @Value("${paas_monitor.events_flush_attempts:5}")
+    private int flushAttempts;
+    /** Delay in milliseconds before the first retry of a failed batch, doubled on each retry. */
+    @Value("${paas_monitor.events_flush_retry_delay_ms:500}")
+    private long flushRetryDelayMs;
+
+    private BlockingQueue<AbstractMonitorEvent> queue;
+    private Thread flusher;
+    private volatile boolean running;
+
+    private final AtomicLong droppedEvents = new AtomicLong();
+    private final AtomicLong rejectedEvents = new AtomicLong();
+    private final AtomicLong flushRetries = new AtomicLong();
+    private final AtomicLong persistedEvents = new AtomicLong();
+    private final AtomicLong flushCount = new AtomicLong();
+    private final AtomicLong lastFlushLatencyMs = new AtomicLong();
+    private final AtomicLong maxFlushLatencyMs = new AtomicLong();
+
+    @PostConstruct
+    public void start() {
+        queue = new ArrayBlockingQueue<>(queueSize);
+        running = true;
+        flusher = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                flushLoop();
+            }
+        }, "paas-monitor-events-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        flusher.interrupt();
+        flusher.join(flushIntervalMs * 10);
+        // persist remaining events so nothing queued is lost on a clean shutdown.
+        List<AbstractMonitorEvent> remaining = Lists.newArrayList();
+        queue.drainTo(remaining);
+        flush(remaining);
+    }
+
+    /**
+     * Queue events to be persisted, in the given order. This method never blocks: if the queue cannot hold the whole batch the events that don't fit (the
+     * latest ones) are rejected, it is up to the caller to submit them again later.
+     *
+     * @param events The events to persist.
+     * @return The number of events that have been queued, events after this index have been rejected.
+     */
+    public int submit(AbstractMonitorEvent[] events) {
+        int queued = 0;
+        while (queued < events.length && queue.offer(events[queued])) {
+            queued++;
+        }
+        int rejected = events.length - queued;
+        if (rejected > 0) {
+            rejectedEvents.addAndGet(rejected);
+            log.warn("Monitor events queue is full, rejecting {} of {} events starting from {}", rejected, events.length, events[queued]);
+        }
+        return queued;
+    }
+
+    /**
+     * Check if the queue can currently hold the given number of events, monitors should not fetch events that could not be queued.
+     *
+     * @param eventCount The number of events to queue.
+     * @return True if the given number of events can be queued.
+     */
+    public boolean canAccept(int eventCount) {
+        return queue.remainingCapacity() >= eventCount;
+    }
+
+    /**
+     * @return The number of events currently waiting to be persisted.
+     */
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    private void flushLoop() {
+        while (running) {
+            List<AbstractMonitorEvent> batch = new ArrayList<>(batchSize);
+            try {
+                AbstractMonitorEvent first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.currentTimeMillis() + flushIntervalMs;
+                while (batch.size() < batchSize) {
+                    long remaining = deadline - System.currentTimeMillis();
+                    if (queue.drainTo(batch, batchSize - batch.size()) == 0) {
+                        AbstractMonitorEvent next = remaining > 0 ? queue.poll(remaining, TimeUnit.MILLISECONDS) : null;
+                        if (next == null) {
+                            break;
+                        }
+                        batch.add(next);
+                    }
+                }
+            } catch (InterruptedException e) {
+                log.debug("Monitor events flusher interrupted");
+            }
+            flush(batch);
+        }
+    }
+
+    private void flush(List<AbstractMonitorEvent> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        AbstractMonitorEvent[] events = batch.toArray(new AbstractMonitorEvent[batch.size()]);
+        long retryDelay = flushRetryDelayMs;
+        for (int attempt = 1;; attempt++) {
+            try {
+                alienMonitorDao.save(events);
+                persistedEvents.addAndGet(events.length);
+                break;
+            } catch (Exception e) {
+                if (attempt >= flushAttempts || !sleep(retryDelay)) {
+                    droppedEvents.addAndGet(events.length);
+                    log.error("Failed to persist a batch of " + events.length + " monitor events after " + attempt + " attempts, events are dropped", e);
+                    break;
+                }
+                flushRetries.incrementAndGet();
+                log.warn("Failed to persist a batch of " + events.length + " monitor events, retrying in " + retryDelay + " ms", e);
+                retryDelay *= 2;
+            }
+        }
+        long latency = System.currentTimeMillis() - start;
+        flushCount.incrementAndGet();
+        lastFlushLatencyMs.set(latency);
+        if (latency > maxFlushLatencyMs.get()) {
+            maxFlushLatencyMs.set(latency);
+        }
+    }
+
+    /**
+     * Wait before retrying a failed batch, new events accumulate in the queue in the meantime so that monitors stop fetching events once it is full.
+     *
+     * @return False if the flusher has been interrupted (the pipeline is stopping).
+     */
+    private boolean sleep(long delayMs) {
+        try {
+            Thread.sleep(delayMs);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    @Override
+    public Collection<Metric<?>> metrics() {
+        Collection<Metric<?>> metrics = Lists.newArrayList();
+        metrics.add(new Metric<Integer>(METRICS_PREFIX + "queue.depth", queue == null ? 0 : queue.size()));
+        metrics.add(new Metric<Long>(METRICS_PREFIX + "dropped", droppedEvents.get()));
+        metrics.add(new Metric<Long>(METRICS_PREFIX + "rejected", rejectedEvents.get()));
+        metrics.add(new Metric<Long>(METRICS_PREFIX + "flush.retries", flushRetries.get()));
+        metrics.add(new Metric<Long>(METRICS_PREFIX + "persisted", persistedEvents.get()));
+        metrics.add(new Metric<Long>(METRICS_PREFIX + "flush.count", flushCount.get()));
+        metrics.add(new Metric<Long>(METRICS_PREFIX + "flush.latency.last", lastFlushLatencyMs.get()));
+        metrics.add(new Metric<Long>(METRICS_PREFIX + "flush.latency.max", maxFlushLatencyMs.get()));
+        return metrics;
+    }
+}
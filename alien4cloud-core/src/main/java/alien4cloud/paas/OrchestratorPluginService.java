@@ -32,11 +32,16 @@ public class OrchestratorPluginService implements IPaasEventService {
     private IGenericSearchDAO alienDao;
     @Resource(name = "alien-monitor-es-dao")
     private IGenericSearchDAO alienMonitorDao;
+    @Resource
+    private MonitorEventsPipeline monitorEventsPipeline;
     @Resource(name = "paas-monitor-scheduler")
     private TaskScheduler scheduler;
     /** Interval in milliseconds on which to retrieve monitoring events from a PaaS provider. */
     @Value("${paas_monitor.monitor_interval_ms}")
     private long monitorIntervalMs = 1000 * 30;
+    /** Delay in milliseconds during which events are polled after the failure of an events stream, doubled on consecutive failures. */
+    @Value("${paas_monitor.stream_retry_delay_ms:5000}")
+    private long streamRetryDelayMs = 5000;
 
     private Map<String, Registration> monitorRegistrations = Maps.newHashMap();
 
@@ -64,9 +69,11 @@ public class OrchestratorPluginService implements IPaasEventService {
             throw new AlreadyExistException("Cloud [" + orchestratorId + "] has already been registered");
         }
         // create the polling monitor responsible to monitor this instance.
-        PaaSProviderPollingMonitor monitor = new PaaSProviderPollingMonitor(alienDao, alienMonitorDao, instance, listeners, orchestratorId);
+        PaaSProviderPollingMonitor monitor = new PaaSProviderPollingMonitor(alienDao, alienMonitorDao, monitorEventsPipeline, instance, listeners,
+                orchestratorId);
+        monitor.setStreamRetryDelayMs(streamRetryDelayMs);
         ScheduledFuture<?> monitorFuture = scheduler.scheduleAtFixedRate(monitor, monitorIntervalMs);
-        Registration registration = new Registration(instance, monitorFuture);
+        Registration registration = new Registration(instance, monitor, monitorFuture);
         monitorRegistrations.put(orchestratorId, registration);
     }
 
@@ -80,6 +87,7 @@ public class OrchestratorPluginService implements IPaasEventService {
         Registration registration = monitorRegistrations.remove(orchestratorId);
         if (registration != null) {
             registration.registration.cancel(false);
+            registration.monitor.stop();
             return registration.instance;
         } else {
             return null;
@@ -117,6 +125,7 @@ public class OrchestratorPluginService implements IPaasEventService {
     @AllArgsConstructor
     private class Registration {
         private IOrchestratorPlugin instance;
+        private PaaSProviderPollingMonitor monitor;
         private ScheduledFuture<?> registration;
     }
 }
@@ -5,6 +5,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
+import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 
 import org.elasticsearch.mapping.QueryHelper.SearchQueryHelperBuilder;
@@ -26,13 +27,26 @@ import com.google.common.collect.Sets;
 @Slf4j
 public class PaaSProviderPollingMonitor implements Runnable {
     private static final int MAX_POLLED_EVENTS = 500;
+    /** Default delay before re-opening a broken events stream, it is doubled on each consecutive failure. */
+    private static final long DEFAULT_STREAM_RETRY_DELAY_MS = 5000;
+    private static final long MAX_STREAM_RETRY_DELAY_MS = 1000 * 60 * 10;
     private final IGenericSearchDAO dao;
     private final IGenericSearchDAO monitorDAO;
+    private final MonitorEventsPipeline eventsPipeline;
     private final IPaaSProvider paaSProvider;
     private Date lastPollingDate;
     @SuppressWarnings("rawtypes")
     private List<IPaasEventListener> listeners;
     private PaaSEventsCallback paaSEventsCallback;
+    private boolean streaming = false;
+    /** Incremented each time a stream is opened or closed, callbacks of a previous stream are ignored. */
+    private long streamGeneration = 0;
+    private int streamFailures = 0;
+    /** Events are polled until this date after a stream failure. */
+    private long nextStreamAttempt = 0;
+    /** Delay before re-opening the stream after its first failure. */
+    @Setter
+    private long streamRetryDelayMs = DEFAULT_STREAM_RETRY_DELAY_MS;
     private String cloudId;
     private boolean hasDeployments = false;
     private boolean getEventsInProgress = false;
@@ -41,13 +55,15 @@ public class PaaSProviderPollingMonitor implements Runnable {
      * Create a new instance of the {@link PaaSProviderPollingMonitor} to monitor the given paas provider.
      *
      * @param paaSProvider The paas provider to monitor.
+     * @param eventsPipeline The pipeline in charge of persisting the monitor events.
      */
     @SuppressWarnings("rawtypes")
-    public PaaSProviderPollingMonitor(IGenericSearchDAO dao, IGenericSearchDAO monitorDAO, IPaaSProvider paaSProvider, List<IPaasEventListener> listeners,
-            String cloudId) {
+    public PaaSProviderPollingMonitor(IGenericSearchDAO dao, IGenericSearchDAO monitorDAO, MonitorEventsPipeline eventsPipeline, IPaaSProvider paaSProvider,
+            List<IPaasEventListener> listeners, String cloudId) {
         this.cloudId = cloudId;
         this.dao = dao;
         this.monitorDAO = monitorDAO;
+        this.eventsPipeline = eventsPipeline;
         this.paaSProvider = paaSProvider;
         this.listeners = listeners;
         Set<Class<?>> eventClasses = Sets.newHashSet();
@@ -76,40 +92,60 @@ public class PaaSProviderPollingMonitor implements Runnable {
         paaSEventsCallback = new PaaSEventsCallback();
     }
 
+    /**
+     * Queue the received events for persistence then notify the listeners. Only the events accepted by the persistence pipeline are handled: the last polling
+     * date is not moved after rejected events so that they are fetched again once the pipeline caught up.
+     *
+     * @param auditEvents The received events, in date order.
+     * @return True if all the events have been handled, false if some have been rejected by the persistence pipeline.
+     */
+    private synchronized boolean handleEvents(AbstractMonitorEvent[] auditEvents) {
+        if (log.isTraceEnabled()) {
+            log.trace("Received events from date {}", lastPollingDate);
+        }
+        if (log.isDebugEnabled() && auditEvents != null && auditEvents.length > 0) {
+            log.debug("Saving events for cloud {}", cloudId);
+            for (AbstractMonitorEvent event : auditEvents) {
+                log.debug(event.toString());
+            }
+        }
+        if (auditEvents == null || auditEvents.length == 0) {
+            return true;
+        }
+        for (AbstractMonitorEvent event : auditEvents) {
+            // Enrich event with cloud id and date before saving them
+            event.setCloudId(cloudId);
+            if (event.getDate() <= 0) {
+                event.setDate(System.currentTimeMillis());
+            }
+        }
+        // persistence is performed asynchronously in bulk so a slow elastic search does not stall the polling.
+        int queued = eventsPipeline.submit(auditEvents);
+        for (int i = 0; i < queued; i++) {
+            Date eventDate = new Date(auditEvents[i].getDate());
+            lastPollingDate = eventDate.after(lastPollingDate) ? eventDate : lastPollingDate;
+        }
+        for (IPaasEventListener listener : listeners) {
+            for (int i = 0; i < queued; i++) {
+                if (listener.canHandle(auditEvents[i])) {
+                    listener.eventHappened(auditEvents[i]);
+                }
+            }
+        }
+        if (queued < auditEvents.length) {
+            log.warn("Monitor events pipeline is full, {} events of cloud {} will be fetched again from {}", auditEvents.length - queued, cloudId,
+                    lastPollingDate);
+            return false;
+        }
+        return true;
+    }
+
     private class PaaSEventsCallback implements IPaaSCallback<AbstractMonitorEvent[]> {
 
         @Override
         public void onSuccess(AbstractMonitorEvent[] auditEvents) {
             synchronized (PaaSProviderPollingMonitor.this) {
-                if (log.isTraceEnabled()) {
-                    log.trace("Polled from date {}", lastPollingDate);
-                }
-                if (log.isDebugEnabled() && auditEvents != null && auditEvents.length > 0) {
-                    log.debug("Saving events for cloud {}", cloudId);
-                    for (AbstractMonitorEvent event : auditEvents) {
-                        log.debug(event.toString());
-                    }
-                }
-                if (auditEvents != null && auditEvents.length > 0) {
-                    for (AbstractMonitorEvent event : auditEvents) {
-                        // Enrich event with cloud id before saving them
-                        event.setCloudId(cloudId);
-                    }
-                    for (IPaasEventListener listener : listeners) {
-                        for (AbstractMonitorEvent event : auditEvents) {
-                            if (listener.canHandle(event)) {
-                                listener.eventHappened(event);
-                            }
-                            if (event.getDate() > 0) {
-                                Date eventDate = new Date(event.getDate());
-                                lastPollingDate = eventDate.after(lastPollingDate) ? eventDate : lastPollingDate;
-                            } else {
-                                event.setDate(System.currentTimeMillis());
-                            }
-                        }
-                    }
-                    monitorDAO.save(auditEvents);
-                }
+                handleEvents(auditEvents);
                 getEventsInProgress = false;
             }
         }
@@ -126,13 +162,85 @@ public class PaaSProviderPollingMonitor implements Runnable {
         }
     }
 
+    /**
+     * Callback used by providers that implements {@link IPaaSEventStreamProvider} to push events. Each opened stream gets its own callback so that a late
+     * callback from a previous stream cannot alter the state of the current one.
+     */
+    private class PaaSEventsStreamCallback implements IPaaSCallback<AbstractMonitorEvent[]> {
+        private final long generation;
+
+        private PaaSEventsStreamCallback(long generation) {
+            this.generation = generation;
+        }
+
+        @Override
+        public void onSuccess(AbstractMonitorEvent[] auditEvents) {
+            synchronized (PaaSProviderPollingMonitor.this) {
+                if (isStale()) {
+                    // the new stream will push again the events since the last received one.
+                    return;
+                }
+                streamFailures = 0;
+                if (!handleEvents(auditEvents)) {
+                    // the stream cannot be paused, it is closed and events are polled from the last handled one once the pipeline caught up.
+                    streamGeneration++;
+                    streaming = false;
+                    ((IPaaSEventStreamProvider) paaSProvider).stopEventStream();
+                    nextStreamAttempt = System.currentTimeMillis() + streamRetryDelayMs;
+                }
+            }
+        }
+
+        @Override
+        public void onFailure(Throwable throwable) {
+            synchronized (PaaSProviderPollingMonitor.this) {
+                if (isStale()) {
+                    log.debug("Ignoring failure of a previous events stream for cloud {}", cloudId);
+                    return;
+                }
+                streamGeneration++;
+                streaming = false;
+                long retryDelay = onStreamFailure();
+                log.error("Events stream from PaaS provider for cloud " + cloudId + " is broken, falling back to polling for " + retryDelay + " ms",
+                        throwable);
+            }
+        }
+
+        private boolean isStale() {
+            return generation != streamGeneration || !streaming;
+        }
+    }
+
+    /**
+     * Stop the event stream if the monitored provider supports streaming.
+     */
+    public synchronized void stop() {
+        if (streaming) {
+            streamGeneration++;
+            streaming = false;
+            ((IPaaSEventStreamProvider) paaSProvider).stopEventStream();
+        }
+    }
+
     @Override
     @SuppressWarnings("rawtypes")
     public synchronized void run() {
+        if (streaming) {
+            // events are pushed by the provider.
+            return;
+        }
         if (getEventsInProgress) {
             // Get events since is running
             return;
         }
+        if (!eventsPipeline.canAccept(MAX_POLLED_EVENTS)) {
+            // back-pressure: don't fetch events (polled or streamed) until the persistence pipeline can queue them.
+            log.debug("Monitor events pipeline is full, skipping events fetching for cloud {}", cloudId);
+            return;
+        }
+        if (paaSProvider instanceof IPaaSEventStreamProvider && System.currentTimeMillis() >= nextStreamAttempt && startStream()) {
+            return;
+        }
         getEventsInProgress = true;
         if (hasDeployments) {
             paaSProvider.getEventsSince(lastPollingDate, MAX_POLLED_EVENTS, paaSEventsCallback);
@@ -142,6 +250,32 @@ public class PaaSProviderPollingMonitor implements Runnable {
         }
     }
 
+    private boolean startStream() {
+        try {
+            streamGeneration++;
+            streaming = true;
+            ((IPaaSEventStreamProvider) paaSProvider).startEventStream(lastPollingDate, new PaaSEventsStreamCallback(streamGeneration));
+        } catch (Exception e) {
+            streamGeneration++;
+            streaming = false;
+            long retryDelay = onStreamFailure();
+            log.warn("Unable to open events stream for cloud " + cloudId + ", events will be polled for " + retryDelay + " ms", e);
+        }
+        return streaming;
+    }
+
+    /**
+     * Back off to polling after a stream failure, the delay before the next stream attempt doubles on each consecutive failure.
+     *
+     * @return The delay in milliseconds before the next stream attempt.
+     */
+    private long onStreamFailure() {
+        long retryDelay = Math.min(streamRetryDelayMs << Math.min(streamFailures, 16), MAX_STREAM_RETRY_DELAY_MS);
+        streamFailures++;
+        nextStreamAttempt = System.currentTimeMillis() + retryDelay;
+        return retryDelay;
+    }
+
     private Deployment getActiveDeployment() {
         Deployment deployment = null;
 
@@ -202,7 +202,7 @@ public abstract class AbstractWorkflowBuilder {
     }
 
     public void removeStep(Workflow wf, String stepId, boolean force) {
-        AbstractStep step = wf.getSteps().remove(stepId);
+        AbstractStep step = wf.removeStep(stepId);
         if (step == null) {
             throw new InconsistentWorkflowException(String.format(
                     "Inconsistent workflow: a step nammed '%s' can not be found while it's referenced else where ...", stepId));
@@ -238,9 +238,9 @@ public abstract class AbstractWorkflowBuilder {
         if (wf.getSteps().containsKey(newStepName)) {
             throw new AlreadyExistException(String.format("A step nammed ''{0}'' already exists", newStepName));
         }
-        AbstractStep step = wf.getSteps().remove(stepId);
+        AbstractStep step = wf.removeStep(stepId);
         step.setName(newStepName);
-        wf.getSteps().put(newStepName, step);
+        wf.addStep(step);
         // now explore the links
         if (step.getPrecedingSteps() != null) {
             for (String precedingId : step.getPrecedingSteps()) {
@@ -259,12 +259,8 @@ public abstract class AbstractWorkflowBuilder {
     }
 
     public void removeNode(Workflow wf, String nodeName) {
-        AbstractStep[] steps = new AbstractStep[wf.getSteps().size()];
-        steps = wf.getSteps().values().toArray(steps);
-        for (AbstractStep step : steps) {
-            if (step instanceof NodeActivityStep && ((NodeActivityStep) step).getNodeId().equals(nodeName)) {
-                removeStep(wf, step.getName(), true);
-            }
+        for (AbstractStep step : Lists.newArrayList(wf.getNodeSteps(nodeName))) {
+            removeStep(wf, step.getName(), true);
         }
     }
 
@@ -378,6 +374,7 @@ public abstract class AbstractWorkflowBuilder {
                     ((NodeActivityStep) step).getActivity().setNodeId(newName);
                 }
             }
+            wf.resetStepsIndex();
         }
     }
 
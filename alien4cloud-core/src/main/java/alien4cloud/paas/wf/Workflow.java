@@ -1,16 +1,20 @@
 package alien4cloud.paas.wf;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 
 import org.apache.commons.collections4.CollectionUtils;
+import org.elasticsearch.common.collect.Lists;
+import org.elasticsearch.common.collect.Maps;
 
 import alien4cloud.paas.wf.validation.AbstractWorkflowError;
 
@@ -33,11 +37,147 @@ public class Workflow {
      */
     private Map<String, AbstractStep> steps = new LinkedHashMap<String, AbstractStep>();
 
+    /**
+     * Index of the steps of each node, built lazily from the steps and maintained while steps are added or removed through the workflow.
+     */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private Map<String, List<NodeActivityStep>> nodeStepsIndex;
+
+    /**
+     * For a step base name, the lowest increment that may not be used yet by a step name (all lower increments are used).
+     */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private Map<String, Integer> freeNameIncrements = Maps.newHashMap();
+
+    public void setSteps(Map<String, AbstractStep> steps) {
+        this.steps = steps;
+        resetStepsIndex();
+    }
+
     public <S extends AbstractStep> S addStep(S step) {
-        steps.put(step.getName(), step);
+        AbstractStep replaced = steps.put(step.getName(), step);
+        if (nodeStepsIndex != null) {
+            unindexStep(replaced);
+            if (step instanceof NodeActivityStep) {
+                getIndexedNodeSteps(((NodeActivityStep) step).getNodeId(), true).add((NodeActivityStep) step);
+            }
+        }
         return step;
     }
 
+    /**
+     * Remove a step from the workflow, links from and to the step are not updated.
+     *
+     * @param stepName The name of the step to remove.
+     * @return The removed step or null if the workflow doesn't contain any step with this name.
+     */
+    public AbstractStep removeStep(String stepName) {
+        AbstractStep step = steps.remove(stepName);
+        if (step != null) {
+            unindexStep(step);
+            releaseStepName(step);
+        }
+        return step;
+    }
+
+    /**
+     * Get the steps of a node.
+     *
+     * @param nodeId The id of the node.
+     * @return The steps of the node, in the order they have been added to the workflow (empty if the node doesn't have any step).
+     */
+    public List<NodeActivityStep> getNodeSteps(String nodeId) {
+        List<NodeActivityStep> nodeSteps = getIndexedNodeSteps(nodeId, false);
+        return nodeSteps == null ? Collections.<NodeActivityStep> emptyList() : Collections.unmodifiableList(nodeSteps);
+    }
+
+    /**
+     * Get a name that is not used by any step of the workflow yet : the base name itself or the base name followed by the lowest free increment.
+     *
+     * @param baseName The base name of the step.
+     * @param increment The lowest increment to use.
+     * @return A free step name.
+     */
+    public String getFreeStepName(String baseName, int increment) {
+        Integer freeIncrement = freeNameIncrements.get(baseName);
+        int currentIncrement = freeIncrement == null ? increment : Math.max(increment, freeIncrement);
+        String name = buildStepName(baseName, currentIncrement);
+        while (steps.containsKey(name)) {
+            name = buildStepName(baseName, ++currentIncrement);
+        }
+        if (increment == 0) {
+            freeNameIncrements.put(baseName, currentIncrement);
+        }
+        return name;
+    }
+
+    /**
+     * Reset the index of the steps, this must be called when steps are updated without using the workflow (for example if the node of a step changes).
+     */
+    public void resetStepsIndex() {
+        nodeStepsIndex = null;
+        freeNameIncrements = Maps.newHashMap();
+    }
+
+    private static String buildStepName(String baseName, int increment) {
+        return increment > 0 ? baseName + "_" + increment : baseName;
+    }
+
+    private List<NodeActivityStep> getIndexedNodeSteps(String nodeId, boolean create) {
+        if (nodeStepsIndex == null) {
+            nodeStepsIndex = Maps.newHashMap();
+            for (AbstractStep step : steps.values()) {
+                if (step instanceof NodeActivityStep) {
+                    getIndexedNodeSteps(((NodeActivityStep) step).getNodeId(), true).add((NodeActivityStep) step);
+                }
+            }
+        }
+        List<NodeActivityStep> nodeSteps = nodeStepsIndex.get(nodeId);
+        if (nodeSteps == null && create) {
+            nodeSteps = Lists.newArrayList();
+            nodeStepsIndex.put(nodeId, nodeSteps);
+        }
+        return nodeSteps;
+    }
+
+    private void unindexStep(AbstractStep step) {
+        if (nodeStepsIndex != null && step instanceof NodeActivityStep) {
+            List<NodeActivityStep> nodeSteps = nodeStepsIndex.get(((NodeActivityStep) step).getNodeId());
+            if (nodeSteps != null) {
+                nodeSteps.remove(step);
+                if (nodeSteps.isEmpty()) {
+                    nodeStepsIndex.remove(((NodeActivityStep) step).getNodeId());
+                }
+            }
+        }
+    }
+
+    /**
+     * If the name of the removed step has been built from its base name, the increment of the name is free again.
+     */
+    private void releaseStepName(AbstractStep step) {
+        String baseName = step.getStepAsString();
+        Integer freeIncrement = freeNameIncrements.get(baseName);
+        if (freeIncrement == null) {
+            return;
+        }
+        int increment = -1;
+        if (step.getName().equals(baseName)) {
+            increment = 0;
+        } else if (step.getName().startsWith(baseName + "_")) {
+            try {
+                increment = Integer.parseInt(step.getName().substring(baseName.length() + 1));
+            } catch (NumberFormatException e) {
+                return;
+            }
+        }
+        if (increment >= 0 && increment < freeIncrement) {
+            freeNameIncrements.put(baseName, increment);
+        }
+    }
+
     public void clearErrors() {
         errors = new ArrayList<AbstractWorkflowError>();
     }
@@ -1,7 +1,9 @@
 package alien4cloud.paas.wf;
 
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import javax.annotation.Resource;
 
@@ -9,6 +11,7 @@ import lombok.extern.slf4j.Slf4j;
 
 import org.elasticsearch.common.collect.Lists;
 import org.elasticsearch.common.collect.Maps;
+import org.elasticsearch.common.collect.Sets;
 import org.springframework.stereotype.Component;
 
 import alien4cloud.component.ICSARRepositorySearchService;
@@ -109,7 +112,7 @@ public class WorkflowsBuilderService {
             AbstractWorkflowBuilder builder = getWorkflowBuilder(wf);
             builder.addNode(wf, nodeName, topologyContext, forceOperation);
             WorkflowUtils.fillHostId(wf, topologyContext);
-            workflowValidator.validate(topologyContext, wf);
+            workflowValidator.validate(topologyContext, wf, Collections.<String> emptySet(), Collections.singleton(nodeName));
         }
         debugWorkflow(topologyContext.getTopology());
     }
@@ -118,9 +121,13 @@ public class WorkflowsBuilderService {
         TopologyContext topologyContext = buildTopologyContext(topology);
         for (Workflow wf : topology.getWorkflows().values()) {
             AbstractWorkflowBuilder builder = getWorkflowBuilder(wf);
+            Set<String> neighbourSteps = Sets.newHashSet();
+            for (AbstractStep step : wf.getNodeSteps(nodeName)) {
+                addNeighbourSteps(step, neighbourSteps);
+            }
             builder.removeNode(wf, nodeName);
             WorkflowUtils.fillHostId(wf, topologyContext);
-            workflowValidator.validate(topologyContext, wf);
+            workflowValidator.validate(topologyContext, wf, neighbourSteps, Collections.singleton(nodeName));
         }
         debugWorkflow(topology);
     }
@@ -132,7 +139,8 @@ public class WorkflowsBuilderService {
             AbstractWorkflowBuilder builder = getWorkflowBuilder(wf);
             builder.addRelationship(wf, nodeTemplateName, nodeTemplate, relationshipTemplate, topologyContext);
             WorkflowUtils.fillHostId(wf, topologyContext);
-            workflowValidator.validate(topologyContext, wf);
+            workflowValidator.validate(topologyContext, wf, Collections.<String> emptySet(),
+                    Lists.newArrayList(nodeTemplateName, relationshipTemplate.getTarget()));
         }
         debugWorkflow(topologyContext.getTopology());
     }
@@ -144,7 +152,7 @@ public class WorkflowsBuilderService {
             AbstractWorkflowBuilder builder = getWorkflowBuilder(wf);
             builder.removeRelationship(wf, nodeTemplateName, relationhipTarget);
             WorkflowUtils.fillHostId(wf, topologyContext);
-            workflowValidator.validate(topologyContext, wf);
+            workflowValidator.validate(topologyContext, wf, Collections.<String> emptySet(), Lists.newArrayList(nodeTemplateName, relationhipTarget));
         }
     }
 
@@ -156,7 +164,7 @@ public class WorkflowsBuilderService {
         }
         AbstractWorkflowBuilder builder = getWorkflowBuilder(wf);
         builder.removeEdge(wf, from, to);
-        workflowValidator.validate(topologyContext, wf);
+        workflowValidator.validate(topologyContext, wf, Lists.newArrayList(from, to), Collections.<String> emptySet());
         return wf;
     }
 
@@ -168,7 +176,7 @@ public class WorkflowsBuilderService {
         }
         AbstractWorkflowBuilder builder = getWorkflowBuilder(wf);
         builder.connectStepFrom(wf, stepId, stepNames);
-        workflowValidator.validate(topologyContext, wf);
+        workflowValidator.validate(topologyContext, wf, getEditedSteps(stepId, stepNames), Collections.<String> emptySet());
         return wf;
     }
 
@@ -180,7 +188,7 @@ public class WorkflowsBuilderService {
         }
         AbstractWorkflowBuilder builder = getWorkflowBuilder(wf);
         builder.connectStepTo(wf, stepId, stepNames);
-        workflowValidator.validate(topologyContext, wf);
+        workflowValidator.validate(topologyContext, wf, getEditedSteps(stepId, stepNames), Collections.<String> emptySet());
         return wf;
     }
 
@@ -202,11 +210,17 @@ public class WorkflowsBuilderService {
             throw new NotFoundException(String.format("The workflow '%s' can not be found", workflowName));
         }
         AbstractWorkflowBuilder builder = getWorkflowBuilder(wf);
+        Set<String> neighbourSteps = Sets.newHashSet();
+        AbstractStep step = wf.getSteps().get(stepId);
+        if (step != null) {
+            addNeighbourSteps(step, neighbourSteps);
+        }
         builder.removeStep(wf, stepId, force);
         if (log.isDebugEnabled()) {
             log.debug(WorkflowUtils.debugWorkflow(wf));
         }
-        workflowValidator.validate(topologyContext, wf);
+        workflowValidator.validate(topologyContext, wf, neighbourSteps,
+                step instanceof NodeActivityStep ? Collections.singleton(((NodeActivityStep) step).getNodeId()) : Collections.<String> emptySet());
         return wf;
     }
 
@@ -235,7 +249,9 @@ public class WorkflowsBuilderService {
         if (log.isDebugEnabled()) {
             log.debug(WorkflowUtils.debugWorkflow(wf));
         }
-        workflowValidator.validate(topologyContext, wf);
+        // the added step is either linked to the related step or is a step of the activity node
+        workflowValidator.validate(topologyContext, wf, relatedStepId == null ? Collections.<String> emptySet() : Collections.singleton(relatedStepId),
+                Collections.singleton(activity.getNodeId()));
         return wf;
     }
 
@@ -251,7 +267,7 @@ public class WorkflowsBuilderService {
         if (log.isDebugEnabled()) {
             log.debug(WorkflowUtils.debugWorkflow(wf));
         }
-        workflowValidator.validate(topologyContext, wf);
+        workflowValidator.validate(topologyContext, wf, Lists.newArrayList(stepId, targetId), Collections.<String> emptySet());
         return wf;
     }
 
@@ -261,8 +277,26 @@ public class WorkflowsBuilderService {
             AbstractWorkflowBuilder builder = getWorkflowBuilder(wf);
             builder.renameNode(wf, nodeTemplateName, newNodeTemplateName);
             WorkflowUtils.fillHostId(wf, topologyContext);
-            workflowValidator.validate(topologyContext, wf);
+            workflowValidator.validate(topologyContext, wf, Collections.<String> emptySet(), Lists.newArrayList(nodeTemplateName, newNodeTemplateName));
+        }
+    }
+
+    /**
+     * Steps linked to a step are impacted when it's removed.
+     */
+    private void addNeighbourSteps(AbstractStep step, Set<String> neighbourSteps) {
+        if (step.getPrecedingSteps() != null) {
+            neighbourSteps.addAll(step.getPrecedingSteps());
         }
+        if (step.getFollowingSteps() != null) {
+            neighbourSteps.addAll(step.getFollowingSteps());
+        }
+    }
+
+    private List<String> getEditedSteps(String stepId, String[] stepNames) {
+        List<String> editedSteps = Lists.newArrayList(stepNames);
+        editedSteps.add(stepId);
+        return editedSteps;
     }
 
     public Workflow reinitWorkflow(String workflowName, TopologyContext topologyContext) {
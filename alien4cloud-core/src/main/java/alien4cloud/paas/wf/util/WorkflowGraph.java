@@ -0,0 +1,230 @@
+package alien4cloud.paas.wf.util;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+
+import org.elasticsearch.common.collect.Maps;
+
+import alien4cloud.paas.wf.AbstractStep;
+import alien4cloud.paas.wf.Workflow;
+
+/**
+ * Indexed view of the steps of a workflow used to validate it without enumerating its paths.
+ * <p>
+ * Steps are indexed in the workflow order and the strongly connected components of the graph are computed once (Tarjan) in linear time. Components are
+ * numbered in reverse topological order: when a step <code>a</code> is followed by a step <code>b</code> of another component, the component of
+ * <code>b</code> is lower than the component of <code>a</code>. A component with more than one step (or with a step following itself) is a cycle.
+ * <p>
+ * Reachability between components is computed lazily, as bitsets, by walking the components in reverse topological order.
+ */
+public class WorkflowGraph {
+    private final AbstractStep[] steps;
+    private final int[][] successors;
+    private final int[] components;
+    private final int componentCount;
+    private BitSet[] reachability;
+
+    public WorkflowGraph(Workflow workflow) {
+        Map<String, Integer> indexes = Maps.newHashMap();
+        steps = workflow.getSteps().values().toArray(new AbstractStep[workflow.getSteps().size()]);
+        for (int i = 0; i < steps.length; i++) {
+            indexes.put(steps[i].getName(), i);
+        }
+        successors = new int[steps.length][];
+        for (int i = 0; i < steps.length; i++) {
+            if (steps[i].getFollowingSteps() == null) {
+                successors[i] = new int[0];
+                continue;
+            }
+            successors[i] = new int[steps[i].getFollowingSteps().size()];
+            int j = 0;
+            for (String following : steps[i].getFollowingSteps()) {
+                Integer index = indexes.get(following);
+                if (index == null) {
+                    // fail as the path based browsing used to do
+                    WorkflowGraphUtils.getRequiredStep(workflow, following);
+                }
+                successors[i][j++] = index;
+            }
+        }
+        components = new int[steps.length];
+        componentCount = computeComponents();
+    }
+
+    /**
+     * Iterative Tarjan algorithm so that long sequences of steps don't overflow the stack.
+     */
+    private int computeComponents() {
+        int[] lowLinks = new int[steps.length];
+        int[] visitIndexes = new int[steps.length];
+        int[] nextSuccessor = new int[steps.length];
+        boolean[] onStack = new boolean[steps.length];
+        Deque<Integer> stack = new ArrayDeque<Integer>();
+        Deque<Integer> callStack = new ArrayDeque<Integer>();
+        int visitIndex = 1;
+        int count = 0;
+        for (int root = 0; root < steps.length; root++) {
+            if (visitIndexes[root] != 0) {
+                continue;
+            }
+            callStack.push(root);
+            while (!callStack.isEmpty()) {
+                int current = callStack.peek();
+                if (visitIndexes[current] == 0) {
+                    visitIndexes[current] = visitIndex;
+                    lowLinks[current] = visitIndex;
+                    visitIndex++;
+                    stack.push(current);
+                    onStack[current] = true;
+                }
+                if (nextSuccessor[current] < successors[current].length) {
+                    int successor = successors[current][nextSuccessor[current]++];
+                    if (visitIndexes[successor] == 0) {
+                        callStack.push(successor);
+                    } else if (onStack[successor]) {
+                        lowLinks[current] = Math.min(lowLinks[current], visitIndexes[successor]);
+                    }
+                    continue;
+                }
+                callStack.pop();
+                if (!callStack.isEmpty()) {
+                    int parent = callStack.peek();
+                    lowLinks[parent] = Math.min(lowLinks[parent], lowLinks[current]);
+                }
+                if (lowLinks[current] == visitIndexes[current]) {
+                    int member;
+                    do {
+                        member = stack.pop();
+                        onStack[member] = false;
+                        components[member] = count;
+                    } while (member != current);
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    public int size() {
+        return steps.length;
+    }
+
+    public AbstractStep getStep(int index) {
+        return steps[index];
+    }
+
+    /**
+     * @return The component of the step, components are numbered in reverse topological order.
+     */
+    public int getComponent(int index) {
+        return components[index];
+    }
+
+    /**
+     * Get the cycles of the workflow, one per strongly connected component that loops.
+     *
+     * @return For each cycle, the succession of step names that starts and ends with the same step, for example [A, B, C, A].
+     */
+    public List<List<String>> getCycles() {
+        int[] componentSizes = new int[componentCount];
+        for (int i = 0; i < steps.length; i++) {
+            componentSizes[components[i]]++;
+        }
+        List<List<String>> cycles = new ArrayList<List<String>>();
+        boolean[] reported = new boolean[componentCount];
+        for (int i = 0; i < steps.length; i++) {
+            int component = components[i];
+            if (!reported[component] && (componentSizes[component] > 1 || isFollowedBy(i, i))) {
+                reported[component] = true;
+                cycles.add(extractCycle(i));
+            }
+        }
+        return cycles;
+    }
+
+    private boolean isFollowedBy(int index, int following) {
+        for (int successor : successors[index]) {
+            if (successor == following) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Breadth first search of the shortest way back to the given step inside of its component.
+     */
+    private List<String> extractCycle(int start) {
+        int[] parents = new int[steps.length];
+        boolean[] visited = new boolean[steps.length];
+        Deque<Integer> queue = new ArrayDeque<Integer>();
+        queue.add(start);
+        visited[start] = true;
+        int last = -1;
+        while (last < 0) {
+            int current = queue.poll();
+            for (int successor : successors[current]) {
+                if (successor == start) {
+                    last = current;
+                    break;
+                }
+                if (!visited[successor] && components[successor] == components[start]) {
+                    visited[successor] = true;
+                    parents[successor] = current;
+                    queue.add(successor);
+                }
+            }
+        }
+        List<String> cycle = new ArrayList<String>();
+        cycle.add(steps[start].getName());
+        for (int current = last; current != start; current = parents[current]) {
+            cycle.add(1, steps[current].getName());
+        }
+        cycle.add(steps[start].getName());
+        return cycle;
+    }
+
+    /**
+     * Check if a step can be reached from another one.
+     *
+     * @param from The index of the step from which the graph is browsed.
+     * @param to The index of the step to reach.
+     * @return true if <code>to</code> is <code>from</code> or follows it (directly or not).
+     */
+    public boolean isReachable(int from, int to) {
+        if (reachability == null) {
+            computeReachability();
+        }
+        return reachability[components[from]].get(components[to]);
+    }
+
+    private void computeReachability() {
+        List<BitSet> componentSuccessors = new ArrayList<BitSet>(componentCount);
+        for (int i = 0; i < componentCount; i++) {
+            componentSuccessors.add(new BitSet(componentCount));
+        }
+        for (int i = 0; i < steps.length; i++) {
+            for (int successor : successors[i]) {
+                componentSuccessors.get(components[i]).set(components[successor]);
+            }
+        }
+        BitSet[] result = new BitSet[componentCount];
+        // successors of a component always have a lower number, so they are computed before it
+        for (int component = 0; component < componentCount; component++) {
+            BitSet reachable = new BitSet(componentCount);
+            reachable.set(component);
+            BitSet direct = componentSuccessors.get(component);
+            for (int successor = direct.nextSetBit(0); successor >= 0; successor = direct.nextSetBit(successor + 1)) {
+                if (successor != component) {
+                    reachable.or(result[successor]);
+                }
+            }
+            result[component] = reachable;
+        }
+        reachability = result;
+    }
+}
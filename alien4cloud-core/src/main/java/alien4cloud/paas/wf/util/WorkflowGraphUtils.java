@@ -1,13 +1,19 @@
 package alien4cloud.paas.wf.util;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import org.elasticsearch.common.collect.Lists;
 
 import alien4cloud.paas.wf.AbstractStep;
+import alien4cloud.paas.wf.NodeActivityStep;
 import alien4cloud.paas.wf.Path;
 import alien4cloud.paas.wf.Workflow;
 import alien4cloud.paas.wf.exception.InconsistentWorkflowException;
@@ -108,4 +114,57 @@ public class WorkflowGraphUtils {
         return entries;
     }
 
+    /**
+     * Get the region of the workflow impacted by an edit : the steps connected (in any direction) to the edited steps and nodes. The region also contains all
+     * the steps of each node it contains, so the validation of a region doesn't depend on the steps that are outside of it.
+     *
+     * @param workflow The workflow.
+     * @param stepNames The names of the edited steps (names of steps that don't exist anymore are ignored).
+     * @param nodeIds The ids of the edited nodes.
+     * @return The steps of the region, by name.
+     */
+    public static Map<String, AbstractStep> getConnectedRegion(Workflow workflow, Collection<String> stepNames, Collection<String> nodeIds) {
+        Map<String, AbstractStep> region = new LinkedHashMap<String, AbstractStep>();
+        Set<String> visitedNodes = new HashSet<String>();
+        Deque<AbstractStep> toVisit = new ArrayDeque<AbstractStep>();
+        for (String stepName : stepNames) {
+            visitStep(workflow.getSteps().get(stepName), region, toVisit);
+        }
+        for (String nodeId : nodeIds) {
+            visitNode(workflow, nodeId, visitedNodes, region, toVisit);
+        }
+        while (!toVisit.isEmpty()) {
+            AbstractStep step = toVisit.poll();
+            if (step.getPrecedingSteps() != null) {
+                for (String preceding : step.getPrecedingSteps()) {
+                    visitStep(workflow.getSteps().get(preceding), region, toVisit);
+                }
+            }
+            if (step.getFollowingSteps() != null) {
+                for (String following : step.getFollowingSteps()) {
+                    visitStep(workflow.getSteps().get(following), region, toVisit);
+                }
+            }
+            if (step instanceof NodeActivityStep) {
+                visitNode(workflow, ((NodeActivityStep) step).getNodeId(), visitedNodes, region, toVisit);
+            }
+        }
+        return region;
+    }
+
+    private static void visitNode(Workflow workflow, String nodeId, Set<String> visitedNodes, Map<String, AbstractStep> region, Deque<AbstractStep> toVisit) {
+        if (visitedNodes.add(nodeId)) {
+            for (AbstractStep step : workflow.getNodeSteps(nodeId)) {
+                visitStep(step, region, toVisit);
+            }
+        }
+    }
+
+    private static void visitStep(AbstractStep step, Map<String, AbstractStep> region, Deque<AbstractStep> toVisit) {
+        if (step != null && !region.containsKey(step.getName())) {
+            region.put(step.getName(), step);
+            toVisit.add(step);
+        }
+    }
+
 }
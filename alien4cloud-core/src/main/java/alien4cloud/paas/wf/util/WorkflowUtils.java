@@ -2,6 +2,8 @@ package alien4cloud.paas.wf.util;
 
 import java.util.Map;
 
+import org.elasticsearch.common.collect.Maps;
+
 import alien4cloud.model.components.IndexedInheritableToscaElement;
 import alien4cloud.model.components.IndexedNodeType;
 import alien4cloud.model.components.IndexedRelationshipType;
@@ -56,10 +58,18 @@ public class WorkflowUtils {
      */
     public static void fillHostId(Workflow wf, TopologyContext topologyContext) {
         wf.getHosts().clear();
+        // the host is resolved once per node as the steps of a node share the same host
+        Map<String, String> hostIds = Maps.newHashMap();
         for (AbstractStep step : wf.getSteps().values()) {
             if (step instanceof NodeActivityStep) {
                 NodeActivityStep dstep = (NodeActivityStep) step;
-                String hostId = WorkflowUtils.getRootHostNode(dstep.getNodeId(), topologyContext);
+                String hostId;
+                if (hostIds.containsKey(dstep.getNodeId())) {
+                    hostId = hostIds.get(dstep.getNodeId());
+                } else {
+                    hostId = WorkflowUtils.getRootHostNode(dstep.getNodeId(), topologyContext);
+                    hostIds.put(dstep.getNodeId(), hostId);
+                }
                 dstep.setHostId(hostId);
                 if (hostId != null) {
                     wf.getHosts().add(hostId);
@@ -196,16 +206,7 @@ public class WorkflowUtils {
     }
 
     public static String buildStepName(Workflow wf, AbstractStep step, int increment) {
-        StringBuilder nameBuilder = new StringBuilder(step.getStepAsString());
-        if (increment > 0) {
-            nameBuilder.append("_").append(increment);
-        }
-        String name = nameBuilder.toString();
-        if (wf.getSteps().containsKey(name)) {
-            return buildStepName(wf, step, ++increment);
-        } else {
-            return name;
-        }
+        return wf.getFreeStepName(step.getStepAsString(), increment);
     }
 
     public static boolean isStateStep(AbstractStep step) {
@@ -286,24 +287,18 @@ public class WorkflowUtils {
     }
 
     public static AbstractStep getDelegateWorkflowStepByNode(Workflow wf, String nodeName) {
-        for (AbstractStep step : wf.getSteps().values()) {
-            if (step instanceof NodeActivityStep) {
-                NodeActivityStep defaultStep = (NodeActivityStep) step;
-                if (defaultStep.getNodeId().equals(nodeName) && (defaultStep.getActivity() instanceof DelegateWorkflowActivity)) {
-                    return defaultStep;
-                }
+        for (NodeActivityStep defaultStep : wf.getNodeSteps(nodeName)) {
+            if (defaultStep.getActivity() instanceof DelegateWorkflowActivity) {
+                return defaultStep;
             }
         }
         return null;
     }
 
     public static NodeActivityStep getStateStepByNode(Workflow wf, String nodeName, String stateName) {
-        for (AbstractStep step : wf.getSteps().values()) {
-            if (step instanceof NodeActivityStep) {
-                NodeActivityStep defaultStep = (NodeActivityStep) step;
-                if (defaultStep.getActivity().getNodeId().equals(nodeName) && isStateStep(defaultStep, stateName)) {
-                    return defaultStep;
-                }
+        for (NodeActivityStep defaultStep : wf.getNodeSteps(nodeName)) {
+            if (isStateStep(defaultStep, stateName)) {
+                return defaultStep;
             }
         }
         return null;
@@ -1,19 +1,17 @@
 package alien4cloud.paas.wf.validation;
 
-import java.util.ArrayList;
 import java.util.List;
 
 import org.elasticsearch.common.collect.Lists;
 
-import alien4cloud.paas.wf.Path;
 import alien4cloud.paas.wf.Workflow;
 import alien4cloud.paas.wf.WorkflowsBuilderService.TopologyContext;
-import alien4cloud.paas.wf.util.WorkflowGraphUtils;
+import alien4cloud.paas.wf.util.WorkflowGraph;
 
 /**
  * A cycle in the workflow is not permit.
  * <p>
- * 
+ * Cycles are detected using the strongly connected components of the graph, a single error is reported per component.
  */
 public class CycleDetection implements Rule {
 
@@ -23,33 +21,11 @@ public class CycleDetection implements Rule {
             return null;
         }
         List<AbstractWorkflowError> result = Lists.newArrayList();
-        // get all the paths
-        List<Path> paths = WorkflowGraphUtils.getWorkflowGraphPaths(workflow);
-        for (Path path : paths) {
-            // isolate cycles
-            if (path.isCycle()) {
-                result.add(new WorkflowHasCycleError(extractCycle(path.getStepNames())));
-            }
+        // each strongly connected component of the graph that loops is a cycle
+        for (List<String> cycle : new WorkflowGraph(workflow).getCycles()) {
+            result.add(new WorkflowHasCycleError(cycle));
         }
         return result;
     }
 
-    private List<String> extractCycle(List<String> path) {
-        List<String> cycle = new ArrayList<String>();
-        // this is in fact the step that generate the cycle
-        // it's present 2 times in the path
-        String incriminedStep = path.get(path.size() - 1);
-        boolean detected = false;
-        for (String step : path) {
-            // iterate unil we find the first occurence of incriminedStep
-            if (!detected && step.equals(incriminedStep)) {
-                detected = true;
-            }
-            if (detected) {
-                cycle.add(step);
-            }
-        }
-        return cycle;
-    }
-
 }
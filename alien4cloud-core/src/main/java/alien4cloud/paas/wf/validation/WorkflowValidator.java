@@ -1,12 +1,19 @@
 package alien4cloud.paas.wf.validation;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import org.springframework.stereotype.Component;
 
+import alien4cloud.paas.wf.AbstractStep;
+import alien4cloud.paas.wf.NodeActivityStep;
 import alien4cloud.paas.wf.Workflow;
 import alien4cloud.paas.wf.WorkflowsBuilderService.TopologyContext;
+import alien4cloud.paas.wf.util.WorkflowGraphUtils;
 
 @Component
 public class WorkflowValidator {
@@ -34,4 +41,87 @@ public class WorkflowValidator {
         return errorCount;
     }
 
+    /**
+     * Validate only the region of the workflow impacted by an edit (see {@link WorkflowGraphUtils#getConnectedRegion(Workflow, Collection, Collection)}), the
+     * errors previously found outside of this region are kept.
+     *
+     * @param topologyContext The topology context.
+     * @param workflow The workflow to validate.
+     * @param editedStepNames The names of the steps that have been edited, added or linked (or the neighbours of removed steps).
+     * @param editedNodeIds The ids of the nodes that have been edited, added or removed.
+     * @return The number of errors of the workflow.
+     */
+    public int validate(TopologyContext topologyContext, Workflow workflow, Collection<String> editedStepNames, Collection<String> editedNodeIds) {
+        if (workflow.getErrors() == null || !isAttributable(workflow.getErrors())) {
+            // the workflow has never been validated
+            return validate(topologyContext, workflow);
+        }
+        Map<String, AbstractStep> region = WorkflowGraphUtils.getConnectedRegion(workflow, editedStepNames, editedNodeIds);
+        if (region.size() == workflow.getSteps().size()) {
+            return validate(topologyContext, workflow);
+        }
+        Set<String> regionNodes = new HashSet<String>(editedNodeIds);
+        for (AbstractStep step : region.values()) {
+            if (step instanceof NodeActivityStep) {
+                regionNodes.add(((NodeActivityStep) step).getNodeId());
+            }
+        }
+        List<AbstractWorkflowError> errors = new ArrayList<AbstractWorkflowError>();
+        for (AbstractWorkflowError error : workflow.getErrors()) {
+            if (!isInRegion(error, workflow, region, regionNodes)) {
+                errors.add(error);
+            }
+        }
+        // the region is not connected to any other step so it can be validated as a workflow
+        Workflow regionWorkflow = new Workflow();
+        regionWorkflow.setName(workflow.getName());
+        regionWorkflow.setStandard(workflow.isStandard());
+        regionWorkflow.setSteps(region);
+        for (Rule rule : rules) {
+            List<AbstractWorkflowError> ruleErrors = rule.validate(topologyContext, regionWorkflow);
+            if (ruleErrors != null) {
+                errors.addAll(ruleErrors);
+            }
+        }
+        workflow.clearErrors();
+        workflow.addErrors(errors);
+        return errors.size();
+    }
+
+    private boolean isAttributable(List<AbstractWorkflowError> errors) {
+        for (AbstractWorkflowError error : errors) {
+            if (!(error instanceof WorkflowHasCycleError || error instanceof BadStateSequenceError || error instanceof ParallelSetStatesError
+                    || error instanceof UnknownNodeError)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * An error belongs to the region if it refers to a step or node of the region, or to a step that doesn't exist anymore.
+     */
+    private boolean isInRegion(AbstractWorkflowError error, Workflow workflow, Map<String, AbstractStep> region, Set<String> regionNodes) {
+        if (error instanceof WorkflowHasCycleError) {
+            for (String stepName : ((WorkflowHasCycleError) error).getCycle()) {
+                if (isInRegion(stepName, workflow, region)) {
+                    return true;
+                }
+            }
+            return false;
+        } else if (error instanceof BadStateSequenceError) {
+            BadStateSequenceError sequenceError = (BadStateSequenceError) error;
+            return isInRegion(sequenceError.getFrom(), workflow, region) || isInRegion(sequenceError.getTo(), workflow, region);
+        } else if (error instanceof ParallelSetStatesError) {
+            return regionNodes.contains(((ParallelSetStatesError) error).getNodeId());
+        } else {
+            UnknownNodeError nodeError = (UnknownNodeError) error;
+            return isInRegion(nodeError.getStepId(), workflow, region) || regionNodes.contains(nodeError.getNodeId());
+        }
+    }
+
+    private boolean isInRegion(String stepName, Workflow workflow, Map<String, AbstractStep> region) {
+        return region.containsKey(stepName) || !workflow.getSteps().containsKey(stepName);
+    }
+
 }
@@ -24,8 +24,8 @@ import org.springframework.context.ApplicationContext;
 import org.springframework.context.annotation.AnnotationConfigApplicationContext;
 import org.springframework.stereotype.Component;
 
+import alien4cloud.dao.CloseableIterable;
 import alien4cloud.dao.IGenericSearchDAO;
-import alien4cloud.dao.model.GetMultipleDataResult;
 import alien4cloud.exception.AlreadyExistException;
 import alien4cloud.exception.NotFoundException;
 import alien4cloud.plugin.exception.MissingPlugingDescriptorFileException;
@@ -90,10 +90,10 @@ public class PluginManager {
         }
 
         log.info("Initializing plugins");
-        // Load enabled plugins in alien, query using max value as anyway we must be able to load all plugins in memory.
-        GetMultipleDataResult<Plugin> results = alienDAO.find(Plugin.class, MapUtil.newHashMap(new String[] { "enabled" }, new String[][] { { "true" } }),
-                Integer.MAX_VALUE);
-        loadPlugins(results.getData());
+        // Load enabled plugins in alien, only the plugins which dependencies are not loaded yet are kept in memory.
+        try (CloseableIterable<Plugin> plugins = alienDAO.stream(Plugin.class, MapUtil.newHashMap(new String[] { "enabled" }, new String[][] { { "true" } }))) {
+            loadPlugins(plugins);
+        }
         log.info("Plugins initialized, looking for new plugins to load.");
 
         // TODO look for plugins on disk and load them
@@ -105,11 +105,13 @@ public class PluginManager {
      *
      * @param plugins the plugins to load.
      */
-    private void loadPlugins(Plugin[] plugins) {
+    private void loadPlugins(Iterable<Plugin> plugins) {
         List<Plugin> missingDependencyPlugins = Lists.newArrayList();
+        boolean loadAttempted = false;
         for (Plugin plugin : plugins) {
             // if the plugin has no unresolved dependency, load it
             if (getMissingDependencies(plugin).size() == 0) {
+                loadAttempted = true;
                 try {
                     loadPlugin(plugin);
                 } catch (PluginLoadingException e) {
@@ -120,15 +122,15 @@ public class PluginManager {
                 missingDependencyPlugins.add(plugin);
             }
         }
-        if (missingDependencyPlugins.size() == plugins.length) {
+        if (!loadAttempted) {
             // No plugins have been loaded meaning that remaining plugins are not loadable because some dependencies are missing
-            for (Plugin plugin : plugins) {
+            for (Plugin plugin : missingDependencyPlugins) {
                 log.error("Failed to load plugin <" + plugin.getId() + "> as some dependencies are missing <" + getMissingDependencies(plugin) + ">");
                 disablePlugin(plugin.getId());
             }
         } else {
             if (missingDependencyPlugins.size() > 0) {
-                loadPlugins(missingDependencyPlugins.toArray(new Plugin[missingDependencyPlugins.size()]));
+                loadPlugins(missingDependencyPlugins);
             }
         }
     }
@@ -3,6 +3,8 @@ package alien4cloud.topology;
 import java.util.Map;
 import java.util.Set;
 
+import lombok.Getter;
+import lombok.Setter;
 import alien4cloud.model.components.IndexedCapabilityType;
 import alien4cloud.model.components.IndexedNodeType;
 import alien4cloud.model.components.IndexedRelationshipType;
@@ -11,8 +13,25 @@ import alien4cloud.model.topology.Topology;
 /**
  * Topology DTO contains the topology and a map of the types used in the topology.
  * 
+ * When built as a delta the node templates, inputs, input artifacts, groups and workflows of the topology are only the ones that have been added or
+ * updated by the operation, the types maps contains only the types used by these node templates and the yaml is not generated.
  */
+@Getter
+@Setter
+@SuppressWarnings("PMD.UnusedPrivateField")
 public class TopologyDTO extends AbstractTopologyDTO<Topology> {
+    /** True if the DTO contains only the changes performed by an operation on the topology. */
+    private boolean delta;
+    /** Names of the node templates that have been removed from the topology (only for delta). */
+    private Set<String> removedNodeTemplates;
+    /** Names of the inputs that have been removed from the topology (only for delta). */
+    private Set<String> removedInputs;
+    /** Names of the input artifacts that have been removed from the topology (only for delta). */
+    private Set<String> removedInputArtifacts;
+    /** Names of the groups that have been removed from the topology (only for delta). */
+    private Set<String> removedGroups;
+    /** Names of the workflows that have been removed from the topology (only for delta). */
+    private Set<String> removedWorkflows;
 
     public TopologyDTO(Topology topology, Map<String, IndexedNodeType> nodeTypes, Map<String, IndexedRelationshipType> relationshipTypes,
             Map<String, IndexedCapabilityType> capabilityTypes, Map<String, Map<String, Set<String>>> outputCapabilityProperties, String yaml) {
@@ -21,4 +40,4 @@ public class TopologyDTO extends AbstractTopologyDTO<Topology> {
 
     public TopologyDTO() {
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,303 @@
+package alien4cloud.topology;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import alien4cloud.component.NodeTypeScoreService;
+import alien4cloud.dao.ElasticSearchMapper;
+import alien4cloud.dao.IGenericSearchDAO;
+import alien4cloud.exception.IndexingServiceException;
+import alien4cloud.exception.VersionConflictException;
+import alien4cloud.model.topology.Topology;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.Maps;
+
+/**
+ * Keeps the topologies currently edited in memory and persists them asynchronously.
+ *
+ * A session is opened by the first edit of a topology in the editor (see {@link TopologyServiceCore#saveEdition(Topology)}). While the session is alive
+ * reads are served from memory and saves are applied in memory (checking the topology revision to detect concurrent edits) and written to elastic search
+ * once no edit happened during the flush delay, so a burst of edits results in a single write. Writes check the version of the elastic search document so
+ * a topology modified outside of its session is never overwritten, the session is then discarded. Sessions are flushed and closed when explicitly closed,
+ * when idle for longer than the session timeout and on shutdown. Code that reads topologies directly from elastic search (searches, aggregations) must
+ * call {@link #flushAll()} first. The {@link NodeTypeScoreService} is notified of each topology write so node type scores only count persisted topologies.
+ *
+ * Sessions are kept in the memory of the alien4cloud instance: they only work when a single instance edits the topologies, other instances would read and
+ * write stale topologies.
+ */
+@Slf4j
+@Service
+public class TopologyEditionSessionService {
+    @Resource(name = "alien-es-dao")
+    private IGenericSearchDAO alienDAO;
+    @Resource
+    private NodeTypeScoreService nodeTypeScoreService;
+    /** Delay in milliseconds without edits after which a modified topology is persisted. */
+    @Value("${topology_edition.flush_delay_ms:2000}")
+    private long flushDelayMs;
+    /** Maximum delay in milliseconds a modified topology can stay in memory while being continuously edited. */
+    @Value("${topology_edition.max_flush_delay_ms:10000}")
+    private long maxFlushDelayMs;
+    /** Delay in milliseconds without access after which a session is flushed and closed. */
+    @Value("${topology_edition.session_timeout_ms:600000}")
+    private long sessionTimeoutMs;
+
+    private final ObjectMapper mapper = ElasticSearchMapper.getInstance();
+    private final Map<String, EditionSession> sessions = Maps.newConcurrentMap();
+    private ScheduledExecutorService scheduler;
+
+    @PostConstruct
+    public void init() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "topology-edition-flusher");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        long period = Math.max(flushDelayMs / 2, 100);
+        scheduler.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                flushSessions(false);
+            }
+        }, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        scheduler.shutdown();
+        flushSessions(true);
+    }
+
+    /**
+     * Open an edition session for the given topology if not already opened.
+     *
+     * @param topology The topology as persisted in the repository.
+     * @param documentVersion The version of the elastic search document of the topology.
+     */
+    public void open(Topology topology, long documentVersion) {
+        if (!sessions.containsKey(topology.getId())) {
+            EditionSession session = new EditionSession(serialize(topology), topology.getRevision(), documentVersion);
+            if (sessions.putIfAbsent(topology.getId(), session) == null) {
+                log.debug("Opened edition session for topology <{}>", topology.getId());
+            }
+        }
+    }
+
+    /**
+     * Get a copy of the topology from it's edition session.
+     *
+     * @param topologyId The id of the topology.
+     * @return A copy of the topology or null if no session is opened for this topology.
+     */
+    public Topology get(String topologyId) {
+        EditionSession session = sessions.get(topologyId);
+        if (session == null) {
+            return null;
+        }
+        byte[] content;
+        synchronized (session) {
+            if (session.closed) {
+                return null;
+            }
+            session.lastAccess = System.currentTimeMillis();
+            content = session.content;
+        }
+        return deserialize(content);
+    }
+
+    /**
+     * Update the topology in it's edition session, the topology will be persisted later.
+     *
+     * @param topology The modified topology, it's revision must be the revision of the session topology plus one.
+     * @return True if the topology has been updated in it's session, false if no session is opened for this topology (so it must be saved directly).
+     * @throws VersionConflictException In case the topology has been modified by someone else since it has been loaded.
+     */
+    public boolean update(Topology topology) {
+        EditionSession session = sessions.get(topology.getId());
+        if (session == null) {
+            return false;
+        }
+        byte[] content = serialize(topology);
+        synchronized (session) {
+            if (session.closed) {
+                return false;
+            }
+            if (topology.getRevision() != session.revision + 1) {
+                throw new VersionConflictException("Topology <" + topology.getId() + "> has been modified by another user (revision <" + session.revision
+                        + ">), please reload it.");
+            }
+            long now = System.currentTimeMillis();
+            if (!session.dirty) {
+                session.dirtySince = now;
+                session.dirty = true;
+            }
+            session.content = content;
+            session.revision = topology.getRevision();
+            session.lastAccess = now;
+            session.lastUpdate = now;
+        }
+        return true;
+    }
+
+    /**
+     * Persist the topology of a session if modified and close the session.
+     *
+     * @param topologyId The id of the topology for which to close the session.
+     */
+    public void close(String topologyId) {
+        EditionSession session = sessions.get(topologyId);
+        if (session != null) {
+            close(topologyId, session);
+        }
+    }
+
+    private void close(String topologyId, EditionSession session) {
+        while (true) {
+            flush(topologyId, session);
+            synchronized (session) {
+                // an update may have been applied during the flush, in such case flush again
+                if (!session.dirty) {
+                    session.closed = true;
+                    sessions.remove(topologyId, session);
+                    log.debug("Closed edition session for topology <{}>", topologyId);
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Drop the session of a topology without persisting it (for example when the topology is deleted).
+     *
+     * @param topologyId The id of the topology for which to drop the session.
+     */
+    public void discard(String topologyId) {
+        EditionSession session = sessions.remove(topologyId);
+        if (session != null) {
+            synchronized (session) {
+                session.closed = true;
+            }
+        }
+    }
+
+    /**
+     * Persist the modified topologies of all sessions, to be called before reading topologies directly from elastic search.
+     */
+    public void flushAll() {
+        for (Map.Entry<String, EditionSession> sessionEntry : sessions.entrySet()) {
+            flush(sessionEntry.getKey(), sessionEntry.getValue());
+        }
+    }
+
+    private void flushSessions(boolean force) {
+        long now = System.currentTimeMillis();
+        for (Map.Entry<String, EditionSession> sessionEntry : sessions.entrySet()) {
+            EditionSession session = sessionEntry.getValue();
+            boolean expired;
+            boolean flush;
+            synchronized (session) {
+                expired = now - session.lastAccess > sessionTimeoutMs;
+                flush = force || expired
+                        || (session.dirty && (now - session.lastUpdate >= flushDelayMs || now - session.dirtySince >= maxFlushDelayMs));
+            }
+            try {
+                if (expired) {
+                    close(sessionEntry.getKey(), session);
+                } else if (flush) {
+                    flush(sessionEntry.getKey(), session);
+                }
+            } catch (Exception e) {
+                log.error("Failed to persist topology <" + sessionEntry.getKey() + ">, will retry later.", e);
+            }
+        }
+    }
+
+    private void flush(String topologyId, EditionSession session) {
+        // a session is flushed by a single thread at a time as each flush changes the document version
+        synchronized (session.flushLock) {
+            byte[] content;
+            long revision;
+            synchronized (session) {
+                if (!session.dirty) {
+                    return;
+                }
+                content = session.content;
+                revision = session.revision;
+            }
+            // save outside of the session lock so editors are not blocked by elastic search
+            Topology topology = deserialize(content);
+            long documentVersion;
+            try {
+                documentVersion = alienDAO.save(topology, session.documentVersion);
+            } catch (VersionConflictException e) {
+                log.error("Topology <" + topologyId + "> has been modified outside of its edition session, the modifications of revision <" + revision
+                        + "> are discarded.", e);
+                synchronized (session) {
+                    session.dirty = false;
+                    session.closed = true;
+                }
+                sessions.remove(topologyId, session);
+                return;
+            }
+            synchronized (session) {
+                session.documentVersion = documentVersion;
+                if (session.revision == revision) {
+                    session.dirty = false;
+                }
+            }
+            nodeTypeScoreService.onTopologySaved(topology);
+            log.debug("Persisted topology <{}> revision <{}>", topologyId, revision);
+        }
+    }
+
+    private byte[] serialize(Topology topology) {
+        try {
+            return mapper.writeValueAsBytes(topology);
+        } catch (IOException e) {
+            throw new IndexingServiceException("Unable to serialize topology <" + topology.getId() + ">.", e);
+        }
+    }
+
+    private Topology deserialize(byte[] content) {
+        try {
+            return mapper.readValue(content, Topology.class);
+        } catch (IOException e) {
+            throw new IndexingServiceException("Unable to deserialize topology.", e);
+        }
+    }
+
+    private static class EditionSession {
+        private final Object flushLock = new Object();
+        private byte[] content;
+        private long revision;
+        private long documentVersion;
+        private boolean dirty;
+        private boolean closed;
+        private long dirtySince;
+        private long lastUpdate;
+        private long lastAccess = System.currentTimeMillis();
+
+        private EditionSession(byte[] content, long revision, long documentVersion) {
+            this.content = content;
+            this.revision = revision;
+            this.documentVersion = documentVersion;
+        }
+    }
+}
@@ -19,6 +19,7 @@ import org.apache.commons.lang.exception.ExceptionUtils;
 import org.apache.commons.lang3.ArrayUtils;
 import org.elasticsearch.common.collect.Lists;
 import org.elasticsearch.mapping.FilterValuesStrategy;
+import org.springframework.beans.BeanUtils;
 import org.springframework.stereotype.Service;
 
 import alien4cloud.application.ApplicationService;
@@ -116,17 +117,15 @@ public class TopologyService {
      * @return A map of capability types defined in the given node types.
      */
     public Map<String, IndexedCapabilityType> getIndexedCapabilityTypes(Collection<IndexedNodeType> nodeTypes, Collection<CSARDependency> dependencies) {
-        Map<String, IndexedCapabilityType> capabilityTypes = Maps.newHashMap();
+        Set<String> capabilityTypeIds = Sets.newHashSet();
         for (IndexedNodeType nodeType : nodeTypes) {
             if (nodeType.getCapabilities() != null) {
                 for (CapabilityDefinition capabilityDefinition : nodeType.getCapabilities()) {
-                    IndexedCapabilityType capabilityType = csarRepoSearchService.getRequiredElementInDependencies(IndexedCapabilityType.class,
-                            capabilityDefinition.getType(), dependencies);
-                    capabilityTypes.put(capabilityDefinition.getType(), capabilityType);
+                    capabilityTypeIds.add(capabilityDefinition.getType());
                 }
             }
         }
-        return capabilityTypes;
+        return csarRepoSearchService.getRequiredElementsInDependencies(IndexedCapabilityType.class, capabilityTypeIds, dependencies);
     }
 
     /**
@@ -308,14 +307,98 @@ public class TopologyService {
      * @return The {@link TopologyDTO} that contains the given topology
      */
     public TopologyDTO buildTopologyDTO(Topology topology) {
+        return buildTopologyDTO(topology, getYaml(topology));
+    }
+
+    private TopologyDTO buildTopologyDTO(Topology topology, String yaml) {
         Map<String, IndexedNodeType> nodeTypes = topologyServiceCore.getIndexedNodeTypesFromTopology(topology, false, false);
         Map<String, IndexedRelationshipType> relationshipTypes = topologyServiceCore.getIndexedRelationshipTypesFromTopology(topology);
         Map<String, IndexedCapabilityType> capabilityTypes = getIndexedCapabilityTypes(nodeTypes.values(), topology.getDependencies());
-        String yaml = getYaml(topology);
         Map<String, Map<String, Set<String>>> outputCapabilityProperties = topology.getOutputCapabilityProperties();
         return new TopologyDTO(topology, nodeTypes, relationshipTypes, capabilityTypes, outputCapabilityProperties, yaml);
     }
 
+    /**
+     * Take a snapshot of the elements of a topology so the changes performed by an operation can be computed later using
+     * {@link #buildTopologyDelta(Topology, TopologySnapshot)}.
+     *
+     * @param topology The topology before the operation.
+     * @return The snapshot of the node templates, inputs, input artifacts, groups and workflows of the topology.
+     */
+    public TopologySnapshot snapshot(Topology topology) {
+        return new TopologySnapshot(snapshot(topology.getNodeTemplates()), snapshot(topology.getInputs()), snapshot(topology.getInputArtifacts()),
+                snapshot(topology.getGroups()), snapshot(topology.getWorkflows()));
+    }
+
+    /**
+     * Create a {@link TopologyDTO} that contains only the changes performed on a topology since the given snapshot.
+     *
+     * Node templates, inputs, input artifacts, groups and workflows of the delta topology are the ones added or updated since the snapshot, the names of
+     * the removed ones are given in the DTO. Types are the ones used by the changed node templates. Other topology fields are returned as is and the yaml is
+     * not generated (it can be fetched on demand).
+     *
+     * @param topology The topology after the operation.
+     * @param snapshot The snapshot taken before the operation using {@link #snapshot(Topology)}.
+     * @return The delta {@link TopologyDTO}.
+     */
+    public TopologyDTO buildTopologyDelta(Topology topology, TopologySnapshot snapshot) {
+        Topology deltaTopology = new Topology();
+        BeanUtils.copyProperties(topology, deltaTopology);
+        Set<String> removedNodeTemplates = Sets.newHashSet();
+        deltaTopology.setNodeTemplates(diff(topology.getNodeTemplates(), snapshot.getNodeTemplates(), removedNodeTemplates));
+        Set<String> removedInputs = Sets.newHashSet();
+        deltaTopology.setInputs(diff(topology.getInputs(), snapshot.getInputs(), removedInputs));
+        Set<String> removedInputArtifacts = Sets.newHashSet();
+        deltaTopology.setInputArtifacts(diff(topology.getInputArtifacts(), snapshot.getInputArtifacts(), removedInputArtifacts));
+        Set<String> removedGroups = Sets.newHashSet();
+        deltaTopology.setGroups(diff(topology.getGroups(), snapshot.getGroups(), removedGroups));
+        Set<String> removedWorkflows = Sets.newHashSet();
+        deltaTopology.setWorkflows(diff(topology.getWorkflows(), snapshot.getWorkflows(), removedWorkflows));
+
+        TopologyDTO topologyDTO = buildTopologyDTO(deltaTopology, null);
+        topologyDTO.setDelta(true);
+        topologyDTO.setRemovedNodeTemplates(removedNodeTemplates);
+        topologyDTO.setRemovedInputs(removedInputs);
+        topologyDTO.setRemovedInputArtifacts(removedInputArtifacts);
+        topologyDTO.setRemovedGroups(removedGroups);
+        topologyDTO.setRemovedWorkflows(removedWorkflows);
+        return topologyDTO;
+    }
+
+    @SneakyThrows(IOException.class)
+    private Map<String, String> snapshot(Map<String, ?> elements) {
+        Map<String, String> snapshot = Maps.newHashMap();
+        if (elements != null) {
+            for (Entry<String, ?> elementEntry : elements.entrySet()) {
+                snapshot.put(elementEntry.getKey(), JsonUtil.toString(elementEntry.getValue()));
+            }
+        }
+        return snapshot;
+    }
+
+    /**
+     * Get the elements that has been added or updated since the snapshot.
+     *
+     * @param elements The current elements by name.
+     * @param snapshot The serialized elements by name before the operation.
+     * @param removed The set in which to add the names of the elements removed since the snapshot.
+     * @return The elements added or updated since the snapshot by name.
+     */
+    @SneakyThrows(IOException.class)
+    private <T> Map<String, T> diff(Map<String, T> elements, Map<String, String> snapshot, Set<String> removed) {
+        Map<String, T> changed = Maps.newHashMap();
+        removed.addAll(snapshot.keySet());
+        if (elements != null) {
+            for (Entry<String, T> elementEntry : elements.entrySet()) {
+                removed.remove(elementEntry.getKey());
+                if (!JsonUtil.toString(elementEntry.getValue()).equals(snapshot.get(elementEntry.getKey()))) {
+                    changed.put(elementEntry.getKey(), elementEntry.getValue());
+                }
+            }
+        }
+        return changed;
+    }
+
     /**
      * Build a node template
      *
@@ -26,10 +26,13 @@ import com.google.common.collect.Maps;
 import alien4cloud.component.ICSARRepositoryIndexerService;
 import alien4cloud.component.ICSARRepositorySearchService;
 import alien4cloud.component.IToscaElementFinder;
+import alien4cloud.component.NodeTypeScoreService;
 import alien4cloud.csar.services.CsarService;
 import alien4cloud.dao.IGenericSearchDAO;
 import alien4cloud.dao.model.GetMultipleDataResult;
+import alien4cloud.dao.model.VersionedData;
 import alien4cloud.exception.NotFoundException;
+import alien4cloud.exception.VersionConflictException;
 import alien4cloud.model.components.AbstractPropertyValue;
 import alien4cloud.model.components.CSARDependency;
 import alien4cloud.model.components.CapabilityDefinition;
@@ -71,6 +74,9 @@ public class TopologyServiceCore {
     @Resource
     private ICSARRepositorySearchService csarRepoSearchService;
 
+    @Resource
+    private NodeTypeScoreService nodeTypeScoreService;
+
     @Resource
     private TopologyTemplateVersionService topologyTemplateVersionService;
 
@@ -80,6 +86,9 @@ public class TopologyServiceCore {
     @Resource
     private ICSARRepositoryIndexerService indexerService;
 
+    @Resource
+    private TopologyEditionSessionService topologyEditionSessionService;
+
     /**
      * The default tosca element finder will search into repo.
      */
@@ -91,7 +100,11 @@ public class TopologyServiceCore {
     };
 
     public Topology getTopology(String topologyId) {
-        return alienDAO.findById(Topology.class, topologyId);
+        Topology topology = topologyEditionSessionService.get(topologyId);
+        if (topology == null) {
+            topology = alienDAO.findById(Topology.class, topologyId);
+        }
+        return topology;
     }
 
     /**
@@ -166,17 +179,20 @@ public class TopologyServiceCore {
     public Map<String, IndexedNodeType> getIndexedNodeTypesFromDependencies(Map<String, NodeTemplate> nodeTemplates, Set<CSARDependency> dependencies,
             boolean abstractOnly, boolean useTemplateNameAsKey) {
         Map<String, IndexedNodeType> nodeTypes = Maps.newHashMap();
-        if (nodeTemplates == null) {
+        if (nodeTemplates == null || nodeTemplates.isEmpty()) {
             return nodeTypes;
         }
+        Set<String> typeIds = Sets.newHashSet();
+        for (NodeTemplate template : nodeTemplates.values()) {
+            typeIds.add(template.getType());
+        }
+        // resolve all the types in a single query rather than one per node template
+        Map<String, IndexedNodeType> nodeTypesById = csarRepoSearchService.getRequiredElementsInDependencies(IndexedNodeType.class, typeIds, dependencies);
         for (Map.Entry<String, NodeTemplate> template : nodeTemplates.entrySet()) {
-            if (!nodeTypes.containsKey(template.getValue().getType())) {
-                IndexedNodeType nodeType = csarRepoSearchService.getRequiredElementInDependencies(IndexedNodeType.class, template.getValue().getType(),
-                        dependencies);
-                if (!abstractOnly || nodeType.isAbstract()) {
-                    String key = useTemplateNameAsKey ? template.getKey() : template.getValue().getType();
-                    nodeTypes.put(key, nodeType);
-                }
+            IndexedNodeType nodeType = nodeTypesById.get(template.getValue().getType());
+            if (!abstractOnly || nodeType.isAbstract()) {
+                String key = useTemplateNameAsKey ? template.getKey() : template.getValue().getType();
+                nodeTypes.put(key, nodeType);
             }
         }
         return nodeTypes;
@@ -189,24 +205,18 @@ public class TopologyServiceCore {
      * @return the map containing rel
      */
     public Map<String, IndexedRelationshipType> getIndexedRelationshipTypesFromTopology(Topology topology) {
-        Map<String, IndexedRelationshipType> relationshipTypes = Maps.newHashMap();
         if (topology.getNodeTemplates() == null) {
-            return relationshipTypes;
+            return Maps.newHashMap();
         }
-        for (Map.Entry<String, NodeTemplate> templateEntry : topology.getNodeTemplates().entrySet()) {
-            NodeTemplate template = templateEntry.getValue();
+        Set<String> typeIds = Sets.newHashSet();
+        for (NodeTemplate template : topology.getNodeTemplates().values()) {
             if (template.getRelationships() != null) {
-                for (Map.Entry<String, RelationshipTemplate> relationshipEntry : template.getRelationships().entrySet()) {
-                    RelationshipTemplate relationship = relationshipEntry.getValue();
-                    if (!relationshipTypes.containsKey(relationship.getType())) {
-                        IndexedRelationshipType relationshipType = csarRepoSearchService.getRequiredElementInDependencies(IndexedRelationshipType.class,
-                                relationship.getType(), topology.getDependencies());
-                        relationshipTypes.put(relationship.getType(), relationshipType);
-                    }
+                for (RelationshipTemplate relationship : template.getRelationships().values()) {
+                    typeIds.add(relationship.getType());
                 }
             }
         }
-        return relationshipTypes;
+        return csarRepoSearchService.getRequiredElementsInDependencies(IndexedRelationshipType.class, typeIds, topology.getDependencies());
     }
 
     /**
@@ -216,24 +226,18 @@ public class TopologyServiceCore {
      * @return the map containing rel
      */
     public Map<String, IndexedCapabilityType> getIndexedCapabilityTypesFromTopology(Topology topology) {
-        Map<String, IndexedCapabilityType> capabilityTypes = Maps.newHashMap();
         if (topology.getNodeTemplates() == null) {
-            return capabilityTypes;
+            return Maps.newHashMap();
         }
-        for (Map.Entry<String, NodeTemplate> templateEntry : topology.getNodeTemplates().entrySet()) {
-            NodeTemplate template = templateEntry.getValue();
+        Set<String> typeIds = Sets.newHashSet();
+        for (NodeTemplate template : topology.getNodeTemplates().values()) {
             if (template.getCapabilities() != null) {
-                for (Map.Entry<String, Capability> capabilityEntry : template.getCapabilities().entrySet()) {
-                    Capability capability = capabilityEntry.getValue();
-                    if (!capabilityTypes.containsKey(capability.getType())) {
-                        IndexedCapabilityType capabilityType = csarRepoSearchService.getRequiredElementInDependencies(IndexedCapabilityType.class,
-                                capability.getType(), topology.getDependencies());
-                        capabilityTypes.put(capability.getType(), capabilityType);
-                    }
+                for (Capability capability : template.getCapabilities().values()) {
+                    typeIds.add(capability.getType());
                 }
             }
         }
-        return capabilityTypes;
+        return csarRepoSearchService.getRequiredElementsInDependencies(IndexedCapabilityType.class, typeIds, topology.getDependencies());
     }
 
     public NodeTemplate buildNodeTemplate(Set<CSARDependency> dependencies, IndexedNodeType indexedNodeType, NodeTemplate templateToMerge) {
@@ -577,7 +581,7 @@ public class TopologyServiceCore {
 
     public TopologyTemplate searchTopologyTemplateByName(String name) {
         Map<String, String[]> filters = MapUtil.newHashMap(new String[] { "name" }, new String[][] { new String[] { name } });
-        GetMultipleDataResult<TopologyTemplate> result = alienDAO.find(TopologyTemplate.class, filters, Integer.MAX_VALUE);
+        GetMultipleDataResult<TopologyTemplate> result = alienDAO.find(TopologyTemplate.class, filters, 1);
         if (result.getTotalResults() > 0) {
             return result.getData()[0];
         }
@@ -599,7 +603,51 @@ public class TopologyServiceCore {
 
     public void save(Topology topology) {
         topology.setLastUpdateDate(new Date());
-        this.alienDAO.save(topology);
+        topology.setRevision(topology.getRevision() + 1);
+        // topologies being edited are persisted asynchronously by their edition session
+        if (!topologyEditionSessionService.update(topology)) {
+            saveIfNotModified(Topology.class, topology);
+            nodeTypeScoreService.onTopologySaved(topology);
+        }
+    }
+
+    /**
+     * Save a topology modified from the topology editor. The first modification is persisted synchronously and opens an edition session, the following
+     * modifications are applied to the session and persisted asynchronously (see {@link TopologyEditionSessionService}).
+     *
+     * @param topology The modified topology.
+     * @throws VersionConflictException in case the topology has been modified concurrently.
+     */
+    public void saveEdition(Topology topology) {
+        topology.setLastUpdateDate(new Date());
+        topology.setRevision(topology.getRevision() + 1);
+        if (!topologyEditionSessionService.update(topology)) {
+            long documentVersion = saveIfNotModified(Topology.class, topology);
+            topologyEditionSessionService.open(topology, documentVersion);
+            nodeTypeScoreService.onTopologySaved(topology);
+        }
+    }
+
+    /**
+     * Save a topology (or deployment topology) only if the stored document has not been modified since the topology has been loaded. The given topology
+     * revision must already have been incremented.
+     *
+     * @param topologyClass The class of the topology.
+     * @param topology The topology to save.
+     * @return The new version of the elastic search document of the topology.
+     * @throws VersionConflictException in case the topology has been modified concurrently.
+     */
+    public <T extends Topology> long saveIfNotModified(Class<T> topologyClass, T topology) throws VersionConflictException {
+        VersionedData<T> stored = alienDAO.findVersionedById(topologyClass, topology.getId());
+        if (stored == null) {
+            return alienDAO.save(topology, 0);
+        }
+        if (stored.getData().getRevision() != topology.getRevision() - 1) {
+            throw new VersionConflictException("Topology <" + topology.getId() + "> has been modified by another user (revision <"
+                    + stored.getData().getRevision() + ">), please reload it.");
+        }
+        // the document version check protects from a concurrent write between the read and the save
+        return alienDAO.save(topology, stored.getVersion());
     }
 
     public void updateSubstitutionType(final Topology topology) {
@@ -0,0 +1,26 @@
+package alien4cloud.topology;
+
+import java.util.Map;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Serialized elements of a topology taken before an operation so that only the elements changed by the operation are returned to the client (see
+ * {@link TopologyService#buildTopologyDelta(alien4cloud.model.topology.Topology, TopologySnapshot)}).
+ */
+@Getter(AccessLevel.PACKAGE)
+@AllArgsConstructor(access = AccessLevel.PACKAGE)
+public class TopologySnapshot {
+    /** Serialized node templates by name. */
+    private final Map<String, String> nodeTemplates;
+    /** Serialized inputs by name. */
+    private final Map<String, String> inputs;
+    /** Serialized input artifacts by name. */
+    private final Map<String, String> inputArtifacts;
+    /** Serialized groups by name. */
+    private final Map<String, String> groups;
+    /** Serialized workflows by name. */
+    private final Map<String, String> workflows;
+}
@@ -5,6 +5,7 @@ import alien4cloud.component.ICSARRepositorySearchService;
 import alien4cloud.component.repository.ICsarRepositry;
 import alien4cloud.component.repository.exception.CSARVersionAlreadyExistsException;
 import alien4cloud.csar.services.CsarService;
+import alien4cloud.dao.CloseableIterable;
 import alien4cloud.model.components.CSARDependency;
 import alien4cloud.model.components.Csar;
 import alien4cloud.model.components.IndexedInheritableToscaElement;
@@ -27,6 +28,13 @@ import javax.inject.Inject;
 import java.nio.file.Path;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ListMultimap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
 
 @Component
 public class ArchiveIndexer {
@@ -141,53 +149,78 @@ public class ArchiveIndexer {
      */
     public void indexArchive(String archiveName, String archiveVersion, ArchiveRoot root, boolean update) {
         if (update) {
-            // get element from the archive so we get the creation date.
-            Map<String, IndexedToscaElement> previousElements = indexerService.getArchiveElements(archiveName, archiveVersion);
-            prepareForUpdate(archiveName, archiveVersion, root, previousElements);
+            // get element from the archive so we get the creation date, previous elements are streamed and matched with the new ones by id.
+            ListMultimap<String, IndexedInheritableToscaElement> newElements = ArrayListMultimap.create();
+            collectElementsById(root, newElements);
+            try (CloseableIterable<IndexedToscaElement> previousElements = indexerService.getArchiveElements(archiveName, archiveVersion)) {
+                for (IndexedToscaElement previousElement : previousElements) {
+                    for (IndexedInheritableToscaElement newElement : newElements.get(previousElement.getId())) {
+                        newElement.setCreationDate(previousElement.getCreationDate());
+                    }
+                }
+            }
             // delete all previous elements and their images
-            indexerService.deleteElements(previousElements.values());
+            indexerService.deleteElements(archiveName, archiveVersion);
         }
 
         performIndexing(archiveName, archiveVersion, root);
     }
 
-    private void prepareForUpdate(String archiveName, String archiveVersion, ArchiveRoot root, Map<String, IndexedToscaElement> previousElements) {
-        updateCreationDates(root.getArtifactTypes(), previousElements);
-        updateCreationDates(root.getCapabilityTypes(), previousElements);
-        updateCreationDates(root.getNodeTypes(), previousElements);
-        updateCreationDates(root.getRelationshipTypes(), previousElements);
-        updateCreationDates(root.getDataTypes(), previousElements);
+    private void collectElementsById(ArchiveRoot root, ListMultimap<String, IndexedInheritableToscaElement> newElements) {
+        putById(newElements, root.getArtifactTypes());
+        putById(newElements, root.getCapabilityTypes());
+        putById(newElements, root.getNodeTypes());
+        putById(newElements, root.getRelationshipTypes());
+        putById(newElements, root.getDataTypes());
 
         if (root.getLocalImports() != null) {
             for (ArchiveRoot child : root.getLocalImports()) {
-                prepareForUpdate(archiveName, archiveVersion, child, previousElements);
+                collectElementsById(child, newElements);
             }
         }
     }
 
-    private void updateCreationDates(Map<String, ? extends IndexedInheritableToscaElement> newElements, Map<String, IndexedToscaElement> previousElements) {
-        if (newElements == null) {
+    private void putById(ListMultimap<String, IndexedInheritableToscaElement> newElements, Map<String, ? extends IndexedInheritableToscaElement> elements) {
+        if (elements == null) {
             return;
         }
-        for (IndexedInheritableToscaElement newElement : newElements.values()) {
-            IndexedToscaElement previousElement = previousElements.get(newElement.getId());
-            if (previousElement != null) {
-                newElement.setCreationDate(previousElement.getCreationDate());
-            }
+        for (IndexedInheritableToscaElement element : elements.values()) {
+            newElements.put(element.getId(), element);
         }
     }
 
     private void performIndexing(String archiveName, String archiveVersion, ArchiveRoot root) {
-        indexerService.indexInheritableElements(archiveName, archiveVersion, root.getArtifactTypes(), root.getArchive().getDependencies());
-        indexerService.indexInheritableElements(archiveName, archiveVersion, root.getCapabilityTypes(), root.getArchive().getDependencies());
-        indexerService.indexInheritableElements(archiveName, archiveVersion, root.getNodeTypes(), root.getArchive().getDependencies());
-        indexerService.indexInheritableElements(archiveName, archiveVersion, root.getRelationshipTypes(), root.getArchive().getDependencies());
-        indexerService.indexInheritableElements(archiveName, archiveVersion, root.getDataTypes(), root.getArchive().getDependencies());
+        // elements of the local imports are indexed along with the ones of the root so the whole archive is saved with a single bulk request.
+        // artifact, capability, node, relationship and data types are indexed in this order.
+        List<Map<String, IndexedInheritableToscaElement>> archiveElements = Lists.newArrayList();
+        for (int i = 0; i < 5; i++) {
+            archiveElements.add(Maps.<String, IndexedInheritableToscaElement> newLinkedHashMap());
+        }
+        Set<CSARDependency> dependencies = Sets.newLinkedHashSet();
+        collectElements(root, archiveElements, dependencies);
+        indexerService.indexArchiveElements(archiveName, archiveVersion, archiveElements, dependencies);
+    }
+
+    private void collectElements(ArchiveRoot root, List<Map<String, IndexedInheritableToscaElement>> archiveElements, Set<CSARDependency> dependencies) {
+        putAll(archiveElements.get(0), root.getArtifactTypes());
+        putAll(archiveElements.get(1), root.getCapabilityTypes());
+        putAll(archiveElements.get(2), root.getNodeTypes());
+        putAll(archiveElements.get(3), root.getRelationshipTypes());
+        putAll(archiveElements.get(4), root.getDataTypes());
+        if (root.getArchive().getDependencies() != null) {
+            dependencies.addAll(root.getArchive().getDependencies());
+        }
 
         if (root.getLocalImports() != null) {
             for (ArchiveRoot child : root.getLocalImports()) {
-                performIndexing(archiveName, archiveVersion, child);
+                collectElements(child, archiveElements, dependencies);
             }
         }
     }
+
+    private void putAll(Map<String, IndexedInheritableToscaElement> target, Map<String, ? extends IndexedInheritableToscaElement> elements) {
+        if (elements != null) {
+            target.putAll(elements);
+        }
+    }
 }
\ No newline at end of file
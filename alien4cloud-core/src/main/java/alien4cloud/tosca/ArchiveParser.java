@@ -37,6 +37,8 @@ public class ArchiveParser {
     @Resource
     private ToscaParser toscaParser;
     @Resource
+    private ToscaCsarDependenciesParser dependenciesParser;
+    @Resource
     private Validator validator;
     @Inject
     private ArchivePostProcessor postProcessor;
@@ -49,6 +51,21 @@ public class ArchiveParser {
      * @throws ParsingException
      */
     public ParsingResult<ArchiveRoot> parse(Path archiveFile) throws ParsingException {
+        return postProcess(parse(archiveFile, toscaParser));
+    }
+
+    /**
+     * Parse only the header of the archive definition (name, version and imports) so dependencies between archives can be computed without a full parsing.
+     *
+     * @param archiveFile The archive file currently zipped.
+     * @return A parsing result that contains an Archive Root with only the archive (name, version and dependencies) filled.
+     * @throws ParsingException
+     */
+    public ParsingResult<ArchiveRoot> parseImports(Path archiveFile) throws ParsingException {
+        return parse(archiveFile, dependenciesParser);
+    }
+
+    private ParsingResult<ArchiveRoot> parse(Path archiveFile, YamlParser<ArchiveRoot> definitionParser) throws ParsingException {
         FileSystem csarFS;
         try {
             csarFS = FileSystems.newFileSystem(archiveFile, null);
@@ -63,11 +80,11 @@ public class ArchiveParser {
         }
 
         if (Files.exists(csarFS.getPath(TOSCA_META_FILE_LOCATION))) {
-            return postProcess(parseFromToscaMeta(csarFS));
+            return parseFromToscaMeta(csarFS, definitionParser);
         } else if (Files.exists(csarFS.getPath(ALIEN_META_FILE_LOCATION))) {
-            return postProcess(parseFromAlienMeta(csarFS));
+            return parseFromAlienMeta(csarFS, definitionParser);
         }
-        return postProcess(parseFromRootDefinitions(csarFS));
+        return parseFromRootDefinitions(csarFS, definitionParser);
     }
 
     // TODO Find a proper way to refactor avoid code duplication with parsing methods from file system
@@ -93,7 +110,7 @@ public class ArchiveParser {
     }
 
     @Deprecated
-    private ParsingResult<ArchiveRoot> parseFromAlienMeta(FileSystem csarFS) throws ParsingException {
+    private ParsingResult<ArchiveRoot> parseFromAlienMeta(FileSystem csarFS, YamlParser<ArchiveRoot> definitionParser) throws ParsingException {
         // add deprecated warning.
         YamlSimpleParser<ToscaMeta> parser = new YamlSimpleParser<ToscaMeta>(new ValidatedNodeParser<ToscaMeta>(validator, csarMetaMapping.getParser()));
         ParsingResult<ToscaMeta> parsingResult = parser.parseFile(csarFS.getPath(ALIEN_META_FILE_LOCATION));
@@ -108,7 +125,8 @@ public class ArchiveParser {
         Csar csar = new Csar();
         csar.setDependencies(parsingResult.getResult().getDependencies());
         archiveRoot.setArchive(csar);
-        ParsingResult<ArchiveRoot> archiveResult = parseFromToscaMeta(csarFS, parsingResult.getResult(), ALIEN_META_FILE_LOCATION, archiveRoot);
+        ParsingResult<ArchiveRoot> archiveResult = parseFromToscaMeta(csarFS, parsingResult.getResult(), ALIEN_META_FILE_LOCATION, archiveRoot,
+                definitionParser);
         return mergeWithToscaMeta(archiveResult, parsingResult);
     }
 
@@ -119,10 +137,10 @@ public class ArchiveParser {
         return mergeWithToscaMeta(archiveResult, parsingResult);
     }
 
-    private ParsingResult<ArchiveRoot> parseFromToscaMeta(FileSystem csarFS) throws ParsingException {
+    private ParsingResult<ArchiveRoot> parseFromToscaMeta(FileSystem csarFS, YamlParser<ArchiveRoot> definitionParser) throws ParsingException {
         YamlSimpleParser<ToscaMeta> parser = new YamlSimpleParser<ToscaMeta>(toscaMetaMapping.getParser());
         ParsingResult<ToscaMeta> parsingResult = parser.parseFile(csarFS.getPath(TOSCA_META_FILE_LOCATION));
-        ParsingResult<ArchiveRoot> archiveResult = parseFromToscaMeta(csarFS, parsingResult.getResult(), TOSCA_META_FILE_LOCATION, null);
+        ParsingResult<ArchiveRoot> archiveResult = parseFromToscaMeta(csarFS, parsingResult.getResult(), TOSCA_META_FILE_LOCATION, null, definitionParser);
         return mergeWithToscaMeta(archiveResult, parsingResult);
     }
 
@@ -144,10 +162,10 @@ public class ArchiveParser {
                 new ParsingError(ErrorCode.ENTRY_DEFINITION_NOT_FOUND, "No entry definitions found in the meta file.", null, null, null, null));
     }
 
-    private ParsingResult<ArchiveRoot> parseFromToscaMeta(FileSystem csarFS, ToscaMeta toscaMeta, String metaFileName, ArchiveRoot instance)
-            throws ParsingException {
+    private ParsingResult<ArchiveRoot> parseFromToscaMeta(FileSystem csarFS, ToscaMeta toscaMeta, String metaFileName, ArchiveRoot instance,
+            YamlParser<ArchiveRoot> definitionParser) throws ParsingException {
         if (toscaMeta.getEntryDefinitions() != null) {
-            return toscaParser.parseFile(csarFS.getPath(toscaMeta.getEntryDefinitions()), instance);
+            return definitionParser.parseFile(csarFS.getPath(toscaMeta.getEntryDefinitions()), instance);
         }
         throw new ParsingException(metaFileName,
                 new ParsingError(ErrorCode.ENTRY_DEFINITION_NOT_FOUND, "No entry definitions found in the meta file.", null, null, null, null));
@@ -167,13 +185,13 @@ public class ArchiveParser {
         }
     }
 
-    private ParsingResult<ArchiveRoot> parseFromRootDefinitions(FileSystem csarFS) throws ParsingException {
+    private ParsingResult<ArchiveRoot> parseFromRootDefinitions(FileSystem csarFS, YamlParser<ArchiveRoot> definitionParser) throws ParsingException {
         // load definitions from the archive root
         try {
             DefinitionVisitor visitor = new DefinitionVisitor(csarFS);
             Files.walkFileTree(csarFS.getPath(csarFS.getSeparator()), EnumSet.noneOf(FileVisitOption.class), 1, visitor);
             if (visitor.getDefinitionFiles().size() == 1) {
-                return toscaParser.parseFile(visitor.getDefinitionFiles().get(0));
+                return definitionParser.parseFile(visitor.getDefinitionFiles().get(0));
             }
             throw new ParsingException("Archive", new ParsingError(ErrorCode.SINGLE_DEFINITION_SUPPORTED,
                     "Alien only supports archives with a single root definition.", null, null, null,
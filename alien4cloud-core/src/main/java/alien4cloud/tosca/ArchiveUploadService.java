@@ -3,6 +3,7 @@ package alien4cloud.tosca;
 import alien4cloud.component.ICSARRepositorySearchService;
 import alien4cloud.component.repository.ICsarRepositry;
 import alien4cloud.component.repository.exception.CSARVersionAlreadyExistsException;
+import alien4cloud.csar.services.CsarService;
 import alien4cloud.model.components.CSARDependency;
 import alien4cloud.model.components.Csar;
 import alien4cloud.model.git.CsarDependenciesBean;
@@ -13,22 +14,26 @@ import alien4cloud.topology.TopologyServiceCore;
 import alien4cloud.topology.TopologyTemplateVersionService;
 import alien4cloud.tosca.model.ArchiveRoot;
 import alien4cloud.tosca.parser.*;
+import alien4cloud.tosca.parser.impl.ErrorCode;
+import alien4cloud.utils.FileUtil;
+import alien4cloud.utils.VersionUtil;
 import com.google.common.collect.Maps;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
 import javax.inject.Inject;
+import java.io.IOException;
 import java.nio.file.Path;
 import java.util.Map;
 import java.util.Set;
 
+@Slf4j
 @Component
 public class ArchiveUploadService {
 
     @Inject
     private ArchiveParser parser;
     @Inject
-    private ToscaCsarDependenciesParser dependenciesParser;
-    @Inject
     private ArchiveIndexer archiveIndexer;
     @Inject
     private ICsarRepositry archiveRepositry;
@@ -40,6 +45,8 @@ public class ArchiveUploadService {
     private WorkflowsBuilderService workflowsBuilderService;
     @Inject
     private ICSARRepositorySearchService searchService;
+    @Inject
+    private CsarService csarService;
 
     /**
      * Upload a TOSCA archive and index its components.
@@ -50,9 +57,40 @@ public class ArchiveUploadService {
      * @throws CSARVersionAlreadyExistsException
      */
     public ParsingResult<Csar> upload(Path path) throws ParsingException, CSARVersionAlreadyExistsException {
+        return upload(path, digest(path));
+    }
+
+    /**
+     * Upload a TOSCA archive and index its components unless the exact same SNAPSHOT archive has already been imported.
+     *
+     * @param path The archive path.
+     * @param archiveHash The SHA-256 digest of the archive content.
+     * @return The Csar object from the parsing or the existing Csar if the archive didn't change.
+     * @throws ParsingException
+     * @throws CSARVersionAlreadyExistsException
+     */
+    public ParsingResult<Csar> upload(Path path, String archiveHash) throws ParsingException, CSARVersionAlreadyExistsException {
+        Csar unchanged = getUnchangedArchive(archiveHash);
+        if (unchanged != null) {
+            // nothing is modified so there is no need to parse, store or index the archive again.
+            log.info("Archive <{}> didn't change since last import, skipping.", unchanged.getId());
+            return new ParsingResult<Csar>(unchanged, new ParsingContext(path.getFileName().toString()));
+        }
         // parse the archive.
         ParsingResult<ArchiveRoot> parsingResult = parser.parse(path);
+        return upload(path, archiveHash, parsingResult);
+    }
 
+    /**
+     * Index the components of a TOSCA archive that has already been parsed.
+     *
+     * @param path The archive path.
+     * @param archiveHash The SHA-256 digest of the archive content.
+     * @param parsingResult The result of the archive parsing.
+     * @return The Csar object from the parsing.
+     * @throws CSARVersionAlreadyExistsException
+     */
+    public ParsingResult<Csar> upload(Path path, String archiveHash, ParsingResult<ArchiveRoot> parsingResult) throws CSARVersionAlreadyExistsException {
         String archiveName = parsingResult.getResult().getArchive().getName();
         String archiveVersion = parsingResult.getResult().getArchive().getVersion();
 
@@ -72,16 +110,62 @@ public class ArchiveUploadService {
             }
         }
 
+        archiveRoot.getArchive().setHash(archiveHash);
+        archiveRoot.getArchive().setDependenciesHash(csarService.getDependenciesHash(archiveRoot.getArchive().getDependencies()));
         archiveIndexer.importArchive(archiveRoot, path, parsingResult.getContext().getParsingErrors());
 
         return toSimpleResult(parsingResult);
     }
 
+    /**
+     * Get the SNAPSHOT archive that has already been imported with the given content digest and which dependencies didn't change since.
+     *
+     * Dependencies are checked as types of the archive have to be indexed again when a SNAPSHOT dependency has been imported with another content (for
+     * example by the same git import).
+     *
+     * @param archiveHash The SHA-256 digest of the archive content.
+     * @return The existing archive or null if no SNAPSHOT archive with the same content and dependencies exists.
+     */
+    public Csar getUnchangedArchive(String archiveHash) {
+        if (archiveHash == null) {
+            return null;
+        }
+        Csar csar = csarService.getByHash(archiveHash);
+        // released archives cannot be overridden, let the indexer report it.
+        if (csar == null || !VersionUtil.isSnapshot(csar.getVersion())) {
+            return null;
+        }
+        return csarService.getDependenciesHash(csar.getDependencies()).equals(csar.getDependenciesHash()) ? csar : null;
+    }
+
+    /**
+     * Compute the SHA-256 digest of an archive.
+     *
+     * @param path The archive path.
+     * @return The hexadecimal representation of the digest.
+     * @throws ParsingException In case the archive cannot be read.
+     */
+    public String digest(Path path) throws ParsingException {
+        try {
+            return FileUtil.sha256(path);
+        } catch (IOException e) {
+            throw new ParsingException("Archive", new ParsingError(ErrorCode.FAILED_TO_READ_FILE, "Problem happened while accessing file", null, null, null,
+                    path.toString()));
+        }
+    }
+
+    /**
+     * Read the name, version and dependencies of a set of archives. Only the header of the archives definitions is parsed.
+     *
+     * @param paths The archives paths.
+     * @return A map of the archives dependencies beans by archive.
+     * @throws ParsingException
+     */
     public Map<CSARDependency, CsarDependenciesBean> preParsing(Set<Path> paths) throws ParsingException {
         Map<CSARDependency, CsarDependenciesBean> csarDependenciesBeans = Maps.newHashMap();
         for (Path path : paths) {
             CsarDependenciesBean csarDepContainer = new CsarDependenciesBean();
-            ParsingResult<ArchiveRoot> parsingResult = parser.parse(path);
+            ParsingResult<ArchiveRoot> parsingResult = parser.parseImports(path);
             csarDepContainer.setPath(path);
             csarDepContainer.setSelf(new CSARDependency(parsingResult.getResult().getArchive().getName(), parsingResult.getResult().getArchive().getVersion()));
             csarDepContainer.setDependencies(parsingResult.getResult().getArchive().getDependencies());
@@ -1,11 +1,8 @@
 package alien4cloud.tosca.parser;
 
-import java.util.Map.Entry;
-
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 
-import org.apache.commons.collections4.keyvalue.DefaultMapEntry;
 import org.springframework.beans.BeanWrapper;
 import org.springframework.beans.BeanWrapperImpl;
 import org.springframework.beans.NotWritablePropertyException;
@@ -25,33 +22,46 @@ public abstract class AbstractTypeNodeParser {
         this.toscaType = toscaType;
     }
 
-    protected void parseAndSetValue(BeanWrapper target, String key, Node valueNode, ParsingContextExecution context, MappingTarget mappingTarget) {
+    protected void parseAndSetValue(Object target, String key, Node valueNode, ParsingContextExecution context, MappingTarget mappingTarget) {
         // let's store the parent in the context for future use
-        context.setParent(target.getWrappedInstance());
+        context.setParent(target);
         if (mappingTarget.getPath().equals("null")) {
             // if the path is null, we just to do nothing with the stuff
             return;
         }
-        Entry<BeanWrapper, String> entry = findWrapperPropertyByPath(context.getRoot(), target, mappingTarget.getPath());
-        BeanWrapper realTarget = entry.getKey();
-        String propertyName = entry.getValue();
+        Object base = target;
+        String path = mappingTarget.getPath();
+        if (path.startsWith(".")) {
+            base = context.getRoot().getWrappedInstance();
+            path = path.substring(1);
+        }
+        PropertyPathAccessor accessor = mappingTarget.getAccessor(base.getClass());
+        String propertyName = accessor.getPropertyName();
 
         Object value = ((INodeParser<?>) mappingTarget.getParser()).parse(valueNode, context);
+        BeanWrapper realTarget = null;
         if (!propertyName.equals("void")) {
             // property named 'void' means : process the parsing but do not set anything
-            try {
-                realTarget.setPropertyValue(propertyName, value);
-            } catch (NotWritablePropertyException e) {
-                log.warn("Error while setting property for yaml parsing.", e);
-                context.getParsingErrors().add(
-                        new ParsingError(ParsingErrorLevel.WARNING, ErrorCode.ALIEN_MAPPING_ERROR, "Invalid definition for type", valueNode.getStartMark(), "",
-                                valueNode.getEndMark(), toscaType));
+            Object owner = accessor.setValue(base, value);
+            if (owner == null) {
+                // the compiled accessor doesn't manage this path or value (type conversion for example), let's use a bean wrapper.
+                realTarget = findWrapperPropertyByPath(new BeanWrapperImpl(base), path);
+                try {
+                    realTarget.setPropertyValue(propertyName, value);
+                } catch (NotWritablePropertyException e) {
+                    log.warn("Error while setting property for yaml parsing.", e);
+                    context.getParsingErrors().add(
+                            new ParsingError(ParsingErrorLevel.WARNING, ErrorCode.ALIEN_MAPPING_ERROR, "Invalid definition for type", valueNode.getStartMark(),
+                                    "", valueNode.getEndMark(), toscaType));
+                }
+            } else if (mappingTarget instanceof KeyValueMappingTarget) {
+                realTarget = new BeanWrapperImpl(owner);
             }
         }
 
         if (mappingTarget instanceof KeyValueMappingTarget) {
             KeyValueMappingTarget kvmt = (KeyValueMappingTarget) mappingTarget;
-            BeanWrapper keyBeanWrapper = realTarget;
+            BeanWrapper keyBeanWrapper = realTarget == null ? findWrapperPropertyByPath(new BeanWrapperImpl(base), path) : realTarget;
             try {
                 if (!(keyBeanWrapper.getPropertyValue(kvmt.getKeyPath()) != null && propertyName.equals(key))) {
                     keyBeanWrapper.setPropertyValue(kvmt.getKeyPath(), key);
@@ -68,27 +78,18 @@ public abstract class AbstractTypeNodeParser {
     /**
      * For example:
      * <ul>
-     * <li>.something : the value will be set to the property of root named 'something'
      * <li>child1.child2.prop : the value will be mapped u getChild1().getChild2().setProp()
      * </ul>
+     *
+     * Paths starting from the root are resolved by the caller.
      */
-    private Entry<BeanWrapper, String> findWrapperPropertyByPath(BeanWrapper root, BeanWrapper current, String path) {
+    private BeanWrapper findWrapperPropertyByPath(BeanWrapper current, String path) {
         int dotIdx = path.indexOf(".");
         if (dotIdx < 0) {
-            return new DefaultMapEntry<BeanWrapper, String>(current, path);
-        }
-        BeanWrapper base = current;
-        String nextPath = path;
-        if (path.startsWith(".")) {
-            base = root;
-            nextPath = path.substring(1);
-        } else {
-            String wrapperCandidateName = path.substring(0, path.indexOf("."));
-            Object wrapperCandidate = current.getPropertyValue(wrapperCandidateName);
-            base = new BeanWrapperImpl(wrapperCandidate);
-            nextPath = path.substring(path.indexOf(".") + 1);
+            return current;
         }
-        return findWrapperPropertyByPath(root, base, nextPath);
+        Object wrapperCandidate = current.getPropertyValue(path.substring(0, dotIdx));
+        return findWrapperPropertyByPath(new BeanWrapperImpl(wrapperCandidate), path.substring(dotIdx + 1));
     }
 
 }
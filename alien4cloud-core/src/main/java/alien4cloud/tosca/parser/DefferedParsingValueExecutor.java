@@ -1,21 +1,20 @@
 package alien4cloud.tosca.parser;
 
-import org.springframework.beans.BeanWrapper;
 import org.yaml.snakeyaml.nodes.Node;
 
 public class DefferedParsingValueExecutor extends AbstractTypeNodeParser implements Runnable, Comparable<DefferedParsingValueExecutor> {
     private final String key;
-    private final BeanWrapper target;
+    private final Object target;
     private final ParsingContextExecution context;
     private final MappingTarget mappingTarget;
     private final Node valueNode;
     private int deferredOrder;
 
-    public DefferedParsingValueExecutor(String key, BeanWrapper target, ParsingContextExecution context, MappingTarget mappingTarget, Node valueNode) {
+    public DefferedParsingValueExecutor(String key, Object target, ParsingContextExecution context, MappingTarget mappingTarget, Node valueNode) {
         this(key, target, context, mappingTarget, valueNode, 0);
     }
 
-    public DefferedParsingValueExecutor(String key, BeanWrapper target, ParsingContextExecution context, MappingTarget mappingTarget, Node valueNode,
+    public DefferedParsingValueExecutor(String key, Object target, ParsingContextExecution context, MappingTarget mappingTarget, Node valueNode,
             int deferredOrder) {
         super("");
         this.key = key;
@@ -1,12 +1,18 @@
 package alien4cloud.tosca.parser;
 
+import java.util.Map;
+
 import lombok.Getter;
 
+import com.google.common.collect.Maps;
+
 @Getter
 public class MappingTarget {
     private boolean isRootPath;
     private String path;
     private INodeParser<?> parser;
+    /** Compiled accessors for the path by type of the bean on which the path is resolved. */
+    private final Map<Class<?>, PropertyPathAccessor> accessors = Maps.newConcurrentMap();
 
     public MappingTarget(String path, INodeParser<?> parser) {
         if (path == null) {
@@ -20,4 +26,20 @@ public class MappingTarget {
         }
         this.parser = parser;
     }
-}
\ No newline at end of file
+
+    /**
+     * Get the compiled accessor for the path of this target.
+     *
+     * @param type The type of the bean on which the path is resolved.
+     * @return The compiled accessor for the given type.
+     */
+    public PropertyPathAccessor getAccessor(Class<?> type) {
+        PropertyPathAccessor accessor = accessors.get(type);
+        if (accessor == null) {
+            // a path starting with a dot is resolved from the root object.
+            accessor = PropertyPathAccessor.compile(type, path.startsWith(".") ? path.substring(1) : path);
+            accessors.put(type, accessor);
+        }
+        return accessor;
+    }
+}
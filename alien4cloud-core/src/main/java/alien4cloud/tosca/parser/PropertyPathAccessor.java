@@ -0,0 +1,123 @@
+package alien4cloud.tosca.parser;
+
+import java.beans.PropertyDescriptor;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.List;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.BeanUtils;
+import org.springframework.util.ClassUtils;
+
+import com.google.common.collect.Lists;
+
+/**
+ * Compiled accessor for a mapping path (for example <code>archive.name</code>) on a given class.
+ *
+ * Getters and setter of the path are resolved once into method handles so setting a value doesn't require any introspection. Paths that cannot be compiled
+ * (indexed properties, missing accessors, non public types) and values that are not assignable to the property type are not managed by the accessor and must
+ * be set using a bean wrapper.
+ */
+@Slf4j
+public final class PropertyPathAccessor {
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+    private final MethodHandle[] getters;
+    private final MethodHandle setter;
+    private final Class<?> propertyType;
+    private final String propertyName;
+
+    private PropertyPathAccessor(MethodHandle[] getters, MethodHandle setter, Class<?> propertyType, String propertyName) {
+        this.getters = getters;
+        this.setter = setter;
+        this.propertyType = propertyType;
+        this.propertyName = propertyName;
+    }
+
+    /**
+     * Compile the accessor for a path.
+     *
+     * @param type The type of the bean from which the path is resolved.
+     * @param path The path of the property, segments are separated by dots.
+     * @return The accessor for the path, the accessor doesn't manage any value if the path cannot be compiled.
+     */
+    public static PropertyPathAccessor compile(Class<?> type, String path) {
+        String[] segments = path.split("\\.", -1);
+        String propertyName = segments[segments.length - 1];
+        try {
+            List<MethodHandle> getters = Lists.newArrayList();
+            Class<?> currentType = type;
+            for (int i = 0; i < segments.length - 1; i++) {
+                PropertyDescriptor descriptor = getDescriptor(currentType, segments[i]);
+                if (descriptor == null || descriptor.getReadMethod() == null) {
+                    return notCompiled(propertyName);
+                }
+                getters.add(unreflect(descriptor.getReadMethod()).asType(GETTER_TYPE));
+                currentType = descriptor.getPropertyType();
+            }
+            PropertyDescriptor descriptor = getDescriptor(currentType, propertyName);
+            if (descriptor == null || descriptor.getWriteMethod() == null) {
+                return notCompiled(propertyName);
+            }
+            return new PropertyPathAccessor(getters.toArray(new MethodHandle[getters.size()]), unreflect(descriptor.getWriteMethod()).asType(SETTER_TYPE),
+                    descriptor.getPropertyType(), propertyName);
+        } catch (IllegalAccessException e) {
+            log.debug("Unable to compile accessor for path <" + path + "> on type <" + type.getName() + ">.", e);
+            return notCompiled(propertyName);
+        }
+    }
+
+    private static PropertyPathAccessor notCompiled(String propertyName) {
+        return new PropertyPathAccessor(null, null, null, propertyName);
+    }
+
+    private static PropertyDescriptor getDescriptor(Class<?> type, String propertyName) {
+        if (propertyName.isEmpty() || propertyName.indexOf('[') >= 0) {
+            return null;
+        }
+        return BeanUtils.getPropertyDescriptor(type, propertyName);
+    }
+
+    private static MethodHandle unreflect(Method method) throws IllegalAccessException {
+        return MethodHandles.publicLookup().unreflect(method);
+    }
+
+    /**
+     * @return The name of the last property of the path (the one that is set).
+     */
+    public String getPropertyName() {
+        return propertyName;
+    }
+
+    /**
+     * Set the value of the property at the end of the path.
+     *
+     * @param bean The bean from which the path is resolved.
+     * @param value The value to set.
+     * @return The bean that owns the property if the value has been set, null if the value is not managed by the accessor.
+     */
+    public Object setValue(Object bean, Object value) {
+        if (setter == null || (value == null ? propertyType.isPrimitive() : !ClassUtils.isAssignableValue(propertyType, value))) {
+            return null;
+        }
+        try {
+            Object owner = bean;
+            for (MethodHandle getter : getters) {
+                owner = getter.invokeExact(owner);
+                if (owner == null) {
+                    return null;
+                }
+            }
+            setter.invokeExact(owner, value);
+            return owner;
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new ParsingTechnicalException("Unable to set property <" + propertyName + ">.", e);
+        }
+    }
+}
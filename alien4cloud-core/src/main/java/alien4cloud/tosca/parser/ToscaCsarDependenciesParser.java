@@ -19,6 +19,10 @@ import alien4cloud.tosca.model.ArchiveRoot;
 import alien4cloud.tosca.parser.impl.ErrorCode;
 import alien4cloud.tosca.parser.mapping.generator.MappingGenerator;
 
+/**
+ * Lightweight parser that only reads the header of a definition (tosca_definitions_version, template name and version and imports) in order to compute
+ * dependencies between archives without performing the full parsing.
+ */
 @Component
 public class ToscaCsarDependenciesParser extends YamlParser<ArchiveRoot> {
 
@@ -30,9 +34,10 @@ public class ToscaCsarDependenciesParser extends YamlParser<ArchiveRoot> {
 
     @PostConstruct
     public void initialize() throws ParsingException {
-        // initialize type registry for working draft 3.
+        // the import mapping only reads the archive header (name, version and imports) and is the same for all supported definition versions.
         Map<String, INodeParser> registry = mappingGenerator.process("classpath:tosca-simple-profile-import-mapping.yml");
-        parserRegistriesByVersion.put("tosca-simple-profile-import-mapping", registry);
+        parserRegistriesByVersion.put("tosca_simple_yaml_1_0_0_wd03", registry);
+        parserRegistriesByVersion.put("alien_dsl_1_1_0", registry);
     }
     
     @Override
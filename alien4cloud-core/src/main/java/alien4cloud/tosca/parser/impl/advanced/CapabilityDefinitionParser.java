@@ -2,8 +2,6 @@ package alien4cloud.tosca.parser.impl.advanced;
 
 import javax.annotation.Resource;
 
-import org.springframework.beans.BeanWrapper;
-import org.springframework.beans.BeanWrapperImpl;
 import org.springframework.stereotype.Component;
 import org.yaml.snakeyaml.nodes.Node;
 import org.yaml.snakeyaml.nodes.ScalarNode;
@@ -29,8 +27,7 @@ public class CapabilityDefinitionParser extends DefaultParser<CapabilityDefiniti
     public CapabilityDefinition parse(Node node, ParsingContextExecution context) {
         if (node instanceof ScalarNode) {
             CapabilityDefinition definition = new CapabilityDefinition();
-            BeanWrapper instanceWrapper = new BeanWrapperImpl(definition);
-            context.addDeferredParser(new DefferedParsingValueExecutor(null, instanceWrapper, context,
+            context.addDeferredParser(new DefferedParsingValueExecutor(null, definition, context,
                     new MappingTarget("type", referencedCapabilityTypeParser), node));
             return definition;
         }
@@ -7,8 +7,6 @@ import javax.annotation.Resource;
 
 import lombok.AllArgsConstructor;
 
-import org.springframework.beans.BeanWrapper;
-import org.springframework.beans.BeanWrapperImpl;
 import org.springframework.stereotype.Component;
 import org.yaml.snakeyaml.nodes.MappingNode;
 import org.yaml.snakeyaml.nodes.Node;
@@ -113,8 +111,7 @@ public class ConstraintParser extends AbstractTypeNodeParser implements INodePar
         } catch (InstantiationException | IllegalAccessException e) {
             throw new ParsingTechnicalException("Unable to create constraint.", e);
         }
-        BeanWrapper target = new BeanWrapperImpl(constraint);
-        parseAndSetValue(target, null, expressionNode, context, new MappingTarget(info.expressionPropertyName, info.expressionParser));
+        parseAndSetValue(constraint, null, expressionNode, context, new MappingTarget(info.expressionPropertyName, info.expressionParser));
         return constraint;
     }
 
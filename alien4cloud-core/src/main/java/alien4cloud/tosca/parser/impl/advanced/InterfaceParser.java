@@ -4,8 +4,6 @@ import java.util.Map;
 
 import javax.annotation.Resource;
 
-import org.springframework.beans.BeanWrapper;
-import org.springframework.beans.BeanWrapperImpl;
 import org.springframework.stereotype.Component;
 import org.yaml.snakeyaml.nodes.MappingNode;
 import org.yaml.snakeyaml.nodes.Node;
@@ -61,9 +59,8 @@ public class InterfaceParser extends DefaultParser<Interface> {
                 if (entry.getValueNode() instanceof ScalarNode) {
                     Operation operation = new Operation();
                     // implementation artifact parsing should be done using a deferred parser as we need to look for artifact types.
-                    BeanWrapper targetBean = new BeanWrapperImpl(operation);
                     MappingTarget target = new MappingTarget("implementationArtifact", implementationArtifactParser);
-                    context.addDeferredParser(new DefferedParsingValueExecutor(key, targetBean, context, target, entry.getValueNode()));
+                    context.addDeferredParser(new DefferedParsingValueExecutor(key, operation, context, target, entry.getValueNode()));
                     operations.put(key, operation);
                 } else {
                     operations.put(key, operationParser.parse(entry.getValueNode(), context));
@@ -7,7 +7,6 @@ import java.util.Map;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 
-import org.springframework.beans.BeanWrapper;
 import org.springframework.beans.BeanWrapperImpl;
 import org.yaml.snakeyaml.nodes.MappingNode;
 import org.yaml.snakeyaml.nodes.Node;
@@ -103,15 +102,13 @@ public class TypeNodeParser<T> extends AbstractTypeNodeParser implements INodePa
                 instance = type.newInstance();
             }
 
-            BeanWrapper instanceWrapper = new BeanWrapperImpl(instance);
-
             if (context.getRoot() == null) {
-                context.setRoot(instanceWrapper);
+                context.setRoot(new BeanWrapperImpl(instance));
             }
 
             for (int i = 0; i < node.getValue().size(); i++) {
                 // lets proceed with node mapping.
-                mapTuple(instanceWrapper, node.getValue().get(i), i, context);
+                mapTuple(instance, node.getValue().get(i), i, context);
             }
 
             return instance;
@@ -120,7 +117,7 @@ public class TypeNodeParser<T> extends AbstractTypeNodeParser implements INodePa
         }
     }
 
-    private void mapTuple(BeanWrapper instance, NodeTuple nodeTuple, int nodeTupleIndex, ParsingContextExecution context) {
+    private void mapTuple(Object instance, NodeTuple nodeTuple, int nodeTupleIndex, ParsingContextExecution context) {
         String key = ParserUtils.getScalar(nodeTuple.getKeyNode(), context);
         if (key == null) {
             return;
@@ -139,7 +136,7 @@ public class TypeNodeParser<T> extends AbstractTypeNodeParser implements INodePa
                             .getStartMark(), "tosca key is not recognized", nodeTuple.getValueNode().getEndMark(), key));
         } else {
             // set the value to the required path
-            BeanWrapper targetBean = target.isRootPath() ? context.getRoot() : instance;
+            Object targetBean = target.isRootPath() ? context.getRoot().getWrappedInstance() : instance;
             if (target.getParser().isDeferred(context)) {
                 context.addDeferredParser(new DefferedParsingValueExecutor(key, targetBean, context, target, nodeTuple.getValueNode(), target.getParser()
                         .getDeferredOrder(context)));
@@ -184,11 +184,22 @@ public class MappingGenerator extends DefaultParser<Map<String, INodeParser>> {
         } else { // if not just process a standard mapping where key is the yaml key.
             MappingTarget mappingTarget = getMappingTarget(tuple.getValueNode(), context);
             if (mappingTarget != null) {
+                compileAccessor(parser, mappingTarget);
                 parser.getYamlToObjectMapping().put(key, mappingTarget);
             }
         }
     }
 
+    /**
+     * Compile the property accessor of a mapping target when the mapping is loaded rather than on the first parsing. Paths resolved from the root object are
+     * compiled on first use as the root type is not known yet.
+     */
+    private void compileAccessor(TypeNodeParser<?> parser, MappingTarget mappingTarget) {
+        if (!mappingTarget.isRootPath() && !mappingTarget.getPath().startsWith(".")) {
+            mappingTarget.getAccessor(parser.getType());
+        }
+    }
+
     private MappingTarget getMappingTarget(Node mappingNode, ParsingContextExecution context) {
         if (mappingNode instanceof ScalarNode) {
             // if the mapping reference a scalar we just map it to a scalar definition.
@@ -234,11 +245,11 @@ public class MappingGenerator extends DefaultParser<Map<String, INodeParser>> {
             if (valueMappingTarget == null) {
                 return;
             }
-            if (key == null) {
-                parser.getYamlOrderedToObjectMapping().put(index, valueMappingTarget);
-            } else {
-                parser.getYamlOrderedToObjectMapping().put(index, new KeyValueMappingTarget(key, valueMappingTarget.getPath(), valueMappingTarget.getParser()));
+            if (key != null) {
+                valueMappingTarget = new KeyValueMappingTarget(key, valueMappingTarget.getPath(), valueMappingTarget.getParser());
             }
+            compileAccessor(parser, valueMappingTarget);
+            parser.getYamlOrderedToObjectMapping().put(index, valueMappingTarget);
         } else {
             context.getParsingErrors().add(
                     new ParsingError(ErrorCode.SYNTAX_ERROR, "Position mapping must be a mapping node with key and value fields.", positionMapping
@@ -2,9 +2,13 @@ package alien4cloud.utils;
 
 import java.util.regex.Pattern;
 
+import alien4cloud.utils.version.ComparableVersion;
 import alien4cloud.utils.version.InvalidVersionException;
 import alien4cloud.utils.version.Version;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
 public final class VersionUtil {
 
     /** Utility class should not have public constructor. */
@@ -17,6 +21,11 @@ public final class VersionUtil {
      */
     public static final Pattern VERSION_PATTERN = Pattern.compile("\\d+(?:\\.\\d+)*(?:[\\.-]\\p{Alnum}+)*");
     private static final String SNAPSHOT_IDENTIFIER = "SNAPSHOT";
+    /**
+     * Parsed versions, versions are compared in sort comparators so we don't parse them again and again. Cached versions are never returned as they can be
+     * modified (see {@link ComparableVersion#parseVersion(String)}).
+     */
+    private static final Cache<String, ComparableVersion> PARSED_VERSIONS = CacheBuilder.newBuilder().maximumSize(10000).build();
 
     /**
      * Check if a version is a SNAPSHOT (development) version.
@@ -46,13 +55,37 @@ public final class VersionUtil {
      * @throws alien4cloud.utils.version.InvalidVersionException if the version text is not following the defined version pattern
      */
     public static Version parseVersion(String version) {
+        checkValid(version);
+        return new Version(version);
+    }
+
+    private static void checkValid(String version) {
         if (!isValid(version)) {
             throw new InvalidVersionException("This version is not valid [" + version + "] as it does not match [" + VERSION_PATTERN + "]");
-        } else {
-            return new Version(version);
         }
     }
 
+    private static ComparableVersion getComparableVersion(String version) {
+        ComparableVersion comparableVersion = PARSED_VERSIONS.getIfPresent(version);
+        if (comparableVersion == null) {
+            checkValid(version);
+            comparableVersion = new ComparableVersion(version);
+            PARSED_VERSIONS.put(version, comparableVersion);
+        }
+        return comparableVersion;
+    }
+
+    /**
+     * Get a key that can be used to sort versions as strings, for example to let elastic search sort elements by version.
+     * 
+     * @param version The version text, the version doesn't have to follow the defined version pattern.
+     * @return A key which lexicographic order is the order of the versions.
+     */
+    public static String getSortableKey(String version) {
+        ComparableVersion comparableVersion = PARSED_VERSIONS.getIfPresent(version);
+        return comparableVersion == null ? new ComparableVersion(version).getSortableKey() : comparableVersion.getSortableKey();
+    }
+
     /**
      * Compare 2 versions
      * 
@@ -61,6 +94,6 @@ public final class VersionUtil {
      * @return
      */
     public static int compare(String versionLeft, String versionRight) {
-        return parseVersion(versionLeft).compareTo(parseVersion(versionRight));
+        return getComparableVersion(versionLeft).compareTo(getComparableVersion(versionRight));
     }
 }
\ No newline at end of file
@@ -0,0 +1,143 @@
+package alien4cloud.component;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.Resource;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import alien4cloud.component.dao.AbstractDAOTest;
+import alien4cloud.dao.IGenericSearchDAO;
+import alien4cloud.model.common.Tag;
+import alien4cloud.model.components.CSARDependency;
+import alien4cloud.model.components.IndexedCapabilityType;
+import alien4cloud.model.components.IndexedInheritableToscaElement;
+import alien4cloud.model.components.IndexedNodeType;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+
+/**
+ * Check that archive elements are indexed with their parents and that highest version and older versions are maintained when archives are indexed and
+ * deleted.
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration("classpath:application-context-test.xml")
+public class CSARRepositoryIndexerServiceTest extends AbstractDAOTest {
+    private static final String ARCHIVE_NAME = "versions-archive";
+    private static final String ELEMENT_ID = "alien.nodes.Versioned";
+    private static final String PARENT_ID = "alien.nodes.Parent";
+
+    @Resource(name = "alien-es-dao")
+    private IGenericSearchDAO alienDAO;
+    @Resource
+    private ICSARRepositoryIndexerService indexerService;
+
+    @Test
+    public void highestVersionShouldBeMaintainedOnIndexAndDelete() {
+        index("1.0");
+        index("3.0");
+        index("2.0");
+        assertVersion("3.0", true, "1.0", "2.0");
+        assertVersion("2.0", false);
+
+        // delete the highest version, older versions are promoted from the index of the highest version
+        indexerService.deleteElements(ARCHIVE_NAME, "3.0");
+        assertNull(alienDAO.findById(IndexedNodeType.class, ELEMENT_ID + ":3.0"));
+        assertVersion("2.0", true, "1.0");
+
+        // delete an older version
+        indexerService.deleteElements(ARCHIVE_NAME, "1.0");
+        assertVersion("2.0", true);
+    }
+
+    @Test
+    public void elementsOfDifferentTypesWithTheSameIdShouldAllBeIndexed() {
+        IndexedNodeType nodeType = new IndexedNodeType();
+        nodeType.setElementId(ELEMENT_ID);
+        nodeType.setArchiveName(ARCHIVE_NAME);
+        nodeType.setArchiveVersion("1.0");
+        IndexedCapabilityType capabilityType = new IndexedCapabilityType();
+        capabilityType.setElementId(ELEMENT_ID);
+        capabilityType.setArchiveName(ARCHIVE_NAME);
+        capabilityType.setArchiveVersion("1.0");
+        Map<String, IndexedInheritableToscaElement> nodeTypes = Maps.newHashMap();
+        nodeTypes.put(ELEMENT_ID, nodeType);
+        Map<String, IndexedInheritableToscaElement> capabilityTypes = Maps.newHashMap();
+        capabilityTypes.put(ELEMENT_ID, capabilityType);
+        indexerService.indexArchiveElements(ARCHIVE_NAME, "1.0", Lists.newArrayList(nodeTypes, capabilityTypes), null);
+
+        assertNotNull(alienDAO.findById(IndexedNodeType.class, ELEMENT_ID + ":1.0"));
+        assertNotNull(alienDAO.findById(IndexedCapabilityType.class, ELEMENT_ID + ":1.0"));
+    }
+
+    @Test
+    public void parentFromTheHighestDependencyVersionShouldBeUsed() {
+        indexParent("parent-archive-b", "1.0", "b-1.0");
+        indexParent("parent-archive-a", "2.0", "a-2.0");
+        indexParent("parent-archive-c", "1.5", "c-1.5");
+        List<CSARDependency> dependencies = Lists.newArrayList(new CSARDependency("parent-archive-b", "1.0"), new CSARDependency("parent-archive-a", "2.0"),
+                new CSARDependency("parent-archive-c", "1.5"));
+
+        for (int i = 0; i < 3; i++) {
+            // the parent doesn't depend on the order of the dependencies
+            Collections.rotate(dependencies, 1);
+            IndexedNodeType child = new IndexedNodeType();
+            child.setElementId(ELEMENT_ID);
+            child.setArchiveName(ARCHIVE_NAME);
+            child.setArchiveVersion("1.0");
+            child.setDerivedFrom(Lists.newArrayList(PARENT_ID));
+            Map<String, IndexedInheritableToscaElement> nodeTypes = Maps.newHashMap();
+            nodeTypes.put(ELEMENT_ID, child);
+            indexerService.indexArchiveElements(ARCHIVE_NAME, "1.0", Lists.newArrayList(nodeTypes), dependencies);
+
+            IndexedNodeType indexedChild = alienDAO.findById(IndexedNodeType.class, ELEMENT_ID + ":1.0");
+            assertEquals(1, indexedChild.getTags().size());
+            assertEquals("a-2.0", indexedChild.getTags().get(0).getValue());
+        }
+    }
+
+    private void indexParent(String archiveName, String version, String origin) {
+        IndexedNodeType parent = new IndexedNodeType();
+        parent.setElementId(PARENT_ID);
+        parent.setArchiveName(archiveName);
+        parent.setArchiveVersion(version);
+        parent.setTags(Lists.newArrayList(new Tag("origin", origin)));
+        Map<String, IndexedInheritableToscaElement> nodeTypes = Maps.newHashMap();
+        nodeTypes.put(PARENT_ID, parent);
+        indexerService.indexArchiveElements(archiveName, version, Lists.newArrayList(nodeTypes), null);
+    }
+
+    private void index(String version) {
+        IndexedNodeType nodeType = new IndexedNodeType();
+        nodeType.setElementId(ELEMENT_ID);
+        nodeType.setArchiveName(ARCHIVE_NAME);
+        nodeType.setArchiveVersion(version);
+        Map<String, IndexedInheritableToscaElement> nodeTypes = Maps.newHashMap();
+        nodeTypes.put(ELEMENT_ID, nodeType);
+        indexerService.indexArchiveElements(ARCHIVE_NAME, version, Lists.newArrayList(nodeTypes), null);
+    }
+
+    private void assertVersion(String version, boolean highestVersion, String... olderVersions) {
+        IndexedNodeType nodeType = alienDAO.findById(IndexedNodeType.class, ELEMENT_ID + ":" + version);
+        assertEquals(highestVersion, nodeType.isHighestVersion());
+        if (highestVersion) {
+            assertEquals(Sets.newHashSet(olderVersions), nodeType.getOlderVersions() == null ? Sets.newHashSet() : nodeType.getOlderVersions());
+        } else {
+            assertFalse(nodeType.getOlderVersions() != null && !nodeType.getOlderVersions().isEmpty());
+        }
+        assertTrue(nodeType.getCreationDate() != null);
+    }
+}
@@ -0,0 +1,197 @@
+package alien4cloud.component;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotSame;
+
+import java.util.Date;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.Resource;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import alien4cloud.component.dao.AbstractDAOTest;
+import alien4cloud.dao.IGenericSearchDAO;
+import alien4cloud.model.components.CSARDependency;
+import alien4cloud.model.components.IndexedNodeType;
+import alien4cloud.model.topology.NodeTemplate;
+import alien4cloud.model.topology.Topology;
+import alien4cloud.topology.TopologyDTO;
+import alien4cloud.topology.TopologyService;
+
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+
+/**
+ * Check that the tosca element cache serves released elements and is invalidated when elements are updated.
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration("classpath:application-context-test.xml")
+public class ToscaElementCacheTest extends AbstractDAOTest {
+    private static final String ARCHIVE_NAME = "cache-test-types";
+    private static final int TYPE_COUNT = 20;
+    private static final int NODE_COUNT = 200;
+
+    @Resource(name = "alien-es-dao")
+    private IGenericSearchDAO dao;
+    @Resource
+    private ICSARRepositorySearchService searchService;
+    @Resource
+    private ToscaElementCache toscaElementCache;
+    @Resource
+    private TopologyService topologyService;
+    @Resource
+    private NodeTypeScoreService nodeTypeScoreService;
+
+    @Override
+    @Before
+    public void before() throws Exception {
+        super.before();
+        for (int i = 0; i < TYPE_COUNT; i++) {
+            IndexedNodeType nodeType = new IndexedNodeType();
+            nodeType.setElementId("cache.test.Type" + i);
+            nodeType.setArchiveName(ARCHIVE_NAME);
+            nodeType.setArchiveVersion("1.0");
+            nodeType.setCreationDate(new Date());
+            nodeType.setLastUpdateDate(new Date());
+            dao.save(nodeType);
+        }
+        IndexedNodeType snapshotType = new IndexedNodeType();
+        snapshotType.setElementId("cache.test.Type0");
+        snapshotType.setArchiveName(ARCHIVE_NAME);
+        snapshotType.setArchiveVersion("1.1-SNAPSHOT");
+        snapshotType.setCreationDate(new Date());
+        snapshotType.setLastUpdateDate(new Date());
+        dao.save(snapshotType);
+        toscaElementCache.invalidateAll();
+    }
+
+    @Test
+    public void cachedElementsShouldBeCopies() {
+        Set<CSARDependency> dependencies = Sets.newHashSet(new CSARDependency(ARCHIVE_NAME, "1.0"));
+        IndexedNodeType first = searchService.getElementInDependencies(IndexedNodeType.class, "cache.test.Type0", dependencies);
+        IndexedNodeType second = searchService.getElementInDependencies(IndexedNodeType.class, "cache.test.Type0", dependencies);
+        assertEquals(first.getId(), second.getId());
+        assertNotSame(first, second);
+    }
+
+    @Test
+    public void bulkLookupShouldResolveAllElements() {
+        Set<CSARDependency> dependencies = Sets.newHashSet(new CSARDependency(ARCHIVE_NAME, "1.0"));
+        Set<String> elementIds = Sets.newHashSet("cache.test.Type0", "cache.test.Type1", "cache.test.Missing");
+        Map<String, IndexedNodeType> elements = searchService.getElementsInDependencies(IndexedNodeType.class, elementIds, dependencies);
+        assertEquals(2, elements.size());
+        // second call is served from the cache
+        elements = searchService.getElementsInDependencies(IndexedNodeType.class, elementIds, dependencies);
+        assertEquals(Sets.newHashSet("cache.test.Type0", "cache.test.Type1"), elements.keySet());
+    }
+
+    @Test
+    public void releasedElementsShouldBeServedFromTheCache() {
+        Set<CSARDependency> dependencies = Sets.newHashSet(new CSARDependency(ARCHIVE_NAME, "1.0"));
+        // statistics are not reset by the invalidation so they are compared with their initial values.
+        long hits = (Long) getMetric("hits");
+        long misses = (Long) getMetric("misses");
+        IndexedNodeType cached = searchService.getElementInDependencies(IndexedNodeType.class, "cache.test.Type0", dependencies);
+        assertEquals(hits, getMetric("hits"));
+        assertEquals(misses + 1, getMetric("misses"));
+
+        // the element is modified in the repository without invalidation, the cached copy is still served.
+        updateScore(cached, 42);
+        assertEquals(0, searchService.getElementInDependencies(IndexedNodeType.class, "cache.test.Type0", dependencies).getAlienScore());
+        assertEquals(hits + 1, getMetric("hits"));
+        assertEquals(misses + 1, getMetric("misses"));
+    }
+
+    @Test
+    public void snapshotElementsShouldNotBeCached() {
+        Set<CSARDependency> dependencies = Sets.newHashSet(new CSARDependency(ARCHIVE_NAME, "1.1-SNAPSHOT"));
+        IndexedNodeType element = searchService.getElementInDependencies(IndexedNodeType.class, "cache.test.Type0", dependencies);
+        updateScore(element, 42);
+        assertEquals(42, searchService.getElementInDependencies(IndexedNodeType.class, "cache.test.Type0", dependencies).getAlienScore());
+        assertEquals(0L, getMetric("size"));
+    }
+
+    @Test
+    public void invalidatedElementsShouldBeReloaded() {
+        Set<CSARDependency> dependencies = Sets.newHashSet(new CSARDependency(ARCHIVE_NAME, "1.0"));
+        IndexedNodeType type0 = searchService.getElementInDependencies(IndexedNodeType.class, "cache.test.Type0", dependencies);
+        IndexedNodeType type1 = searchService.getElementInDependencies(IndexedNodeType.class, "cache.test.Type1", dependencies);
+        updateScore(type0, 42);
+        updateScore(type1, 42);
+
+        // invalidation is case insensitive as node type ids are lower cased in the topologies index.
+        toscaElementCache.invalidate(Sets.newHashSet("CACHE.TEST.TYPE0"));
+        assertEquals(42, searchService.getElementInDependencies(IndexedNodeType.class, "cache.test.Type0", dependencies).getAlienScore());
+        assertEquals(0, searchService.getElementInDependencies(IndexedNodeType.class, "cache.test.Type1", dependencies).getAlienScore());
+
+        toscaElementCache.invalidateAll();
+        assertEquals(42, searchService.getElementInDependencies(IndexedNodeType.class, "cache.test.Type1", dependencies).getAlienScore());
+    }
+
+    @Test
+    public void scoreUpdatesShouldInvalidateTheCache() {
+        Set<CSARDependency> dependencies = Sets.newHashSet(new CSARDependency(ARCHIVE_NAME, "1.0"));
+        IndexedNodeType nodeType = searchService.getElementInDependencies(IndexedNodeType.class, "cache.test.Type0", dependencies);
+        assertEquals(0, nodeType.getAlienScore());
+
+        Topology topology = new Topology();
+        topology.setId("cache-test-score-topology");
+        topology.setNodeTemplates(Maps.<String, NodeTemplate> newHashMap());
+        NodeTemplate nodeTemplate = new NodeTemplate();
+        nodeTemplate.setName("node");
+        nodeTemplate.setType("cache.test.Type0");
+        topology.getNodeTemplates().put(nodeTemplate.getName(), nodeTemplate);
+        dao.save(topology);
+        nodeTypeScoreService.onTopologySaved(topology);
+        nodeTypeScoreService.updateChangedNodeTypes();
+
+        long score = dao.findById(IndexedNodeType.class, nodeType.getId()).getAlienScore();
+        assertNotEquals(0L, score);
+        assertEquals(score, searchService.getElementInDependencies(IndexedNodeType.class, "cache.test.Type0", dependencies).getAlienScore());
+    }
+
+    @Test
+    public void warmTopologyDTOBuildShouldOnlyHitTheCache() {
+        Topology topology = new Topology();
+        topology.setId("cache-test-topology");
+        topology.setDependencies(Sets.newHashSet(new CSARDependency(ARCHIVE_NAME, "1.0")));
+        Map<String, NodeTemplate> nodeTemplates = Maps.newHashMap();
+        for (int i = 0; i < NODE_COUNT; i++) {
+            NodeTemplate nodeTemplate = new NodeTemplate();
+            nodeTemplate.setName("node" + i);
+            nodeTemplate.setType("cache.test.Type" + (i % TYPE_COUNT));
+            nodeTemplates.put(nodeTemplate.getName(), nodeTemplate);
+        }
+        topology.setNodeTemplates(nodeTemplates);
+
+        TopologyDTO cold = topologyService.buildTopologyDTO(topology);
+        Object misses = getMetric("misses");
+        TopologyDTO warm = topologyService.buildTopologyDTO(topology);
+
+        assertEquals(TYPE_COUNT, cold.getNodeTypes().size());
+        assertEquals(cold.getNodeTypes().keySet(), warm.getNodeTypes().keySet());
+        assertEquals(misses, getMetric("misses"));
+    }
+
+    private void updateScore(IndexedNodeType nodeType, long score) {
+        nodeType.setAlienScore(score);
+        dao.save(nodeType);
+    }
+
+    private Object getMetric(String name) {
+        for (Metric<?> metric : toscaElementCache.metrics()) {
+            if (metric.getName().equals("components.cache." + name)) {
+                return metric.getValue();
+            }
+        }
+        return null;
+    }
+}
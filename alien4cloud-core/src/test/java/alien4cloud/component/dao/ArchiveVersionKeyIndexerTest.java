@@ -0,0 +1,51 @@
+package alien4cloud.component.dao;
+
+import java.util.Collections;
+import java.util.Date;
+
+import javax.annotation.Resource;
+
+import org.elasticsearch.mapping.MappingBuilder;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import alien4cloud.component.ArchiveVersionKeyIndexer;
+import alien4cloud.dao.ElasticSearchDAO;
+import alien4cloud.dao.IGenericSearchDAO;
+import alien4cloud.model.components.IndexedNodeType;
+import alien4cloud.utils.VersionUtil;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration("classpath:application-context-test.xml")
+public class ArchiveVersionKeyIndexerTest extends AbstractDAOTest {
+    @Resource(name = "alien-es-dao")
+    private IGenericSearchDAO dao;
+    @Resource
+    private ArchiveVersionKeyIndexer archiveVersionKeyIndexer;
+
+    @Test
+    public void outdatedVersionKeysShouldBeUpdated() {
+        IndexedNodeType indexedNodeType = new IndexedNodeType();
+        indexedNodeType.setElementId("mordor");
+        indexedNodeType.setArchiveName("middleEarth");
+        indexedNodeType.setArchiveVersion("1.0.alpha");
+        indexedNodeType.setCreationDate(new Date());
+        indexedNodeType.setLastUpdateDate(new Date());
+        dao.save(indexedNodeType);
+        Assert.assertEquals(0, archiveVersionKeyIndexer.updateVersionKeys());
+
+        // simulate an element indexed with a previous format of the key
+        String typeName = MappingBuilder.indexTypeFromClass(IndexedNodeType.class);
+        nodeClient.prepareUpdate(ElasticSearchDAO.TOSCA_ELEMENT_INDEX, typeName, indexedNodeType.getId())
+                .setDoc(Collections.singletonMap("archiveVersionKey", "outdated")).setRefresh(true).execute().actionGet();
+
+        Assert.assertEquals(1, archiveVersionKeyIndexer.updateVersionKeys());
+        Object versionKey = nodeClient.prepareGet(ElasticSearchDAO.TOSCA_ELEMENT_INDEX, typeName, indexedNodeType.getId()).execute().actionGet().getSource()
+                .get("archiveVersionKey");
+        Assert.assertEquals(VersionUtil.getSortableKey("1.0.alpha"), versionKey);
+        Assert.assertEquals(0, archiveVersionKeyIndexer.updateVersionKeys());
+    }
+}
@@ -0,0 +1,87 @@
+package alien4cloud.component.dao;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import javax.annotation.Resource;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import alien4cloud.dao.IGenericSearchDAO;
+import alien4cloud.dao.OptimisticUpdateUtil;
+import alien4cloud.dao.model.VersionedData;
+import alien4cloud.exception.VersionConflictException;
+import alien4cloud.model.application.Application;
+
+/**
+ * Check the version based compare and set operations of the DAO.
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration("classpath:application-context-test.xml")
+public class EsDaoOptimisticConcurrencyTest extends AbstractDAOTest {
+    private static final String APPLICATION_ID = "cas-application";
+
+    @Resource(name = "alien-es-dao")
+    private IGenericSearchDAO dao;
+
+    @Test
+    public void saveWithExpectedVersionShouldIncrementVersion() {
+        long version = dao.save(createApplication("initial"), 0);
+        VersionedData<Application> versionedData = dao.findVersionedById(Application.class, APPLICATION_ID);
+        assertEquals(version, versionedData.getVersion());
+
+        versionedData.getData().setName("updated");
+        long newVersion = dao.save(versionedData.getData(), versionedData.getVersion());
+        assertTrue(newVersion > version);
+        assertEquals("updated", dao.findById(Application.class, APPLICATION_ID).getName());
+    }
+
+    @Test(expected = VersionConflictException.class)
+    public void saveWithStaleVersionShouldFail() {
+        dao.save(createApplication("initial"), 0);
+        VersionedData<Application> first = dao.findVersionedById(Application.class, APPLICATION_ID);
+        VersionedData<Application> second = dao.findVersionedById(Application.class, APPLICATION_ID);
+        dao.save(first.getData(), first.getVersion());
+        dao.save(second.getData(), second.getVersion());
+    }
+
+    @Test(expected = VersionConflictException.class)
+    public void createExistingDocumentShouldFail() {
+        dao.save(createApplication("initial"), 0);
+        dao.save(createApplication("other"), 0);
+    }
+
+    @Test
+    public void optimisticUpdateShouldMergeConcurrentModification() {
+        dao.save(createApplication("initial"), 0);
+        final int[] calls = new int[1];
+        Application application = OptimisticUpdateUtil.update(dao, Application.class, APPLICATION_ID, new OptimisticUpdateUtil.IUpdater<Application>() {
+            @Override
+            public boolean update(Application data) {
+                if (calls[0]++ == 0) {
+                    // simulate a concurrent writer on the first attempt
+                    Application concurrent = dao.findById(Application.class, APPLICATION_ID);
+                    concurrent.setDescription("concurrent");
+                    dao.save(concurrent);
+                }
+                data.setName("updated");
+                return true;
+            }
+        });
+        assertEquals(2, calls[0]);
+        assertEquals("updated", application.getName());
+        Application stored = dao.findById(Application.class, APPLICATION_ID);
+        assertEquals("updated", stored.getName());
+        assertEquals("concurrent", stored.getDescription());
+    }
+
+    private Application createApplication(String name) {
+        Application application = new Application();
+        application.setId(APPLICATION_ID);
+        application.setName(name);
+        return application;
+    }
+}
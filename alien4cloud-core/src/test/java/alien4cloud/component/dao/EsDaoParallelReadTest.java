@@ -0,0 +1,70 @@
+package alien4cloud.component.dao;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.List;
+
+import javax.annotation.Resource;
+
+import org.elasticsearch.index.query.QueryBuilders;
+import org.elasticsearch.search.sort.SortBuilders;
+import org.elasticsearch.search.sort.SortOrder;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import alien4cloud.dao.ElasticSearchDAO;
+import alien4cloud.dao.model.GetMultipleDataResult;
+import alien4cloud.model.application.Application;
+
+/**
+ * Check that large search responses deserialized in parallel keep the order of the hits.
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration("classpath:application-context-test.xml")
+public class EsDaoParallelReadTest extends AbstractDAOTest {
+    private static final int APPLICATION_COUNT = 1000;
+
+    @Resource(name = "alien-es-dao")
+    private ElasticSearchDAO dao;
+
+    @After
+    public void resetThreshold() {
+        dao.setParallelReadThreshold(500);
+    }
+
+    @Test
+    public void parallelReadShouldKeepHitsOrder() {
+        Application[] applications = new Application[APPLICATION_COUNT];
+        for (int i = 0; i < APPLICATION_COUNT; i++) {
+            applications[i] = new Application();
+            applications[i].setId(String.format("application-%04d", i));
+            applications[i].setName(String.format("application %04d", i));
+        }
+        dao.save(applications);
+
+        dao.setParallelReadThreshold(0);
+        List<Application> sequential = findAll();
+
+        dao.setParallelReadThreshold(10);
+        List<Application> parallel = findAll();
+
+        assertEquals(APPLICATION_COUNT, sequential.size());
+        assertEquals(APPLICATION_COUNT, parallel.size());
+        for (int i = 0; i < APPLICATION_COUNT; i++) {
+            assertEquals(applications[i].getId(), sequential.get(i).getId());
+            assertEquals(applications[i].getId(), parallel.get(i).getId());
+            assertEquals(applications[i].getName(), parallel.get(i).getName());
+        }
+
+        GetMultipleDataResult<Application> result = dao.find(Application.class, null, APPLICATION_COUNT);
+        assertEquals(APPLICATION_COUNT, result.getData().length);
+        assertEquals(APPLICATION_COUNT, result.getTypes().length);
+    }
+
+    private List<Application> findAll() {
+        return dao.customFindAll(Application.class, QueryBuilders.matchAllQuery(), SortBuilders.fieldSort("name").order(SortOrder.ASC));
+    }
+}
@@ -0,0 +1,122 @@
+package alien4cloud.component.dao;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Set;
+
+import javax.annotation.Resource;
+
+import org.elasticsearch.index.query.QueryBuilders;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import alien4cloud.dao.ElasticSearchDAO;
+import alien4cloud.dao.RefreshPolicy;
+import alien4cloud.model.application.Application;
+
+/**
+ * Check the behavior of the DAO refresh policies.
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration("classpath:application-context-test.xml")
+public class EsDaoRefreshPolicyTest extends AbstractDAOTest {
+    private static final int WRITE_COUNT = 20;
+
+    @Resource(name = "alien-es-dao")
+    private ElasticSearchDAO dao;
+
+    @After
+    public void resetPolicy() {
+        dao.setRefreshPolicy(RefreshPolicy.IMMEDIATE);
+    }
+
+    @Test
+    public void immediatePolicyShouldMakeWritesSearchable() {
+        dao.setRefreshPolicy(RefreshPolicy.IMMEDIATE);
+        saveApplications("immediate");
+        assertTrue(getDirtyIndices().isEmpty());
+        assertEquals(WRITE_COUNT, dao.count(Application.class, null));
+    }
+
+    @Test
+    public void coalescedPolicyShouldRefreshBeforeSearch() {
+        dao.setRefreshPolicy(RefreshPolicy.COALESCED);
+        saveApplications("coalesced");
+        assertTrue(getDirtyIndices().contains(applicationIndex()));
+        assertEquals(WRITE_COUNT, dao.count(Application.class, null));
+        assertTrue(getDirtyIndices().isEmpty());
+    }
+
+    @Test
+    public void intervalPolicyShouldMakeWritesSearchableAfterExplicitRefresh() {
+        dao.setRefreshPolicy(RefreshPolicy.INTERVAL);
+        saveApplications("interval");
+        assertTrue(getDirtyIndices().isEmpty());
+        dao.refresh(Application.class);
+        assertEquals(WRITE_COUNT, dao.count(Application.class, null));
+    }
+
+    @Test
+    public void immediatePolicyShouldRefreshAfterDeleteByQuery() {
+        dao.setRefreshPolicy(RefreshPolicy.IMMEDIATE);
+        saveApplications("immediate");
+        dao.delete(Application.class, QueryBuilders.matchAllQuery());
+        assertEquals(0, dao.count(Application.class, null));
+    }
+
+    @Test
+    public void coalescedPolicyShouldMarkIndexDirtyOnDeleteByQuery() {
+        dao.setRefreshPolicy(RefreshPolicy.COALESCED);
+        saveApplications("coalesced");
+        dao.refreshPendingWrites(Application.class);
+        assertTrue(getDirtyIndices().isEmpty());
+
+        dao.delete(Application.class, QueryBuilders.matchAllQuery());
+        assertTrue(getDirtyIndices().contains(applicationIndex()));
+        assertEquals(0, dao.count(Application.class, null));
+    }
+
+    @Test
+    public void coalescedWritesShouldBeVisibleToDirectClientSearches() {
+        dao.setRefreshPolicy(RefreshPolicy.COALESCED);
+        saveApplications("coalesced");
+        dao.refreshPendingWrites(Application.class);
+        assertTrue(getDirtyIndices().isEmpty());
+        assertEquals(WRITE_COUNT, nodeClient.prepareCount(applicationIndex()).setQuery(QueryBuilders.matchAllQuery()).execute().actionGet().getCount());
+    }
+
+    @Test
+    public void findByIdShouldReadOwnWritesWithoutRefresh() {
+        dao.setRefreshPolicy(RefreshPolicy.INTERVAL);
+        Application application = createApplication("realtime", 0);
+        dao.save(application);
+        assertEquals(application.getName(), dao.findById(Application.class, application.getId()).getName());
+    }
+
+    @SuppressWarnings("unchecked")
+    private Set<String> getDirtyIndices() {
+        return (Set<String>) ReflectionTestUtils.getField(dao, "dirtyIndices");
+    }
+
+    private String applicationIndex() {
+        return dao.getIndexForType(Application.class);
+    }
+
+    private void saveApplications(String prefix) {
+        for (int i = 0; i < WRITE_COUNT; i++) {
+            dao.save(createApplication(prefix, i));
+        }
+    }
+
+    private Application createApplication(String prefix, int index) {
+        Application application = new Application();
+        application.setId(prefix + "-" + index);
+        application.setName(prefix + " application " + index);
+        return application;
+    }
+}
@@ -0,0 +1,111 @@
+package alien4cloud.component.dao;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.Resource;
+
+import org.elasticsearch.index.query.QueryBuilders;
+import org.elasticsearch.search.sort.SortBuilders;
+import org.elasticsearch.search.sort.SortOrder;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import alien4cloud.dao.CloseableIterable;
+import alien4cloud.dao.ElasticSearchDAO;
+import alien4cloud.model.application.Application;
+import alien4cloud.utils.MapUtil;
+
+import com.google.common.collect.Lists;
+
+/**
+ * Check that streamed results are fetched in several scroll batches without losing or duplicating any element.
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration("classpath:application-context-test.xml")
+public class EsDaoStreamTest extends AbstractDAOTest {
+    private static final int APPLICATION_COUNT = 250;
+
+    @Resource(name = "alien-es-dao")
+    private ElasticSearchDAO dao;
+
+    @After
+    public void resetBatchSize() {
+        dao.setScrollBatchSize(100);
+    }
+
+    @Test
+    public void streamShouldReturnAllElementsInBatches() {
+        saveApplications();
+        dao.setScrollBatchSize(20);
+
+        List<Application> all = Lists.newArrayList(dao.stream(Application.class, null));
+        assertEquals(APPLICATION_COUNT, all.size());
+
+        Map<String, String[]> filters = MapUtil.newHashMap(new String[] { "name" }, new String[][] { new String[] { "application 0042" } });
+        List<Application> filtered = Lists.newArrayList(dao.stream(Application.class, filters));
+        assertEquals(1, filtered.size());
+        assertEquals("application-0042", filtered.get(0).getId());
+
+        List<Application> sorted = Lists.newArrayList(dao.stream(Application.class, QueryBuilders.matchAllQuery(),
+                SortBuilders.fieldSort("name").order(SortOrder.DESC)));
+        assertEquals(APPLICATION_COUNT, sorted.size());
+        for (int i = 0; i < APPLICATION_COUNT; i++) {
+            assertEquals(String.format("application %04d", APPLICATION_COUNT - 1 - i), sorted.get(i).getName());
+        }
+    }
+
+    @Test
+    public void emptyStreamShouldHaveNoElement() {
+        Iterator<Application> iterator = dao.stream(Application.class, null).iterator();
+        assertFalse(iterator.hasNext());
+        assertFalse(iterator.hasNext());
+        assertNull(dao.customFindAll(Application.class, QueryBuilders.matchAllQuery()));
+    }
+
+    @Test
+    public void closingStreamShouldReleaseAbandonedScroll() {
+        saveApplications();
+        dao.setScrollBatchSize(20);
+
+        String scrollId;
+        Iterator<Application> iterator;
+        try (CloseableIterable<Application> applications = dao.stream(Application.class, null)) {
+            iterator = applications.iterator();
+            assertTrue(iterator.hasNext());
+            iterator.next();
+            scrollId = (String) ReflectionTestUtils.getField(iterator, "scrollId");
+            assertNotNull(scrollId);
+        }
+        assertNull(ReflectionTestUtils.getField(iterator, "scrollId"));
+        assertFalse(iterator.hasNext());
+        try {
+            nodeClient.prepareSearchScroll(scrollId).execute().actionGet();
+            fail("The scroll of the abandoned iterator should have been cleared.");
+        } catch (Exception e) {
+            // expected, the scroll context doesn't exist anymore.
+        }
+    }
+
+    private void saveApplications() {
+        Application[] applications = new Application[APPLICATION_COUNT];
+        for (int i = 0; i < APPLICATION_COUNT; i++) {
+            applications[i] = new Application();
+            applications[i].setId(String.format("application-%04d", i));
+            applications[i].setName(String.format("application %04d", i));
+        }
+        dao.save(applications);
+    }
+}
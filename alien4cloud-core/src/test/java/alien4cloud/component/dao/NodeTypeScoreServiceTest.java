@@ -18,6 +18,8 @@ import alien4cloud.dao.model.GetMultipleDataResult;
 import alien4cloud.model.components.IndexedNodeType;
 import alien4cloud.model.topology.NodeTemplate;
 import alien4cloud.model.topology.Topology;
+import alien4cloud.topology.TopologyEditionSessionService;
+import alien4cloud.topology.TopologyServiceCore;
 import alien4cloud.utils.MapUtil;
 
 @RunWith(SpringJUnit4ClassRunner.class)
@@ -28,6 +30,10 @@ public class NodeTypeScoreServiceTest {
 
     @Resource
     NodeTypeScoreService scoreService;
+    @Resource
+    private TopologyServiceCore topologyServiceCore;
+    @Resource
+    private TopologyEditionSessionService topologyEditionSessionService;
 
     @Test
     public void testScoreService() throws InterruptedException {
@@ -87,6 +93,28 @@ public class NodeTypeScoreServiceTest {
         Assert.assertEquals(1000, ((IndexedNodeType) data.getData()[2]).getAlienScore());
         Assert.assertEquals(mordor100Id, ((IndexedNodeType) data.getData()[3]).getId());
         Assert.assertEquals(10, ((IndexedNodeType) data.getData()[3]).getAlienScore());
+
+        // only the node types used by the saved topology are updated
+        Topology osgiliathTopology = new Topology();
+        osgiliathTopology.setId("osgiliathTopology");
+        osgiliathTopology.setNodeTemplates(MapUtil.newHashMap(new String[] { "osgiliath" }, new NodeTemplate[] { new NodeTemplate("osgiliath", null, null,
+                null, null, null, null, null) }));
+        dao.save(osgiliathTopology);
+        scoreService.onTopologySaved(osgiliathTopology);
+        scoreService.updateChangedNodeTypes();
+        Assert.assertEquals(1001, dao.findById(IndexedNodeType.class, osgiliath100Id).getAlienScore());
+        Assert.assertEquals(1011, dao.findById(IndexedNodeType.class, isengard100Id).getAlienScore());
+
+        // node types of a topology being edited are scored once the edition session is flushed
+        topologyServiceCore.saveEdition(osgiliathTopology);
+        Topology editedTopology = topologyServiceCore.getOrFail(osgiliathTopology.getId());
+        editedTopology.getNodeTemplates().put("mordor", new NodeTemplate("mordor", null, null, null, null, null, null, null));
+        topologyServiceCore.saveEdition(editedTopology);
+        scoreService.updateChangedNodeTypes();
+        Assert.assertEquals(1010, dao.findById(IndexedNodeType.class, mordor101Id).getAlienScore());
+        topologyEditionSessionService.close(osgiliathTopology.getId());
+        scoreService.updateChangedNodeTypes();
+        Assert.assertEquals(1011, dao.findById(IndexedNodeType.class, mordor101Id).getAlienScore());
     }
 
 }
@@ -4,6 +4,8 @@ import alien4cloud.component.repository.exception.CSARStorageFailureException;
 import alien4cloud.component.repository.exception.CSARVersionAlreadyExistsException;
 import alien4cloud.component.repository.exception.CSARVersionNotFoundException;
 import alien4cloud.utils.FileUtil;
+import com.google.common.base.Charsets;
+import com.google.common.collect.Lists;
 import lombok.extern.slf4j.Slf4j;
 import org.junit.After;
 import org.junit.Test;
@@ -14,9 +16,16 @@ import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 
 import javax.annotation.Resource;
 import java.io.IOException;
+import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static org.junit.Assert.*;
 
@@ -96,6 +105,136 @@ public class CsarRepositoryTest {
         return Files.exists(path);
     }
 
+    @Test
+    public void lazyExpansionShouldExpandOnAccessAndEvictLeastRecentlyUsed() throws CSARVersionAlreadyExistsException, CSARVersionNotFoundException {
+        cleanup();
+        CsarFileRepository lazyRepo = new CsarFileRepository(Paths.get(alienRepoDir));
+        lazyRepo.setLazyExpansion(true);
+        // no budget, only the last accessed archive is kept expanded
+        lazyRepo.setExpandedDiskBudgetMb(0);
+        Path archivePath = Paths.get(tmpPath).toAbsolutePath();
+        lazyRepo.storeCSAR(testFileName, "1.0", archivePath);
+        lazyRepo.storeCSAR(testFileName, "2.0", archivePath);
+
+        Path firstDir = Paths.get(alienRepoDir).resolve(testFileName).resolve("1.0");
+        assertFalse(fileExists(firstDir.resolve("expanded"), true));
+        assertTrue(fileExists(lazyRepo.getCSARContent(testFileName, "1.0"), false));
+        assertFalse(fileExists(firstDir.resolve("expanded"), true));
+
+        assertEquals(firstDir.resolve("expanded"), lazyRepo.getExpandedCSAR(testFileName, "1.0"));
+        assertTrue(fileExists(firstDir.resolve("expanded"), true));
+        Path secondExpanded = lazyRepo.getExpandedCSAR(testFileName, "2.0");
+        assertTrue(fileExists(secondExpanded, true));
+        assertFalse(fileExists(firstDir.resolve("expanded"), true));
+    }
+
+    @Test
+    public void pinnedExpandedArchiveShouldNotBeEvicted() throws CSARVersionAlreadyExistsException, CSARVersionNotFoundException {
+        cleanup();
+        CsarFileRepository lazyRepo = newLazyRepository(0);
+        Path archivePath = Paths.get(tmpPath).toAbsolutePath();
+        lazyRepo.storeCSAR(testFileName, "1.0", archivePath);
+        lazyRepo.storeCSAR(testFileName, "2.0", archivePath);
+
+        Path firstExpanded = lazyRepo.pinExpandedCSAR(testFileName, "1.0");
+        lazyRepo.getExpandedCSAR(testFileName, "2.0");
+        // the first archive is served and exceeds the budget but must be kept until released.
+        assertTrue(fileExists(firstExpanded, true));
+        lazyRepo.unpinExpandedCSAR(testFileName, "1.0");
+        assertFalse(fileExists(firstExpanded, true));
+    }
+
+    @Test
+    public void expandedArchivesShouldBeReloadedFromDisk() throws CSARVersionAlreadyExistsException, CSARVersionNotFoundException, IOException {
+        cleanup();
+        CsarFileRepository lazyRepo = newLazyRepository(1024);
+        Path archivePath = Paths.get(tmpPath).toAbsolutePath();
+        lazyRepo.storeCSAR(testFileName, "1.0", archivePath);
+        lazyRepo.storeCSAR(testFileName, "2.0", archivePath);
+        lazyRepo.storeCSAR(testFileName, "3.0", archivePath);
+        Path firstExpanded = lazyRepo.getExpandedCSAR(testFileName, "1.0");
+        Path secondExpanded = lazyRepo.getExpandedCSAR(testFileName, "2.0");
+        // the first archive has been accessed after the second one.
+        Files.setLastModifiedTime(firstExpanded.resolveSibling("expanded.lazy"), FileTime.fromMillis(System.currentTimeMillis() + 60000));
+        // an expansion has been interrupted
+        Path interruptedExpansion = Files.createDirectory(firstExpanded.resolveSibling("expanded1234"));
+
+        CsarFileRepository restartedRepo = newLazyRepository(1024);
+        assertFalse(fileExists(interruptedExpansion, true));
+        assertEquals(Lists.newArrayList(secondExpanded, firstExpanded), Lists.newArrayList(restartedRepo.getExpandedArchives().keySet()));
+        assertEquals(FileUtil.size(firstExpanded) + FileUtil.size(secondExpanded), restartedRepo.getExpandedArchivesSize());
+
+        // reloaded archives are evicted like the ones expanded by the current instance.
+        restartedRepo.setExpandedDiskBudgetMb(0);
+        Path thirdExpanded = restartedRepo.getExpandedCSAR(testFileName, "3.0");
+        assertTrue(fileExists(thirdExpanded, true));
+        assertFalse(fileExists(firstExpanded, true));
+        assertFalse(fileExists(secondExpanded, true));
+        assertFalse(fileExists(firstExpanded.resolveSibling("expanded.lazy"), false));
+    }
+
+    @Test
+    public void failedExpansionShouldNotLeaveTemporaryDirectory() throws CSARVersionAlreadyExistsException, IOException {
+        cleanup();
+        CsarFileRepository lazyRepo = newLazyRepository(1024);
+        lazyRepo.storeCSAR(testFileName, "1.0", Paths.get(tmpPath).toAbsolutePath());
+        Path csarDir = Paths.get(alienRepoDir).resolve(testFileName).resolve("1.0");
+        Files.write(csarDir.resolve(testFileName + "-1.0." + ARCHIVE_EXTENSION), "not a zip".getBytes(Charsets.UTF_8));
+
+        try {
+            lazyRepo.getExpandedCSAR(testFileName, "1.0");
+            fail("A corrupted archive should not be expanded");
+        } catch (Exception e) {
+            log.debug("Expected expansion failure", e);
+        }
+        try (DirectoryStream<Path> expandedDirectories = Files.newDirectoryStream(csarDir, "expanded*")) {
+            assertFalse(expandedDirectories.iterator().hasNext());
+        }
+    }
+
+    @Test
+    public void concurrentAccessesShouldExpandArchiveOnce() throws Exception {
+        cleanup();
+        final CsarFileRepository lazyRepo = newLazyRepository(1024);
+        lazyRepo.storeCSAR(testFileName, "1.0", Paths.get(tmpPath).toAbsolutePath());
+        Path csarDir = Paths.get(alienRepoDir).resolve(testFileName).resolve("1.0");
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Path>> expansions = Lists.newArrayList();
+            for (int i = 0; i < 4; i++) {
+                expansions.add(executor.submit(new Callable<Path>() {
+                    @Override
+                    public Path call() throws Exception {
+                        return lazyRepo.getExpandedCSAR(testFileName, "1.0");
+                    }
+                }));
+            }
+            for (Future<Path> expansion : expansions) {
+                assertEquals(csarDir.resolve("expanded"), expansion.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, lazyRepo.getExpandedArchives().size());
+        assertEquals(FileUtil.size(csarDir.resolve("expanded")), lazyRepo.getExpandedArchivesSize());
+        assertTrue(lazyRepo.getExpansions().isEmpty());
+        // no temporary expansion directory is left, only the lazy expansion marker.
+        try (DirectoryStream<Path> expandedFiles = Files.newDirectoryStream(csarDir, "expanded?*")) {
+            for (Path expandedFile : expandedFiles) {
+                assertFalse(Files.isDirectory(expandedFile));
+            }
+        }
+    }
+
+    private CsarFileRepository newLazyRepository(long budgetMb) {
+        CsarFileRepository lazyRepo = new CsarFileRepository(Paths.get(alienRepoDir));
+        lazyRepo.setLazyExpansion(true);
+        lazyRepo.setExpandedDiskBudgetMb(budgetMb);
+        lazyRepo.loadExpandedArchives();
+        return lazyRepo;
+    }
+
     @After
     public void cleanup() {
         if (fileExists(Paths.get(alienRepoDir), true)) {
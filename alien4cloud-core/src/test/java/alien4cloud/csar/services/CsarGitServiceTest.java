@@ -0,0 +1,181 @@
+package alien4cloud.csar.services;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import alien4cloud.exception.GitException;
+import alien4cloud.model.components.CSARDependency;
+import alien4cloud.model.components.Csar;
+import alien4cloud.model.git.CsarDependenciesBean;
+import alien4cloud.model.git.CsarGitCheckoutLocation;
+import alien4cloud.model.git.CsarGitRepository;
+import alien4cloud.tosca.ArchiveParser;
+import alien4cloud.tosca.ArchiveUploadService;
+import alien4cloud.tosca.model.ArchiveRoot;
+import alien4cloud.tosca.parser.ParsingError;
+import alien4cloud.tosca.parser.ParsingException;
+import alien4cloud.tosca.parser.ParsingResult;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+
+/**
+ * Check that archives parsed concurrently are indexed in dependency order and that parsing errors are reported to the caller.
+ */
+@SuppressWarnings("unchecked")
+public class CsarGitServiceTest {
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private ArchiveParser archiveParser;
+    private ArchiveUploadService uploadService;
+    private CsarGitService csarGitService;
+    /** Parsing and indexing operations in the order they happened. */
+    private List<String> events;
+    /** Delay of the parsing of each archive. */
+    private Map<String, Long> parsingDelays;
+
+    @Before
+    public void before() throws Exception {
+        events = new CopyOnWriteArrayList<>();
+        parsingDelays = Maps.newHashMap();
+        archiveParser = Mockito.mock(ArchiveParser.class);
+        uploadService = Mockito.mock(ArchiveUploadService.class);
+        CsarFinderService csarFinderService = Mockito.mock(CsarFinderService.class);
+        Mockito.when(csarFinderService.prepare(Mockito.any(Path.class), Mockito.any(Path.class))).thenReturn(Sets.<Path> newHashSet());
+
+        Mockito.when(archiveParser.parse(Mockito.any(Path.class))).thenAnswer(new Answer<ParsingResult<ArchiveRoot>>() {
+            @Override
+            public ParsingResult<ArchiveRoot> answer(InvocationOnMock invocation) throws Throwable {
+                String name = invocation.getArguments()[0].toString();
+                Long delay = parsingDelays.get(name);
+                if (delay != null) {
+                    Thread.sleep(delay);
+                }
+                events.add("parse:" + name);
+                return new ParsingResult<ArchiveRoot>(new ArchiveRoot(), null);
+            }
+        });
+        Mockito.when(uploadService.upload(Mockito.any(Path.class), Mockito.anyString(), Mockito.any(ParsingResult.class))).thenAnswer(
+                new Answer<ParsingResult<Csar>>() {
+                    @Override
+                    public ParsingResult<Csar> answer(InvocationOnMock invocation) throws Throwable {
+                        String name = invocation.getArguments()[0].toString();
+                        events.add("upload:" + name);
+                        return new ParsingResult<Csar>(new Csar(name, "1.0"), null);
+                    }
+                });
+        Mockito.when(uploadService.digest(Mockito.any(Path.class))).thenReturn("hash");
+
+        csarGitService = new CsarGitService();
+        ReflectionTestUtils.setField(csarGitService, "archiveParser", archiveParser);
+        ReflectionTestUtils.setField(csarGitService, "uploadService", uploadService);
+        ReflectionTestUtils.setField(csarGitService, "csarFinderService", csarFinderService);
+        ReflectionTestUtils.setField(csarGitService, "parsingThreads", 4);
+        csarGitService.setTempDirPath(temporaryFolder.getRoot().getAbsolutePath());
+        csarGitService.init();
+    }
+
+    @After
+    public void after() {
+        csarGitService.destroy();
+    }
+
+    @Test
+    public void archivesShouldBeIndexedInDependencyOrder() throws Exception {
+        parsingDelays.put("a", 200L);
+        parsingDelays.put("c", 100L);
+        preParsing(archive("a"), archive("b"), archive("c"), archive("d", "a"));
+
+        List<ParsingResult<Csar>> results = processImport();
+
+        List<String> names = Lists.newArrayList();
+        for (ParsingResult<Csar> result : results) {
+            names.add(result.getResult().getName());
+        }
+        assertEquals(Lists.newArrayList("a", "b", "c", "d"), names);
+        assertEquals(Lists.newArrayList("upload:a", "upload:b", "upload:c", "upload:d"), uploads());
+        // the dependent archive is parsed once its dependency is indexed.
+        assertTrue(events.indexOf("upload:a") < events.indexOf("parse:d"));
+    }
+
+    @Test
+    public void parsingExceptionShouldStopTheImport() throws Exception {
+        Mockito.doThrow(new ParsingException("b", new ParsingError())).when(archiveParser).parse(Paths.get("b"));
+        preParsing(archive("a"), archive("b"), archive("c"), archive("d", "a"));
+
+        try {
+            processImport();
+            fail("The parsing exception should be reported to the caller.");
+        } catch (GitException e) {
+            assertTrue(e.getCause() instanceof ParsingException);
+        }
+        // archives that precede the failing one are indexed, the next ones and the next levels are not.
+        assertEquals(Lists.newArrayList("upload:a"), uploads());
+        Mockito.verify(archiveParser, Mockito.never()).parse(Paths.get("d"));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void runtimeExceptionShouldBeRethrownAsIs() throws Exception {
+        Mockito.doThrow(new IllegalStateException("parser failure")).when(archiveParser).parse(Paths.get("a"));
+        preParsing(archive("a"), archive("b"));
+        processImport();
+    }
+
+    private List<ParsingResult<Csar>> processImport() {
+        CsarGitRepository repository = new CsarGitRepository();
+        repository.setId("repository");
+        return csarGitService.processImport(repository, new CsarGitCheckoutLocation(), "commit");
+    }
+
+    private void preParsing(CsarDependenciesBean... archives) throws ParsingException {
+        Map<CSARDependency, CsarDependenciesBean> beans = Maps.newLinkedHashMap();
+        for (CsarDependenciesBean archive : archives) {
+            beans.put(archive.getSelf(), archive);
+        }
+        Mockito.when(uploadService.preParsing(Mockito.any(Set.class))).thenReturn(beans);
+    }
+
+    private CsarDependenciesBean archive(String name, String... dependencies) {
+        CsarDependenciesBean bean = new CsarDependenciesBean();
+        bean.setPath(Paths.get(name));
+        bean.setSelf(new CSARDependency(name, "1.0"));
+        if (dependencies.length > 0) {
+            Set<CSARDependency> dependencySet = Sets.newHashSet();
+            for (String dependency : dependencies) {
+                dependencySet.add(new CSARDependency(dependency, "1.0"));
+            }
+            bean.setDependencies(dependencySet);
+        }
+        return bean;
+    }
+
+    private List<String> uploads() {
+        List<String> uploads = Lists.newArrayList();
+        for (String event : events) {
+            if (event.startsWith("upload:")) {
+                uploads.add(event);
+            }
+        }
+        return uploads;
+    }
+}
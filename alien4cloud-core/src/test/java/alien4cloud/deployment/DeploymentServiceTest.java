@@ -0,0 +1,101 @@
+package alien4cloud.deployment;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Date;
+import java.util.Map;
+
+import javax.annotation.Resource;
+
+import org.elasticsearch.index.query.QueryBuilders;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import alien4cloud.component.dao.AbstractDAOTest;
+import alien4cloud.dao.IGenericSearchDAO;
+import alien4cloud.model.deployment.Deployment;
+import alien4cloud.model.deployment.DeploymentTopology;
+import alien4cloud.model.orchestrators.locations.Location;
+import alien4cloud.model.topology.AbstractPolicy;
+import alien4cloud.model.topology.LocationPlacementPolicy;
+import alien4cloud.model.topology.NodeGroup;
+import alien4cloud.paas.model.PaaSTopologyDeploymentContext;
+
+import com.google.common.collect.Lists;
+
+/**
+ * Check the rebuild of the deployment contexts of an orchestrator at startup.
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration("classpath:application-context-test.xml")
+public class DeploymentServiceTest extends AbstractDAOTest {
+    private static final String ORCHESTRATOR_ID = "recovery-orchestrator";
+    private static final String LOCATION_ID = "recovery-location";
+    private static final int DEPLOYMENT_COUNT = 200;
+
+    @Resource(name = "alien-es-dao")
+    private IGenericSearchDAO alienDao;
+    @Resource(name = "alien-monitor-es-dao")
+    private IGenericSearchDAO alienMonitorDao;
+    @Resource
+    private DeploymentService deploymentService;
+
+    @After
+    public void cleanDeployments() {
+        alienDao.delete(Deployment.class, QueryBuilders.matchAllQuery());
+        alienDao.delete(Location.class, QueryBuilders.matchAllQuery());
+        alienMonitorDao.delete(DeploymentTopology.class, QueryBuilders.matchAllQuery());
+    }
+
+    @Test
+    public void allActiveDeploymentContextsShouldBeRebuilt() {
+        Location location = new Location();
+        location.setId(LOCATION_ID);
+        location.setName(LOCATION_ID);
+        location.setOrchestratorId(ORCHESTRATOR_ID);
+        alienDao.save(location);
+        for (int i = 0; i < DEPLOYMENT_COUNT; i++) {
+            createDeployment("deployment-" + i, null);
+        }
+        // undeployed deployments must not be recovered
+        createDeployment("undeployed", new Date());
+
+        Map<String, PaaSTopologyDeploymentContext> contexts = deploymentService.getCloudActiveDeploymentContexts(ORCHESTRATOR_ID);
+
+        assertEquals(DEPLOYMENT_COUNT, contexts.size());
+        PaaSTopologyDeploymentContext context = contexts.get("orchestrator-deployment-0");
+        assertNotNull(context);
+        assertEquals("deployment-0", context.getDeployment().getId());
+        assertEquals(LOCATION_ID, context.getLocations().get("group").getId());
+        assertNull(contexts.get("orchestrator-undeployed"));
+
+        // the executor is shared and must still be usable for the next orchestrator.
+        assertEquals(DEPLOYMENT_COUNT, deploymentService.getCloudActiveDeploymentContexts(ORCHESTRATOR_ID).size());
+        assertTrue(deploymentService.getCloudActiveDeploymentContexts("another-orchestrator").isEmpty());
+    }
+
+    private void createDeployment(String id, Date endDate) {
+        Deployment deployment = new Deployment();
+        deployment.setId(id);
+        deployment.setOrchestratorId(ORCHESTRATOR_ID);
+        deployment.setOrchestratorDeploymentId("orchestrator-" + id);
+        deployment.setLocationIds(new String[] { LOCATION_ID });
+        deployment.setStartDate(new Date());
+        deployment.setEndDate(endDate);
+        alienDao.save(deployment);
+
+        NodeGroup locationGroup = new NodeGroup();
+        locationGroup.setName("group");
+        locationGroup.setPolicies(Lists.<AbstractPolicy> newArrayList(new LocationPlacementPolicy(LOCATION_ID)));
+        DeploymentTopology topology = new DeploymentTopology();
+        topology.setId(id);
+        topology.getLocationGroups().put(locationGroup.getName(), locationGroup);
+        alienMonitorDao.save(topology);
+    }
+}
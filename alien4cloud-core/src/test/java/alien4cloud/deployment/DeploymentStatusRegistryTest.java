@@ -0,0 +1,114 @@
+package alien4cloud.deployment;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import alien4cloud.model.deployment.Deployment;
+import alien4cloud.paas.IPaaSCallback;
+import alien4cloud.paas.IPaasEventService;
+import alien4cloud.paas.model.DeploymentStatus;
+import alien4cloud.paas.model.PaaSDeploymentStatusMonitorEvent;
+
+/**
+ * Check ordering, tombstones and eviction of the deployment statuses registry.
+ */
+@SuppressWarnings("unchecked")
+public class DeploymentStatusRegistryTest {
+    private static final long EVICTION_MS = 60000;
+
+    private DeploymentRuntimeStateService deploymentRuntimeStateService;
+    private DeploymentStatusRegistry registry;
+    private Deployment deployment;
+
+    @Before
+    public void before() {
+        deploymentRuntimeStateService = Mockito.mock(DeploymentRuntimeStateService.class);
+        registry = new DeploymentStatusRegistry();
+        ReflectionTestUtils.setField(registry, "paasEventService", Mockito.mock(IPaasEventService.class));
+        ReflectionTestUtils.setField(registry, "deploymentRuntimeStateService", deploymentRuntimeStateService);
+        ReflectionTestUtils.setField(registry, "maxStalenessMs", EVICTION_MS);
+        ReflectionTestUtils.setField(registry, "refreshThreads", 1);
+        ReflectionTestUtils.setField(registry, "evictionMs", EVICTION_MS);
+        registry.afterPropertiesSet();
+
+        deployment = new Deployment();
+        deployment.setId("deployment");
+        deployment.setOrchestratorId("orchestrator");
+    }
+
+    @After
+    public void after() {
+        registry.destroy();
+    }
+
+    @Test
+    public void olderStatusesShouldBeIgnored() {
+        long now = System.currentTimeMillis();
+        registry.update(deployment.getId(), DeploymentStatus.DEPLOYED, now);
+        registry.update(deployment.getId(), DeploymentStatus.DEPLOYMENT_IN_PROGRESS, now - 1000);
+        assertEquals(DeploymentStatus.DEPLOYED, registry.get(deployment));
+        registry.update(deployment.getId(), DeploymentStatus.FAILURE, now + 1000);
+        assertEquals(DeploymentStatus.FAILURE, registry.get(deployment));
+    }
+
+    @Test
+    public void eventsShouldBeDatedWithTheLocalClock() {
+        registry.update(deployment.getId(), DeploymentStatus.DEPLOYMENT_IN_PROGRESS, System.currentTimeMillis());
+        // the orchestrator clock is late, the event must still be applied as it is received after the current status.
+        registry.eventHappened(statusEvent(DeploymentStatus.DEPLOYED, System.currentTimeMillis() - 3600000));
+        assertEquals(DeploymentStatus.DEPLOYED, registry.get(deployment));
+    }
+
+    @Test
+    public void undeployedDeploymentShouldNotBeBroughtBackByLateStatuses() {
+        long now = System.currentTimeMillis();
+        registry.update(deployment.getId(), DeploymentStatus.DEPLOYED, now);
+        registry.update(deployment.getId(), DeploymentStatus.UNDEPLOYED, now + 1000);
+        registry.update(deployment.getId(), DeploymentStatus.DEPLOYED, now + 2000);
+        registry.eventHappened(statusEvent(DeploymentStatus.UNDEPLOYMENT_IN_PROGRESS, now));
+        assertEquals(DeploymentStatus.UNDEPLOYED, registry.get(deployment));
+    }
+
+    @Test
+    public void oldStatusesAndTombstonesShouldBeEvicted() {
+        long now = System.currentTimeMillis();
+        Deployment undeployed = new Deployment();
+        undeployed.setId("undeployed");
+        registry.update(deployment.getId(), DeploymentStatus.DEPLOYED, now);
+        registry.update(undeployed.getId(), DeploymentStatus.UNDEPLOYED, now + 1000);
+
+        registry.evict(now + EVICTION_MS);
+        assertEquals(DeploymentStatus.DEPLOYED, registry.get(deployment));
+        assertEquals(DeploymentStatus.UNDEPLOYED, registry.get(undeployed));
+
+        registry.evict(now + EVICTION_MS + 1);
+        assertNull(registry.get(deployment));
+        assertEquals(DeploymentStatus.UNDEPLOYED, registry.get(undeployed));
+
+        registry.evict(now + EVICTION_MS + 1001);
+        assertNull(registry.get(undeployed));
+    }
+
+    @Test
+    public void staleStatusShouldBeRefreshedOnce() {
+        registry.update(deployment.getId(), DeploymentStatus.DEPLOYED, System.currentTimeMillis() - EVICTION_MS - 1);
+        assertEquals(DeploymentStatus.DEPLOYED, registry.get(deployment));
+        assertEquals(DeploymentStatus.DEPLOYED, registry.get(deployment));
+        Mockito.verify(deploymentRuntimeStateService, Mockito.timeout(5000).times(1)).getDeploymentStatus(Mockito.eq(deployment),
+                Mockito.any(IPaaSCallback.class));
+    }
+
+    private PaaSDeploymentStatusMonitorEvent statusEvent(DeploymentStatus status, long date) {
+        PaaSDeploymentStatusMonitorEvent event = new PaaSDeploymentStatusMonitorEvent();
+        event.setDeploymentId(deployment.getId());
+        event.setDeploymentStatus(status);
+        event.setDate(date);
+        return event;
+    }
+}
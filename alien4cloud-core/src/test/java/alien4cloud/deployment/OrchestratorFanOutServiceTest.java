@@ -0,0 +1,140 @@
+package alien4cloud.deployment;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import alien4cloud.model.deployment.Deployment;
+import alien4cloud.paas.IPaaSCallback;
+import alien4cloud.paas.model.DeploymentStatus;
+
+import com.google.common.collect.Lists;
+
+/**
+ * Check deadlines and per orchestrator limits of the orchestrators fan-out.
+ */
+@SuppressWarnings("unchecked")
+public class OrchestratorFanOutServiceTest {
+    private static final long TIMEOUT_MS = 200;
+
+    private DeploymentRuntimeStateService deploymentRuntimeStateService;
+    private OrchestratorFanOutService fanOutService;
+    /** Callbacks of the queries the fake orchestrators didn't answer. */
+    private List<IPaaSCallback<DeploymentStatus>> pendingCallbacks;
+
+    @Before
+    public void before() {
+        pendingCallbacks = new CopyOnWriteArrayList<>();
+        deploymentRuntimeStateService = Mockito.mock(DeploymentRuntimeStateService.class);
+        Mockito.doAnswer(new Answer<Void>() {
+            @Override
+            public Void answer(InvocationOnMock invocation) throws Throwable {
+                Deployment deployment = (Deployment) invocation.getArguments()[0];
+                IPaaSCallback<DeploymentStatus> callback = (IPaaSCallback<DeploymentStatus>) invocation.getArguments()[1];
+                if ("hung".equals(deployment.getOrchestratorId())) {
+                    pendingCallbacks.add(callback);
+                } else if ("failing".equals(deployment.getOrchestratorId())) {
+                    callback.onFailure(new RuntimeException("orchestrator failure"));
+                } else {
+                    callback.onSuccess(DeploymentStatus.DEPLOYED);
+                }
+                return null;
+            }
+        }).when(deploymentRuntimeStateService).getDeploymentStatus(Mockito.any(Deployment.class), Mockito.any(IPaaSCallback.class));
+
+        fanOutService = new OrchestratorFanOutService();
+        ReflectionTestUtils.setField(fanOutService, "deploymentRuntimeStateService", deploymentRuntimeStateService);
+        ReflectionTestUtils.setField(fanOutService, "timeoutMs", TIMEOUT_MS);
+        ReflectionTestUtils.setField(fanOutService, "maxConcurrentCalls", 1);
+        ReflectionTestUtils.setField(fanOutService, "threads", 4);
+        fanOutService.init();
+    }
+
+    @After
+    public void after() {
+        fanOutService.destroy();
+    }
+
+    @Test
+    public void slowOrFailingOrchestratorsShouldOnlyImpactTheirDeployments() {
+        Map<String, DeploymentStatus> statuses = fanOutService.getStatuses(Lists.newArrayList(deployment("ok", "up"), deployment("failing", "failed"),
+                deployment("hung", "hung")));
+        assertEquals(3, statuses.size());
+        assertEquals(DeploymentStatus.DEPLOYED, statuses.get("up"));
+        assertEquals(DeploymentStatus.UNKNOWN, statuses.get("failed"));
+        assertEquals(DeploymentStatus.UNKNOWN, statuses.get("hung"));
+    }
+
+    @Test
+    public void permitShouldBeKeptUntilTheOrchestratorAnswers() {
+        assertEquals(DeploymentStatus.UNKNOWN, fanOutService.getStatuses(Lists.newArrayList(deployment("hung", "first"))).get("first"));
+        assertEquals(1, pendingCallbacks.size());
+
+        // the caller stopped waiting but the orchestrator is still processing the first query so the second one is not issued.
+        assertEquals(DeploymentStatus.UNKNOWN, fanOutService.getStatuses(Lists.newArrayList(deployment("hung", "second"))).get("second"));
+        verifyQueries(1);
+
+        // once the orchestrator answers (even twice) a single permit is available again.
+        pendingCallbacks.get(0).onSuccess(DeploymentStatus.DEPLOYED);
+        pendingCallbacks.get(0).onSuccess(DeploymentStatus.DEPLOYED);
+        fanOutService.getStatuses(Lists.newArrayList(deployment("hung", "third"), deployment("hung", "fourth")));
+        verifyQueries(2);
+    }
+
+    @Test
+    public void permitsShouldBeIndependentByOrchestrator() {
+        fanOutService.getStatuses(Lists.newArrayList(deployment("hung", "hung")));
+        assertEquals(DeploymentStatus.DEPLOYED, fanOutService.getStatuses(Lists.newArrayList(deployment("ok", "up"))).get("up"));
+    }
+
+    @Test
+    public void hungOrchestratorShouldNotHoldThePoolThreads() {
+        fanOutService.getStatuses(Lists.newArrayList(deployment("hung", "first")));
+
+        // more deployments than pool threads are waiting for a permit of the hung orchestrator, the healthy one must still be answered in time.
+        List<Deployment> deployments = Lists.newArrayList();
+        for (int i = 0; i < 8; i++) {
+            deployments.add(deployment("hung", "hung-" + i));
+        }
+        deployments.add(deployment("ok", "up"));
+        Map<String, DeploymentStatus> statuses = fanOutService.getStatuses(deployments);
+
+        assertEquals(9, statuses.size());
+        assertEquals(DeploymentStatus.DEPLOYED, statuses.get("up"));
+        for (int i = 0; i < 8; i++) {
+            assertEquals(DeploymentStatus.UNKNOWN, statuses.get("hung-" + i));
+        }
+        verifyQueries(2);
+    }
+
+    @Test
+    public void permitShouldBeReleasedWhenTheQueryCannotBeIssued() {
+        Mockito.doThrow(new RuntimeException("orchestrator disabled")).doNothing().when(deploymentRuntimeStateService)
+                .getDeploymentStatus(Mockito.any(Deployment.class), Mockito.any(IPaaSCallback.class));
+        assertEquals(DeploymentStatus.UNKNOWN, fanOutService.getStatuses(Lists.newArrayList(deployment("ok", "first"))).get("first"));
+        fanOutService.getStatuses(Lists.newArrayList(deployment("ok", "second")));
+        verifyQueries(2);
+    }
+
+    private void verifyQueries(int count) {
+        Mockito.verify(deploymentRuntimeStateService, Mockito.times(count)).getDeploymentStatus(Mockito.any(Deployment.class),
+                Mockito.any(IPaaSCallback.class));
+    }
+
+    private Deployment deployment(String orchestratorId, String deploymentId) {
+        Deployment deployment = new Deployment();
+        deployment.setId(deploymentId);
+        deployment.setOrchestratorId(orchestratorId);
+        return deployment;
+    }
+}
@@ -0,0 +1,94 @@
+package alien4cloud.json.deserializer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+
+import org.junit.Test;
+
+import alien4cloud.dao.ElasticSearchMapper;
+import alien4cloud.json.deserializer.AbstractDiscriminatorPolymorphicDeserializer.BufferedObjectParser;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+
+/**
+ * Check that the parser used once the discriminator is found switches from the buffered fields to the original parser whatever method is used to read it.
+ */
+public class AbstractDiscriminatorPolymorphicDeserializerTest {
+    private static final String JSON = "{\"a\":{\"x\":[1]},\"d\":\"discriminator\",\"b\":\"text\",\"c\":2,\"e\":true,\"f\":{\"g\":[1,2]},\"h\":3}";
+
+    private ObjectMapper mapper = ElasticSearchMapper.getInstance();
+
+    @Test
+    public void nextValueShouldSwitchToTheOriginalParser() throws IOException {
+        JsonParser parser = bufferedParser();
+        assertEquals(JsonToken.START_OBJECT, parser.nextToken());
+        assertEquals(JsonToken.START_OBJECT, parser.nextValue());
+        assertEquals("a", parser.getCurrentName());
+        parser.skipChildren();
+        assertEquals(JsonToken.VALUE_STRING, parser.nextValue());
+        assertEquals("d", parser.getCurrentName());
+        assertEquals("discriminator", parser.getText());
+        assertEquals(JsonToken.VALUE_STRING, parser.nextValue());
+        assertEquals("b", parser.getCurrentName());
+        assertEquals("text", parser.getText());
+    }
+
+    @Test
+    public void typedNextMethodsShouldSwitchToTheOriginalParser() throws IOException {
+        JsonParser parser = bufferedParser();
+        assertEquals(JsonToken.START_OBJECT, parser.nextToken());
+        assertTrue(parser.nextFieldName(new SerializedString("a")));
+        assertEquals(JsonToken.START_OBJECT, parser.nextToken());
+        parser.skipChildren();
+        assertTrue(parser.nextFieldName(new SerializedString("d")));
+        assertEquals("discriminator", parser.nextTextValue());
+        assertTrue(parser.nextFieldName(new SerializedString("b")));
+        assertEquals("text", parser.nextTextValue());
+        assertTrue(parser.nextFieldName(new SerializedString("c")));
+        assertEquals(2, parser.nextIntValue(0));
+        assertTrue(parser.nextFieldName(new SerializedString("e")));
+        assertEquals(Boolean.TRUE, parser.nextBooleanValue());
+        assertTrue(parser.nextFieldName(new SerializedString("f")));
+        assertEquals(JsonToken.START_OBJECT, parser.nextToken());
+        parser.skipChildren();
+        assertEquals(JsonToken.END_OBJECT, parser.getCurrentToken());
+        assertTrue(parser.nextFieldName(new SerializedString("h")));
+        assertEquals(3L, parser.nextLongValue(0));
+        assertEquals(JsonToken.END_OBJECT, parser.nextToken());
+    }
+
+    @Test
+    public void skipChildrenShouldSkipTheWholeObject() throws IOException {
+        JsonParser parser = bufferedParser();
+        assertEquals(JsonToken.START_OBJECT, parser.nextToken());
+        // the object starts in the buffer and ends in the original parser
+        parser.skipChildren();
+        assertEquals(JsonToken.END_OBJECT, parser.getCurrentToken());
+        assertNull(parser.nextToken());
+    }
+
+    /**
+     * Reads the original parser up to the discriminator value, buffering the fields that precede it as the deserializer does.
+     */
+    private JsonParser bufferedParser() throws IOException {
+        JsonParser original = mapper.getFactory().createParser(JSON);
+        TokenBuffer buffer = new TokenBuffer(mapper, false);
+        buffer.writeStartObject();
+        original.nextToken();
+        original.nextToken();
+        buffer.writeFieldName(original.getCurrentName());
+        original.nextToken();
+        buffer.copyCurrentStructure(original);
+        original.nextToken();
+        buffer.writeFieldName(original.getCurrentName());
+        original.nextToken();
+        return new BufferedObjectParser(buffer.asParser(mapper), original);
+    }
+}
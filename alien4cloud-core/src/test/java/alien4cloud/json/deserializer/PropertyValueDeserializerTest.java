@@ -0,0 +1,101 @@
+package alien4cloud.json.deserializer;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.util.Map;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import org.junit.Test;
+
+import alien4cloud.dao.ElasticSearchMapper;
+import alien4cloud.model.components.AbstractPropertyValue;
+import alien4cloud.model.components.ComplexPropertyValue;
+import alien4cloud.model.components.FunctionPropertyValue;
+import alien4cloud.model.components.ListPropertyValue;
+import alien4cloud.model.components.ScalarPropertyValue;
+import alien4cloud.model.topology.NodeTemplate;
+import alien4cloud.model.topology.Topology;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+/**
+ * Check the deserialization of the polymorphic property values.
+ */
+public class PropertyValueDeserializerTest {
+    private static final int NODE_COUNT = 500;
+
+    private ObjectMapper mapper = ElasticSearchMapper.getInstance();
+
+    @Test
+    public void propertyValuesShouldBeDeserialized() throws IOException {
+        Topology topology = mapper.readValue(mapper.writeValueAsString(buildTopology(1)), Topology.class);
+        Map<String, AbstractPropertyValue> properties = topology.getNodeTemplates().get("node0").getProperties();
+        assertEquals(new ScalarPropertyValue("value0"), properties.get("scalar"));
+        assertEquals(Lists.<Object> newArrayList("a", "b"), ((ListPropertyValue) properties.get("list")).getValue());
+        assertEquals("b", ((Map) ((ComplexPropertyValue) properties.get("complex")).getValue().get("nested")).get("a"));
+        assertEquals("get_input", ((FunctionPropertyValue) properties.get("function")).getFunction());
+        assertEquals(Lists.newArrayList("input0"), ((FunctionPropertyValue) properties.get("function")).getParameters());
+    }
+
+    @Test
+    public void largeTopologyShouldBeDeserializedWithoutLoss() throws IOException {
+        Topology expected = buildTopology(NODE_COUNT);
+        Topology topology = mapper.readValue(mapper.writeValueAsString(expected), Topology.class);
+        assertEquals(NODE_COUNT, topology.getNodeTemplates().size());
+        for (Map.Entry<String, NodeTemplate> nodeEntry : expected.getNodeTemplates().entrySet()) {
+            Map<String, AbstractPropertyValue> properties = topology.getNodeTemplates().get(nodeEntry.getKey()).getProperties();
+            assertEquals(nodeEntry.getValue().getProperties().keySet(), properties.keySet());
+            for (Map.Entry<String, AbstractPropertyValue> propertyEntry : nodeEntry.getValue().getProperties().entrySet()) {
+                AbstractPropertyValue value = properties.get(propertyEntry.getKey());
+                assertEquals(propertyEntry.getValue().getClass(), value.getClass());
+                assertEquals(mapper.valueToTree(propertyEntry.getValue()), mapper.valueToTree(value));
+            }
+        }
+    }
+
+    @Test
+    public void discriminatorShouldBeFoundAfterOtherFields() throws IOException {
+        PropertyValueHolder holder = mapper.readValue("{\"value\":{\"parameters\":[\"input\"],\"function\":\"get_input\"}}",
+                PropertyValueHolder.class);
+        FunctionPropertyValue function = (FunctionPropertyValue) holder.getValue();
+        assertEquals("get_input", function.getFunction());
+        assertEquals(Lists.newArrayList("input"), function.getParameters());
+    }
+
+    private Topology buildTopology(int nodeCount) {
+        Map<String, NodeTemplate> nodeTemplates = Maps.newHashMap();
+        for (int i = 0; i < nodeCount; i++) {
+            Map<String, AbstractPropertyValue> properties = Maps.newHashMap();
+            properties.put("scalar", new ScalarPropertyValue("value" + i));
+            properties.put("list", new ListPropertyValue(Lists.<Object> newArrayList("a", "b")));
+            Map<String, Object> complex = Maps.newHashMap();
+            Map<String, Object> nested = Maps.newHashMap();
+            nested.put("a", "b");
+            complex.put("nested", nested);
+            complex.put("values", Lists.newArrayList(1, 2, 3));
+            properties.put("complex", new ComplexPropertyValue(complex));
+            properties.put("function", new FunctionPropertyValue("get_input", Lists.newArrayList("input" + i)));
+            NodeTemplate nodeTemplate = new NodeTemplate();
+            nodeTemplate.setType("alien.nodes.Test");
+            nodeTemplate.setProperties(properties);
+            nodeTemplates.put("node" + i, nodeTemplate);
+        }
+        Topology topology = new Topology();
+        topology.setId("large-topology");
+        topology.setNodeTemplates(nodeTemplates);
+        return topology;
+    }
+
+    @Getter
+    @Setter
+    public static class PropertyValueHolder {
+        @JsonDeserialize(using = PropertyValueDeserializer.class)
+        private AbstractPropertyValue value;
+    }
+}
@@ -0,0 +1,117 @@
+package alien4cloud.orchestrators.services;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import alien4cloud.csar.services.CsarService;
+import alien4cloud.model.components.CSARDependency;
+import alien4cloud.model.components.Csar;
+import alien4cloud.orchestrators.plugin.model.PluginArchive;
+import alien4cloud.tosca.ArchiveIndexer;
+import alien4cloud.tosca.model.ArchiveRoot;
+import alien4cloud.utils.FileUtil;
+
+import com.google.common.base.Charsets;
+import com.google.common.collect.Sets;
+
+/**
+ * Check that plugin archives are indexed only when they changed since the last import.
+ */
+@SuppressWarnings("unchecked")
+public class OrchestratorStateServiceTest {
+    private static final String DEPENDENCIES_HASH = "dependencies-hash";
+
+    private CsarService csarService;
+    private ArchiveIndexer archiveIndexer;
+    private OrchestratorStateService orchestratorStateService;
+    private Path archivePath;
+
+    @Before
+    public void before() throws IOException {
+        csarService = Mockito.mock(CsarService.class);
+        Mockito.when(csarService.getDependenciesHash(Mockito.any(Set.class))).thenReturn(DEPENDENCIES_HASH);
+        archiveIndexer = Mockito.mock(ArchiveIndexer.class);
+        orchestratorStateService = new OrchestratorStateService();
+        ReflectionTestUtils.setField(orchestratorStateService, "csarService", csarService);
+        ReflectionTestUtils.setField(orchestratorStateService, "archiveIndexer", archiveIndexer);
+
+        archivePath = Files.createTempDirectory("plugin-archive");
+        Files.write(archivePath.resolve("types.yml"), "node_types: {}".getBytes(Charsets.UTF_8));
+    }
+
+    @After
+    public void after() throws IOException {
+        FileUtil.delete(archivePath);
+    }
+
+    @Test
+    public void newArchiveShouldBeIndexedWithItsHashes() throws Exception {
+        PluginArchive pluginArchive = pluginArchive("1.0-SNAPSHOT");
+        assertTrue(orchestratorStateService.importPluginArchive(pluginArchive));
+
+        verifyImports(1);
+        assertEquals(FileUtil.sha256(archivePath), pluginArchive.getArchive().getArchive().getHash());
+        assertEquals(DEPENDENCIES_HASH, pluginArchive.getArchive().getArchive().getDependenciesHash());
+    }
+
+    @Test
+    public void unchangedSnapshotArchiveShouldNotBeIndexedAgain() throws Exception {
+        indexed("1.0-SNAPSHOT", FileUtil.sha256(archivePath), DEPENDENCIES_HASH);
+        assertFalse(orchestratorStateService.importPluginArchive(pluginArchive("1.0-SNAPSHOT")));
+        verifyImports(0);
+    }
+
+    @Test
+    public void modifiedSnapshotArchiveShouldBeIndexedAgain() throws Exception {
+        indexed("1.0-SNAPSHOT", FileUtil.sha256(archivePath), DEPENDENCIES_HASH);
+        Files.write(archivePath.resolve("types.yml"), "node_types: { a: {} }".getBytes(Charsets.UTF_8));
+        assertTrue(orchestratorStateService.importPluginArchive(pluginArchive("1.0-SNAPSHOT")));
+        verifyImports(1);
+    }
+
+    @Test
+    public void snapshotArchiveShouldBeIndexedAgainWhenDependenciesChanged() throws Exception {
+        indexed("1.0-SNAPSHOT", FileUtil.sha256(archivePath), "previous-dependencies-hash");
+        assertTrue(orchestratorStateService.importPluginArchive(pluginArchive("1.0-SNAPSHOT")));
+        verifyImports(1);
+    }
+
+    @Test
+    public void releasedArchiveShouldNotBeIndexedAgain() throws Exception {
+        indexed("1.0", "another-hash", DEPENDENCIES_HASH);
+        assertFalse(orchestratorStateService.importPluginArchive(pluginArchive("1.0")));
+        verifyImports(0);
+    }
+
+    private PluginArchive pluginArchive(String version) {
+        ArchiveRoot archiveRoot = new ArchiveRoot();
+        archiveRoot.setArchive(new Csar("plugin-types", version));
+        archiveRoot.getArchive().setDependencies(Sets.newHashSet(new CSARDependency("tosca-normative-types", "1.0")));
+        return new PluginArchive(archiveRoot, archivePath);
+    }
+
+    private void indexed(String version, String hash, String dependenciesHash) {
+        Csar csar = new Csar("plugin-types", version);
+        csar.setHash(hash);
+        csar.setDependenciesHash(dependenciesHash);
+        Mockito.when(csarService.getIfExists("plugin-types", version)).thenReturn(csar);
+    }
+
+    private void verifyImports(int count) throws Exception {
+        Mockito.verify(archiveIndexer, Mockito.times(count)).importArchive(Mockito.any(ArchiveRoot.class), Mockito.eq(archivePath),
+                Mockito.any(List.class));
+    }
+}
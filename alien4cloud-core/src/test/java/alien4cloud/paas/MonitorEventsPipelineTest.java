@@ -0,0 +1,201 @@
+package alien4cloud.paas;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import alien4cloud.dao.IGenericSearchDAO;
+import alien4cloud.paas.model.AbstractMonitorEvent;
+import alien4cloud.paas.model.PaaSMessageMonitorEvent;
+
+import com.google.common.collect.Lists;
+
+/**
+ * Check ordering, batching, back-pressure and retries of the monitor events pipeline.
+ */
+public class MonitorEventsPipelineTest {
+    private static final long TIMEOUT_MS = 5000;
+
+    private IGenericSearchDAO monitorDao;
+    private MonitorEventsPipeline pipeline;
+    /** Batches saved by the pipeline in the monitor DAO. */
+    private List<List<AbstractMonitorEvent>> savedBatches;
+    /** When not null, saves are blocked until this latch is released. */
+    private CountDownLatch saveLatch;
+    private CountDownLatch saveStarted;
+
+    @Before
+    public void before() {
+        savedBatches = Collections.synchronizedList(Lists.<List<AbstractMonitorEvent>> newArrayList());
+        saveStarted = new CountDownLatch(1);
+        monitorDao = Mockito.mock(IGenericSearchDAO.class);
+        Mockito.doAnswer(new Answer<Void>() {
+            @Override
+            public Void answer(InvocationOnMock invocation) throws Throwable {
+                AbstractMonitorEvent[] events = (AbstractMonitorEvent[]) invocation.getArguments()[0];
+                saveStarted.countDown();
+                if (saveLatch != null) {
+                    saveLatch.await(TIMEOUT_MS, TimeUnit.MILLISECONDS);
+                }
+                savedBatches.add(Lists.newArrayList(events));
+                return null;
+            }
+        }).when(monitorDao).save(Mockito.any(AbstractMonitorEvent[].class));
+        pipeline = new MonitorEventsPipeline();
+        ReflectionTestUtils.setField(pipeline, "alienMonitorDao", monitorDao);
+    }
+
+    @After
+    public void after() throws InterruptedException {
+        if (saveLatch != null) {
+            saveLatch.countDown();
+        }
+        pipeline.stop();
+    }
+
+    @Test
+    public void eventsShouldBePersistedInOrderByBatches() throws InterruptedException {
+        // the flush interval is long enough so that only full batches are flushed before the stop.
+        start(100, 10, 60000);
+        AbstractMonitorEvent[] events = events(0, 25);
+        assertEquals(25, pipeline.submit(events));
+
+        waitForBatches(2);
+        assertEquals(10, savedBatches.get(0).size());
+        assertEquals(10, savedBatches.get(1).size());
+
+        // remaining events are flushed on stop.
+        pipeline.stop();
+        assertEquals(Lists.newArrayList(events), getSavedEvents());
+        assertEquals(25L, getMetric("persisted"));
+        assertEquals(0L, getMetric("dropped"));
+    }
+
+    @Test
+    public void eventsShouldBeFlushedAfterTheFlushInterval() throws InterruptedException {
+        start(100, 100, 100);
+        AbstractMonitorEvent[] events = events(0, 3);
+        pipeline.submit(events);
+
+        waitForBatches(1);
+        assertEquals(Lists.newArrayList(events), savedBatches.get(0));
+        assertEquals(0, pipeline.getQueueDepth());
+    }
+
+    @Test
+    public void submitShouldNotBlockAndRejectEventsWhenQueueIsFull() throws InterruptedException {
+        start(5, 1, 60000);
+        saveLatch = new CountDownLatch(1);
+        AbstractMonitorEvent[] first = events(0, 1);
+        pipeline.submit(first);
+        // the flusher is now stuck in the monitor DAO and the queue is empty.
+        assertTrue(saveStarted.await(TIMEOUT_MS, TimeUnit.MILLISECONDS));
+
+        AbstractMonitorEvent[] events = events(1, 8);
+        long start = System.currentTimeMillis();
+        assertEquals(5, pipeline.submit(events));
+        assertTrue(System.currentTimeMillis() - start < TIMEOUT_MS);
+        assertEquals(5, pipeline.getQueueDepth());
+        assertFalse(pipeline.canAccept(1));
+        assertEquals(3L, getMetric("rejected"));
+        assertEquals(0L, getMetric("dropped"));
+
+        // the oldest events are kept, latest ones are rejected.
+        saveLatch.countDown();
+        pipeline.stop();
+        List<AbstractMonitorEvent> expected = Lists.newArrayList(first);
+        for (int i = 0; i < 5; i++) {
+            expected.add(events[i]);
+        }
+        assertEquals(expected, getSavedEvents());
+    }
+
+    @Test
+    public void failedBatchShouldBeRetried() throws InterruptedException {
+        Mockito.doThrow(new RuntimeException("elastic search unavailable")).doThrow(new RuntimeException("elastic search unavailable")).doNothing()
+                .when(monitorDao).save(Mockito.any(AbstractMonitorEvent[].class));
+        start(100, 10, 100);
+        AbstractMonitorEvent[] events = events(0, 3);
+        pipeline.submit(events);
+
+        Mockito.verify(monitorDao, Mockito.timeout(TIMEOUT_MS).times(3)).save(Mockito.any(AbstractMonitorEvent[].class));
+        pipeline.stop();
+        assertEquals(3L, getMetric("persisted"));
+        assertEquals(2L, getMetric("flush.retries"));
+        assertEquals(0L, getMetric("dropped"));
+    }
+
+    @Test
+    public void batchShouldBeDroppedOnceAllAttemptsFailed() throws InterruptedException {
+        Mockito.doThrow(new RuntimeException("elastic search unavailable")).when(monitorDao).save(Mockito.any(AbstractMonitorEvent[].class));
+        start(100, 10, 100);
+        pipeline.submit(events(0, 3));
+
+        Mockito.verify(monitorDao, Mockito.timeout(TIMEOUT_MS).times(3)).save(Mockito.any(AbstractMonitorEvent[].class));
+        pipeline.stop();
+        assertEquals(0L, getMetric("persisted"));
+        assertEquals(3L, getMetric("dropped"));
+    }
+
+    private void start(int queueSize, int batchSize, long flushIntervalMs) {
+        ReflectionTestUtils.setField(pipeline, "flushAttempts", 3);
+        ReflectionTestUtils.setField(pipeline, "flushRetryDelayMs", 10L);
+        ReflectionTestUtils.setField(pipeline, "queueSize", queueSize);
+        ReflectionTestUtils.setField(pipeline, "batchSize", batchSize);
+        ReflectionTestUtils.setField(pipeline, "flushIntervalMs", flushIntervalMs);
+        pipeline.start();
+    }
+
+    private AbstractMonitorEvent[] events(int from, int count) {
+        AbstractMonitorEvent[] events = new AbstractMonitorEvent[count];
+        for (int i = 0; i < count; i++) {
+            PaaSMessageMonitorEvent event = new PaaSMessageMonitorEvent();
+            event.setDeploymentId("deployment");
+            event.setMessage("message " + (from + i));
+            event.setDate(from + i + 1);
+            events[i] = event;
+        }
+        return events;
+    }
+
+    private void waitForBatches(int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MS;
+        while (savedBatches.size() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue("Expected " + count + " batches to be saved", savedBatches.size() >= count);
+    }
+
+    private List<AbstractMonitorEvent> getSavedEvents() {
+        List<AbstractMonitorEvent> saved = Lists.newArrayList();
+        synchronized (savedBatches) {
+            for (List<AbstractMonitorEvent> batch : savedBatches) {
+                saved.addAll(batch);
+            }
+        }
+        return saved;
+    }
+
+    private Object getMetric(String name) {
+        for (Metric<?> metric : pipeline.metrics()) {
+            if (metric.getName().equals("paas.monitor.events." + name)) {
+                return metric.getValue();
+            }
+        }
+        return null;
+    }
+}
@@ -98,7 +98,7 @@ public class PaaSProviderPollingMonitorTest {
         // init with some events
         initEvents();
 
-        PaaSProviderPollingMonitor paaSProviderPollingMonitor = new PaaSProviderPollingMonitor(alienDao, alienMonitorDao, null, null, "CloudID");
+        PaaSProviderPollingMonitor paaSProviderPollingMonitor = new PaaSProviderPollingMonitor(alienDao, alienMonitorDao, null, null, null, "CloudID");
         Field lastPollingDateField = PaaSProviderPollingMonitor.class.getDeclaredField("lastPollingDate");
         lastPollingDateField.setAccessible(true);
         Date lastDate = (Date) lastPollingDateField.get(paaSProviderPollingMonitor);
@@ -109,7 +109,7 @@ public class PaaSProviderPollingMonitorTest {
     @Test
     public void testLoadEventsWithoutEvents() throws NoSuchFieldException, SecurityException, IllegalArgumentException, IllegalAccessException {
 
-        PaaSProviderPollingMonitor paaSProviderPollingMonitor = new PaaSProviderPollingMonitor(alienDao, alienMonitorDao, null, null, "CloudID");
+        PaaSProviderPollingMonitor paaSProviderPollingMonitor = new PaaSProviderPollingMonitor(alienDao, alienMonitorDao, null, null, null, "CloudID");
         Field lastPollingDateField = PaaSProviderPollingMonitor.class.getDeclaredField("lastPollingDate");
         lastPollingDateField.setAccessible(true);
         Date lastDate = (Date) lastPollingDateField.get(paaSProviderPollingMonitor);
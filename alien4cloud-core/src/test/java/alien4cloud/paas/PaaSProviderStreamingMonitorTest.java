@@ -0,0 +1,194 @@
+package alien4cloud.paas;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import org.elasticsearch.mapping.QueryHelper.SearchQueryHelperBuilder;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import alien4cloud.dao.IGenericSearchDAO;
+import alien4cloud.dao.model.GetMultipleDataResult;
+import alien4cloud.model.deployment.Deployment;
+import alien4cloud.paas.model.AbstractMonitorEvent;
+import alien4cloud.paas.model.PaaSMessageMonitorEvent;
+
+import com.google.common.collect.Lists;
+
+/**
+ * Check the switch between streamed and polled events for providers that implements {@link IPaaSEventStreamProvider}.
+ */
+@SuppressWarnings({ "unchecked", "rawtypes" })
+public class PaaSProviderStreamingMonitorTest {
+    private IPaaSProvider provider;
+    private IPaaSEventStreamProvider streamProvider;
+    private IPaasEventListener listener;
+    private MonitorEventsPipeline eventsPipeline;
+    private PaaSProviderPollingMonitor monitor;
+
+    @Before
+    public void before() {
+        IGenericSearchDAO dao = Mockito.mock(IGenericSearchDAO.class);
+        Mockito.when(dao.search(Mockito.eq(Deployment.class), Mockito.<String> any(), Mockito.<Map<String, String[]>> any(), Mockito.anyInt())).thenReturn(
+                new GetMultipleDataResult<Deployment>(new String[] { "deployment" }, new Deployment[] { new Deployment() }));
+        IGenericSearchDAO monitorDao = Mockito.mock(IGenericSearchDAO.class, Mockito.RETURNS_DEEP_STUBS);
+        Mockito.when(monitorDao.search(Mockito.any(SearchQueryHelperBuilder.class), Mockito.anyInt(), Mockito.anyInt())).thenReturn(
+                new GetMultipleDataResult<Object>(new String[0], new Object[0]));
+
+        provider = Mockito.mock(IPaaSProvider.class, Mockito.withSettings().extraInterfaces(IPaaSEventStreamProvider.class));
+        streamProvider = (IPaaSEventStreamProvider) provider;
+        listener = Mockito.mock(IPaasEventListener.class);
+        Mockito.when(listener.canHandle(Mockito.any(AbstractMonitorEvent.class))).thenReturn(true);
+        eventsPipeline = Mockito.mock(MonitorEventsPipeline.class);
+        Mockito.when(eventsPipeline.canAccept(Mockito.anyInt())).thenReturn(true);
+        Mockito.when(eventsPipeline.submit(Mockito.any(AbstractMonitorEvent[].class))).thenAnswer(new Answer<Integer>() {
+            @Override
+            public Integer answer(InvocationOnMock invocation) throws Throwable {
+                return ((AbstractMonitorEvent[]) invocation.getArguments()[0]).length;
+            }
+        });
+
+        monitor = new PaaSProviderPollingMonitor(dao, monitorDao, eventsPipeline, provider, Lists.<IPaasEventListener> newArrayList(listener), "cloud");
+    }
+
+    @Test
+    public void streamingProviderShouldNotBePolled() {
+        monitor.run();
+        monitor.run();
+        List<IPaaSCallback<AbstractMonitorEvent[]>> callbacks = getStreamCallbacks(1);
+
+        AbstractMonitorEvent event = event();
+        callbacks.get(0).onSuccess(new AbstractMonitorEvent[] { event });
+        Mockito.verify(listener).eventHappened(event);
+        Mockito.verify(eventsPipeline).submit(new AbstractMonitorEvent[] { event });
+        verifyPolls(0);
+
+        monitor.stop();
+        Mockito.verify(streamProvider).stopEventStream();
+    }
+
+    @Test
+    public void brokenStreamShouldFallBackToPollingUntilRetryDelay() {
+        monitor.setStreamRetryDelayMs(60000);
+        monitor.run();
+        getStreamCallbacks(1).get(0).onFailure(new RuntimeException("connection lost"));
+
+        // first run after the failure looks for active deployments, next ones poll events.
+        monitor.run();
+        monitor.run();
+        getStreamCallbacks(1);
+        verifyPolls(1);
+    }
+
+    @Test
+    public void failureToOpenTheStreamShouldFallBackToPolling() {
+        monitor.setStreamRetryDelayMs(60000);
+        Mockito.doThrow(new RuntimeException("not available")).when(streamProvider)
+                .startEventStream(Mockito.any(Date.class), Mockito.any(IPaaSCallback.class));
+        monitor.run();
+        monitor.run();
+        monitor.run();
+        getStreamCallbacks(1);
+        verifyPolls(1);
+    }
+
+    @Test
+    public void streamShouldBeReopenedAfterRetryDelay() {
+        monitor.setStreamRetryDelayMs(0);
+        monitor.run();
+        getStreamCallbacks(1).get(0).onFailure(new RuntimeException("connection lost"));
+        monitor.run();
+        getStreamCallbacks(2);
+        verifyPolls(0);
+    }
+
+    @Test
+    public void callbacksOfAPreviousStreamShouldBeIgnored() {
+        monitor.setStreamRetryDelayMs(0);
+        monitor.run();
+        IPaaSCallback<AbstractMonitorEvent[]> staleCallback = getStreamCallbacks(1).get(0);
+        staleCallback.onFailure(new RuntimeException("connection lost"));
+        monitor.run();
+        IPaaSCallback<AbstractMonitorEvent[]> currentCallback = getStreamCallbacks(2).get(1);
+
+        // a late failure or event of the first stream must not close the current one.
+        staleCallback.onFailure(new RuntimeException("connection lost again"));
+        staleCallback.onSuccess(new AbstractMonitorEvent[] { event() });
+        monitor.run();
+        getStreamCallbacks(2);
+        verifyPolls(0);
+        Mockito.verify(listener, Mockito.never()).eventHappened(Mockito.any(AbstractMonitorEvent.class));
+
+        AbstractMonitorEvent event = event();
+        currentCallback.onSuccess(new AbstractMonitorEvent[] { event });
+        Mockito.verify(listener).eventHappened(event);
+
+        // callbacks of a stopped stream are ignored too.
+        monitor.stop();
+        currentCallback.onSuccess(new AbstractMonitorEvent[] { event() });
+        Mockito.verify(listener, Mockito.times(1)).eventHappened(Mockito.any(AbstractMonitorEvent.class));
+    }
+
+    @Test
+    public void eventsShouldNotBeFetchedWhilePipelineIsFull() {
+        Mockito.when(eventsPipeline.canAccept(Mockito.anyInt())).thenReturn(false);
+        monitor.run();
+        monitor.run();
+        getStreamCallbacks(0);
+        verifyPolls(0);
+    }
+
+    @Test
+    public void rejectedStreamedEventsShouldBePolledAgain() {
+        monitor.setStreamRetryDelayMs(60000);
+        monitor.run();
+        // events are after the initial polling date (the current date as no events are persisted).
+        long date = System.currentTimeMillis() + 60000;
+        AbstractMonitorEvent accepted = event();
+        accepted.setDate(date);
+        AbstractMonitorEvent rejected = event();
+        rejected.setDate(date + 1000);
+        Mockito.when(eventsPipeline.submit(Mockito.any(AbstractMonitorEvent[].class))).thenReturn(1);
+        getStreamCallbacks(1).get(0).onSuccess(new AbstractMonitorEvent[] { accepted, rejected });
+
+        // only the queued event is handled and the stream is closed.
+        Mockito.verify(listener).eventHappened(accepted);
+        Mockito.verify(listener, Mockito.never()).eventHappened(rejected);
+        Mockito.verify(streamProvider).stopEventStream();
+
+        // first run after the stream is closed looks for active deployments, the next one polls from the last queued event.
+        monitor.run();
+        monitor.run();
+        Mockito.verify(provider).getEventsSince(Mockito.eq(new Date(date)), Mockito.anyInt(), Mockito.any(IPaaSCallback.class));
+    }
+
+    private List<IPaaSCallback<AbstractMonitorEvent[]>> getStreamCallbacks(int expectedStreams) {
+        ArgumentCaptor<IPaaSCallback> captor = ArgumentCaptor.forClass(IPaaSCallback.class);
+        Mockito.verify(streamProvider, Mockito.times(expectedStreams)).startEventStream(Mockito.any(Date.class), captor.capture());
+        List<IPaaSCallback<AbstractMonitorEvent[]>> callbacks = Lists.newArrayList();
+        for (IPaaSCallback callback : captor.getAllValues()) {
+            callbacks.add(callback);
+        }
+        assertEquals(expectedStreams, callbacks.size());
+        return callbacks;
+    }
+
+    private void verifyPolls(int expectedPolls) {
+        Mockito.verify(provider, Mockito.times(expectedPolls)).getEventsSince(Mockito.any(Date.class), Mockito.anyInt(), Mockito.any(IPaaSCallback.class));
+    }
+
+    private AbstractMonitorEvent event() {
+        PaaSMessageMonitorEvent event = new PaaSMessageMonitorEvent();
+        event.setDeploymentId("deployment");
+        event.setMessage("message");
+        event.setDate(new Date().getTime());
+        return event;
+    }
+}
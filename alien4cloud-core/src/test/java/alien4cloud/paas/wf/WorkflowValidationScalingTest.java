@@ -0,0 +1,109 @@
+package alien4cloud.paas.wf;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import alien4cloud.paas.plan.ToscaNodeLifecycleConstants;
+import alien4cloud.paas.wf.util.WorkflowUtils;
+import alien4cloud.paas.wf.validation.AbstractWorkflowError;
+import alien4cloud.paas.wf.validation.BadStateSequenceError;
+import alien4cloud.paas.wf.validation.CycleDetection;
+import alien4cloud.paas.wf.validation.ParallelSetStatesError;
+import alien4cloud.paas.wf.validation.StateSequenceValidation;
+import alien4cloud.paas.wf.validation.WorkflowHasCycleError;
+
+/**
+ * Validate large and highly connected synthetic install workflows (the number of paths of these workflows grows exponentially with the number of nodes so
+ * they can only be validated if paths are not enumerated).
+ */
+public class WorkflowValidationScalingTest {
+    private static final String[] STATES = new String[] { ToscaNodeLifecycleConstants.INITIAL, ToscaNodeLifecycleConstants.CREATING,
+            ToscaNodeLifecycleConstants.CREATED, ToscaNodeLifecycleConstants.CONFIGURING, ToscaNodeLifecycleConstants.CONFIGURED,
+            ToscaNodeLifecycleConstants.STARTING, ToscaNodeLifecycleConstants.STARTED };
+    private static final int NODE_COUNT = 1000 / STATES.length;
+
+    private CycleDetection cycleDetection = new CycleDetection();
+    private StateSequenceValidation stateSequenceValidation = new StateSequenceValidation();
+    private Workflow workflow;
+    private NodeActivityStep[][] nodeSteps;
+
+    @Before
+    public void before() {
+        nodeSteps = new NodeActivityStep[NODE_COUNT][];
+        workflow = buildWorkflow(nodeSteps);
+    }
+
+    @Test(timeout = 30000)
+    public void largeWorkflowShouldBeValid() {
+        assertEquals(0, cycleDetection.validate(null, workflow).size());
+        assertEquals(0, stateSequenceValidation.validate(null, workflow).size());
+    }
+
+    @Test(timeout = 30000)
+    public void cycleInLargeWorkflowShouldBeReportedOnce() {
+        // loop from the last started state to the first initial state
+        WorkflowUtils.linkSteps(nodeSteps[NODE_COUNT - 1][STATES.length - 1], nodeSteps[0][0]);
+        List<AbstractWorkflowError> errors = cycleDetection.validate(null, workflow);
+        assertEquals(1, errors.size());
+        List<String> cycle = ((WorkflowHasCycleError) errors.get(0)).getCycle();
+        assertEquals(cycle.get(0), cycle.get(cycle.size() - 1));
+        for (int i = 1; i < cycle.size(); i++) {
+            assertTrue(workflow.getSteps().get(cycle.get(i - 1)).getFollowingSteps().contains(cycle.get(i)));
+        }
+    }
+
+    @Test(timeout = 30000)
+    public void parallelStatesInLargeWorkflowShouldBeReported() {
+        // the first two nodes are started on parallel branches
+        NodeActivityStep creating = WorkflowUtils.addStateStep(workflow, "extra", ToscaNodeLifecycleConstants.CREATING);
+        NodeActivityStep started = WorkflowUtils.addStateStep(workflow, "extra", ToscaNodeLifecycleConstants.STARTED);
+        WorkflowUtils.linkSteps(nodeSteps[0][STATES.length - 1], creating);
+        WorkflowUtils.linkSteps(nodeSteps[1][STATES.length - 1], started);
+        List<AbstractWorkflowError> errors = stateSequenceValidation.validate(null, workflow);
+        assertEquals(1, errors.size());
+        assertEquals("extra", ((ParallelSetStatesError) errors.get(0)).getNodeId());
+    }
+
+    @Test(timeout = 30000)
+    public void badStateSequenceInLargeWorkflowShouldBeReported() {
+        NodeActivityStep started = WorkflowUtils.addStateStep(workflow, "extra", ToscaNodeLifecycleConstants.STARTED);
+        NodeActivityStep creating = WorkflowUtils.addStateStep(workflow, "extra", ToscaNodeLifecycleConstants.CREATING);
+        WorkflowUtils.linkSteps(nodeSteps[NODE_COUNT - 1][STATES.length - 1], started);
+        WorkflowUtils.linkSteps(started, creating);
+        List<AbstractWorkflowError> errors = stateSequenceValidation.validate(null, workflow);
+        assertEquals(1, errors.size());
+        BadStateSequenceError error = (BadStateSequenceError) errors.get(0);
+        assertEquals(started.getName(), error.getFrom());
+        assertEquals(creating.getName(), error.getTo());
+    }
+
+    /**
+     * Each node sets its states in sequence and waits for the two previous nodes (created then started).
+     */
+    private Workflow buildWorkflow(NodeActivityStep[][] nodeSteps) {
+        Workflow workflow = new Workflow();
+        workflow.setName(Workflow.INSTALL_WF);
+        workflow.setStandard(true);
+        for (int i = 0; i < nodeSteps.length; i++) {
+            nodeSteps[i] = new NodeActivityStep[STATES.length];
+            for (int j = 0; j < STATES.length; j++) {
+                nodeSteps[i][j] = WorkflowUtils.addStateStep(workflow, "node" + i, STATES[j]);
+                if (j > 0) {
+                    WorkflowUtils.linkSteps(nodeSteps[i][j - 1], nodeSteps[i][j]);
+                }
+            }
+            if (i > 0) {
+                WorkflowUtils.linkSteps(nodeSteps[i - 1][2], nodeSteps[i][3]);
+            }
+            if (i > 1) {
+                WorkflowUtils.linkSteps(nodeSteps[i - 2][6], nodeSteps[i][1]);
+            }
+        }
+        return workflow;
+    }
+}
@@ -0,0 +1,95 @@
+package alien4cloud.paas.wf;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.Collections;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import alien4cloud.model.components.IndexedToscaElement;
+import alien4cloud.model.topology.NodeTemplate;
+import alien4cloud.model.topology.Topology;
+import alien4cloud.paas.plan.ToscaNodeLifecycleConstants;
+import alien4cloud.paas.wf.WorkflowsBuilderService.TopologyContext;
+import alien4cloud.paas.wf.util.WorkflowUtils;
+import alien4cloud.paas.wf.validation.BadStateSequenceError;
+import alien4cloud.paas.wf.validation.WorkflowValidator;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+/**
+ * Check that the incremental validation only revalidates the region of the edit and keeps the other errors.
+ */
+public class WorkflowValidatorTest {
+    private WorkflowValidator validator = new WorkflowValidator();
+    private Workflow wf;
+    private TopologyContext topologyContext;
+
+    @Before
+    public void prepare() {
+        wf = new Workflow();
+        wf.setName(Workflow.INSTALL_WF);
+        wf.setStandard(true);
+        Map<String, NodeTemplate> nodeTemplates = Maps.newHashMap();
+        nodeTemplates.put("nodeA", new NodeTemplate());
+        nodeTemplates.put("nodeB", new NodeTemplate());
+        final Topology topology = new Topology();
+        topology.setNodeTemplates(nodeTemplates);
+        topologyContext = new TopologyContext() {
+            @Override
+            public Topology getTopology() {
+                return topology;
+            }
+
+            @Override
+            public <T extends IndexedToscaElement> T findElement(Class<T> clazz, String id) {
+                return null;
+            }
+        };
+    }
+
+    @Test
+    public void errorsOutsideOfTheEditedRegionShouldBeKept() {
+        NodeActivityStep a_cre = WorkflowUtils.addStateStep(wf, "nodeA", ToscaNodeLifecycleConstants.CREATED);
+        NodeActivityStep a_ini = WorkflowUtils.addStateStep(wf, "nodeA", ToscaNodeLifecycleConstants.INITIAL);
+        WorkflowUtils.linkSteps(a_cre, a_ini);
+        NodeActivityStep b_cre = WorkflowUtils.addStateStep(wf, "nodeB", ToscaNodeLifecycleConstants.CREATED);
+        NodeActivityStep b_con = WorkflowUtils.addStateStep(wf, "nodeB", ToscaNodeLifecycleConstants.CONFIGURED);
+        WorkflowUtils.linkSteps(b_cre, b_con);
+        assertEquals(1, validator.validate(topologyContext, wf));
+
+        // introduce an error on node B only
+        NodeActivityStep b_ini = WorkflowUtils.addStateStep(wf, "nodeB", ToscaNodeLifecycleConstants.INITIAL);
+        WorkflowUtils.linkSteps(b_con, b_ini);
+        assertEquals(2, validator.validate(topologyContext, wf, Lists.newArrayList(b_con.getName(), b_ini.getName()), Collections.<String> emptySet()));
+        assertEquals(a_cre.getName(), ((BadStateSequenceError) wf.getErrors().get(0)).getFrom());
+        assertEquals(b_con.getName(), ((BadStateSequenceError) wf.getErrors().get(1)).getFrom());
+
+        // fix node A
+        wf.removeStep(a_ini.getName());
+        a_cre.removeFollowing(a_ini.getName());
+        assertEquals(1, validator.validate(topologyContext, wf, Lists.newArrayList(a_cre.getName()), Collections.singleton("nodeA")));
+        assertEquals(b_con.getName(), ((BadStateSequenceError) wf.getErrors().get(0)).getFrom());
+        assertEquals(1, validator.validate(topologyContext, wf));
+    }
+
+    @Test
+    public void stepsShouldBeIndexedByNode() {
+        NodeActivityStep a_ini = WorkflowUtils.addStateStep(wf, "nodeA", ToscaNodeLifecycleConstants.INITIAL);
+        NodeActivityStep a_ini_1 = WorkflowUtils.addStateStep(wf, "nodeA", ToscaNodeLifecycleConstants.INITIAL);
+        assertEquals(a_ini.getName() + "_1", a_ini_1.getName());
+        assertSame(a_ini, WorkflowUtils.getStateStepByNode(wf, "nodeA", ToscaNodeLifecycleConstants.INITIAL));
+        assertNull(WorkflowUtils.getStateStepByNode(wf, "nodeB", ToscaNodeLifecycleConstants.INITIAL));
+
+        // the name of a removed step is free again
+        wf.removeStep(a_ini.getName());
+        assertSame(a_ini_1, WorkflowUtils.getStateStepByNode(wf, "nodeA", ToscaNodeLifecycleConstants.INITIAL));
+        assertEquals(a_ini.getName(), WorkflowUtils.addStateStep(wf, "nodeA", ToscaNodeLifecycleConstants.INITIAL).getName());
+        assertEquals(a_ini.getName() + "_2", WorkflowUtils.addStateStep(wf, "nodeA", ToscaNodeLifecycleConstants.INITIAL).getName());
+    }
+}
@@ -0,0 +1,130 @@
+package alien4cloud.topology;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Date;
+import java.util.Map;
+
+import javax.annotation.Resource;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import alien4cloud.component.dao.AbstractDAOTest;
+import alien4cloud.dao.IGenericSearchDAO;
+import alien4cloud.model.components.CSARDependency;
+import alien4cloud.model.components.IndexedNodeType;
+import alien4cloud.model.components.PropertyDefinition;
+import alien4cloud.model.topology.NodeGroup;
+import alien4cloud.model.topology.NodeTemplate;
+import alien4cloud.model.topology.Topology;
+import alien4cloud.paas.wf.Workflow;
+
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+
+/**
+ * Check that delta topology DTOs only contain the elements changed by an operation.
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration("classpath:application-context-test.xml")
+public class TopologyDeltaTest extends AbstractDAOTest {
+    private static final String ARCHIVE_NAME = "delta-test-types";
+
+    @Resource(name = "alien-es-dao")
+    private IGenericSearchDAO dao;
+    @Resource
+    private TopologyService topologyService;
+
+    @Override
+    @Before
+    public void before() throws Exception {
+        super.before();
+        for (int i = 0; i < 2; i++) {
+            IndexedNodeType nodeType = new IndexedNodeType();
+            nodeType.setElementId("delta.test.Type" + i);
+            nodeType.setArchiveName(ARCHIVE_NAME);
+            nodeType.setArchiveVersion("1.0");
+            nodeType.setCreationDate(new Date());
+            nodeType.setLastUpdateDate(new Date());
+            dao.save(nodeType);
+        }
+    }
+
+    @Test
+    public void unchangedTopologyShouldGiveAnEmptyDelta() {
+        Topology topology = buildTopology();
+        TopologyDTO delta = topologyService.buildTopologyDelta(topology, topologyService.snapshot(topology));
+
+        assertTrue(delta.isDelta());
+        assertNull(delta.getYaml());
+        assertTrue(delta.getTopology().getNodeTemplates().isEmpty());
+        assertTrue(delta.getTopology().getInputs().isEmpty());
+        assertTrue(delta.getTopology().getGroups().isEmpty());
+        assertTrue(delta.getTopology().getWorkflows().isEmpty());
+        assertTrue(delta.getNodeTypes().isEmpty());
+        assertTrue(delta.getRemovedNodeTemplates().isEmpty());
+        // the delta doesn't change the topology itself
+        assertEquals(2, topology.getNodeTemplates().size());
+    }
+
+    @Test
+    public void deltaShouldOnlyContainChangedElements() {
+        Topology topology = buildTopology();
+        TopologySnapshot snapshot = topologyService.snapshot(topology);
+
+        topology.getNodeTemplates().get("node0").setGroups(Sets.newHashSet("group"));
+        topology.getNodeTemplates().remove("node1");
+        topology.getInputs().get("input0").setDescription("changed");
+        topology.getInputs().put("input2", new PropertyDefinition());
+        topology.getGroups().remove("group");
+        topology.getWorkflows().get("install").setDescription("changed");
+        TopologyDTO delta = topologyService.buildTopologyDelta(topology, snapshot);
+
+        assertEquals(Sets.newHashSet("node0"), delta.getTopology().getNodeTemplates().keySet());
+        assertEquals(Sets.newHashSet("delta.test.Type0"), delta.getNodeTypes().keySet());
+        assertEquals(Sets.newHashSet("node1"), delta.getRemovedNodeTemplates());
+        assertEquals(Sets.newHashSet("input0", "input2"), delta.getTopology().getInputs().keySet());
+        assertTrue(delta.getRemovedInputs().isEmpty());
+        assertTrue(delta.getTopology().getGroups().isEmpty());
+        assertEquals(Sets.newHashSet("group"), delta.getRemovedGroups());
+        assertEquals(Sets.newHashSet("install"), delta.getTopology().getWorkflows().keySet());
+        assertTrue(delta.getRemovedWorkflows().isEmpty());
+    }
+
+    private Topology buildTopology() {
+        Topology topology = new Topology();
+        topology.setId("delta-test-topology");
+        topology.setDependencies(Sets.newHashSet(new CSARDependency(ARCHIVE_NAME, "1.0")));
+        Map<String, NodeTemplate> nodeTemplates = Maps.newHashMap();
+        for (int i = 0; i < 2; i++) {
+            NodeTemplate nodeTemplate = new NodeTemplate();
+            nodeTemplate.setName("node" + i);
+            nodeTemplate.setType("delta.test.Type" + i);
+            nodeTemplates.put(nodeTemplate.getName(), nodeTemplate);
+        }
+        topology.setNodeTemplates(nodeTemplates);
+        Map<String, PropertyDefinition> inputs = Maps.newHashMap();
+        inputs.put("input0", new PropertyDefinition());
+        inputs.put("input1", new PropertyDefinition());
+        topology.setInputs(inputs);
+        Map<String, NodeGroup> groups = Maps.newHashMap();
+        NodeGroup group = new NodeGroup();
+        group.setName("group");
+        groups.put(group.getName(), group);
+        topology.setGroups(groups);
+        Map<String, Workflow> workflows = Maps.newHashMap();
+        for (String name : new String[] { "install", "uninstall" }) {
+            Workflow workflow = new Workflow();
+            workflow.setName(name);
+            workflows.put(name, workflow);
+        }
+        topology.setWorkflows(workflows);
+        return topology;
+    }
+}
@@ -0,0 +1,84 @@
+package alien4cloud.topology;
+
+import static org.junit.Assert.assertEquals;
+
+import javax.annotation.Resource;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import alien4cloud.component.dao.AbstractDAOTest;
+import alien4cloud.dao.IGenericSearchDAO;
+import alien4cloud.exception.VersionConflictException;
+import alien4cloud.model.topology.Topology;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration("classpath:application-context-test.xml")
+public class TopologyEditionSessionServiceTest extends AbstractDAOTest {
+    private static final String TOPOLOGY_ID = "edition-session-topology";
+
+    @Resource(name = "alien-es-dao")
+    private IGenericSearchDAO alienDAO;
+    @Resource
+    private TopologyServiceCore topologyServiceCore;
+    @Resource
+    private TopologyEditionSessionService topologyEditionSessionService;
+
+    @Test
+    public void editsShouldBeCoalescedAndPersistedOnClose() {
+        Topology topology = new Topology();
+        topology.setId(TOPOLOGY_ID);
+        topologyServiceCore.save(topology);
+
+        for (int i = 0; i < 10; i++) {
+            Topology edited = topologyServiceCore.getOrFail(TOPOLOGY_ID);
+            edited.setDelegateId("delegate-" + i);
+            topologyServiceCore.saveEdition(edited);
+        }
+        // edits are served from the session
+        assertEquals("delegate-9", topologyServiceCore.getOrFail(TOPOLOGY_ID).getDelegateId());
+
+        topologyEditionSessionService.close(TOPOLOGY_ID);
+        Topology persisted = alienDAO.findById(Topology.class, TOPOLOGY_ID);
+        assertEquals("delegate-9", persisted.getDelegateId());
+        assertEquals(11, persisted.getRevision());
+    }
+
+    @Test(expected = VersionConflictException.class)
+    public void concurrentEditShouldBeRejected() {
+        Topology topology = new Topology();
+        topology.setId(TOPOLOGY_ID);
+        topologyServiceCore.save(topology);
+        topologyServiceCore.saveEdition(topologyServiceCore.getOrFail(TOPOLOGY_ID));
+        try {
+            Topology first = topologyServiceCore.getOrFail(TOPOLOGY_ID);
+            Topology second = topologyServiceCore.getOrFail(TOPOLOGY_ID);
+            topologyServiceCore.saveEdition(first);
+            topologyServiceCore.saveEdition(second);
+        } finally {
+            topologyEditionSessionService.discard(TOPOLOGY_ID);
+        }
+    }
+
+    @Test
+    public void flushShouldNotOverwriteConcurrentWrite() {
+        Topology topology = new Topology();
+        topology.setId(TOPOLOGY_ID);
+        topologyServiceCore.save(topology);
+        topologyServiceCore.saveEdition(topologyServiceCore.getOrFail(TOPOLOGY_ID));
+        Topology edited = topologyServiceCore.getOrFail(TOPOLOGY_ID);
+        edited.setDelegateId("session");
+        topologyServiceCore.saveEdition(edited);
+
+        // a write that does not go through the session
+        Topology direct = alienDAO.findById(Topology.class, TOPOLOGY_ID);
+        direct.setDelegateId("direct");
+        alienDAO.save(direct);
+
+        topologyEditionSessionService.close(TOPOLOGY_ID);
+        assertEquals("direct", alienDAO.findById(Topology.class, TOPOLOGY_ID).getDelegateId());
+        assertEquals("direct", topologyServiceCore.getOrFail(TOPOLOGY_ID).getDelegateId());
+    }
+}
@@ -0,0 +1,90 @@
+package alien4cloud.tosca;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import javax.annotation.Resource;
+
+import org.elasticsearch.index.query.QueryBuilders;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import alien4cloud.csar.services.CsarService;
+import alien4cloud.dao.IGenericSearchDAO;
+import alien4cloud.model.components.CSARDependency;
+import alien4cloud.model.components.Csar;
+
+import com.google.common.collect.Sets;
+
+/**
+ * Check that an unchanged SNAPSHOT archive is skipped only when its dependencies didn't change either.
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration("classpath:application-context-test.xml")
+public class ArchiveUploadServiceTest {
+    private static final String SNAPSHOT = "1.0-SNAPSHOT";
+
+    @Resource
+    private ArchiveUploadService archiveUploadService;
+    @Resource
+    private CsarService csarService;
+    @Resource(name = "alien-es-dao")
+    private IGenericSearchDAO alienDAO;
+
+    @After
+    public void clean() {
+        alienDAO.delete(Csar.class, QueryBuilders.matchAllQuery());
+    }
+
+    @Test
+    public void unchangedArchiveShouldBeSkipped() {
+        save("base-types", SNAPSHOT, "base-hash");
+        Csar archive = save("app-types", SNAPSHOT, "app-hash", new CSARDependency("base-types", SNAPSHOT));
+
+        Csar unchanged = archiveUploadService.getUnchangedArchive("app-hash");
+        assertNotNull(unchanged);
+        assertEquals(archive.getId(), unchanged.getId());
+    }
+
+    @Test
+    public void archiveShouldNotBeSkippedWhenASnapshotDependencyChanged() {
+        save("base-types", SNAPSHOT, "base-hash");
+        save("app-types", SNAPSHOT, "app-hash", new CSARDependency("base-types", SNAPSHOT));
+
+        // the dependency is imported again with another content (for example by the same git import)
+        save("base-types", SNAPSHOT, "new-base-hash");
+        assertNull(archiveUploadService.getUnchangedArchive("app-hash"));
+    }
+
+    @Test
+    public void archiveShouldNotBeSkippedWhenATransitiveDependencyChanged() {
+        save("root-types", SNAPSHOT, "root-hash");
+        save("base-types", SNAPSHOT, "base-hash", new CSARDependency("root-types", SNAPSHOT));
+        save("app-types", SNAPSHOT, "app-hash", new CSARDependency("base-types", SNAPSHOT));
+
+        // base types content didn't change but it has been imported again as its own dependency changed
+        save("root-types", SNAPSHOT, "new-root-hash");
+        save("base-types", SNAPSHOT, "base-hash", new CSARDependency("root-types", SNAPSHOT));
+        assertNull(archiveUploadService.getUnchangedArchive("app-hash"));
+    }
+
+    @Test
+    public void releasedArchiveShouldNotBeSkipped() {
+        save("app-types", "1.0", "app-hash");
+        assertNull(archiveUploadService.getUnchangedArchive("app-hash"));
+    }
+
+    private Csar save(String name, String version, String hash, CSARDependency... dependencies) {
+        Csar csar = new Csar(name, version);
+        csar.setHash(hash);
+        csar.setDependencies(Sets.newHashSet(dependencies));
+        // the dependencies hash is computed from the dependencies state at import time
+        csar.setDependenciesHash(csarService.getDependenciesHash(csar.getDependencies()));
+        csarService.save(csar);
+        return csar;
+    }
+}
@@ -0,0 +1,88 @@
+package alien4cloud.tosca.parser;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.List;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import org.junit.Test;
+
+/**
+ * Check the paths and values managed by the compiled accessors of the mapping targets (other ones are set by the parser using a bean wrapper).
+ */
+public class PropertyPathAccessorTest {
+
+    @Test
+    public void nestedPropertyShouldBeSet() {
+        Root root = new Root();
+        root.setChild(new Child());
+        PropertyPathAccessor accessor = new MappingTarget("child.name", null).getAccessor(Root.class);
+        assertEquals("name", accessor.getPropertyName());
+        assertSame(root.getChild(), accessor.setValue(root, "value"));
+        assertEquals("value", root.getChild().getName());
+    }
+
+    @Test
+    public void nullIntermediateBeanShouldNotBeManaged() {
+        Root root = new Root();
+        assertNull(new MappingTarget("child.name", null).getAccessor(Root.class).setValue(root, "value"));
+        assertNull(root.getChild());
+    }
+
+    @Test
+    public void valueRequiringConversionShouldNotBeManaged() {
+        Child child = new Child();
+        PropertyPathAccessor accessor = new MappingTarget("count", null).getAccessor(Child.class);
+        assertNull(accessor.setValue(child, "3"));
+        assertNull(accessor.setValue(child, null));
+        assertEquals(0, child.getCount());
+
+        assertSame(child, accessor.setValue(child, 3));
+        assertEquals(3, child.getCount());
+    }
+
+    @Test
+    public void voidPropertyShouldNotBeManaged() {
+        PropertyPathAccessor accessor = new MappingTarget("void", null).getAccessor(Root.class);
+        assertEquals("void", accessor.getPropertyName());
+        assertNull(accessor.setValue(new Root(), "value"));
+    }
+
+    @Test
+    public void pathStartingWithDotShouldBeResolvedFromTheRoot() {
+        Root root = new Root();
+        root.setChild(new Child());
+        MappingTarget mappingTarget = new MappingTarget(".child.name", null);
+        PropertyPathAccessor accessor = mappingTarget.getAccessor(Root.class);
+        assertEquals("name", accessor.getPropertyName());
+        assertSame(root.getChild(), accessor.setValue(root, "value"));
+        assertEquals("value", root.getChild().getName());
+        // accessors are compiled once by type.
+        assertSame(accessor, mappingTarget.getAccessor(Root.class));
+    }
+
+    @Test
+    public void indexedPathShouldNotBeManaged() {
+        PropertyPathAccessor accessor = new MappingTarget("children[0].name", null).getAccessor(Root.class);
+        assertEquals("name", accessor.getPropertyName());
+        assertNull(accessor.setValue(new Root(), "value"));
+    }
+
+    @Getter
+    @Setter
+    public static class Root {
+        private Child child;
+        private List<Child> children;
+    }
+
+    @Getter
+    @Setter
+    public static class Child {
+        private String name;
+        private int count;
+    }
+}
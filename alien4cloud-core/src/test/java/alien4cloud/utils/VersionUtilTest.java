@@ -4,6 +4,7 @@ import org.junit.Assert;
 import org.junit.Test;
 
 import alien4cloud.utils.version.InvalidVersionException;
+import alien4cloud.utils.version.Version;
 
 public class VersionUtilTest {
 
@@ -41,5 +42,40 @@ public class VersionUtilTest {
     	Assert.assertTrue(VersionUtil.compare("10.0.10", "10.0.11-SNAPSHOT") < 0);
     	Assert.assertTrue(VersionUtil.compare("10.0.11", "10.0.11") == 0);
     }
-    
+
+    @Test
+    public void testSortableKeyOrder() {
+        String[] orderedVersions = { "1-alpha2snapshot", "1-alpha2", "1-beta-2", "1-rc", "1-SNAPSHOT", "1.0.alpha", "1.0.0.alpha", "1.0.0.SNAPSHOT", "1",
+                "1-sp", "1-abc", "1-1-snapshot", "1-1", "1.0.sp", "1.0.1", "2.0", "2-1", "2.0.a", "2.0.0.a", "2.0.2", "2.0.123", "2.1-a", "2.1-1", "2.1.0.1",
+                "2.2", "2.123", "10.0.10", "10.0.11-SNAPSHOT", "10.0.11", "11.a2", "11.m11", "11", "11.a" };
+        for (int i = 1; i < orderedVersions.length; i++) {
+            String low = VersionUtil.getSortableKey(orderedVersions[i - 1]);
+            String high = VersionUtil.getSortableKey(orderedVersions[i]);
+            Assert.assertTrue("expected " + orderedVersions[i - 1] + " < " + orderedVersions[i], VersionUtil.compare(orderedVersions[i - 1], orderedVersions[i]) < 0);
+            Assert.assertTrue("expected key of " + orderedVersions[i - 1] + " < key of " + orderedVersions[i], low.compareTo(high) < 0);
+        }
+        Assert.assertEquals(VersionUtil.getSortableKey("1"), VersionUtil.getSortableKey("1.0.0"));
+        Assert.assertEquals(VersionUtil.getSortableKey("1-SNAPSHOT"), VersionUtil.getSortableKey("1.0-snapshot"));
+    }
+
+    @Test
+    public void testSortableKeyOrderMatchesCompare() {
+        String[] versions = { "0.1", "0.0.1", "1", "1.0", "1.0.0", "1.0.alpha", "1.0-alpha", "1.alpha", "1.0.0-SNAPSHOT", "1.0.SNAPSHOT", "1.0.1-SNAPSHOT",
+                "1.0.1", "1.0.1.alpha", "1.1.0-SNAPSHOT", "1.1", "1.2.3-beta", "1.2.3.beta1", "1.2.3.0.beta", "1.2.3", "2.0.0.1", "2.0.sp", "10.0.11" };
+        for (String left : versions) {
+            for (String right : versions) {
+                int compare = Integer.signum(VersionUtil.compare(left, right));
+                int keyCompare = Integer.signum(VersionUtil.getSortableKey(left).compareTo(VersionUtil.getSortableKey(right)));
+                Assert.assertEquals("order of " + left + " and " + right, compare, keyCompare);
+            }
+        }
+    }
+
+    @Test
+    public void parsedVersionsShouldNotBeShared() {
+        Version version = VersionUtil.parseVersion("1.2.3");
+        version.parseVersion("4.5.6");
+        Assert.assertEquals(1, VersionUtil.parseVersion("1.2.3").getMajorVersion());
+        Assert.assertTrue(VersionUtil.compare("1.2.3", "4.5.6") < 0);
+    }
 }
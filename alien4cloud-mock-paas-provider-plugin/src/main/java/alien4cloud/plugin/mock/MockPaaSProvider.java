@@ -31,6 +31,7 @@ import alien4cloud.model.topology.RelationshipTemplate;
 import alien4cloud.model.topology.ScalingPolicy;
 import alien4cloud.model.topology.Topology;
 import alien4cloud.paas.IPaaSCallback;
+import alien4cloud.paas.IPaaSEventStreamProvider;
 import alien4cloud.paas.exception.PluginConfigurationException;
 import alien4cloud.paas.model.AbstractMonitorEvent;
 import alien4cloud.paas.model.DeploymentStatus;
@@ -54,7 +55,7 @@ import alien4cloud.tosca.normative.NormativeRelationshipConstants;
 import com.fasterxml.jackson.core.JsonProcessingException;
 
 @Slf4j
-public abstract class MockPaaSProvider extends AbstractPaaSProvider {
+public abstract class MockPaaSProvider extends AbstractPaaSProvider implements IPaaSEventStreamProvider {
     public static final String PUBLIC_IP = "ip_address";
     public static final String TOSCA_ID = "tosca_id";
     public static final String TOSCA_NAME = "tosca_name";
@@ -69,6 +70,8 @@ public abstract class MockPaaSProvider extends AbstractPaaSProvider {
 
     private final List<AbstractMonitorEvent> toBeDeliveredEvents = Collections.synchronizedList(new ArrayList<AbstractMonitorEvent>());
 
+    private volatile IPaaSCallback<AbstractMonitorEvent[]> eventsStreamCallback;
+
     @Resource
     private ICSARRepositorySearchService csarRepoSearchService;
 
@@ -225,12 +228,12 @@ public abstract class MockPaaSProvider extends AbstractPaaSProvider {
                 event.setDeploymentStatus(status);
                 event.setDate((new Date()).getTime());
                 event.setDeploymentId(paaSDeploymentIdToAlienDeploymentIdMap.get(deploymentPaaSId));
-                toBeDeliveredEvents.add(event);
+                deliverEvent(event);
                 PaaSMessageMonitorEvent messageMonitorEvent = new PaaSMessageMonitorEvent();
                 messageMonitorEvent.setDate((new Date()).getTime());
                 messageMonitorEvent.setDeploymentId(paaSDeploymentIdToAlienDeploymentIdMap.get(deploymentPaaSId));
                 messageMonitorEvent.setMessage("APPLICATIONS.RUNTIME.EVENTS.MESSAGE_EVENT.STATUS_DEPLOYMENT_CHANGED");
-                toBeDeliveredEvents.add(messageMonitorEvent);
+                deliverEvent(messageMonitorEvent);
             }
         }, 2, TimeUnit.SECONDS);
 
@@ -261,19 +264,19 @@ public abstract class MockPaaSProvider extends AbstractPaaSProvider {
                 event.setDeploymentId(paaSDeploymentIdToAlienDeploymentIdMap.get(deploymentPaaSId));
                 event.setRuntimeProperties(cloned.getRuntimeProperties());
                 event.setAttributes(cloned.getAttributes());
-                toBeDeliveredEvents.add(event);
+                deliverEvent(event);
 
                 if (deployment.getSourceName().equals(BLOCKSTORAGE_APPLICATION) && cloned.getState().equalsIgnoreCase("created")) {
                     PaaSInstancePersistentResourceMonitorEvent prme = new PaaSInstancePersistentResourceMonitorEvent(nodeId, instanceId.toString(),
                             NormativeBlockStorageConstants.VOLUME_ID, UUID.randomUUID().toString());
-                    toBeDeliveredEvents.add(prme);
+                    deliverEvent(prme);
                 }
 
                 PaaSMessageMonitorEvent messageMonitorEvent = new PaaSMessageMonitorEvent();
                 messageMonitorEvent.setDate((new Date()).getTime());
                 messageMonitorEvent.setDeploymentId(paaSDeploymentIdToAlienDeploymentIdMap.get(deploymentPaaSId));
                 messageMonitorEvent.setMessage("APPLICATIONS.RUNTIME.EVENTS.MESSAGE_EVENT.INSTANCE_STATE_CHANGED");
-                toBeDeliveredEvents.add(messageMonitorEvent);
+                deliverEvent(messageMonitorEvent);
             }
         }, delay, TimeUnit.SECONDS);
     }
@@ -288,7 +291,7 @@ public abstract class MockPaaSProvider extends AbstractPaaSProvider {
                 event.setNodeTemplateId(nodeId);
                 event.setDate((new Date()).getTime());
                 event.setDeploymentId(paaSDeploymentIdToAlienDeploymentIdMap.get(deploymentPaaSId));
-                toBeDeliveredEvents.add(event);
+                deliverEvent(event);
             }
         }, delay, TimeUnit.SECONDS);
     }
@@ -450,11 +453,55 @@ public abstract class MockPaaSProvider extends AbstractPaaSProvider {
 
     @Override
     public void getEventsSince(Date date, int maxEvents, IPaaSCallback<AbstractMonitorEvent[]> eventsCallback) {
-        AbstractMonitorEvent[] events = toBeDeliveredEvents.toArray(new AbstractMonitorEvent[toBeDeliveredEvents.size()]);
-        toBeDeliveredEvents.clear();
+        AbstractMonitorEvent[] events;
+        synchronized (toBeDeliveredEvents) {
+            events = toBeDeliveredEvents.toArray(new AbstractMonitorEvent[toBeDeliveredEvents.size()]);
+            toBeDeliveredEvents.clear();
+        }
         eventsCallback.onSuccess(events);
     }
 
+    @Override
+    public void startEventStream(Date since, IPaaSCallback<AbstractMonitorEvent[]> eventsCallback) {
+        synchronized (toBeDeliveredEvents) {
+            // replay events that occurred after the cursor and have not been delivered yet.
+            List<AbstractMonitorEvent> events = new ArrayList<>();
+            for (AbstractMonitorEvent event : toBeDeliveredEvents) {
+                if (since == null || event.getDate() <= 0 || event.getDate() > since.getTime()) {
+                    events.add(event);
+                }
+            }
+            toBeDeliveredEvents.clear();
+            if (!events.isEmpty()) {
+                eventsCallback.onSuccess(events.toArray(new AbstractMonitorEvent[events.size()]));
+            }
+            eventsStreamCallback = eventsCallback;
+        }
+        log.info("Events stream opened from date {}", since);
+    }
+
+    @Override
+    public void stopEventStream() {
+        synchronized (toBeDeliveredEvents) {
+            eventsStreamCallback = null;
+        }
+        log.info("Events stream closed");
+    }
+
+    private void deliverEvent(AbstractMonitorEvent event) {
+        IPaaSCallback<AbstractMonitorEvent[]> callback;
+        synchronized (toBeDeliveredEvents) {
+            callback = eventsStreamCallback;
+            if (callback == null) {
+                // keep the event until polled or until a stream is opened.
+                toBeDeliveredEvents.add(event);
+                return;
+            }
+        }
+        // push outside of the lock as the consumer may itself be locked while opening the stream.
+        callback.onSuccess(new AbstractMonitorEvent[] { event });
+    }
+
     @Override
     protected String doExecuteOperation(NodeOperationExecRequest request) {
         List<String> allowedOperation = Arrays.asList("success", "success_param");
@@ -56,6 +56,7 @@ import alien4cloud.security.model.ApplicationRole;
 import alien4cloud.security.model.DeployerRole;
 import alien4cloud.topology.TopologyValidationResult;
 
+import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
@@ -197,24 +198,21 @@ public class ApplicationDeploymentController {
     public RestResponse<Map<String, Map<String, EnvironmentStatusDTO>>> getApplicationsStatuses(@RequestBody List<String> applicationIds) {
         Map<String, Map<String, EnvironmentStatusDTO>> statuses = Maps.newHashMap();
 
+        List<ApplicationEnvironment> authorizedEnvironments = Lists.newArrayList();
         for (String applicationId : applicationIds) {
-            Map<String, EnvironmentStatusDTO> environmentStatuses = Maps.newHashMap();
             Application application = applicationService.checkAndGetApplication(applicationId);
-            // get all environments status for the current application
             ApplicationEnvironment[] environments = applicationEnvironmentService.getByApplicationId(application.getId());
             for (ApplicationEnvironment env : environments) {
                 if (AuthorizationUtil.hasAuthorizationForEnvironment(env, ApplicationEnvironmentRole.values())) {
-                    DeploymentStatus status = DeploymentStatus.UNKNOWN;
-                    try {
-                        status = applicationEnvironmentService.getStatus(env);
-                    } catch (Exception e) {
-                        log.debug("Getting status for the environment <" + env.getId()
-                                + "> failed because the associated orchestrator seems disabled. Returned status is UNKNOWN.", e);
-                    }
-                    environmentStatuses.put(env.getId(), new EnvironmentStatusDTO(env.getName(), status));
+                    authorizedEnvironments.add(env);
                 }
             }
-            statuses.put(applicationId, environmentStatuses);
+            statuses.put(applicationId, Maps.<String, EnvironmentStatusDTO> newHashMap());
+        }
+        // get all environments status in a single pass
+        Map<String, DeploymentStatus> environmentStatuses = applicationEnvironmentService.getStatuses(authorizedEnvironments);
+        for (ApplicationEnvironment env : authorizedEnvironments) {
+            statuses.get(env.getApplicationId()).put(env.getId(), new EnvironmentStatusDTO(env.getName(), environmentStatuses.get(env.getId())));
         }
         return RestResponseBuilder.<Map<String, Map<String, EnvironmentStatusDTO>>> builder().data(statuses).build();
     }
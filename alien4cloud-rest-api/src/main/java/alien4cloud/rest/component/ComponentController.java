@@ -20,6 +20,7 @@ import org.springframework.web.bind.annotation.RestController;
 import alien4cloud.Constants;
 import alien4cloud.audit.annotation.Audit;
 import alien4cloud.component.ICSARRepositorySearchService;
+import alien4cloud.component.ToscaElementCache;
 import alien4cloud.dao.IGenericSearchDAO;
 import alien4cloud.dao.model.FacetedSearchResult;
 import alien4cloud.dao.model.GetMultipleDataResult;
@@ -50,6 +51,8 @@ public class ComponentController {
 
     @Resource
     private ICSARRepositorySearchService searchService;
+    @Resource
+    private ToscaElementCache toscaElementCache;
 
     /**
      * Get details for a component.
@@ -146,7 +149,7 @@ public class ComponentController {
             }
             component.getDefaultCapabilities().add(recommendationRequest.getCapability());
             log.info("Defining the component <" + component.getId() + "> as default for the capability <" + recommendationRequest.getCapability() + ">.");
-            dao.save(component);
+            saveComponent(component);
         }
         return RestResponseBuilder.<IndexedNodeType> builder().data(component).build();
     }
@@ -166,7 +169,7 @@ public class ComponentController {
         if (component != null && component.getDefaultCapabilities() != null) {
             component.getDefaultCapabilities().remove(recommendationRequest.getCapability());
             log.info("Undefining the component <" + component.getId() + "> as default for the capability <" + recommendationRequest.getCapability() + ">.");
-            dao.save(component);
+            saveComponent(component);
         }
         return RestResponseBuilder.<IndexedNodeType> builder().data(component).build();
     }
@@ -196,7 +199,7 @@ public class ComponentController {
                     component.getTags().remove(newTag);
                 }
                 component.getTags().add(newTag);
-                dao.save(component);
+                saveComponent(component);
             } else {
                 updateComponantTagError = RestErrorBuilder.builder(RestErrorCode.COMPONENT_INTERNALTAG_ERROR)
                         .message("Tag update operation failed. Could not update internal alien tag  <" + Constants.ALIEN_INTERNAL_TAG + ">.").build();
@@ -223,7 +226,7 @@ public class ComponentController {
                     return RestResponseBuilder.<Void> builder().error(deleteComponantTagError).build();
                 }
                 component.getTags().remove(new Tag(tagId, null));
-                dao.save(component);
+                saveComponent(component);
             } else {
                 deleteComponantTagError = RestErrorBuilder.builder(RestErrorCode.COMPONENT_INTERNALTAG_ERROR)
                         .message("Tag delete operation failed. Could not delete internal alien tag  <" + Constants.ALIEN_INTERNAL_TAG + ">.").build();
@@ -236,11 +239,17 @@ public class ComponentController {
         return RestResponseBuilder.<Void> builder().error(deleteComponantTagError).build();
     }
 
+    private void saveComponent(IndexedNodeType component) {
+        dao.save(component);
+        // cached elements are serialized copies so they must be evicted when a component is updated.
+        toscaElementCache.invalidateAll();
+    }
+
     private void removeFromDefaultCapabilities(String capability) {
         IndexedNodeType component = getDefaultNodeForCapability(capability);
         if (component != null) {
             component.getDefaultCapabilities().remove(capability);
-            dao.save(component);
+            saveComponent(component);
         }
     }
 
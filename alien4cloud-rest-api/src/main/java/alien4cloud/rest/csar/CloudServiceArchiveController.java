@@ -98,10 +98,10 @@ public class CloudServiceArchiveController {
         try {
             log.info("Serving file upload with name [" + csar.getOriginalFilename() + "]");
             csarPath = Files.createTempFile(tempDirPath, "", '.' + CsarFileRepository.CSAR_EXTENSION);
-            // save the archive in the temp directory
-            FileUploadUtil.safeTransferTo(csarPath, csar);
-            // load, parse the archive definitions and save on disk
-            ParsingResult<Csar> result = csarUploadService.upload(csarPath);
+            // save the archive in the temp directory and compute it's digest while copying
+            String csarHash = FileUploadUtil.transferToWithDigest(csarPath, csar);
+            // load, parse the archive definitions and save on disk (unless the same archive has already been imported)
+            ParsingResult<Csar> result = csarUploadService.upload(csarPath, csarHash);
             RestError error = null;
             if (ArchiveUploadService.hasError(result, ParsingErrorLevel.ERROR)) {
                 error = RestErrorBuilder.builder(RestErrorCode.CSAR_PARSING_ERROR).build();
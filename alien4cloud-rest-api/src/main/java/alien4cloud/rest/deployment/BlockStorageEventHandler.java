@@ -14,8 +14,8 @@ import org.springframework.stereotype.Component;
 import alien4cloud.application.ApplicationEnvironmentService;
 import alien4cloud.application.ApplicationVersionService;
 import alien4cloud.dao.IGenericSearchDAO;
+import alien4cloud.dao.OptimisticUpdateUtil;
 import alien4cloud.deployment.DeploymentService;
-import alien4cloud.deployment.DeploymentTopologyService;
 import alien4cloud.exception.NotFoundException;
 import alien4cloud.model.components.AbstractPropertyValue;
 import alien4cloud.model.components.ComplexPropertyValue;
@@ -51,8 +51,6 @@ public class BlockStorageEventHandler extends DeploymentEventHandler {
     private ApplicationVersionService applicationVersionService;
     @Resource
     private ApplicationEnvironmentService applicationEnvironmentService;
-    @Resource
-    private DeploymentTopologyService deploymentTopologyService;
 
     @Override
     public void eventHappened(AbstractMonitorEvent event) {
@@ -81,43 +79,49 @@ public class BlockStorageEventHandler extends DeploymentEventHandler {
         updateApplicationTopology(persistentResourceEvent, propertyValue);
     }
 
-    private void updateApplicationTopology(PaaSInstancePersistentResourceMonitorEvent persistentResourceEvent, final Object propertyValue) {
+    private void updateApplicationTopology(final PaaSInstancePersistentResourceMonitorEvent persistentResourceEvent, final Object propertyValue) {
         Deployment deployment = deploymentService.get(persistentResourceEvent.getDeploymentId());
 
         String deploymentTopologyId = DeploymentTopology.generateId(deployment.getVersionId(), deployment.getEnvironmentId());
-        DeploymentTopology deploymentTopology = deploymentTopologyService.getOrFail(deploymentTopologyId);
-
-        // The deployment topology may have changed and the node removed, in such situations there is nothing to update as the block won't be reused.
-        NodeTemplate nodeTemplate;
-        try {
-            nodeTemplate = topoServiceCore.getNodeTemplate(deploymentTopology, persistentResourceEvent.getNodeTemplateId());
-        } catch (NotFoundException e) {
-            log.warn("Fail to update persistent resource property {} for node {}", persistentResourceEvent.getPropertyName(),
-                    persistentResourceEvent.getNodeTemplateId(), e);
-            return;
-        }
-
-        AbstractPropertyValue abstractPropertyValue = nodeTemplate.getProperties().get(persistentResourceEvent.getPropertyName());
-        if (abstractPropertyValue != null && abstractPropertyValue instanceof FunctionPropertyValue) { // the value is set in the topology
-            FunctionPropertyValue function = (FunctionPropertyValue) abstractPropertyValue;
-            if (function.getFunction().equals(ToscaFunctionConstants.GET_INPUT) && propertyValue instanceof String) {
-                // the value is set in the input (deployment setup)
-                log.info("Updating deploymentsetup <{}> input properties <{}> to add a new VolumeId", deploymentTopology.getId(), function.getTemplateName());
-                log.debug("VolumeId to add: <{}>. New value is <{}>", persistentResourceEvent.getPropertyValue(), propertyValue);
-                deploymentTopology.getInputProperties().put(function.getTemplateName(), (String) propertyValue);
-            } else {
-                // this is not supported / print a warning
-                log.warn("Failed to store the id of the created block storage <{}> for deployment <{}> application <{}> environment <{}>");
-                return;
+        // the deployment topology may be updated concurrently (by users or other events), re-apply the update on the latest version in case of conflict.
+        OptimisticUpdateUtil.update(alienDAO, DeploymentTopology.class, deploymentTopologyId, new OptimisticUpdateUtil.IUpdater<DeploymentTopology>() {
+            @Override
+            public boolean update(DeploymentTopology deploymentTopology) {
+                // The deployment topology may have changed and the node removed, in such situations there is nothing to update as the block won't be
+                // reused.
+                NodeTemplate nodeTemplate;
+                try {
+                    nodeTemplate = topoServiceCore.getNodeTemplate(deploymentTopology, persistentResourceEvent.getNodeTemplateId());
+                } catch (NotFoundException e) {
+                    log.warn("Fail to update persistent resource property {} for node {}", persistentResourceEvent.getPropertyName(),
+                            persistentResourceEvent.getNodeTemplateId(), e);
+                    return false;
+                }
+
+                AbstractPropertyValue abstractPropertyValue = nodeTemplate.getProperties().get(persistentResourceEvent.getPropertyName());
+                if (abstractPropertyValue != null && abstractPropertyValue instanceof FunctionPropertyValue) { // the value is set in the topology
+                    FunctionPropertyValue function = (FunctionPropertyValue) abstractPropertyValue;
+                    if (function.getFunction().equals(ToscaFunctionConstants.GET_INPUT) && propertyValue instanceof String) {
+                        // the value is set in the input (deployment setup)
+                        log.info("Updating deploymentsetup <{}> input properties <{}> to add a new VolumeId", deploymentTopology.getId(),
+                                function.getTemplateName());
+                        log.debug("VolumeId to add: <{}>. New value is <{}>", persistentResourceEvent.getPropertyValue(), propertyValue);
+                        deploymentTopology.getInputProperties().put(function.getTemplateName(), (String) propertyValue);
+                    } else {
+                        // this is not supported / print a warning
+                        log.warn("Failed to store the id of the created block storage <{}> for deployment <{}> application <{}> environment <{}>");
+                        return false;
+                    }
+                } else {
+                    log.info("Updating deployment topology: Persistent resource property <{}> for node template <{}.{}> to add a value",
+                            persistentResourceEvent.getPropertyName(), deploymentTopology.getId(), persistentResourceEvent.getNodeTemplateId());
+                    log.debug("Value to add: <{}>. New value is <{}>", persistentResourceEvent.getPropertyValue(), propertyValue);
+                    nodeTemplate.getProperties().put(persistentResourceEvent.getPropertyName(), getPropertyValue(propertyValue));
+                }
+                deploymentTopology.setRevision(deploymentTopology.getRevision() + 1);
+                return true;
             }
-        } else {
-            log.info("Updating deployment topology: Persistent resource property <{}> for node template <{}.{}> to add a value",
-                    persistentResourceEvent.getPropertyName(), deploymentTopology.getId(), persistentResourceEvent.getNodeTemplateId());
-            log.debug("Value to add: <{}>. New value is <{}>", persistentResourceEvent.getPropertyValue(), propertyValue);
-            nodeTemplate.getProperties().put(persistentResourceEvent.getPropertyName(), getPropertyValue(propertyValue));
-        }
-        alienDAO.save(deploymentTopology);
-
+        });
     }
 
     private void updateRuntimeTopology(DeploymentTopology runtimeTopo, PaaSInstancePersistentResourceMonitorEvent persistentResourceEvent, Object propertyValue) {
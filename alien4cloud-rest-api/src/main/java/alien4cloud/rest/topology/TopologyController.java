@@ -7,6 +7,7 @@ import java.util.Map.Entry;
 
 import javax.annotation.Resource;
 import javax.inject.Inject;
+import javax.servlet.http.HttpServletRequest;
 import javax.validation.Valid;
 
 import lombok.extern.slf4j.Slf4j;
@@ -56,6 +57,8 @@ import io.swagger.annotations.ApiOperation;
 @RestController
 @RequestMapping("/rest/topologies")
 public class TopologyController {
+    /** Request parameter used by the topology edition endpoints to return only the changes performed by the operation. */
+    private static final String DELTA_PARAMETER = "delta";
 
     @Resource(name = "alien-es-dao")
     private IGenericSearchDAO alienDAO;
@@ -97,6 +100,13 @@ public class TopologyController {
     @Resource
     private WorkflowsBuilderService workflowBuilderService;
 
+    @Resource
+    private TopologyEditionSessionService topologyEditionSessionService;
+
+    /** Proxy to the current request, used to read the delta parameter. */
+    @Resource
+    private HttpServletRequest request;
+
     /**
      * Retrieve an existing {@link alien4cloud.model.topology.Topology}
      *
@@ -114,6 +124,22 @@ public class TopologyController {
         return RestResponseBuilder.<TopologyDTO> builder().data(topologyService.buildTopologyDTO(topology)).build();
     }
 
+    /**
+     * Close the edition session of a topology, pending modifications are persisted.
+     *
+     * @param topologyId The id of the topology for which to close the edition session.
+     * @return {@link RestResponse} with no data and no error if successful.
+     */
+    @ApiOperation(value = "Close the edition session of a topology.", notes = "Persists pending modifications of the topology. Application role required [ APPLICATION_MANAGER | APPLICATION_DEVOPS ]")
+    @RequestMapping(value = "/{topologyId:.+}/session", method = RequestMethod.DELETE, produces = MediaType.APPLICATION_JSON_VALUE)
+    @PreAuthorize("isAuthenticated()")
+    public RestResponse<Void> closeEditionSession(@PathVariable String topologyId) {
+        Topology topology = topologyServiceCore.getOrFail(topologyId);
+        topologyService.checkEditionAuthorizations(topology);
+        topologyEditionSessionService.close(topologyId);
+        return RestResponseBuilder.<Void> builder().build();
+    }
+
     /**
      * Retrieve an existing {@link alien4cloud.model.topology.Topology} as YAML
      *
@@ -146,6 +172,7 @@ public class TopologyController {
         Topology topology = topologyServiceCore.getOrFail(topologyId);
         topologyService.checkEditionAuthorizations(topology);
         topologyService.throwsErrorIfReleased(topology);
+        TopologySnapshot snapshot = snapshotIfDelta(topology);
 
         IndexedNodeType indexedNodeType = alienDAO.findById(IndexedNodeType.class, nodeTemplateRequest.getIndexedNodeTypeId());
         if (indexedNodeType == null) {
@@ -183,8 +210,8 @@ public class TopologyController {
 
         TopologyContext topologyContext = workflowBuilderService.buildTopologyContext(topology);
         workflowBuilderService.addNode(topologyContext, nodeTemplateRequest.getName(), nodeTemplate);
-        topologyServiceCore.save(topology);
-        return RestResponseBuilder.<TopologyDTO> builder().data(topologyService.buildTopologyDTO(topology)).build();
+        topologyServiceCore.saveEdition(topology);
+        return buildTopologyResponse(topology, snapshot);
     }
 
     /**
@@ -203,6 +230,7 @@ public class TopologyController {
         Topology topology = topologyServiceCore.getOrFail(topologyId);
         topologyService.checkEditionAuthorizations(topology);
         topologyService.throwsErrorIfReleased(topology);
+        TopologySnapshot snapshot = snapshotIfDelta(topology);
 
         Map<String, NodeTemplate> nodeTemplates = topologyServiceCore.getNodeTemplates(topology);
         NodeTemplate nodeTemplate = topologyServiceCore.getNodeTemplate(topologyId, nodeTemplateName, nodeTemplates);
@@ -217,8 +245,8 @@ public class TopologyController {
         workflowBuilderService.renameNode(topology, nodeTemplate, nodeTemplateName, newNodeTemplateName);
         log.debug("Renaming the Node template <{}> with <{}> in the topology <{}> .", nodeTemplateName, newNodeTemplateName, topologyId);
 
-        topologyServiceCore.save(topology);
-        return RestResponseBuilder.<TopologyDTO> builder().data(topologyService.buildTopologyDTO(topology)).build();
+        topologyServiceCore.saveEdition(topology);
+        return buildTopologyResponse(topology, snapshot);
     }
 
     /**
@@ -338,6 +366,7 @@ public class TopologyController {
             @PathVariable String relationshipName, @RequestBody AddRelationshipTemplateRequest relationshipTemplateRequest) {
         Topology topology = topologyServiceCore.getOrFail(topologyId);
         topologyService.checkEditionAuthorizations(topology);
+        TopologySnapshot snapshot = snapshotIfDelta(topology);
 
         IndexedRelationshipType indexedRelationshipType = alienDAO.findById(IndexedRelationshipType.class,
                 relationshipTemplateRequest.getRelationshipTemplate().getType() + ":" + relationshipTemplateRequest.getArchiveVersion());
@@ -387,9 +416,9 @@ public class TopologyController {
         relationships.put(relationshipName, relationship);
         TopologyContext topologyContext = workflowBuilderService.buildTopologyContext(topology);
         workflowBuilderService.addRelationship(topologyContext, nodeTemplateName, relationshipName);
-        topologyServiceCore.save(topology);
+        topologyServiceCore.saveEdition(topology);
         log.info("Added relationship to the topology [" + topologyId + "], node name [" + nodeTemplateName + "], relationship name [" + relationshipName + "]");
-        return RestResponseBuilder.<TopologyDTO> builder().data(topologyService.buildTopologyDTO(topology)).build();
+        return buildTopologyResponse(topology, snapshot);
     }
 
     /**
@@ -418,6 +447,7 @@ public class TopologyController {
         Topology topology = topologyServiceCore.getOrFail(topologyId);
         topologyService.checkEditionAuthorizations(topology);
         topologyService.throwsErrorIfReleased(topology);
+        TopologySnapshot snapshot = snapshotIfDelta(topology);
 
         log.debug("Removing the Node template <{}> from the topology <{}> .", nodeTemplateName, topology.getId());
 
@@ -455,9 +485,9 @@ public class TopologyController {
         updateGroupMembers(topology, template, nodeTemplateName, null);
         // update the workflows
         workflowBuilderService.removeNode(topology, nodeTemplateName, template);
-        topologyServiceCore.save(topology);
+        topologyServiceCore.saveEdition(topology);
         topologyServiceCore.updateSubstitutionType(topology);
-        return RestResponseBuilder.<TopologyDTO> builder().data(topologyService.buildTopologyDTO(topology)).build();
+        return buildTopologyResponse(topology, snapshot);
     }
 
     /**
@@ -530,7 +560,7 @@ public class TopologyController {
         } catch (ConstraintValueDoNotMatchPropertyTypeException | ConstraintViolationException e) {
             return RestConstraintValidator.fromException(e, propertyName, propertyValue);
         }
-        topologyServiceCore.save(topology);
+        topologyServiceCore.saveEdition(topology);
         return RestResponseBuilder.<ConstraintInformation> builder().build();
     }
 
@@ -576,7 +606,7 @@ public class TopologyController {
             return RestConstraintValidator.fromException(e, propertyName, propertyValue);
         }
 
-        topologyServiceCore.save(topology);
+        topologyServiceCore.saveEdition(topology);
         return RestResponseBuilder.<ConstraintInformation> builder().build();
     }
 
@@ -622,7 +652,7 @@ public class TopologyController {
             return RestConstraintValidator.fromException(e, propertyName, propertyValue);
         }
 
-        topologyServiceCore.save(topology);
+        topologyServiceCore.saveEdition(topology);
         return RestResponseBuilder.<ConstraintInformation> builder().build();
     }
 
@@ -674,6 +704,7 @@ public class TopologyController {
             @RequestBody @Valid NodeTemplateRequest nodeTemplateRequest) {
         Topology topology = topologyServiceCore.getOrFail(topologyId);
         topologyService.checkEditionAuthorizations(topology);
+        TopologySnapshot snapshot = snapshotIfDelta(topology);
 
         IndexedNodeType indexedNodeType = findIndexedNodeType(nodeTemplateRequest.getIndexedNodeTypeId());
 
@@ -705,8 +736,8 @@ public class TopologyController {
         // add the new node to the workflow
         workflowBuilderService.addNode(workflowBuilderService.buildTopologyContext(topology), nodeTemplateRequest.getName(), newNodeTemplate);
 
-        topologyServiceCore.save(topology);
-        return RestResponseBuilder.<TopologyDTO> builder().data(topologyService.buildTopologyDTO(topology)).build();
+        topologyServiceCore.saveEdition(topology);
+        return buildTopologyResponse(topology, snapshot);
     }
 
     /**
@@ -727,6 +758,7 @@ public class TopologyController {
         Topology topology = topologyServiceCore.getOrFail(topologyId);
         topologyService.checkEditionAuthorizations(topology);
         topologyService.throwsErrorIfReleased(topology);
+        TopologySnapshot snapshot = snapshotIfDelta(topology);
 
         // Get the node template's artifacts to update
         Map<String, NodeTemplate> nodeTemplates = topologyServiceCore.getNodeTemplates(topology);
@@ -749,8 +781,8 @@ public class TopologyController {
             artifact.setArtifactName(artifactFile.getOriginalFilename());
             artifact.setArtifactRef(artifactFileId);
             artifact.setArtifactRepository(ArtifactRepositoryConstants.ALIEN_ARTIFACT_REPOSITORY);
-            topologyServiceCore.save(topology);
-            return RestResponseBuilder.<TopologyDTO> builder().data(topologyService.buildTopologyDTO(topology)).build();
+            topologyServiceCore.saveEdition(topology);
+            return buildTopologyResponse(topology, snapshot);
         } finally {
             Closeables.close(artifactStream, true);
         }
@@ -766,6 +798,7 @@ public class TopologyController {
         Topology topology = topologyServiceCore.getOrFail(topologyId);
         topologyService.checkEditionAuthorizations(topology);
         topologyService.throwsErrorIfReleased(topology);
+        TopologySnapshot snapshot = snapshotIfDelta(topology);
 
         // Get the node template's artifacts to update
         Map<String, NodeTemplate> nodeTemplates = topologyServiceCore.getNodeTemplates(topology);
@@ -791,11 +824,11 @@ public class TopologyController {
             artifact.setArtifactRepository(null);
             artifact.setArtifactRef(baseArtifact.getArtifactRef());
             artifact.setArtifactName(baseArtifact.getArtifactName());
-            topologyServiceCore.save(topology);
+            topologyServiceCore.saveEdition(topology);
         } else {
             log.warn("Reset service for the artifact <" + artifactId + "> on the node template <" + nodeTemplateName + "> failed.");
         }
-        return RestResponseBuilder.<TopologyDTO> builder().data(topologyService.buildTopologyDTO(topology)).build();
+        return buildTopologyResponse(topology, snapshot);
     }
 
     /**
@@ -815,6 +848,7 @@ public class TopologyController {
         Topology topology = topologyServiceCore.getOrFail(topologyId);
         topologyService.checkEditionAuthorizations(topology);
         topologyService.throwsErrorIfReleased(topology);
+        TopologySnapshot snapshot = snapshotIfDelta(topology);
 
         // Get the artifact to update
         Map<String, DeploymentArtifact> artifacts = topology.getInputArtifacts();
@@ -835,8 +869,8 @@ public class TopologyController {
             artifact.setArtifactName(artifactFile.getOriginalFilename());
             artifact.setArtifactRef(artifactFileId);
             artifact.setArtifactRepository(ArtifactRepositoryConstants.ALIEN_ARTIFACT_REPOSITORY);
-            topologyServiceCore.save(topology);
-            return RestResponseBuilder.<TopologyDTO> builder().data(topologyService.buildTopologyDTO(topology)).build();
+            topologyServiceCore.saveEdition(topology);
+            return buildTopologyResponse(topology, snapshot);
         } finally {
             Closeables.close(artifactStream, true);
         }
@@ -893,6 +927,7 @@ public class TopologyController {
         Topology topology = topologyServiceCore.getOrFail(topologyId);
         topologyService.checkEditionAuthorizations(topology);
         topologyService.throwsErrorIfReleased(topology);
+        TopologySnapshot snapshot = snapshotIfDelta(topology);
 
         Map<String, NodeTemplate> nodeTemplates = topologyServiceCore.getNodeTemplates(topology);
 
@@ -908,8 +943,8 @@ public class TopologyController {
                     + "] of the topology [" + topologyId + "]");
         }
         workflowBuilderService.removeRelationship(topology, nodeTemplateName, relationshipName, relationshipTemplate);
-        topologyServiceCore.save(topology);
-        return RestResponseBuilder.<TopologyDTO> builder().data(topologyService.buildTopologyDTO(topology)).build();
+        topologyServiceCore.saveEdition(topology);
+        return buildTopologyResponse(topology, snapshot);
     }
 
     @ApiOperation(value = "Activate a property as an output property.", notes = "Returns a response with no errors and no data in success case. Application role required [ APPLICATION_MANAGER | ARCHITECT ]")
@@ -920,6 +955,7 @@ public class TopologyController {
         Topology topology = topologyServiceCore.getOrFail(topologyId);
         topologyService.checkEditionAuthorizations(topology);
         topologyService.throwsErrorIfReleased(topology);
+        TopologySnapshot snapshot = snapshotIfDelta(topology);
 
         Map<String, NodeTemplate> nodeTemplates = topologyServiceCore.getNodeTemplates(topology);
         NodeTemplate nodeTemplate = topologyServiceCore.getNodeTemplate(topologyId, nodeTemplateName, nodeTemplates);
@@ -930,9 +966,9 @@ public class TopologyController {
             // attributeName does not exists in the node template
             return RestResponseBuilder.<TopologyDTO> builder().error(RestErrorBuilder.builder(RestErrorCode.PROPERTY_MISSING_ERROR).build()).build();
         }
-        topologyServiceCore.save(topology);
+        topologyServiceCore.saveEdition(topology);
         topologyServiceCore.updateSubstitutionType(topology);
-        return RestResponseBuilder.<TopologyDTO> builder().data(topologyService.buildTopologyDTO(topology)).build();
+        return buildTopologyResponse(topology, snapshot);
     }
 
     /*
@@ -965,6 +1001,7 @@ public class TopologyController {
         Topology topology = topologyServiceCore.getOrFail(topologyId);
         topologyService.checkEditionAuthorizations(topology);
         topologyService.throwsErrorIfReleased(topology);
+        TopologySnapshot snapshot = snapshotIfDelta(topology);
 
         Map<String, Map<String, Set<String>>> outputCapabilityProperties = getOutputCapabilityPropertiesOrThrowException(topology, nodeTemplateName, propertyId,
                 capabilityId);
@@ -988,13 +1025,13 @@ public class TopologyController {
             outputCapabilityProperties.get(nodeTemplateName).get(capabilityId).add(propertyId);
         } else {
             // the property is already set as an output property
-            return RestResponseBuilder.<TopologyDTO> builder().data(topologyService.buildTopologyDTO(topology)).build();
+            return buildTopologyResponse(topology, snapshot);
         }
 
         topology.setOutputCapabilityProperties(outputCapabilityProperties);
-        topologyServiceCore.save(topology);
+        topologyServiceCore.saveEdition(topology);
         topologyServiceCore.updateSubstitutionType(topology);
-        return RestResponseBuilder.<TopologyDTO> builder().data(topologyService.buildTopologyDTO(topology)).build();
+        return buildTopologyResponse(topology, snapshot);
     }
 
     @ApiOperation(value = "Remove a capability property from the output property list.", notes = "Returns a response with no errors and no data in success case. Application role required [ APPLICATION_MANAGER | ARCHITECT ]")
@@ -1005,6 +1042,7 @@ public class TopologyController {
         Topology topology = topologyServiceCore.getOrFail(topologyId);
         topologyService.checkEditionAuthorizations(topology);
         topologyService.throwsErrorIfReleased(topology);
+        TopologySnapshot snapshot = snapshotIfDelta(topology);
 
         Map<String, Map<String, Set<String>>> outputCapabilityProperties = getOutputCapabilityPropertiesOrThrowException(topology, nodeTemplateName, propertyId,
                 capabilityId);
@@ -1017,9 +1055,9 @@ public class TopologyController {
         outputCapabilityProperties.get(nodeTemplateName).get(capabilityId).remove(propertyId);
 
         topology.setOutputCapabilityProperties(outputCapabilityProperties);
-        topologyServiceCore.save(topology);
+        topologyServiceCore.saveEdition(topology);
         topologyServiceCore.updateSubstitutionType(topology);
-        return RestResponseBuilder.<TopologyDTO> builder().data(topologyService.buildTopologyDTO(topology)).build();
+        return buildTopologyResponse(topology, snapshot);
     }
 
     @ApiOperation(value = "Activate an attribute as an output attribute.", notes = "Returns a response with no errors and no data in success case. Application role required [ APPLICATION_MANAGER | ARCHITECT ]")
@@ -1030,6 +1068,7 @@ public class TopologyController {
         Topology topology = topologyServiceCore.getOrFail(topologyId);
         topologyService.checkEditionAuthorizations(topology);
         topologyService.throwsErrorIfReleased(topology);
+        TopologySnapshot snapshot = snapshotIfDelta(topology);
 
         Map<String, NodeTemplate> nodeTemplates = topologyServiceCore.getNodeTemplates(topology);
         NodeTemplate nodeTemplate = topologyServiceCore.getNodeTemplate(topologyId, nodeTemplateName, nodeTemplates);
@@ -1040,9 +1079,9 @@ public class TopologyController {
             // attributeName does not exists in the node template
             return RestResponseBuilder.<TopologyDTO> builder().error(RestErrorBuilder.builder(RestErrorCode.PROPERTY_MISSING_ERROR).build()).build();
         }
-        topologyServiceCore.save(topology);
+        topologyServiceCore.saveEdition(topology);
         topologyServiceCore.updateSubstitutionType(topology);
-        return RestResponseBuilder.<TopologyDTO> builder().data(topologyService.buildTopologyDTO(topology)).build();
+        return buildTopologyResponse(topology, snapshot);
     }
 
     @ApiOperation(value = "Remove a property from the output property list.", notes = "Returns a response with no errors and no data in success case. Application role required [ APPLICATION_MANAGER | ARCHITECT ]")
@@ -1053,11 +1092,12 @@ public class TopologyController {
         Topology topology = topologyServiceCore.getOrFail(topologyId);
         topologyService.checkEditionAuthorizations(topology);
         topologyService.throwsErrorIfReleased(topology);
+        TopologySnapshot snapshot = snapshotIfDelta(topology);
 
         topology.setOutputProperties(removeValueFromMap(topology.getOutputProperties(), nodeTemplateName, propertyName));
-        topologyServiceCore.save(topology);
+        topologyServiceCore.saveEdition(topology);
         topologyServiceCore.updateSubstitutionType(topology);
-        return RestResponseBuilder.<TopologyDTO> builder().data(topologyService.buildTopologyDTO(topology)).build();
+        return buildTopologyResponse(topology, snapshot);
     }
 
     @ApiOperation(value = "Remove an attribute from the output attributes list.", notes = "Returns a response with no errors and no data in success case. Application role required [ APPLICATION_MANAGER | ARCHITECT ]")
@@ -1068,11 +1108,12 @@ public class TopologyController {
         Topology topology = topologyServiceCore.getOrFail(topologyId);
         topologyService.checkEditionAuthorizations(topology);
         topologyService.throwsErrorIfReleased(topology);
+        TopologySnapshot snapshot = snapshotIfDelta(topology);
 
         topology.setOutputAttributes(removeValueFromMap(topology.getOutputAttributes(), nodeTemplateName, attributeName));
-        topologyServiceCore.save(topology);
+        topologyServiceCore.saveEdition(topology);
         topologyServiceCore.updateSubstitutionType(topology);
-        return RestResponseBuilder.<TopologyDTO> builder().data(topologyService.buildTopologyDTO(topology)).build();
+        return buildTopologyResponse(topology, snapshot);
     }
 
     @ApiOperation(value = "Associate an artifact to an input artifact (create it if it doesn't exist).", notes = "Returns a response with no errors and no data in success case. Application role required [ APPLICATION_MANAGER | ARCHITECT ]")
@@ -1083,6 +1124,7 @@ public class TopologyController {
         Topology topology = topologyServiceCore.getOrFail(topologyId);
         topologyService.checkEditionAuthorizations(topology);
         topologyService.throwsErrorIfReleased(topology);
+        TopologySnapshot snapshot = snapshotIfDelta(topology);
 
         Map<String, NodeTemplate> nodeTemplates = topologyServiceCore.getNodeTemplates(topology);
         NodeTemplate nodeTemplate = topologyServiceCore.getNodeTemplate(topologyId, nodeTemplateName, nodeTemplates);
@@ -1109,8 +1151,8 @@ public class TopologyController {
             // attributeName does not exists in the node template
             return RestResponseBuilder.<TopologyDTO> builder().error(RestErrorBuilder.builder(RestErrorCode.PROPERTY_MISSING_ERROR).build()).build();
         }
-        topologyServiceCore.save(topology);
-        return RestResponseBuilder.<TopologyDTO> builder().data(topologyService.buildTopologyDTO(topology)).build();
+        topologyServiceCore.saveEdition(topology);
+        return buildTopologyResponse(topology, snapshot);
     }
 
     @ApiOperation(value = "Un-associate an artifact from the input artifact.", notes = "Returns a response with no errors and no data in success case. Application role required [ APPLICATION_MANAGER | ARCHITECT ]")
@@ -1121,14 +1163,15 @@ public class TopologyController {
         Topology topology = topologyServiceCore.getOrFail(topologyId);
         topologyService.checkEditionAuthorizations(topology);
         topologyService.throwsErrorIfReleased(topology);
+        TopologySnapshot snapshot = snapshotIfDelta(topology);
 
         Map<String, NodeTemplate> nodeTemplates = topologyServiceCore.getNodeTemplates(topology);
         NodeTemplate nodeTemplate = topologyServiceCore.getNodeTemplate(topologyId, nodeTemplateName, nodeTemplates);
         if (nodeTemplate.getArtifacts() != null && nodeTemplate.getArtifacts().containsKey(artifactId)) {
             InputArtifactUtil.unsetInputArtifact(nodeTemplate.getArtifacts().get(artifactId));
         }
-        topologyServiceCore.save(topology);
-        return RestResponseBuilder.<TopologyDTO> builder().data(topologyService.buildTopologyDTO(topology)).build();
+        topologyServiceCore.saveEdition(topology);
+        return buildTopologyResponse(topology, snapshot);
     }
 
     @ApiOperation(value = "Rename input artifact id.", notes = "Returns a response with no errors and no data in success case. Application role required [ APPLICATION_MANAGER | ARCHITECT ]")
@@ -1139,6 +1182,7 @@ public class TopologyController {
         Topology topology = topologyServiceCore.getOrFail(topologyId);
         topologyService.checkEditionAuthorizations(topology);
         topologyService.throwsErrorIfReleased(topology);
+        TopologySnapshot snapshot = snapshotIfDelta(topology);
 
         if (topology.getInputArtifacts().containsKey(newId)) {
             // TODO: throw an exception
@@ -1158,8 +1202,8 @@ public class TopologyController {
 
         }
 
-        topologyServiceCore.save(topology);
-        return RestResponseBuilder.<TopologyDTO> builder().data(topologyService.buildTopologyDTO(topology)).build();
+        topologyServiceCore.saveEdition(topology);
+        return buildTopologyResponse(topology, snapshot);
     }
 
     @ApiOperation(value = "Un-associate an artifact from the input artifact.", notes = "Returns a response with no errors and no data in success case. Application role required [ APPLICATION_MANAGER | ARCHITECT ]")
@@ -1169,6 +1213,7 @@ public class TopologyController {
         Topology topology = topologyServiceCore.getOrFail(topologyId);
         topologyService.checkEditionAuthorizations(topology);
         topologyService.throwsErrorIfReleased(topology);
+        TopologySnapshot snapshot = snapshotIfDelta(topology);
 
         DeploymentArtifact inputArtifact = topology.getInputArtifacts().remove(inputArtifactId);
         if (inputArtifact != null) {
@@ -1186,8 +1231,8 @@ public class TopologyController {
 
         }
 
-        topologyServiceCore.save(topology);
-        return RestResponseBuilder.<TopologyDTO> builder().data(topologyService.buildTopologyDTO(topology)).build();
+        topologyServiceCore.saveEdition(topology);
+        return buildTopologyResponse(topology, snapshot);
     }
 
     @ApiOperation(value = "Get the list of input artifacts candidates for this node's artifact.", notes = "Returns a response with no errors and no data in success case. Application role required [ APPLICATION_MANAGER | ARCHITECT ]")
@@ -1237,6 +1282,7 @@ public class TopologyController {
         Topology topology = topologyServiceCore.getOrFail(topologyId);
         topologyService.checkEditionAuthorizations(topology);
         topologyService.throwsErrorIfReleased(topology);
+        TopologySnapshot snapshot = snapshotIfDelta(topology);
 
         Map<String, NodeTemplate> nodeTemplates = topologyServiceCore.getNodeTemplates(topology);
         NodeTemplate nodeTemplate = topologyServiceCore.getNodeTemplate(topologyId, nodeTemplateName, nodeTemplates);
@@ -1254,8 +1300,8 @@ public class TopologyController {
         log.debug("Renaiming the relationship <{}> with <{}> in the node template <{}> of topology <{}> .", relationshipName, newRelationshipName,
                 nodeTemplateName, topologyId);
 
-        topologyServiceCore.save(topology);
-        return RestResponseBuilder.<TopologyDTO> builder().data(topologyService.buildTopologyDTO(topology)).build();
+        topologyServiceCore.saveEdition(topology);
+        return buildTopologyResponse(topology, snapshot);
     }
 
     @ApiOperation(value = "", notes = "Returns a response with no errors in case of success. Application role required [ APPLICATION_MANAGER | APPLICATION_DEVOPS ]")
@@ -1266,9 +1312,10 @@ public class TopologyController {
         Topology topology = topologyServiceCore.getOrFail(topologyId);
         topologyService.checkEditionAuthorizations(topology);
         topologyService.throwsErrorIfReleased(topology);
+        TopologySnapshot snapshot = snapshotIfDelta(topology);
 
         if (groupName.equals(newGroupName)) {
-            return RestResponseBuilder.<TopologyDTO> builder().data(topologyService.buildTopologyDTO(topology)).build();
+            return buildTopologyResponse(topology, snapshot);
         }
 
         if (topology.getGroups().containsKey(newGroupName)) {
@@ -1289,8 +1336,8 @@ public class TopologyController {
             topology.getGroups().put(newGroupName, nodeGroup);
         }
 
-        topologyServiceCore.save(topology);
-        return RestResponseBuilder.<TopologyDTO> builder().data(topologyService.buildTopologyDTO(topology)).build();
+        topologyServiceCore.saveEdition(topology);
+        return buildTopologyResponse(topology, snapshot);
     }
 
     @ApiOperation(value = "", notes = "Returns a response with no errors in case of success. Application role required [ APPLICATION_MANAGER | APPLICATION_DEVOPS ]")
@@ -1300,6 +1347,7 @@ public class TopologyController {
         Topology topology = topologyServiceCore.getOrFail(topologyId);
         topologyService.checkEditionAuthorizations(topology);
         topologyService.throwsErrorIfReleased(topology);
+        TopologySnapshot snapshot = snapshotIfDelta(topology);
 
         NodeGroup nodeGroup = topology.getGroups().remove(groupName);
         if (nodeGroup != null) {
@@ -1311,8 +1359,8 @@ public class TopologyController {
             }
         }
 
-        topologyServiceCore.save(topology);
-        return RestResponseBuilder.<TopologyDTO> builder().data(topologyService.buildTopologyDTO(topology)).build();
+        topologyServiceCore.saveEdition(topology);
+        return buildTopologyResponse(topology, snapshot);
     }
 
     @ApiOperation(value = "Add a node to a node group. If the group doesn't exists, it's created.", notes = "Returns a response with no errors in case of success. Application role required [ APPLICATION_MANAGER | APPLICATION_DEVOPS ]")
@@ -1322,6 +1370,7 @@ public class TopologyController {
         Topology topology = topologyServiceCore.getOrFail(topologyId);
         topologyService.checkEditionAuthorizations(topology);
         topologyService.throwsErrorIfReleased(topology);
+        TopologySnapshot snapshot = snapshotIfDelta(topology);
         Map<String, NodeGroup> groups = topology.getGroups();
         if (groups == null) {
             groups = Maps.newHashMap();
@@ -1354,8 +1403,8 @@ public class TopologyController {
         }
         nodeTemplate.getGroups().add(groupName);
         nodeGroup.getMembers().add(nodeName);
-        topologyServiceCore.save(topology);
-        return RestResponseBuilder.<TopologyDTO> builder().data(topologyService.buildTopologyDTO(topology)).build();
+        topologyServiceCore.saveEdition(topology);
+        return buildTopologyResponse(topology, snapshot);
     }
 
     @ApiOperation(value = "Remove a node from a node group.", notes = "Returns a response with no errors in case of success. Application role required [ APPLICATION_MANAGER | APPLICATION_DEVOPS ]")
@@ -1365,6 +1414,7 @@ public class TopologyController {
         Topology topology = topologyServiceCore.getOrFail(topologyId);
         topologyService.checkEditionAuthorizations(topology);
         topologyService.throwsErrorIfReleased(topology);
+        TopologySnapshot snapshot = snapshotIfDelta(topology);
 
         NodeGroup nodeGroup = topology.getGroups().get(groupName);
         if (nodeGroup != null && nodeGroup.getMembers() != null) {
@@ -1376,8 +1426,31 @@ public class TopologyController {
             nodeTemplate.getGroups().remove(groupName);
         }
 
-        topologyServiceCore.save(topology);
-        return RestResponseBuilder.<TopologyDTO> builder().data(topologyService.buildTopologyDTO(topology)).build();
+        topologyServiceCore.saveEdition(topology);
+        return buildTopologyResponse(topology, snapshot);
+    }
+
+    /**
+     * Take a snapshot of the topology before an operation if the client requested a delta response (using the delta=true request parameter).
+     *
+     * @param topology The topology before the operation.
+     * @return The snapshot of the topology or null if the full topology must be returned.
+     */
+    private TopologySnapshot snapshotIfDelta(Topology topology) {
+        return Boolean.parseBoolean(request.getParameter(DELTA_PARAMETER)) ? topologyService.snapshot(topology) : null;
+    }
+
+    /**
+     * Build the response of an operation on a topology, either the full {@link TopologyDTO} or, if a snapshot has been taken before the operation, a delta
+     * that contains only the changes.
+     *
+     * @param topology The topology after the operation.
+     * @param snapshot The snapshot taken before the operation by {@link #snapshotIfDelta(Topology)} or null to return the full topology.
+     * @return The rest response that contains the {@link TopologyDTO}.
+     */
+    private RestResponse<TopologyDTO> buildTopologyResponse(Topology topology, TopologySnapshot snapshot) {
+        TopologyDTO topologyDTO = snapshot == null ? topologyService.buildTopologyDTO(topology) : topologyService.buildTopologyDelta(topology, snapshot);
+        return RestResponseBuilder.<TopologyDTO> builder().data(topologyDTO).build();
     }
 
     private Map<String, Set<String>> addToMap(Map<String, Set<String>> map, String key, String value) {
@@ -5,6 +5,7 @@ import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.file.Path;
 
 import org.apache.commons.io.IOUtils;
@@ -34,6 +35,20 @@ public final class FileUploadUtil {
         }
     }
 
+    /**
+     * Copy the uploaded file to the target path and compute the SHA-256 digest of it's content while copying.
+     *
+     * @param targetPath The path in which to save the uploaded file.
+     * @param multipartFile The uploaded file.
+     * @return The hexadecimal representation of the digest of the uploaded file.
+     * @throws IOException In case we fail to copy the file.
+     */
+    public static String transferToWithDigest(Path targetPath, MultipartFile multipartFile) throws IOException {
+        try (InputStream in = multipartFile.getInputStream(); OutputStream out = new BufferedOutputStream(new FileOutputStream(targetPath.toFile()))) {
+            return FileUtil.copyWithSha256(in, out);
+        }
+    }
+
     private static void copyMultiPart(Path targetPath, MultipartFile multipartFile) throws IOException {
         InputStream in = null;
         BufferedOutputStream out = null;
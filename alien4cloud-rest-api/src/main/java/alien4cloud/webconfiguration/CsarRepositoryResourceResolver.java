@@ -0,0 +1,166 @@
+package alien4cloud.webconfiguration;
+
+import java.io.File;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URL;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.core.io.AbstractResource;
+import org.springframework.core.io.Resource;
+import org.springframework.web.servlet.resource.PathResourceResolver;
+
+import alien4cloud.component.repository.ICsarRepositry;
+import alien4cloud.component.repository.exception.CSARVersionNotFoundException;
+
+/**
+ * Resolve the static content of the archives of the repository, archives that are expanded lazily are expanded before their content is served.
+ *
+ * Expanded archives are pinned in the repository while their content is resolved and while a resource stream is open, so they cannot be deleted by the disk
+ * budget eviction in the middle of a request.
+ */
+@Slf4j
+public class CsarRepositoryResourceResolver extends PathResourceResolver {
+    private final ICsarRepositry csarRepository;
+
+    public CsarRepositoryResourceResolver(ICsarRepositry csarRepository) {
+        this.csarRepository = csarRepository;
+    }
+
+    @Override
+    protected Resource getResource(String resourcePath, Resource location) throws IOException {
+        // resource path is name/version/content.json or name/version/expanded/...
+        String[] pathElements = resourcePath.split("/", 4);
+        if (pathElements.length >= 3 && !pathElements[0].contains("..") && !pathElements[1].contains("..")) {
+            try {
+                if (pathElements.length == 3 && "content.json".equals(pathElements[2])) {
+                    csarRepository.getCSARContent(pathElements[0], pathElements[1]);
+                } else if (pathElements.length == 4 && "expanded".equals(pathElements[2])) {
+                    return getExpandedResource(pathElements[0], pathElements[1], resourcePath, location);
+                }
+            } catch (CSARVersionNotFoundException e) {
+                log.debug("No archive found for static resource <{}>.", resourcePath);
+            }
+        }
+        return super.getResource(resourcePath, location);
+    }
+
+    private Resource getExpandedResource(String name, String version, String resourcePath, Resource location) throws IOException,
+            CSARVersionNotFoundException {
+        csarRepository.pinExpandedCSAR(name, version);
+        try {
+            Resource resource = super.getResource(resourcePath, location);
+            return resource == null ? null : new PinnedResource(resource, name, version);
+        } finally {
+            csarRepository.unpinExpandedCSAR(name, version);
+        }
+    }
+
+    /**
+     * Resource of an expanded archive that pins the archive while its content is read.
+     */
+    private class PinnedResource extends AbstractResource {
+        private final Resource resource;
+        private final String name;
+        private final String version;
+
+        private PinnedResource(Resource resource, String name, String version) {
+            this.resource = resource;
+            this.name = name;
+            this.version = version;
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            try {
+                // the archive is expanded again if it has been evicted since the resource was resolved.
+                csarRepository.pinExpandedCSAR(name, version);
+            } catch (CSARVersionNotFoundException e) {
+                throw new IOException("Archive <" + name + ":" + version + "> has been removed from the repository.", e);
+            }
+            try {
+                return new FilterInputStream(resource.getInputStream()) {
+                    private boolean closed = false;
+
+                    @Override
+                    public void close() throws IOException {
+                        try {
+                            super.close();
+                        } finally {
+                            if (!closed) {
+                                closed = true;
+                                csarRepository.unpinExpandedCSAR(name, version);
+                            }
+                        }
+                    }
+                };
+            } catch (IOException | RuntimeException e) {
+                csarRepository.unpinExpandedCSAR(name, version);
+                throw e;
+            }
+        }
+
+        @Override
+        public boolean exists() {
+            return resource.exists();
+        }
+
+        @Override
+        public boolean isReadable() {
+            return resource.isReadable();
+        }
+
+        @Override
+        public URL getURL() throws IOException {
+            return resource.getURL();
+        }
+
+        @Override
+        public URI getURI() throws IOException {
+            return resource.getURI();
+        }
+
+        @Override
+        public File getFile() throws IOException {
+            return resource.getFile();
+        }
+
+        @Override
+        public long contentLength() throws IOException {
+            return resource.contentLength();
+        }
+
+        @Override
+        public long lastModified() throws IOException {
+            return resource.lastModified();
+        }
+
+        @Override
+        public Resource createRelative(String relativePath) throws IOException {
+            return resource.createRelative(relativePath);
+        }
+
+        @Override
+        public String getFilename() {
+            return resource.getFilename();
+        }
+
+        @Override
+        public String getDescription() {
+            return resource.getDescription();
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof PinnedResource && resource.equals(((PinnedResource) obj).resource);
+        }
+
+        @Override
+        public int hashCode() {
+            return resource.hashCode();
+        }
+    }
+}
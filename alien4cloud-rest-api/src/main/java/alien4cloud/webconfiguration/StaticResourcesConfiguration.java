@@ -5,6 +5,9 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 
+import javax.inject.Inject;
+
+import alien4cloud.component.repository.ICsarRepositry;
 import alien4cloud.exception.InitializationException;
 import lombok.extern.slf4j.Slf4j;
 
@@ -20,6 +23,8 @@ public class StaticResourcesConfiguration extends WebMvcConfigurerAdapter {
     private String toscaRepo;
     @Value("${directories.alien}/work/plugins/ui/")
     private String pluginsUi;
+    @Inject
+    private ICsarRepositry csarRepository;
 
     public final static String PLUGIN_STATIC_ENDPOINT = "/static/plugins/";
 
@@ -31,7 +36,8 @@ public class StaticResourcesConfiguration extends WebMvcConfigurerAdapter {
         String absPluginUi = prefix.concat(safeGetRealPath(pluginsUi)).concat("/");
         log.info("Serving {} as tosca repo content.", absToscaRepo);
         log.info("Serving {} as plugin ui content.", absPluginUi);
-        registry.addResourceHandler("/static/tosca/**").addResourceLocations(absToscaRepo);
+        registry.addResourceHandler("/static/tosca/**").addResourceLocations(absToscaRepo).resourceChain(false)
+                .addResolver(new CsarRepositoryResourceResolver(csarRepository));
         registry.addResourceHandler(PLUGIN_STATIC_ENDPOINT + "**").addResourceLocations(absPluginUi);
     }
 